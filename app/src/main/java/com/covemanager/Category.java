@@ -1,14 +1,26 @@
 package com.covemanager;
 
+import com.covemanager.core.FileCategory;
+
 public class Category {
     private String name;
     private int icon;
     private int color;
+    private FileCategory fileCategory;
+    private String summary;
 
     public Category(String name, int icon, int color) {
+        this(name, icon, color, null);
+    }
+
+    /**
+     * @param fileCategory Indexed file type shown by this category, or null for a plain folder
+     */
+    public Category(String name, int icon, int color, FileCategory fileCategory) {
         this.name = name;
         this.icon = icon;
         this.color = color;
+        this.fileCategory = fileCategory;
     }
 
     public String getName() {
@@ -22,4 +34,19 @@ public class Category {
     public int getColor() {
         return color;
     }
-}
\ No newline at end of file
+
+    public FileCategory getFileCategory() {
+        return fileCategory;
+    }
+
+    /**
+     * Get the count and size line shown under the name, or null if not known yet
+     */
+    public String getSummary() {
+        return summary;
+    }
+
+    public void setSummary(String summary) {
+        this.summary = summary;
+    }
+}
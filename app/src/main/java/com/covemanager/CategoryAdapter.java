@@ -53,6 +53,13 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Catego
 
         public void bind(Category category) {
     binding.tvCategoryName.setText(category.getName());
+    // Count and size line, filled in once the category index has numbers
+    if (category.getSummary() != null) {
+        binding.tvCategorySummary.setText(category.getSummary());
+        binding.tvCategorySummary.setVisibility(View.VISIBLE);
+    } else {
+        binding.tvCategorySummary.setVisibility(View.GONE);
+    }
     // Set the icon on the foreground ImageView
     binding.ivCategoryIcon.setImageResource(category.getIcon());
     // Set the background color on the background ShapeableImageView
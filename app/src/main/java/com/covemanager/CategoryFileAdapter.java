@@ -0,0 +1,79 @@
+package com.covemanager;
+
+import android.text.format.Formatter;
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import com.covemanager.core.CategoryIndex;
+import com.covemanager.databinding.ItemSearchResultBinding;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shows the files of one category, one page at a time
+ */
+public class CategoryFileAdapter extends RecyclerView.Adapter<CategoryFileAdapter.EntryViewHolder> {
+    private final List<CategoryIndex.Entry> entries = new ArrayList<>();
+    private final OnEntryClickListener listener;
+
+    public interface OnEntryClickListener {
+        void onEntryClick(CategoryIndex.Entry entry);
+    }
+
+    public CategoryFileAdapter(OnEntryClickListener listener) {
+        this.listener = listener;
+    }
+
+    public void addPage(List<CategoryIndex.Entry> page) {
+        int start = entries.size();
+        entries.addAll(page);
+        notifyItemRangeInserted(start, page.size());
+    }
+
+    public void clear() {
+        int count = entries.size();
+        if (count > 0) {
+            entries.clear();
+            notifyItemRangeRemoved(0, count);
+        }
+    }
+
+    @NonNull
+    @Override
+    public EntryViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        ItemSearchResultBinding binding = ItemSearchResultBinding.inflate(
+                LayoutInflater.from(parent.getContext()), parent, false);
+        return new EntryViewHolder(binding);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull EntryViewHolder holder, int position) {
+        holder.bind(entries.get(position));
+    }
+
+    @Override
+    public int getItemCount() {
+        return entries.size();
+    }
+
+    class EntryViewHolder extends RecyclerView.ViewHolder {
+        private ItemSearchResultBinding binding;
+
+        public EntryViewHolder(ItemSearchResultBinding binding) {
+            super(binding.getRoot());
+            this.binding = binding;
+        }
+
+        public void bind(CategoryIndex.Entry entry) {
+            String path = entry.getPath();
+            int separator = path.lastIndexOf(File.separatorChar);
+            binding.tvResultName.setText(path.substring(separator + 1));
+            binding.tvResultPath.setText(
+                    Formatter.formatShortFileSize(binding.getRoot().getContext(), entry.getSize()) +
+                    " • " + (separator > 0 ? path.substring(0, separator) : File.separator));
+            binding.getRoot().setOnClickListener(v -> listener.onEntryClick(entry));
+        }
+    }
+}
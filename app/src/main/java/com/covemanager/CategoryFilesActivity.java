@@ -0,0 +1,184 @@
+package com.covemanager;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Bundle;
+import android.text.format.Formatter;
+import android.view.Menu;
+import android.view.MenuItem;
+import com.covemanager.core.CategoryIndex;
+import com.covemanager.core.FileCategory;
+import com.covemanager.databinding.ActivityCategoryFilesBinding;
+import java.io.File;
+import java.util.List;
+
+/**
+ * Lists every file of one category across all storage, paged and sorted
+ */
+public class CategoryFilesActivity extends AppCompatActivity implements CategoryIndexManager.Listener,
+        CategoryFileAdapter.OnEntryClickListener {
+    private static final String EXTRA_CATEGORY = "category";
+    private static final String EXTRA_TITLE = "title";
+    private static final int PAGE_SIZE = 100;
+    // Start loading the next page when this many rows are left below the last visible one
+    private static final int PREFETCH_DISTANCE = 30;
+    private static final int MENU_SORT_NAME = 1;
+    private static final int MENU_SORT_SIZE = 2;
+    private static final int MENU_SORT_DATE = 3;
+
+    private ActivityCategoryFilesBinding binding;
+    private CategoryIndexManager categoryIndex;
+    private CategoryFileAdapter fileAdapter;
+    private FileCategory category;
+    private CategoryIndex.SortOrder sortOrder = CategoryIndex.SortOrder.DATE;
+    private int loadedCount = 0;
+    // Pages continue after this entry, so files indexed while scrolling are neither skipped nor repeated
+    private CategoryIndex.Entry lastLoaded = null;
+    private boolean loading = false;
+    private boolean endReached = false;
+    // Bumped on every reload so pages requested for an older order are dropped
+    private int loadGeneration = 0;
+
+    public static void start(Context context, FileCategory category, String title) {
+        Intent intent = new Intent(context, CategoryFilesActivity.class);
+        intent.putExtra(EXTRA_CATEGORY, category.name());
+        intent.putExtra(EXTRA_TITLE, title);
+        context.startActivity(intent);
+    }
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        // Inflate and get instance of binding
+        binding = ActivityCategoryFilesBinding.inflate(getLayoutInflater());
+        setContentView(binding.getRoot());
+
+        category = FileCategory.valueOf(getIntent().getStringExtra(EXTRA_CATEGORY));
+
+        // Set up toolbar
+        setSupportActionBar(binding.toolbarCategoryFiles);
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+            getSupportActionBar().setTitle(getIntent().getStringExtra(EXTRA_TITLE));
+        }
+
+        fileAdapter = new CategoryFileAdapter(this);
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        binding.rvCategoryFiles.setLayoutManager(layoutManager);
+        binding.rvCategoryFiles.setAdapter(fileAdapter);
+        binding.rvCategoryFiles.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= loadedCount - PREFETCH_DISTANCE) {
+                    loadNextPage();
+                }
+            }
+        });
+
+        categoryIndex = CategoryIndexManager.getInstance();
+        categoryIndex.addListener(this);
+        categoryIndex.ensureIndexed(this);
+        reload();
+    }
+
+    @Override
+    public void onCategoriesChanged() {
+        // Counts change as the scan progresses; only refresh rows while the list is short
+        updateTotals();
+        if (loadedCount < PAGE_SIZE) {
+            reload();
+        } else if (endReached) {
+            // Files indexed since the last page may sort after it
+            endReached = false;
+            loadNextPage();
+        }
+    }
+
+    private void reload() {
+        loadGeneration++;
+        loadedCount = 0;
+        lastLoaded = null;
+        loading = false;
+        endReached = false;
+        fileAdapter.clear();
+        updateTotals();
+        loadNextPage();
+    }
+
+    private void loadNextPage() {
+        if (loading || endReached) {
+            return;
+        }
+        loading = true;
+        int generation = loadGeneration;
+        categoryIndex.loadPage(category, sortOrder, lastLoaded, PAGE_SIZE,
+                page -> onPageLoaded(generation, page));
+    }
+
+    private void onPageLoaded(int generation, List<CategoryIndex.Entry> page) {
+        if (binding == null || generation != loadGeneration) {
+            return;
+        }
+        loading = false;
+        endReached = page.size() < PAGE_SIZE;
+        loadedCount += page.size();
+        if (!page.isEmpty()) {
+            lastLoaded = page.get(page.size() - 1);
+        }
+        fileAdapter.addPage(page);
+    }
+
+    private void updateTotals() {
+        int count = categoryIndex.getCount(category);
+        long bytes = categoryIndex.getTotalBytes(category);
+        binding.tvCategoryTotals.setText(count + " files • " + Formatter.formatShortFileSize(this, bytes));
+    }
+
+    @Override
+    public void onEntryClick(CategoryIndex.Entry entry) {
+        File parent = new File(entry.getPath()).getParentFile();
+        if (parent == null) {
+            return;
+        }
+        Intent intent = new Intent(this, FileBrowserActivity.class);
+        intent.putExtra("path", parent.getAbsolutePath());
+        startActivity(intent);
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        menu.add(0, MENU_SORT_NAME, 0, "Sort by name");
+        menu.add(0, MENU_SORT_SIZE, 0, "Sort by size");
+        menu.add(0, MENU_SORT_DATE, 0, "Sort by date");
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        int itemId = item.getItemId();
+        if (itemId == android.R.id.home) {
+            finish();
+            return true;
+        } else if (itemId == MENU_SORT_NAME || itemId == MENU_SORT_SIZE || itemId == MENU_SORT_DATE) {
+            sortOrder = itemId == MENU_SORT_NAME ? CategoryIndex.SortOrder.NAME
+                    : itemId == MENU_SORT_SIZE ? CategoryIndex.SortOrder.SIZE
+                    : CategoryIndex.SortOrder.DATE;
+            reload();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        categoryIndex.removeListener(this);
+        this.binding = null;
+    }
+}
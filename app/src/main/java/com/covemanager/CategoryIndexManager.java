@@ -0,0 +1,226 @@
+package com.covemanager;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Environment;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.MediaStore;
+import com.covemanager.core.CategoryIndex;
+import com.covemanager.core.CrawlEntry;
+import com.covemanager.core.FileCategory;
+import com.covemanager.core.FileCrawler;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Owns the app-wide category index behind the home screen category grid.
+ * MediaStore is queried first so images, videos and audio show up within moments;
+ * a full storage scan then adds documents and APKs and reconciles everything else.
+ * Afterwards the index is updated from file operations and directory change events.
+ */
+public class CategoryIndexManager {
+    private static final String TAG = "CategoryIndexManager";
+    private static CategoryIndexManager instance;
+
+    /**
+     * Notified on the main thread when category contents change
+     */
+    public interface Listener {
+        void onCategoriesChanged();
+    }
+
+    /**
+     * Receives a loaded page on the main thread
+     */
+    public interface PageCallback {
+        void onPageLoaded(List<CategoryIndex.Entry> entries);
+    }
+
+    private final CategoryIndex index = new CategoryIndex();
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Listener> listeners = new ArrayList<>();
+    private boolean started = false;
+    private volatile boolean scanComplete = false;
+    private boolean notifyPosted = false;
+
+    private CategoryIndexManager() {
+    }
+
+    public static synchronized CategoryIndexManager getInstance() {
+        if (instance == null) {
+            instance = new CategoryIndexManager();
+        }
+        return instance;
+    }
+
+    /**
+     * Build the index once per process, as soon as storage access is granted. Must be called
+     * on the main thread.
+     */
+    public void ensureIndexed(Context context) {
+        // A scan without access would find nothing and never be repeated
+        if (started || !hasStorageAccess()) {
+            return;
+        }
+        started = true;
+        Context appContext = context.getApplicationContext();
+
+        ioExecutor.execute(() -> {
+            long traceStart = PerfTracer.begin("CategoryIndex.mediaStore");
+            try {
+                loadFromMediaStore(appContext);
+            } catch (Exception e) {
+                ErrorLogger.logError(appContext, TAG, "MediaStore query failed", e);
+            } finally {
+                PerfTracer.end("CategoryIndex.mediaStore", traceStart);
+            }
+            notifyChanged();
+        });
+
+        FileCrawler.Consumer scanConsumer = index.newScanConsumer();
+        StorageScanner.getInstance().requestScan(appContext, new FileCrawler.Consumer() {
+            @Override
+            public void accept(CrawlEntry entry) {
+                scanConsumer.accept(entry);
+            }
+
+            @Override
+            public void onComplete(boolean cancelled) {
+                scanConsumer.onComplete(cancelled);
+                scanComplete = !cancelled;
+                notifyChanged();
+            }
+        });
+    }
+
+    private static boolean hasStorageAccess() {
+        return Build.VERSION.SDK_INT < Build.VERSION_CODES.R || Environment.isExternalStorageManager();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Check whether the index reflects a full storage scan rather than MediaStore alone
+     */
+    public boolean isScanComplete() {
+        return scanComplete;
+    }
+
+    public int getCount(FileCategory category) {
+        return index.getCount(category);
+    }
+
+    public long getTotalBytes(FileCategory category) {
+        return index.getTotalBytes(category);
+    }
+
+    /**
+     * Load a page in the background. Sorting a large category the first time can take a while.
+     * @param after The last entry of the previous page, or null for the first page
+     */
+    public void loadPage(FileCategory category, CategoryIndex.SortOrder order, CategoryIndex.Entry after,
+                         int limit, PageCallback callback) {
+        ioExecutor.execute(() -> {
+            List<CategoryIndex.Entry> page = index.getPage(category, order, after, limit);
+            mainHandler.post(() -> callback.onPageLoaded(page));
+        });
+    }
+
+    /**
+     * Index a file or directory tree that was created, copied or moved into place
+     */
+    public void onPathAdded(File file) {
+        ioExecutor.execute(() -> {
+            if (file.isDirectory()) {
+                FileCrawler.getInstance().crawl(file, new FileCrawler.Consumer() {
+                    @Override
+                    public void accept(CrawlEntry entry) {
+                        if (!entry.isDirectory()) {
+                            index.put(entry.getFile().getAbsolutePath(), entry.getLength(),
+                                    entry.getLastModified());
+                        }
+                    }
+
+                    @Override
+                    public void onComplete(boolean cancelled) {
+                    }
+                });
+            } else if (file.exists()) {
+                index.put(file.getAbsolutePath(), file.length(), file.lastModified());
+            }
+            notifyChanged();
+        });
+    }
+
+    /**
+     * Remove a deleted file or directory tree from the index
+     */
+    public void onPathRemoved(File file) {
+        ioExecutor.execute(() -> {
+            index.remove(file.getAbsolutePath());
+            notifyChanged();
+        });
+    }
+
+    private void loadFromMediaStore(Context context) {
+        Uri uri = MediaStore.Files.getContentUri("external");
+        String[] projection = {
+            MediaStore.Files.FileColumns.DATA,
+            MediaStore.Files.FileColumns.SIZE,
+            MediaStore.Files.FileColumns.DATE_MODIFIED
+        };
+        String selection = MediaStore.Files.FileColumns.MEDIA_TYPE + " IN (?, ?, ?)";
+        String[] selectionArgs = {
+            String.valueOf(MediaStore.Files.FileColumns.MEDIA_TYPE_IMAGE),
+            String.valueOf(MediaStore.Files.FileColumns.MEDIA_TYPE_VIDEO),
+            String.valueOf(MediaStore.Files.FileColumns.MEDIA_TYPE_AUDIO)
+        };
+
+        try (Cursor cursor = context.getContentResolver().query(uri, projection, selection, selectionArgs, null)) {
+            if (cursor == null) {
+                return;
+            }
+            int dataColumn = cursor.getColumnIndexOrThrow(MediaStore.Files.FileColumns.DATA);
+            int sizeColumn = cursor.getColumnIndexOrThrow(MediaStore.Files.FileColumns.SIZE);
+            int modifiedColumn = cursor.getColumnIndexOrThrow(MediaStore.Files.FileColumns.DATE_MODIFIED);
+            while (cursor.moveToNext()) {
+                String path = cursor.getString(dataColumn);
+                if (path != null) {
+                    // MediaStore stores modification times in seconds
+                    index.put(path, cursor.getLong(sizeColumn), cursor.getLong(modifiedColumn) * 1000);
+                }
+            }
+        }
+    }
+
+    /**
+     * Coalesce change notifications so a burst of updates redraws the grid once
+     */
+    private void notifyChanged() {
+        mainHandler.post(() -> {
+            if (notifyPosted) {
+                return;
+            }
+            notifyPosted = true;
+            mainHandler.post(() -> {
+                notifyPosted = false;
+                for (Listener listener : new ArrayList<>(listeners)) {
+                    listener.onCategoriesChanged();
+                }
+            });
+        });
+    }
+}
@@ -2,6 +2,7 @@ package com.covemanager;
 
 import android.app.Application;
 import android.util.Log;
+import com.covemanager.core.ListingCache;
 
 /**
  * Custom Application class for Cove Manager
@@ -15,13 +16,26 @@ public class CoveManagerApplication extends Application {
     public void onCreate() {
         super.onCreate();
         
+        // Record process start before anything else so startup metrics include our own init
+        StartupMetrics.getInstance().markProcessStart();
+        
         Log.i(TAG, "Cove Manager Application starting...");
         
-        // Initialize the debug error tracker
+        // Initialize the debug error tracker; its file I/O runs on a background thread
         initializeErrorTracking();
         
-        // Check if app was restarted due to crash
-        checkCrashRestart();
+        // Bring back a copy or cut the last process did not get to paste
+        FileClipboard.getInstance().restore(this);
+        
+        // Check if app was restarted due to crash once the crash record is readable
+        if (errorTracker != null) {
+            errorTracker.whenReady(new Runnable() {
+                @Override
+                public void run() {
+                    checkCrashRestart();
+                }
+            });
+        }
         
         // Log application startup
         if (errorTracker != null) {
@@ -77,6 +91,8 @@ public class CoveManagerApplication extends Application {
         if (errorTracker != null) {
             errorTracker.logWarning(TAG, "Application received low memory warning");
         }
+        ThumbnailLoader.getInstance().trimMemory(true);
+        ListingCache.getInstance().clear();
         super.onLowMemory();
     }
     
@@ -86,6 +102,12 @@ public class CoveManagerApplication extends Application {
             String levelName = getTrimMemoryLevelName(level);
             errorTracker.logWarning(TAG, "Memory trim requested: " + levelName);
         }
+        // Thumbnails are cheap to reload from disk, so they go first
+        ThumbnailLoader.getInstance().trimMemory(level >= TRIM_MEMORY_BACKGROUND);
+        if (level >= TRIM_MEMORY_BACKGROUND) {
+            // Listings cost a relist to rebuild, so they only go when the app is in the background
+            ListingCache.getInstance().clear();
+        }
         super.onTrimMemory(level);
     }
     
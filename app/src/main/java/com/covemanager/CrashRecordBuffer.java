@@ -0,0 +1,225 @@
+package com.covemanager;
+
+import android.util.Log;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Pre-allocated memory-mapped crash record.
+ * The file is mapped once at startup so the uncaught exception handler can copy the
+ * crash straight into the page cache without formatting strings or opening files,
+ * and then make it durable with a single force() call.
+ *
+ * Layout: [magic:int][state:int][time:long][logged:int][length:int][chars...]
+ */
+public class CrashRecordBuffer {
+    private static final String TAG = "CrashRecordBuffer";
+    private static final int CAPACITY = 64 * 1024; // 64 KB, roughly 32k UTF-16 chars
+    private static final int MAGIC = 0x434F5645; // "COVE"
+    private static final int STATE_EMPTY = 0;
+    private static final int STATE_CRASHED = 1;
+    private static final int MAX_CAUSE_DEPTH = 8;
+
+    private static final int OFFSET_MAGIC = 0;
+    private static final int OFFSET_STATE = 4;
+    private static final int OFFSET_TIME = 8;
+    private static final int OFFSET_LOGGED = 16;
+    private static final int OFFSET_LENGTH = 20;
+    private static final int OFFSET_CHARS = 24;
+
+    private final MappedByteBuffer buffer;
+    // Scratch space for integer formatting so the crash path never allocates for numbers
+    private final char[] digits = new char[20];
+
+    private CrashRecordBuffer(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(OFFSET_MAGIC) != MAGIC) {
+            buffer.putInt(OFFSET_STATE, STATE_EMPTY);
+            buffer.putInt(OFFSET_MAGIC, MAGIC);
+        }
+    }
+
+    /**
+     * Map the crash record file, creating and sizing it if needed
+     * @return Mapped record, or null if the file could not be mapped
+     */
+    public static CrashRecordBuffer open(File file) {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            if (raf.length() != CAPACITY) {
+                raf.setLength(CAPACITY);
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer mapped = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, CAPACITY);
+            return new CrashRecordBuffer(mapped);
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to map crash record file", e);
+            return null;
+        }
+    }
+
+    /**
+     * Copy a crash into the mapped record. Called from the uncaught exception handler,
+     * so it only writes into the mapping and finishes with a single force().
+     */
+    public synchronized void write(Thread thread, Throwable throwable, long crashTime) {
+        buffer.putInt(OFFSET_STATE, STATE_EMPTY);
+        buffer.position(OFFSET_CHARS);
+
+        append("Thread: ");
+        append(thread.getName());
+        append("\nException: ");
+        append(throwable.getClass().getSimpleName());
+        append("\nMessage: ");
+        append(throwable.getMessage());
+        append("\nStack Trace:\n");
+
+        Throwable current = throwable;
+        for (int depth = 0; current != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            if (depth > 0) {
+                append("Caused by: ");
+            }
+            append(current.getClass().getName());
+            String message = current.getMessage();
+            if (message != null) {
+                append(": ");
+                append(message);
+            }
+            append('\n');
+            for (StackTraceElement element : current.getStackTrace()) {
+                append("\tat ");
+                append(element.getClassName());
+                append('.');
+                append(element.getMethodName());
+                append('(');
+                if (element.isNativeMethod()) {
+                    append("Native Method");
+                } else if (element.getFileName() != null) {
+                    append(element.getFileName());
+                    if (element.getLineNumber() >= 0) {
+                        append(':');
+                        append(element.getLineNumber());
+                    }
+                } else {
+                    append("Unknown Source");
+                }
+                append(")\n");
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+            current = current.getCause();
+        }
+
+        // Publish the header last so a half-written record is never reported
+        buffer.putInt(OFFSET_LENGTH, (buffer.position() - OFFSET_CHARS) / 2);
+        buffer.putLong(OFFSET_TIME, crashTime);
+        buffer.putInt(OFFSET_LOGGED, 0);
+        buffer.putInt(OFFSET_STATE, STATE_CRASHED);
+        buffer.force();
+    }
+
+    /**
+     * Check whether the record holds a crash that happened within the given window
+     */
+    public synchronized boolean hasRecentCrash(long windowMs) {
+        if (buffer.getInt(OFFSET_STATE) != STATE_CRASHED) {
+            return false;
+        }
+        return System.currentTimeMillis() - buffer.getLong(OFFSET_TIME) < windowMs;
+    }
+
+    /**
+     * Check whether the record holds a crash at all, regardless of its age
+     */
+    public synchronized boolean hasCrash() {
+        return buffer.getInt(OFFSET_STATE) == STATE_CRASHED;
+    }
+
+    /**
+     * Check whether the stored crash was already copied to the error log
+     */
+    public synchronized boolean isLogged() {
+        return buffer.getInt(OFFSET_LOGGED) != 0;
+    }
+
+    public synchronized void markLogged() {
+        buffer.putInt(OFFSET_LOGGED, 1);
+    }
+
+    /**
+     * Decode the stored crash into the same report format the tracker used to write
+     * @return Crash report, or null if no crash is stored
+     */
+    public synchronized String readDetails() {
+        if (buffer.getInt(OFFSET_STATE) != STATE_CRASHED) {
+            return null;
+        }
+
+        int length = buffer.getInt(OFFSET_LENGTH);
+        int maxLength = (CAPACITY - OFFSET_CHARS) / 2;
+        if (length < 0 || length > maxLength) {
+            return null;
+        }
+
+        StringBuilder body = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            body.append(buffer.getChar(OFFSET_CHARS + i * 2));
+        }
+
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.getDefault());
+        return "=== CRASH OCCURRED ===\n" +
+               "Time: " + dateFormat.format(new Date(buffer.getLong(OFFSET_TIME))) + "\n" +
+               body +
+               "=== END CRASH DETAILS ===\n";
+    }
+
+    /**
+     * Mark the record as consumed
+     */
+    public synchronized void clear() {
+        buffer.putInt(OFFSET_STATE, STATE_EMPTY);
+        buffer.force();
+    }
+
+    private void append(char c) {
+        if (buffer.remaining() >= 2) {
+            buffer.putChar(c);
+        }
+    }
+
+    private void append(String text) {
+        if (text == null) {
+            text = "null";
+        }
+        int length = text.length();
+        for (int i = 0; i < length && buffer.remaining() >= 2; i++) {
+            buffer.putChar(text.charAt(i));
+        }
+    }
+
+    private void append(int value) {
+        if (value == 0) {
+            append('0');
+            return;
+        }
+        long remaining = value;
+        if (remaining < 0) {
+            append('-');
+            remaining = -remaining;
+        }
+        int count = 0;
+        while (remaining > 0) {
+            digits[count++] = (char) ('0' + (remaining % 10));
+            remaining /= 10;
+        }
+        while (count > 0) {
+            append(digits[--count]);
+        }
+    }
+}
@@ -19,14 +19,9 @@ public class CrashRestartReceiver extends BroadcastReceiver {
             // Start the app with the main activity
             Intent restartIntent = new Intent(context, SplashActivity.class);
             restartIntent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+            // Crash details are read back from the crash record buffer by the splash screen
             restartIntent.putExtra("crashed_restart", true);
             
-            // Add crash details if available
-            String crashDetails = intent.getStringExtra("crash_details");
-            if (crashDetails != null) {
-                restartIntent.putExtra("crash_details", crashDetails);
-            }
-            
             context.startActivity(restartIntent);
             
             Log.i(TAG, "App restarted successfully after crash");
@@ -4,20 +4,25 @@ import android.app.AlarmManager;
 import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
-import android.os.Environment;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.SystemClock;
 import android.util.Log;
 import android.widget.Toast;
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Debug Error Tracker - Real-time error tracking for the Cove Manager application
@@ -26,21 +31,39 @@ import java.util.Locale;
 public class DebugErrorTracker {
     private static final String TAG = "DebugErrorTracker";
     private static final String ERROR_LOG_FILE = "cove_manager_errors.log";
-    private static final String CRASH_RESTART_FILE = "crash_restart_data.txt";
+    private static final String CRASH_RECORD_FILE = "crash_record.bin";
     private static final boolean DEBUG_MODE = true; // Set to false for release builds
     private static final int RESTART_DELAY_MS = 2000; // 2 seconds delay before restart
+    private static final long CRASH_RESTART_WINDOW_MS = 30000; // 30 seconds
+    private static final long CRASH_HANDLER_INIT_WAIT_MS = 500;
     
     private static DebugErrorTracker instance;
     private Context applicationContext;
-    private File errorLogFile;
-    private File crashRestartFile;
+    private volatile File errorLogFile;
+    private volatile CrashRecordBuffer crashRecord;
     private SimpleDateFormat dateFormat;
     
+    // All file I/O runs on this thread so the tracker never blocks the main thread
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final CountDownLatch readyLatch = new CountDownLatch(1);
+    // Entries logged before the log file is ready are buffered here and written in one go
+    private final StringBuilder pendingEntries = new StringBuilder();
+    private final List<Runnable> readyListeners = new ArrayList<>();
+    private boolean ready = false;
+    
     private DebugErrorTracker(Context context) {
         this.applicationContext = context.getApplicationContext();
         this.dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.getDefault());
-        initializeErrorLogFile();
         setupUncaughtExceptionHandler();
+        ioExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                initializeErrorLogFile();
+                initializeCrashRecord();
+                onInitialized();
+            }
+        });
     }
     
     public static synchronized DebugErrorTracker getInstance(Context context) {
@@ -58,24 +81,77 @@ public class DebugErrorTracker {
             File externalDir = applicationContext.getExternalFilesDir(null);
             if (externalDir != null) {
                 errorLogFile = new File(externalDir, ERROR_LOG_FILE);
-                crashRestartFile = new File(externalDir, CRASH_RESTART_FILE);
                 
                 // Create error log file if it doesn't exist
                 if (!errorLogFile.exists()) {
                     errorLogFile.createNewFile();
                     logToFile("=== Cove Manager Error Tracking Started ===");
                 }
-                
-                // Create crash restart file if it doesn't exist
-                if (!crashRestartFile.exists()) {
-                    crashRestartFile.createNewFile();
-                }
             }
         } catch (IOException e) {
             Log.e(TAG, "Failed to initialize error log file", e);
         }
     }
     
+    /**
+     * Map the crash record up front so the crash handler never has to open files.
+     * A crash left over from the previous process is copied into the error log once.
+     */
+    private void initializeCrashRecord() {
+        crashRecord = CrashRecordBuffer.open(new File(applicationContext.getFilesDir(), CRASH_RECORD_FILE));
+        if (crashRecord != null && crashRecord.hasCrash() && !crashRecord.isLogged()) {
+            String crashDetails = crashRecord.readDetails();
+            if (crashDetails != null) {
+                logToFile(crashDetails + "----------------------------------------\n");
+            }
+            crashRecord.markLogged();
+        }
+    }
+    
+    /**
+     * Flush buffered entries and notify everyone waiting for the tracker to be ready
+     */
+    private void onInitialized() {
+        List<Runnable> listeners;
+        synchronized (pendingEntries) {
+            if (pendingEntries.length() > 0) {
+                appendToFile(pendingEntries.toString());
+                pendingEntries.setLength(0);
+            }
+            ready = true;
+            listeners = new ArrayList<>(readyListeners);
+            readyListeners.clear();
+        }
+        readyLatch.countDown();
+        
+        for (Runnable listener : listeners) {
+            mainHandler.post(listener);
+        }
+    }
+    
+    /**
+     * Check whether the log file and crash record have been opened
+     */
+    public boolean isReady() {
+        synchronized (pendingEntries) {
+            return ready;
+        }
+    }
+    
+    /**
+     * Run the callback on the main thread once the log file and crash record are open.
+     * Runs it right away (posted) if initialization has already finished.
+     */
+    public void whenReady(Runnable callback) {
+        synchronized (pendingEntries) {
+            if (!ready) {
+                readyListeners.add(callback);
+                return;
+            }
+        }
+        mainHandler.post(callback);
+    }
+    
     /**
      * Set up global uncaught exception handler
      */
@@ -86,11 +162,18 @@ public class DebugErrorTracker {
             @Override
             public void uncaughtException(Thread thread, Throwable throwable) {
                 try {
-                    // Log the uncaught exception
-                    String crashDetails = logCrashAndPrepareRestart(thread, throwable);
+                    // A crash during startup may arrive before the record is mapped
+                    if (crashRecord == null) {
+                        readyLatch.await(CRASH_HANDLER_INIT_WAIT_MS, TimeUnit.MILLISECONDS);
+                    }
+                    
+                    // Copy the crash into the mapped record first; it is read back on next launch
+                    if (crashRecord != null) {
+                        crashRecord.write(thread, throwable, System.currentTimeMillis());
+                    }
                     
                     // Schedule app restart after 2 seconds
-                    scheduleAppRestart(crashDetails);
+                    scheduleAppRestart();
                     
                 } catch (Exception e) {
                     Log.e(TAG, "Error in crash handler", e);
@@ -104,66 +187,15 @@ public class DebugErrorTracker {
         });
     }
     
-    /**
-     * Log crash details and prepare for restart
-     */
-    private String logCrashAndPrepareRestart(Thread thread, Throwable throwable) {
-        String timestamp = dateFormat.format(new Date());
-        String crashDetails = String.format(
-            "=== CRASH OCCURRED ===\n" +
-            "Time: %s\n" +
-            "Thread: %s\n" +
-            "Exception: %s\n" +
-            "Message: %s\n" +
-            "Stack Trace:\n%s\n" +
-            "=== END CRASH DETAILS ===\n",
-            timestamp,
-            thread.getName(),
-            throwable.getClass().getSimpleName(),
-            throwable.getMessage(),
-            getStackTrace(throwable)
-        );
-        
-        // Log to main error file
-        logError("UNCAUGHT_EXCEPTION", "Thread: " + thread.getName(), throwable);
-        
-        // Save crash details for restart
-        saveCrashRestartData(crashDetails);
-        
-        return crashDetails;
-    }
-    
-    /**
-     * Save crash data for display after restart
-     */
-    private void saveCrashRestartData(String crashDetails) {
-        try {
-            if (crashRestartFile != null) {
-                FileWriter writer = new FileWriter(crashRestartFile, false);
-                writer.write("CRASH_RESTART_FLAG=true\n");
-                writer.write("CRASH_TIME=" + System.currentTimeMillis() + "\n");
-                writer.write("CRASH_DETAILS_START\n");
-                writer.write(crashDetails);
-                writer.write("CRASH_DETAILS_END\n");
-                writer.close();
-                
-                Log.i(TAG, "Crash restart data saved");
-            }
-        } catch (IOException e) {
-            Log.e(TAG, "Failed to save crash restart data", e);
-        }
-    }
-    
     /**
      * Schedule app restart using AlarmManager
      */
-    private void scheduleAppRestart(String crashDetails) {
+    private void scheduleAppRestart() {
         try {
             AlarmManager alarmManager = (AlarmManager) applicationContext.getSystemService(Context.ALARM_SERVICE);
             
             // Create intent to restart the app
             Intent restartIntent = new Intent(applicationContext, CrashRestartReceiver.class);
-            restartIntent.putExtra("crash_details", crashDetails);
             
             PendingIntent pendingIntent = PendingIntent.getBroadcast(
                 applicationContext,
@@ -187,53 +219,19 @@ public class DebugErrorTracker {
      * Check if app was restarted due to crash
      */
     public boolean wasRestartedFromCrash() {
-        if (crashRestartFile == null || !crashRestartFile.exists()) {
-            return false;
-        }
-        
-        try (BufferedReader reader = new BufferedReader(new FileReader(crashRestartFile))) {
-            String line = reader.readLine();
-            if (line != null && line.equals("CRASH_RESTART_FLAG=true")) {
-                // Check if crash was recent (within last 30 seconds)
-                String timeLine = reader.readLine();
-                if (timeLine != null && timeLine.startsWith("CRASH_TIME=")) {
-                    long crashTime = Long.parseLong(timeLine.substring("CRASH_TIME=".length()));
-                    long currentTime = System.currentTimeMillis();
-                    return (currentTime - crashTime) < 30000; // 30 seconds
-                }
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error checking crash restart flag", e);
-        }
-        
-        return false;
+        return crashRecord != null && crashRecord.hasRecentCrash(CRASH_RESTART_WINDOW_MS);
     }
     
     /**
-     * Get crash details from restart file
+     * Get crash details from the mapped crash record
      */
     public String getCrashDetailsFromRestart() {
-        if (crashRestartFile == null || !crashRestartFile.exists()) {
+        if (crashRecord == null) {
             return null;
         }
         
-        try (BufferedReader reader = new BufferedReader(new FileReader(crashRestartFile))) {
-            StringBuilder details = new StringBuilder();
-            String line;
-            boolean inDetails = false;
-            
-            while ((line = reader.readLine()) != null) {
-                if (line.equals("CRASH_DETAILS_START")) {
-                    inDetails = true;
-                    continue;
-                } else if (line.equals("CRASH_DETAILS_END")) {
-                    break;
-                } else if (inDetails) {
-                    details.append(line).append("\n");
-                }
-            }
-            
-            return details.toString();
+        try {
+            return crashRecord.readDetails();
         } catch (Exception e) {
             Log.e(TAG, "Error reading crash details", e);
             return null;
@@ -245,8 +243,8 @@ public class DebugErrorTracker {
      */
     public void clearCrashRestartFlag() {
         try {
-            if (crashRestartFile != null && crashRestartFile.exists()) {
-                crashRestartFile.delete();
+            if (crashRecord != null) {
+                crashRecord.clear();
                 Log.i(TAG, "Crash restart flag cleared");
             }
         } catch (Exception e) {
@@ -338,9 +336,28 @@ public class DebugErrorTracker {
     }
     
     /**
-     * Write to the error log file
+     * Queue a write to the error log file, buffering it until the file is ready
      */
     private void logToFile(String message) {
+        synchronized (pendingEntries) {
+            if (!ready) {
+                pendingEntries.append(message);
+                return;
+            }
+        }
+        
+        ioExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                appendToFile(message);
+            }
+        });
+    }
+    
+    /**
+     * Append to the error log file. Only called on the I/O thread.
+     */
+    private void appendToFile(String message) {
         if (errorLogFile == null) return;
         
         try (FileWriter writer = new FileWriter(errorLogFile, true)) {
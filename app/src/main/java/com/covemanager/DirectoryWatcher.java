@@ -0,0 +1,267 @@
+package com.covemanager;
+
+import android.content.Context;
+import android.os.FileObserver;
+import android.os.Handler;
+import android.os.Looper;
+import com.covemanager.core.FileItem;
+import com.covemanager.core.FolderSizeCache;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Watches the browsed directory and its ancestors up to the storage root with FileObserver.
+ *
+ * Events in the browsed directory are coalesced for a short window and delivered as
+ * deltas, so the listing can be patched instead of relisted. Every event also invalidates
+ * the cached sizes of the changed entry and its ancestors, which covers changes made by
+ * other apps. Ancestors are watched so the browser learns when the browsed directory
+ * itself is deleted or moved away.
+ */
+public class DirectoryWatcher {
+    private static final String TAG = "DirectoryWatcher";
+    private static final long COALESCE_WINDOW_MS = 100;
+    // Beyond this many changes in one window a fresh listing is cheaper than patching
+    private static final int MAX_DELTA_SIZE = 200;
+    private static final int CHANGE_EVENTS = FileObserver.CREATE | FileObserver.DELETE |
+            FileObserver.MOVED_FROM | FileObserver.MOVED_TO | FileObserver.CLOSE_WRITE;
+    private static final int SELF_EVENTS = FileObserver.DELETE_SELF | FileObserver.MOVE_SELF;
+
+    /**
+     * Receives coalesced changes on the main thread
+     */
+    public interface Listener {
+        /**
+         * @param added Entries that appeared in the browsed directory
+         * @param changed Entries whose contents or attributes changed
+         * @param removedPaths Paths of entries that disappeared
+         */
+        void onEntriesChanged(List<FileItem> added, List<FileItem> changed, List<String> removedPaths);
+
+        /**
+         * Too many entries changed at once to patch the listing efficiently
+         */
+        void onDirectoryInvalidated();
+
+        /**
+         * The browsed directory was deleted or moved away
+         */
+        void onDirectoryGone();
+    }
+
+    private final Context context;
+    private final Listener listener;
+    private final FolderSizeCache cache = FolderSizeCache.getInstance();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
+    private final List<FileObserver> observers = new ArrayList<>();
+
+    // Pending events of the browsed directory, by entry name, guarded by "this"
+    private final Map<String, Integer> pendingEvents = new LinkedHashMap<>();
+    private boolean flushScheduled = false;
+    private int generation = 0;
+    private File directory;
+
+    public DirectoryWatcher(Context context, Listener listener) {
+        this.context = context.getApplicationContext();
+        this.listener = listener;
+    }
+
+    /**
+     * Start watching a directory, replacing any previous watch
+     */
+    public void watch(File newDirectory) {
+        stop();
+
+        synchronized (this) {
+            directory = newDirectory;
+        }
+        int watchGeneration = generation;
+        observers.add(new PathObserver(newDirectory, CHANGE_EVENTS | SELF_EVENTS, watchGeneration, null));
+
+        // Watch each ancestor for changes to its own entries and for the branch leading here
+        File storageRoot = findStorageRoot(newDirectory);
+        File child = newDirectory;
+        File ancestor = newDirectory.getParentFile();
+        while (storageRoot != null && ancestor != null && !child.equals(storageRoot)) {
+            observers.add(new PathObserver(ancestor, CHANGE_EVENTS, watchGeneration, child.getName()));
+            child = ancestor;
+            ancestor = ancestor.getParentFile();
+        }
+
+        for (FileObserver observer : observers) {
+            observer.startWatching();
+        }
+    }
+
+    /**
+     * Stop watching and drop any events not delivered yet
+     */
+    public void stop() {
+        for (FileObserver observer : observers) {
+            observer.stopWatching();
+        }
+        observers.clear();
+        synchronized (this) {
+            generation++;
+            pendingEvents.clear();
+            directory = null;
+        }
+    }
+
+    public boolean isWatching() {
+        return !observers.isEmpty();
+    }
+
+    /**
+     * Release the background thread. The watcher cannot be used afterwards.
+     */
+    public void release() {
+        stop();
+        ioExecutor.shutdown();
+    }
+
+    private File findStorageRoot(File file) {
+        for (File root : StorageVolumes.getAllRoots(context)) {
+            if (file.getPath().startsWith(root.getPath())) {
+                return root;
+            }
+        }
+        return null;
+    }
+
+    private void onBrowsedDirectoryEvent(int watchGeneration, int event, String name) {
+        if ((event & SELF_EVENTS) != 0) {
+            postDirectoryGone(watchGeneration);
+            return;
+        }
+        if (name == null || (event & CHANGE_EVENTS) == 0) {
+            return;
+        }
+
+        synchronized (this) {
+            if (watchGeneration != generation) {
+                return;
+            }
+            cache.invalidatePath(new File(directory, name).getAbsolutePath());
+            pendingEvents.put(name, event);
+            if (!flushScheduled) {
+                flushScheduled = true;
+                mainHandler.postDelayed(() -> {
+                    if (!ioExecutor.isShutdown()) {
+                        ioExecutor.execute(this::flush);
+                    }
+                }, COALESCE_WINDOW_MS);
+            }
+        }
+    }
+
+    private void onAncestorEvent(File ancestor, String branchName, int watchGeneration, int event, String name) {
+        if (name == null || (event & CHANGE_EVENTS) == 0) {
+            return;
+        }
+        // The ancestor's size changes with any of its entries
+        cache.invalidatePath(new File(ancestor, name).getAbsolutePath());
+
+        boolean branchRemoved = (event & (FileObserver.DELETE | FileObserver.MOVED_FROM)) != 0;
+        if (branchRemoved && name.equals(branchName)) {
+            postDirectoryGone(watchGeneration);
+        }
+    }
+
+    private void postDirectoryGone(int watchGeneration) {
+        mainHandler.post(() -> {
+            if (watchGeneration == generation) {
+                listener.onDirectoryGone();
+            }
+        });
+    }
+
+    /**
+     * Turn the coalesced events into entry deltas. Runs on the I/O thread because
+     * building FileItems reads attributes from disk.
+     */
+    private void flush() {
+        Map<String, Integer> events;
+        File watchedDirectory;
+        int flushGeneration;
+        synchronized (this) {
+            flushScheduled = false;
+            events = new LinkedHashMap<>(pendingEvents);
+            pendingEvents.clear();
+            watchedDirectory = directory;
+            flushGeneration = generation;
+        }
+        if (watchedDirectory == null || events.isEmpty()) {
+            return;
+        }
+
+        if (events.size() > MAX_DELTA_SIZE) {
+            mainHandler.post(() -> {
+                if (flushGeneration == generation) {
+                    listener.onDirectoryInvalidated();
+                }
+            });
+            return;
+        }
+
+        List<FileItem> added = new ArrayList<>();
+        List<FileItem> changed = new ArrayList<>();
+        List<String> removedPaths = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : events.entrySet()) {
+            File file = new File(watchedDirectory, entry.getKey());
+            int event = entry.getValue();
+            // Only the last event of each name counts, and the file system has the final say
+            if (!file.exists()) {
+                removedPaths.add(file.getAbsolutePath());
+            } else if ((event & (FileObserver.CREATE | FileObserver.MOVED_TO)) != 0) {
+                added.add(new FileItem(file));
+            } else {
+                changed.add(new FileItem(file));
+            }
+        }
+
+        mainHandler.post(() -> {
+            if (flushGeneration == generation) {
+                listener.onEntriesChanged(added, changed, removedPaths);
+            }
+        });
+    }
+
+    private class PathObserver extends FileObserver {
+        private final File path;
+        private final int watchGeneration;
+        private final String branchName;
+
+        /**
+         * @param branchName Name of the entry leading to the browsed directory, or null
+         *                   when this observer watches the browsed directory itself
+         */
+        @SuppressWarnings("deprecation")
+        PathObserver(File path, int mask, int watchGeneration, String branchName) {
+            super(path.getAbsolutePath(), mask);
+            this.path = path;
+            this.watchGeneration = watchGeneration;
+            this.branchName = branchName;
+        }
+
+        @Override
+        public void onEvent(int event, String name) {
+            try {
+                int type = event & FileObserver.ALL_EVENTS;
+                if (branchName == null) {
+                    onBrowsedDirectoryEvent(watchGeneration, type, name);
+                } else {
+                    onAncestorEvent(path, branchName, watchGeneration, type, name);
+                }
+            } catch (Exception e) {
+                ErrorLogger.logError(context, TAG, "Failed to handle event for " + path, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.covemanager;
+
+import androidx.appcompat.app.AppCompatActivity;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Bundle;
+import android.text.format.Formatter;
+import android.view.MenuItem;
+import android.view.View;
+import android.widget.Toast;
+import com.covemanager.core.SizeTree;
+import com.covemanager.core.TreemapLayout;
+import com.covemanager.databinding.ActivityDiskUsageBinding;
+import java.io.File;
+
+/**
+ * Treemap of what takes up space on storage. Sizes come from one scan of all volumes;
+ * drilling into a folder and back only reads the size tree.
+ */
+public class DiskUsageActivity extends AppCompatActivity implements DiskUsageManager.Listener,
+        TreemapView.OnCellClickListener {
+    private ActivityDiskUsageBinding binding;
+    private DiskUsageManager diskUsage;
+    private SizeTree tree;
+    // The node shown first: the only volume, or the virtual root above several
+    private int topNode = SizeTree.ROOT;
+    private int currentNode = -1;
+
+    public static void start(Context context) {
+        context.startActivity(new Intent(context, DiskUsageActivity.class));
+    }
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        // Inflate and get instance of binding
+        binding = ActivityDiskUsageBinding.inflate(getLayoutInflater());
+        setContentView(binding.getRoot());
+
+        // Set up toolbar
+        setSupportActionBar(binding.toolbarDiskUsage);
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+            getSupportActionBar().setTitle("Disk Usage");
+        }
+
+        binding.treemapDiskUsage.setOnCellClickListener(this);
+        binding.tvDiskUsageStatus.setText("Scanning storage…");
+
+        diskUsage = DiskUsageManager.getInstance();
+        diskUsage.load(this, this);
+    }
+
+    @Override
+    public void onScanProgress(int entryCount) {
+        binding.tvDiskUsageStatus.setText(String.format("Scanning storage… %,d items", entryCount));
+    }
+
+    @Override
+    public void onTreeReady(SizeTree sizeTree) {
+        tree = sizeTree;
+        binding.pbDiskUsage.setVisibility(View.GONE);
+        topNode = tree.getChildCount(SizeTree.ROOT) == 1 ? tree.getChild(SizeTree.ROOT, 0) : SizeTree.ROOT;
+        showNode(topNode);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Deletions made meanwhile in the browser have already been taken out of the tree
+        if (tree != null && currentNode >= 0) {
+            boolean detached = currentNode != SizeTree.ROOT && tree.getParent(currentNode) < 0;
+            showNode(detached ? topNode : currentNode);
+        }
+    }
+
+    private void showNode(int node) {
+        currentNode = node;
+        binding.treemapDiskUsage.setNode(tree, node);
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setSubtitle(node == SizeTree.ROOT ? "All storage" : tree.getPath(node));
+        }
+        binding.tvDiskUsageStatus.setText(Formatter.formatShortFileSize(this, tree.getSize(node)) + " • " +
+                String.format("%,d items", tree.getChildCount(node)));
+        if (node != SizeTree.ROOT) {
+            diskUsage.publishChildSizes(tree, node);
+        }
+    }
+
+    @Override
+    public void onCellClick(TreemapLayout.Cell cell) {
+        if (cell.isAggregate()) {
+            Toast.makeText(this, cell.getAggregatedCount() + " smaller items, " +
+                    Formatter.formatShortFileSize(this, cell.getSize()), Toast.LENGTH_SHORT).show();
+        } else if (tree.isDirectory(cell.getNode()) && tree.getChildCount(cell.getNode()) > 0) {
+            showNode(cell.getNode());
+        } else {
+            Toast.makeText(this, tree.getName(cell.getNode()) + ", " +
+                    Formatter.formatShortFileSize(this, cell.getSize()), Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    @Override
+    public void onCellLongClick(TreemapLayout.Cell cell) {
+        // Open the folder itself, or the folder shown when the cell is not one
+        int node = cell.isAggregate() || !tree.isDirectory(cell.getNode()) ? currentNode : cell.getNode();
+        if (node == SizeTree.ROOT) {
+            return;
+        }
+        Intent intent = new Intent(this, FileBrowserActivity.class);
+        intent.putExtra("path", new File(tree.getPath(node)).getAbsolutePath());
+        startActivity(intent);
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == android.R.id.home) {
+            finish();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    @Override
+    public void onBackPressed() {
+        // Navigate up one folder level instead of closing activity
+        if (tree != null && currentNode != topNode && tree.getParent(currentNode) >= 0) {
+            showNode(tree.getParent(currentNode));
+        } else {
+            super.onBackPressed();
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        diskUsage.removeListener(this);
+        if (isFinishing()) {
+            diskUsage.release();
+        }
+        this.binding = null;
+    }
+}
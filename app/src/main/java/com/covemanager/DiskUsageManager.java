@@ -0,0 +1,171 @@
+package com.covemanager;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import com.covemanager.core.CrawlEntry;
+import com.covemanager.core.FileCrawler;
+import com.covemanager.core.FolderSizeCache;
+import com.covemanager.core.SizeTree;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Owns the size tree behind the disk usage view.
+ * The tree is built by joining the shared storage scan, so it costs no crawl of its own
+ * when another feature is scanning too. It is kept while the view is in use and patched
+ * for files deleted through the app; anything added marks it stale so the next visit
+ * rebuilds it.
+ */
+public class DiskUsageManager {
+    private static final String TAG = "DiskUsageManager";
+    private static final int PROGRESS_INTERVAL = 20000;
+    private static DiskUsageManager instance;
+
+    /**
+     * Notified on the main thread
+     */
+    public interface Listener {
+        void onScanProgress(int entryCount);
+
+        void onTreeReady(SizeTree tree);
+    }
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final FolderSizeCache cache = FolderSizeCache.getInstance();
+    private final List<Listener> listeners = new ArrayList<>();
+    private Context appContext;
+    private SizeTree tree;
+    private boolean stale = false;
+    private boolean scanning = false;
+
+    private DiskUsageManager() {
+    }
+
+    public static synchronized DiskUsageManager getInstance() {
+        if (instance == null) {
+            instance = new DiskUsageManager();
+        }
+        return instance;
+    }
+
+    /**
+     * Get the size tree, scanning storage if there is none or it is stale. Must be called on the main thread.
+     * @param listener Called once the tree is ready, immediately if it already is
+     */
+    public void load(Context context, Listener listener) {
+        appContext = context.getApplicationContext();
+        if (tree != null && !stale) {
+            listener.onTreeReady(tree);
+            return;
+        }
+
+        listeners.add(listener);
+        if (!scanning) {
+            scanning = true;
+            SizeTree newTree = new SizeTree();
+            StorageScanner.getInstance().requestScan(appContext, new TreeBuilder(newTree));
+        }
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Drop the tree once the disk usage view is closed, since it holds a node for every file
+     */
+    public void release() {
+        tree = null;
+    }
+
+    /**
+     * Seed the folder size cache with the subdirectories of a node, so opening that
+     * directory in the browser shows sizes without calculating them again
+     */
+    public void publishChildSizes(SizeTree sizeTree, int node) {
+        for (int i = 0; i < sizeTree.getChildCount(node); i++) {
+            int child = sizeTree.getChild(node, i);
+            if (sizeTree.isDirectory(child)) {
+                cache.putSize(sizeTree.getPath(child), sizeTree.getSize(child));
+            }
+        }
+    }
+
+    public void onPathAdded(File file) {
+        mainHandler.post(() -> stale = true);
+    }
+
+    /**
+     * Take a deleted file or directory tree out of the sizes
+     */
+    public void onPathRemoved(File file) {
+        String path = file.getAbsolutePath();
+        mainHandler.post(() -> {
+            if (tree == null) {
+                return;
+            }
+            int node = tree.findNode(path);
+            if (node >= 0) {
+                tree.remove(node);
+            }
+        });
+    }
+
+    private void onTreeBuilt(SizeTree newTree) {
+        scanning = false;
+        if (listeners.isEmpty()) {
+            // The view was closed while scanning, so nobody needs the tree anymore
+            return;
+        }
+        tree = newTree;
+        stale = false;
+        List<Listener> ready = new ArrayList<>(listeners);
+        listeners.clear();
+        for (Listener listener : ready) {
+            listener.onTreeReady(newTree);
+        }
+    }
+
+    /**
+     * Crawl consumer filling a tree and reporting progress
+     */
+    private class TreeBuilder implements FileCrawler.Consumer {
+        private final SizeTree target;
+        private final FileCrawler.Consumer treeConsumer;
+        private final long start = SystemClock.elapsedRealtime();
+        private int entryCount = 0;
+
+        TreeBuilder(SizeTree target) {
+            this.target = target;
+            this.treeConsumer = target.newScanConsumer();
+        }
+
+        @Override
+        public void accept(CrawlEntry entry) {
+            treeConsumer.accept(entry);
+            if (++entryCount % PROGRESS_INTERVAL == 0) {
+                int progress = entryCount;
+                mainHandler.post(() -> {
+                    for (Listener listener : new ArrayList<>(listeners)) {
+                        listener.onScanProgress(progress);
+                    }
+                });
+            }
+        }
+
+        @Override
+        public void onComplete(boolean cancelled) {
+            treeConsumer.onComplete(cancelled);
+            if (cancelled) {
+                mainHandler.post(() -> scanning = false);
+                return;
+            }
+            ErrorLogger.logInfo(appContext, TAG, "Built size tree of " + target.getNodeCount() +
+                    " nodes in " + (SystemClock.elapsedRealtime() - start) + " ms");
+            mainHandler.post(() -> onTreeBuilt(target));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.covemanager;
+
+import android.text.format.Formatter;
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import com.covemanager.databinding.ItemDuplicateGroupBinding;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Shows duplicate groups as they are found. Every group starts selected.
+ */
+public class DuplicateGroupAdapter extends RecyclerView.Adapter<DuplicateGroupAdapter.GroupViewHolder> {
+    private final List<DuplicateScanner.Duplicates> groups = new ArrayList<>();
+    private final Set<DuplicateScanner.Duplicates> selected = new HashSet<>();
+    private final Runnable onSelectionChanged;
+
+    public DuplicateGroupAdapter(Runnable onSelectionChanged) {
+        this.onSelectionChanged = onSelectionChanged;
+    }
+
+    public void addGroup(DuplicateScanner.Duplicates duplicates) {
+        groups.add(duplicates);
+        selected.add(duplicates);
+        notifyItemInserted(groups.size() - 1);
+    }
+
+    public void clear() {
+        int count = groups.size();
+        groups.clear();
+        selected.clear();
+        notifyItemRangeRemoved(0, count);
+    }
+
+    public List<DuplicateScanner.Duplicates> getSelected() {
+        List<DuplicateScanner.Duplicates> result = new ArrayList<>();
+        for (DuplicateScanner.Duplicates duplicates : groups) {
+            if (selected.contains(duplicates)) {
+                result.add(duplicates);
+            }
+        }
+        return result;
+    }
+
+    public long getSelectedWastedBytes() {
+        long total = 0;
+        for (DuplicateScanner.Duplicates duplicates : selected) {
+            total += duplicates.getWastedBytes();
+        }
+        return total;
+    }
+
+    @NonNull
+    @Override
+    public GroupViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        ItemDuplicateGroupBinding binding = ItemDuplicateGroupBinding.inflate(
+                LayoutInflater.from(parent.getContext()), parent, false);
+        return new GroupViewHolder(binding);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull GroupViewHolder holder, int position) {
+        holder.bind(groups.get(position));
+    }
+
+    @Override
+    public int getItemCount() {
+        return groups.size();
+    }
+
+    class GroupViewHolder extends RecyclerView.ViewHolder {
+        private ItemDuplicateGroupBinding binding;
+
+        public GroupViewHolder(ItemDuplicateGroupBinding binding) {
+            super(binding.getRoot());
+            this.binding = binding;
+        }
+
+        public void bind(DuplicateScanner.Duplicates duplicates) {
+            List<String> paths = duplicates.getPaths();
+            binding.tvDuplicateName.setText(new File(paths.get(0)).getName());
+            binding.tvDuplicateSummary.setText(paths.size() + " copies • " +
+                    Formatter.formatShortFileSize(itemView.getContext(), duplicates.getWastedBytes()) + " wasted");
+
+            StringBuilder locations = new StringBuilder("Keep: ").append(paths.get(0));
+            for (String path : duplicates.getExtraCopies()) {
+                locations.append("\nDelete: ").append(path);
+            }
+            binding.tvDuplicatePaths.setText(locations);
+
+            // Clear the listener before restoring the state of a recycled row
+            binding.cbDuplicateGroup.setOnCheckedChangeListener(null);
+            binding.cbDuplicateGroup.setChecked(selected.contains(duplicates));
+            binding.cbDuplicateGroup.setOnCheckedChangeListener((buttonView, isChecked) -> {
+                if (isChecked) {
+                    selected.add(duplicates);
+                } else {
+                    selected.remove(duplicates);
+                }
+                onSelectionChanged.run();
+            });
+            binding.getRoot().setOnClickListener(v -> binding.cbDuplicateGroup.toggle());
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.covemanager;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import com.covemanager.core.CrawlEntry;
+import com.covemanager.core.DuplicateFinder;
+import com.covemanager.core.FileCrawler;
+import com.covemanager.core.HashCache;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds duplicate files across storage.
+ * Candidates are collected by joining the shared storage scan, then compared by
+ * {@link DuplicateFinder} on a small pool. Hashes are kept in a file between runs, so
+ * a rescan only reads files that changed.
+ */
+public class DuplicateScanner {
+    private static final String TAG = "DuplicateScanner";
+    private static final String HASH_CACHE_FILE = "duplicate_hashes.bin";
+    // Smaller files rarely matter for space and would dominate the number of candidates
+    private static final long MIN_FILE_SIZE = 16 * 1024;
+    private static DuplicateScanner instance;
+
+    /**
+     * Copies of one file. The oldest copy is treated as the original and kept.
+     */
+    public static final class Duplicates {
+        private final long size;
+        private final List<String> paths;
+        // Modification time of the copy to keep when it was compared
+        private final long keptModified;
+
+        Duplicates(long size, List<String> paths, long keptModified) {
+            this.size = size;
+            this.paths = paths;
+            this.keptModified = keptModified;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Get all copies, the one to keep first
+         */
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public List<String> getExtraCopies() {
+            return paths.subList(1, paths.size());
+        }
+
+        public long getWastedBytes() {
+            return size * (paths.size() - 1);
+        }
+    }
+
+    /**
+     * Receives results on the main thread
+     */
+    public interface ScanListener {
+        void onDuplicatesFound(Duplicates duplicates);
+
+        void onScanProgress(int processedSizes, int totalSizes);
+
+        void onScanComplete(int groupCount, long elapsedMs);
+    }
+
+    /**
+     * Receives the outcome of a deletion on the main thread
+     */
+    public interface DeleteListener {
+        void onDeleteComplete(int deleted, int failed, long freedBytes);
+    }
+
+    private final ExecutorService scanExecutor = Executors.newSingleThreadExecutor();
+    private final ExecutorService hashPool = Executors.newFixedThreadPool(
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())));
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger scanGeneration = new AtomicInteger();
+    private Context appContext;
+    private HashCache hashCache;
+    private volatile DuplicateFinder currentFinder;
+
+    private DuplicateScanner() {
+    }
+
+    public static synchronized DuplicateScanner getInstance() {
+        if (instance == null) {
+            instance = new DuplicateScanner();
+        }
+        return instance;
+    }
+
+    /**
+     * Scan all storage for duplicates, cancelling any scan in progress
+     */
+    public void scan(Context context, ScanListener listener) {
+        appContext = context.getApplicationContext();
+        cancelScan();
+        int generation = scanGeneration.get();
+        DuplicateFinder.Collector collector = new DuplicateFinder.Collector(MIN_FILE_SIZE);
+        long start = SystemClock.elapsedRealtime();
+
+        StorageScanner.getInstance().requestScan(appContext, new FileCrawler.Consumer() {
+            @Override
+            public void accept(CrawlEntry entry) {
+                collector.accept(entry);
+            }
+
+            @Override
+            public void onComplete(boolean cancelled) {
+                collector.onComplete(cancelled);
+                if (!cancelled && generation == scanGeneration.get()) {
+                    scanExecutor.execute(() -> compare(collector, generation, start, listener));
+                }
+            }
+        });
+    }
+
+    /**
+     * Stop the current scan and drop its pending results
+     */
+    public void cancelScan() {
+        scanGeneration.incrementAndGet();
+        DuplicateFinder finder = currentFinder;
+        if (finder != null) {
+            finder.cancel();
+        }
+    }
+
+    private void compare(DuplicateFinder.Collector collector, int generation, long start, ScanListener listener) {
+        if (generation != scanGeneration.get()) {
+            return;
+        }
+        File cacheFile = new File(appContext.getFilesDir(), HASH_CACHE_FILE);
+        if (hashCache == null) {
+            hashCache = HashCache.load(cacheFile);
+        }
+
+        DuplicateFinder finder = new DuplicateFinder(hashCache);
+        currentFinder = finder;
+        long traceStart = PerfTracer.begin("DuplicateScanner.compare");
+        int groupCount = 0;
+        try {
+            groupCount = finder.find(collector, hashPool, new DuplicateFinder.Callback() {
+                @Override
+                public void onGroupFound(DuplicateFinder.DuplicateGroup group) {
+                    Duplicates duplicates = oldestFirst(group);
+                    mainHandler.post(() -> {
+                        if (generation == scanGeneration.get()) {
+                            listener.onDuplicatesFound(duplicates);
+                        }
+                    });
+                }
+
+                @Override
+                public void onProgress(int processedSizes, int totalSizes) {
+                    mainHandler.post(() -> {
+                        if (generation == scanGeneration.get()) {
+                            listener.onScanProgress(processedSizes, totalSizes);
+                        }
+                    });
+                }
+            });
+            hashCache.save(cacheFile);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            ErrorLogger.logError(appContext, TAG, "Duplicate scan failed", e);
+        } finally {
+            currentFinder = null;
+            PerfTracer.end("DuplicateScanner.compare", traceStart);
+        }
+
+        int found = groupCount;
+        long elapsedMs = SystemClock.elapsedRealtime() - start;
+        ErrorLogger.logInfo(appContext, TAG, "Found " + found + " duplicate groups in " + elapsedMs +
+                " ms, " + hashCache.size() + " cached hashes");
+        mainHandler.post(() -> {
+            if (generation == scanGeneration.get()) {
+                listener.onScanComplete(found, elapsedMs);
+            }
+        });
+    }
+
+    private static Duplicates oldestFirst(DuplicateFinder.DuplicateGroup group) {
+        List<String> paths = group.getPaths();
+        List<File> files = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            files.add(new File(path));
+        }
+        Collections.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        List<String> sorted = new ArrayList<>(files.size());
+        for (File file : files) {
+            sorted.add(file.getAbsolutePath());
+        }
+        return new Duplicates(group.getSize(), sorted, files.get(0).lastModified());
+    }
+
+    /**
+     * Check that the copy to keep is still the file that was compared, so deleting the others loses nothing
+     */
+    private static boolean isKeptCopyIntact(Duplicates duplicates) {
+        File kept = new File(duplicates.getPaths().get(0));
+        long modified = kept.lastModified();
+        // 0 is also what a deleted file reports
+        return modified != 0 && modified == duplicates.keptModified && kept.isFile() &&
+                kept.length() == duplicates.getSize();
+    }
+
+    /**
+     * Delete every copy but the first of each group. Groups whose first copy changed or went
+     * away since the scan are skipped and counted as failed.
+     */
+    public void deleteExtraCopies(List<Duplicates> groups, DeleteListener listener) {
+        List<Duplicates> toClean = new ArrayList<>(groups);
+        scanExecutor.execute(() -> {
+            int deleted = 0;
+            int failed = 0;
+            long freedBytes = 0;
+            List<File> removed = new ArrayList<>();
+            for (Duplicates duplicates : toClean) {
+                if (!isKeptCopyIntact(duplicates)) {
+                    failed += duplicates.getExtraCopies().size();
+                    continue;
+                }
+                for (String path : duplicates.getExtraCopies()) {
+                    File file = new File(path);
+                    if (file.delete()) {
+                        deleted++;
+                        freedBytes += duplicates.getSize();
+                        removed.add(file);
+                    } else {
+                        failed++;
+                    }
+                }
+            }
+
+            int deletedCount = deleted;
+            int failedCount = failed;
+            long freed = freedBytes;
+            mainHandler.post(() -> {
+                for (File file : removed) {
+                    StorageIndexes.onPathRemoved(file);
+                }
+                listener.onDeleteComplete(deletedCount, failedCount, freed);
+            });
+        });
+    }
+}
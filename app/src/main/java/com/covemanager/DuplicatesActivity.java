@@ -0,0 +1,146 @@
+package com.covemanager;
+
+import androidx.appcompat.app.AlertDialog;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Bundle;
+import android.text.format.Formatter;
+import android.view.MenuItem;
+import android.view.View;
+import android.widget.Toast;
+import com.covemanager.databinding.ActivityDuplicatesBinding;
+import java.util.List;
+
+/**
+ * Lists duplicate files found across storage and deletes the extra copies
+ */
+public class DuplicatesActivity extends AppCompatActivity implements DuplicateScanner.ScanListener,
+        DuplicateScanner.DeleteListener {
+    private ActivityDuplicatesBinding binding;
+    private DuplicateScanner duplicateScanner;
+    private DuplicateGroupAdapter groupAdapter;
+    private long wastedBytes = 0;
+    private boolean busy = false;
+
+    public static void start(Context context) {
+        context.startActivity(new Intent(context, DuplicatesActivity.class));
+    }
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        // Inflate and get instance of binding
+        binding = ActivityDuplicatesBinding.inflate(getLayoutInflater());
+        setContentView(binding.getRoot());
+
+        // Set up toolbar
+        setSupportActionBar(binding.toolbarDuplicates);
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+            getSupportActionBar().setTitle("Duplicate Files");
+        }
+
+        groupAdapter = new DuplicateGroupAdapter(this::updateDeleteButton);
+        binding.rvDuplicates.setLayoutManager(new LinearLayoutManager(this));
+        binding.rvDuplicates.setAdapter(groupAdapter);
+        binding.btnDeleteDuplicates.setOnClickListener(v -> confirmDelete());
+
+        duplicateScanner = DuplicateScanner.getInstance();
+        startScan();
+    }
+
+    private void startScan() {
+        busy = true;
+        wastedBytes = 0;
+        groupAdapter.clear();
+        binding.tvDuplicatesStatus.setText("Scanning storage…");
+        binding.pbDuplicates.setIndeterminate(true);
+        binding.pbDuplicates.setVisibility(View.VISIBLE);
+        updateDeleteButton();
+        duplicateScanner.scan(this, this);
+    }
+
+    @Override
+    public void onDuplicatesFound(DuplicateScanner.Duplicates duplicates) {
+        groupAdapter.addGroup(duplicates);
+        wastedBytes += duplicates.getWastedBytes();
+        updateDeleteButton();
+    }
+
+    @Override
+    public void onScanProgress(int processedSizes, int totalSizes) {
+        binding.pbDuplicates.setIndeterminate(false);
+        binding.pbDuplicates.setMax(totalSizes);
+        binding.pbDuplicates.setProgress(processedSizes);
+        binding.tvDuplicatesStatus.setText("Comparing files… " + groupAdapter.getItemCount() + " groups, " +
+                Formatter.formatShortFileSize(this, wastedBytes) + " wasted");
+    }
+
+    @Override
+    public void onScanComplete(int groupCount, long elapsedMs) {
+        busy = false;
+        binding.pbDuplicates.setVisibility(View.GONE);
+        binding.tvDuplicatesStatus.setText(groupCount == 0
+                ? "No duplicates found"
+                : groupCount + " groups • " + Formatter.formatShortFileSize(this, wastedBytes) + " wasted");
+        updateDeleteButton();
+    }
+
+    private void confirmDelete() {
+        List<DuplicateScanner.Duplicates> selected = groupAdapter.getSelected();
+        new AlertDialog.Builder(this)
+                .setTitle("Delete duplicates")
+                .setMessage("Delete the extra copies in " + selected.size() + " groups and free " +
+                        Formatter.formatShortFileSize(this, groupAdapter.getSelectedWastedBytes()) +
+                        "? The oldest copy of each file is kept.")
+                .setPositiveButton("Delete", (dialog, which) -> {
+                    busy = true;
+                    updateDeleteButton();
+                    duplicateScanner.deleteExtraCopies(selected, this);
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    @Override
+    public void onDeleteComplete(int deleted, int failed, long freedBytes) {
+        busy = false;
+        if (binding == null) {
+            return;
+        }
+        String message = "Freed " + Formatter.formatShortFileSize(this, freedBytes);
+        if (failed > 0) {
+            message += ", " + failed + " files could not be deleted";
+        }
+        Toast.makeText(this, message, Toast.LENGTH_LONG).show();
+        // Unchanged files are answered from the hash cache, so rescanning is cheap
+        startScan();
+    }
+
+    private void updateDeleteButton() {
+        long selectedBytes = groupAdapter.getSelectedWastedBytes();
+        binding.btnDeleteDuplicates.setEnabled(!busy && selectedBytes > 0);
+        binding.btnDeleteDuplicates.setText(selectedBytes > 0
+                ? "Delete extra copies (" + Formatter.formatShortFileSize(this, selectedBytes) + ")"
+                : "Delete extra copies");
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == android.R.id.home) {
+            finish();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        duplicateScanner.cancelScan();
+        this.binding = null;
+    }
+}
@@ -0,0 +1,107 @@
+package com.covemanager;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of operation durations with exponentially sized buckets.
+ * Buckets grow by 20% starting at 10 microseconds, so percentiles are accurate
+ * to within one bucket width from sub-millisecond work up to several minutes.
+ */
+public class DurationHistogram {
+    private static final int BUCKET_COUNT = 100;
+    private static final double FIRST_BUCKET_MICROS = 10.0;
+    private static final double GROWTH = 1.2;
+    private static final long[] UPPER_BOUNDS_MICROS = new long[BUCKET_COUNT];
+
+    static {
+        double bound = FIRST_BUCKET_MICROS;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            UPPER_BOUNDS_MICROS[i] = (long) Math.ceil(bound);
+            bound *= GROWTH;
+        }
+    }
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * Record one duration
+     * @param durationNanos Duration in nanoseconds
+     */
+    public void record(long durationNanos) {
+        long micros = Math.max(0, durationNanos / 1000);
+        buckets.incrementAndGet(bucketFor(micros));
+        count.incrementAndGet();
+        totalMicros.addAndGet(micros);
+
+        long currentMax;
+        do {
+            currentMax = maxMicros.get();
+        } while (micros > currentMax && !maxMicros.compareAndSet(currentMax, micros));
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Get the mean duration in milliseconds
+     */
+    public double getMeanMs() {
+        long n = count.get();
+        return n == 0 ? 0 : totalMicros.get() / 1000.0 / n;
+    }
+
+    public double getMaxMs() {
+        return maxMicros.get() / 1000.0;
+    }
+
+    /**
+     * Get an approximate percentile in milliseconds
+     * @param percentile Percentile between 0 and 100
+     * @return Upper bound of the bucket holding the percentile, or 0 if empty
+     */
+    public double getPercentileMs(double percentile) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(n * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                // Never report more than what was actually observed
+                return Math.min(UPPER_BOUNDS_MICROS[i], maxMicros.get()) / 1000.0;
+            }
+        }
+        return getMaxMs();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        totalMicros.set(0);
+        maxMicros.set(0);
+    }
+
+    private static int bucketFor(long micros) {
+        // Binary search for the first bucket whose upper bound covers the value
+        int low = 0;
+        int high = BUCKET_COUNT - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (UPPER_BOUNDS_MICROS[mid] >= micros) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+}
@@ -1,19 +1,30 @@
 package com.covemanager;
 
+import android.content.res.ColorStateList;
+import android.graphics.Bitmap;
 import android.graphics.Color;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import androidx.annotation.NonNull;
+import androidx.core.widget.ImageViewCompat;
+import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
+import com.covemanager.core.DirectoryListing;
+import com.covemanager.core.DisplayFormat;
+import com.covemanager.core.FileCategory;
+import com.covemanager.core.FileItem;
+import com.covemanager.core.FileSelection;
+import com.covemanager.core.FilteredListing;
+import com.covemanager.core.ListingFilter;
+import com.covemanager.core.FolderSizeCache;
 import com.covemanager.databinding.ItemFileBinding;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import android.os.Handler;
-import android.os.Looper;
+import java.util.Set;
 import android.util.TypedValue;
 import android.graphics.drawable.Drawable;
 
@@ -21,13 +32,29 @@ import android.graphics.drawable.Drawable;
  * Modern FileAdapter with selection mode, ActionMode, and advanced file operations
  */
 public class FileAdapter extends RecyclerView.Adapter<FileAdapter.FileViewHolder> {
-    private List<FileItem> fileItems;
-    private List<File> selectedItems;
+    // Rebinds only the size of a row whose folder size was calculated
+    private static final Object PAYLOAD_FOLDER_SIZE = new Object();
+    // The listing with the rows the filter leaves out skipped
+    private final FilteredListing rows;
+    private final FileItem parentEntry;
+    // Absolute paths in the order they were selected
+    private final Set<String> selectedPaths = new LinkedHashSet<>();
     private OnFileClickListener listener;
-    private ExecutorService executorService;
-    private Handler mainHandler;
+    private FolderSizeScheduler sizeScheduler;
+    private FrameBatcher<SizeResult> sizeResults;
     private FolderSizeCache cache;
+    private ThumbnailLoader thumbnailLoader;
     private boolean isSelectionMode = false;
+    private RecyclerView recyclerView;
+    private int firstVisible = RecyclerView.NO_POSITION;
+    private int lastVisible = RecyclerView.NO_POSITION;
+
+    private final RecyclerView.OnScrollListener scrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+            updateVisibleRange(Integer.signum(dy));
+        }
+    };
 
     public interface OnFileClickListener {
         void onFileClick(FileItem fileItem);
@@ -37,13 +64,18 @@ public class FileAdapter extends RecyclerView.Adapter<FileAdapter.FileViewHolder
         void onSelectionChanged(int selectedCount);
     }
 
-    public FileAdapter(List<FileItem> fileItems, OnFileClickListener listener) {
-        this.fileItems = fileItems;
-        this.selectedItems = new ArrayList<>();
+    /**
+     * @param parentEntry The ".." row shown above the listing, or null at the root
+     */
+    public FileAdapter(DirectoryListing listing, ListingFilter filter, FileItem parentEntry,
+                       OnFileClickListener listener) {
+        this.rows = new FilteredListing(listing, filter);
+        this.parentEntry = parentEntry;
         this.listener = listener;
-        this.executorService = Executors.newFixedThreadPool(2);
-        this.mainHandler = new Handler(Looper.getMainLooper());
+        this.sizeScheduler = new FolderSizeScheduler(this::onFolderSizeCalculated);
+        this.sizeResults = new FrameBatcher<>(this::onFolderSizesReady);
         this.cache = FolderSizeCache.getInstance();
+        this.thumbnailLoader = ThumbnailLoader.getInstance();
     }
 
     @NonNull
@@ -56,20 +88,220 @@ public class FileAdapter extends RecyclerView.Adapter<FileAdapter.FileViewHolder
 
     @Override
     public void onBindViewHolder(@NonNull FileViewHolder holder, int position) {
-        FileItem fileItem = fileItems.get(position);
-        holder.bind(fileItem);
+        holder.bind(position);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull FileViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (!payloads.isEmpty() && allFolderSizePayloads(payloads)) {
+            holder.bindSize(position);
+        } else {
+            super.onBindViewHolder(holder, position, payloads);
+        }
+    }
+
+    /**
+     * Build the item of a row for a click. Binding reads the listing's columns instead, so
+     * scrolling builds no items.
+     */
+    private FileItem itemAt(int position) {
+        if (isParentRow(position)) {
+            return parentEntry;
+        }
+        return rows.getItem(position - headerCount());
+    }
+
+    private boolean isParentRow(int position) {
+        return parentEntry != null && position == 0;
+    }
+
+    /**
+     * Get the path of a row's entry without building an item
+     */
+    private String pathAt(int position) {
+        if (isParentRow(position)) {
+            return parentEntry.getPath();
+        }
+        return rows.getListing().getPath(rows.entryIndex(position - headerCount()));
+    }
+
+    /**
+     * Get the whole listing, including entries the filter leaves out
+     */
+    public DirectoryListing getListing() {
+        return rows.getListing();
+    }
+
+    /**
+     * Show the same directory in a new order. Selection is kept, since it is tracked by file.
+     */
+    public void replaceListing(DirectoryListing newListing) {
+        rows.setListing(newListing);
+        notifyDataSetChanged();
+    }
+
+    public ListingFilter getFilter() {
+        return rows.getFilter();
+    }
+
+    /**
+     * Show the rows of the listing that pass another filter, without reading the directory.
+     * Selected files that are no longer shown are deselected, so an action never touches
+     * a file the user cannot see.
+     */
+    public void setFilter(ListingFilter filter) {
+        rows.setFilter(filter);
+        int selected = selectedPaths.size();
+        // One pass; each check is a lookup in the listing's name table
+        Iterator<String> iterator = selectedPaths.iterator();
+        while (iterator.hasNext()) {
+            if (rows.indexOfPath(iterator.next()) < 0) {
+                iterator.remove();
+            }
+        }
+        notifyDataSetChanged();
+
+        if (isSelectionMode && selectedPaths.size() != selected) {
+            if (selectedPaths.isEmpty()) {
+                endSelectionMode();
+            } else if (listener != null) {
+                listener.onSelectionChanged(selectedPaths.size());
+            }
+        }
+    }
+
+    /**
+     * Add the next page of a listing that is loaded in pages
+     */
+    public void appendPage(DirectoryListing page) {
+        int start = getItemCount();
+        int shown = rows.appendPage(page);
+        if (shown > 0) {
+            notifyItemRangeInserted(start, shown);
+        }
+    }
+
+    private int headerCount() {
+        return parentEntry != null ? 1 : 0;
+    }
+
+    private static boolean allFolderSizePayloads(List<Object> payloads) {
+        for (Object payload : payloads) {
+            if (payload != PAYLOAD_FOLDER_SIZE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull FileViewHolder holder) {
+        holder.cancelThumbnail();
+        if (holder.boundFolderPath != null) {
+            sizeScheduler.cancelIfOutsideWindow(holder.boundFolderPath);
+        }
+        holder.boundFolderPath = null;
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        this.recyclerView = recyclerView;
+        recyclerView.addOnScrollListener(scrollListener);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        recyclerView.removeOnScrollListener(scrollListener);
+        this.recyclerView = null;
+    }
+
+    /**
+     * Tell the size scheduler which rows are on screen, and queue the folders just ahead of them
+     */
+    private void updateVisibleRange(int direction) {
+        if (recyclerView == null || !(recyclerView.getLayoutManager() instanceof LinearLayoutManager)) {
+            return;
+        }
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = layoutManager.findLastVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION || (first == firstVisible && last == lastVisible)) {
+            return;
+        }
+        firstVisible = first;
+        lastVisible = last;
+        sizeScheduler.setVisibleRange(first, last, direction);
+
+        int start = direction < 0 ? first - 1 : last + 1;
+        int step = direction < 0 ? -1 : 1;
+        for (int i = 0, position = start; i < FolderSizeScheduler.PREFETCH_WINDOW; i++, position += step) {
+            if (position < headerCount() || position >= getItemCount()) {
+                break;
+            }
+            if (!rows.isDirectory(position - headerCount())) {
+                continue;
+            }
+            String path = pathAt(position);
+            if (cache.getSize(path) == null) {
+                sizeScheduler.request(path, position);
+            }
+        }
+    }
+
+    /**
+     * A calculated folder size waiting for the next frame
+     */
+    private static final class SizeResult {
+        final String path;
+        final int position;
+
+        SizeResult(String path, int position) {
+            this.path = path;
+            this.position = position;
+        }
+    }
+
+    /**
+     * Called on a worker thread. Rows far from the screen pick the size up from the cache
+     * when they are bound, so only rows near it are refreshed.
+     */
+    private void onFolderSizeCalculated(String path, int position, long size) {
+        if (sizeScheduler.isInWindow(position)) {
+            sizeResults.add(new SizeResult(path, position));
+        }
     }
 
     @Override
     public int getItemCount() {
-        return fileItems.size();
+        return headerCount() + rows.size();
+    }
+
+    /**
+     * Refresh the rows of every size calculated since the last frame in one notification
+     */
+    private void onFolderSizesReady(List<SizeResult> results) {
+        int first = Integer.MAX_VALUE;
+        int last = -1;
+        for (SizeResult result : results) {
+            int position = result.position < getItemCount()
+                    && pathAt(result.position).equals(result.path)
+                    ? result.position : indexOfPath(result.path);
+            if (position >= 0) {
+                first = Math.min(first, position);
+                last = Math.max(last, position);
+            }
+        }
+        // Rows in between only reread the size cache, and only attached rows rebind at all
+        if (last >= 0) {
+            notifyItemRangeChanged(first, last - first + 1, PAYLOAD_FOLDER_SIZE);
+        }
     }
 
     // Selection Mode Methods
     public void startSelectionMode() {
         if (!isSelectionMode) {
             isSelectionMode = true;
-            selectedItems.clear();
+            selectedPaths.clear();
             notifyDataSetChanged();
             if (listener != null) {
                 listener.onSelectionModeStarted();
@@ -80,7 +312,7 @@ public class FileAdapter extends RecyclerView.Adapter<FileAdapter.FileViewHolder
     public void endSelectionMode() {
         if (isSelectionMode) {
             isSelectionMode = false;
-            selectedItems.clear();
+            selectedPaths.clear();
             notifyDataSetChanged();
             if (listener != null) {
                 listener.onSelectionModeEnded();
@@ -89,45 +321,42 @@ public class FileAdapter extends RecyclerView.Adapter<FileAdapter.FileViewHolder
     }
 
     public void toggleSelection(int position) {
-        if (position >= 0 && position < fileItems.size()) {
-            FileItem fileItem = fileItems.get(position);
-            File file = fileItem.getFile();
+        // The parent directory row is not part of the listing, so it is never selected
+        if (position >= headerCount() && position < getItemCount()) {
+            String path = pathAt(position);
             
-            if (selectedItems.contains(file)) {
-                selectedItems.remove(file);
-            } else {
-                selectedItems.add(file);
+            if (!selectedPaths.remove(path)) {
+                selectedPaths.add(path);
             }
             
             notifyItemChanged(position);
             
             if (listener != null) {
-                listener.onSelectionChanged(selectedItems.size());
+                listener.onSelectionChanged(selectedPaths.size());
             }
             
             // End selection mode if no items selected
-            if (selectedItems.isEmpty()) {
+            if (selectedPaths.isEmpty()) {
                 endSelectionMode();
             }
         }
     }
 
     public void selectAll() {
-        selectedItems.clear();
-        for (FileItem item : fileItems) {
-            if (!item.getName().equals("..")) { // Don't select parent directory
-                selectedItems.add(item.getFile());
-            }
+        selectedPaths.clear();
+        // The parent directory row is not part of the listing, so it is never selected
+        for (int i = 0; i < rows.size(); i++) {
+            selectedPaths.add(pathAt(i + headerCount()));
         }
         notifyDataSetChanged();
         
         if (listener != null) {
-            listener.onSelectionChanged(selectedItems.size());
+            listener.onSelectionChanged(selectedPaths.size());
         }
     }
 
     public void clearSelection() {
-        selectedItems.clear();
+        selectedPaths.clear();
         notifyDataSetChanged();
         
         if (listener != null) {
@@ -136,74 +365,244 @@ public class FileAdapter extends RecyclerView.Adapter<FileAdapter.FileViewHolder
     }
 
     public List<File> getSelectedItems() {
-        return new ArrayList<>(selectedItems);
+        List<File> files = new ArrayList<>(selectedPaths.size());
+        for (String path : selectedPaths) {
+            files.add(new File(path));
+        }
+        return files;
+    }
+
+    /**
+     * Get the selected files grouped by folder, as the clipboard keeps them
+     */
+    public FileSelection getSelection() {
+        return FileSelection.ofPaths(selectedPaths);
     }
 
     public int getSelectedItemsCount() {
-        return selectedItems.size();
+        return selectedPaths.size();
     }
 
     public boolean isSelectionMode() {
         return isSelectionMode;
     }
 
-    private boolean isSelected(File file) {
-        return selectedItems.contains(file);
+    private boolean isSelected(String path) {
+        return selectedPaths.contains(path);
     }
 
     /**
-     * Calculate folder size using caching
+     * Patch the listing with changes reported by {@link DirectoryWatcher}
      */
-    private long calculateFolderSize(File folder) {
-        if (!folder.exists() || !folder.isDirectory()) {
-            return 0;
+    public void applyChanges(List<FileItem> added, List<FileItem> changed, List<String> removedPaths) {
+        for (String path : removedPaths) {
+            selectedPaths.remove(path);
+            int index = rows.remove(path);
+            if (index >= 0) {
+                notifyItemRemoved(index + headerCount());
+            }
         }
 
-        long totalSize = 0;
-        File[] files = folder.listFiles();
-        
-        if (files != null) {
-            for (File file : files) {
-                if (file.isDirectory()) {
-                    totalSize += calculateFolderSize(file);
-                } else {
-                    totalSize += file.length();
+        for (FileItem item : changed) {
+            replaceOrInsert(item);
+        }
+
+        for (FileItem item : added) {
+            replaceOrInsert(item);
+        }
+
+        if (isSelectionMode && listener != null) {
+            listener.onSelectionChanged(selectedPaths.size());
+        }
+    }
+
+    private void replaceOrInsert(FileItem item) {
+        if (rows.getListing().indexOfPath(item.getPath()) >= 0) {
+            int before = rows.indexOfPath(item.getPath());
+            // A new size or date can move the entry, or move it in or out of the filter
+            int index = rows.set(item);
+            if (before >= 0 && index >= 0) {
+                if (index != before) {
+                    notifyItemMoved(before + headerCount(), index + headerCount());
                 }
+                notifyItemChanged(index + headerCount());
+            } else if (index >= 0) {
+                notifyItemInserted(index + headerCount());
+            } else if (before >= 0) {
+                selectedPaths.remove(item.getPath());
+                notifyItemRemoved(before + headerCount());
+            }
+        } else {
+            int index = rows.insert(item);
+            // Not shown if filtered out or part of a page that is not loaded yet
+            if (index >= 0) {
+                notifyItemInserted(index + headerCount());
             }
         }
-        
-        return totalSize;
+    }
+
+    /**
+     * @return The row of a path, or -1 if it is not shown. The ".." row is never matched.
+     */
+    private int indexOfPath(String path) {
+        int index = rows.indexOfPath(path);
+        return index >= 0 ? index + headerCount() : -1;
     }
 
     public void cleanup() {
-        if (executorService != null && !executorService.isShutdown()) {
-            executorService.shutdown();
-        }
+        sizeScheduler.shutdown();
+        sizeResults.cancel();
     }
 
     class FileViewHolder extends RecyclerView.ViewHolder {
         private ItemFileBinding binding;
+        private final ColorStateList iconTint;
+        private final int thumbnailSize;
+        private ThumbnailLoader.Request thumbnailRequest;
+        // The folder whose size the row shows, or null for a file
+        private String boundFolderPath;
 
         public FileViewHolder(ItemFileBinding binding) {
             super(binding.getRoot());
             this.binding = binding;
+            this.iconTint = ImageViewCompat.getImageTintList(binding.ivFileIcon);
+            this.thumbnailSize = binding.ivFileIcon.getLayoutParams().width;
+
+            // Set once on the ConstraintLayout that actually receives the clicks; the row is
+            // looked up when a click arrives, so binding creates no listeners
+            binding.constraintLayoutRoot.setOnClickListener(v -> {
+                int position = getAdapterPosition();
+                if (position == RecyclerView.NO_POSITION) {
+                    return;
+                }
+                if (isSelectionMode) {
+                    // In selection mode, clicking toggles selection
+                    toggleSelection(position);
+                } else if (listener != null) {
+                    // Normal mode, handle file click
+                    listener.onFileClick(itemAt(position));
+                }
+            });
+
+            binding.constraintLayoutRoot.setOnLongClickListener(v -> {
+                int position = getAdapterPosition();
+                // The parent directory row cannot be selected, so it starts no selection
+                if (!isSelectionMode && position != RecyclerView.NO_POSITION && !isParentRow(position)) {
+                    // Start selection mode on long press
+                    startSelectionMode();
+                    toggleSelection(position);
+                }
+                return true;
+            });
+
+            // Handle checkbox clicks
+            binding.checkboxSelect.setOnClickListener(v -> {
+                if (isSelectionMode) {
+                    toggleSelection(getAdapterPosition());
+                }
+            });
+        }
+
+        void bindSize(int position) {
+            String sizeText = null;
+            String folderPath;
+            if (isParentRow(position)) {
+                folderPath = parentEntry.getPath();
+            } else {
+                DirectoryListing listing = rows.getListing();
+                int index = rows.entryIndex(position - headerCount());
+                sizeText = listing.getSizeText(index);
+                folderPath = sizeText == null ? listing.getPath(index) : null;
+            }
+            boundFolderPath = folderPath;
+
+            if (folderPath == null) {
+                // Regular file - show size immediately
+                binding.tvFileSize.setText(sizeText);
+                binding.pbCalculating.setVisibility(View.GONE);
+                return;
+            }
+
+            Long cachedSize = cache.getSize(folderPath);
+            if (cachedSize != null) {
+                binding.tvFileSize.setText(DisplayFormat.formatEntrySize(cachedSize, true));
+                binding.pbCalculating.setVisibility(View.GONE);
+            } else {
+                // Cache miss - queued by how close the row is to the screen
+                binding.tvFileSize.setText("Calculating...");
+                binding.pbCalculating.setVisibility(View.VISIBLE);
+                sizeScheduler.request(folderPath, position);
+            }
         }
 
-        public void bind(FileItem fileItem) {
-            binding.tvFileName.setText(fileItem.getName());
-            binding.tvFileDetails.setText("Modified: " + fileItem.getFormattedDate());
+        void cancelThumbnail() {
+            if (thumbnailRequest != null) {
+                thumbnailRequest.cancel();
+                thumbnailRequest = null;
+            }
+        }
 
-            // Set appropriate icon
-            if (fileItem.isDirectory()) {
-                binding.ivFileIcon.setImageResource(R.drawable.ic_category_documents); // Use folder icon if available
+        private void bindIcon(String name, boolean isDirectory, int position, long lastModified) {
+            cancelThumbnail();
+            if (isDirectory) {
+                showIcon(R.drawable.ic_folder);
+                return;
+            }
+
+            FileCategory category = FileCategory.fromName(name);
+            if (!ThumbnailLoader.hasThumbnail(category)) {
+                showIcon(iconFor(category));
+                return;
+            }
+            // Only rows that can have a thumbnail build a File
+            File file = rows.getFile(position - headerCount());
+            Bitmap cached = thumbnailLoader.getCached(file, lastModified, thumbnailSize);
+            if (cached != null) {
+                showThumbnail(cached);
+                return;
+            }
+
+            // Show the type icon until the thumbnail is ready; the request dies with the binding
+            showIcon(iconFor(category));
+            thumbnailRequest = thumbnailLoader.load(itemView.getContext(), file,
+                    lastModified, thumbnailSize, thumbnail -> {
+                        thumbnailRequest = null;
+                        showThumbnail(thumbnail);
+                    });
+        }
+
+        private void showIcon(int iconRes) {
+            ImageViewCompat.setImageTintList(binding.ivFileIcon, iconTint);
+            binding.ivFileIcon.setImageResource(iconRes);
+        }
+
+        private void showThumbnail(Bitmap thumbnail) {
+            ImageViewCompat.setImageTintList(binding.ivFileIcon, null);
+            binding.ivFileIcon.setImageBitmap(thumbnail);
+        }
+
+        /**
+         * Show a row from the listing's columns, whose text was formatted when it was listed
+         */
+        public void bind(int position) {
+            if (isParentRow(position)) {
+                binding.tvFileName.setText(parentEntry.getName());
+                binding.tvFileDetails.setText(parentEntry.getDetailsText());
+                bindIcon(parentEntry.getName(), true, position, parentEntry.getLastModified());
             } else {
-                binding.ivFileIcon.setImageResource(R.drawable.ic_category_documents);
+                DirectoryListing listing = rows.getListing();
+                int index = rows.entryIndex(position - headerCount());
+                String name = listing.getName(index);
+                binding.tvFileName.setText(name);
+                binding.tvFileDetails.setText(listing.getDetailsText(index));
+                bindIcon(name, listing.isDirectory(index), position, listing.getLastModified(index));
             }
 
             // Handle selection mode UI
             if (isSelectionMode) {
                 binding.checkboxSelect.setVisibility(View.VISIBLE);
-                boolean selected = isSelected(fileItem.getFile());
+                boolean selected = !isParentRow(position)
+                        && isSelected(pathAt(position));
                 binding.checkboxSelect.setChecked(selected);
                 
                 // Change background color for selected items
@@ -218,80 +617,18 @@ public class FileAdapter extends RecyclerView.Adapter<FileAdapter.FileViewHolder
                 setSelectableBackground(binding.constraintLayoutRoot);
             }
 
-            // Handle folder size with caching
-            if (fileItem.isDirectory()) {
-                // Check cache first
-                Long cachedSize = cache.getSize(fileItem.getPath());
-                
-                if (cachedSize != null) {
-                    // Cache hit - update UI immediately
-                    fileItem.setSize(cachedSize);
-                    fileItem.setSizeCalculating(false);
-                    binding.tvFileSize.setText(fileItem.getFormattedSize());
-                    binding.pbCalculating.setVisibility(View.GONE);
-                } else {
-                    // Cache miss - calculate in background
-                    fileItem.setSizeCalculating(true);
-                    binding.tvFileSize.setText("Calculating...");
-                    binding.pbCalculating.setVisibility(View.VISIBLE);
-                    
-                    // Start background calculation
-                    executorService.execute(() -> {
-                        long calculatedSize = calculateFolderSize(fileItem.getFile());
-                        
-                        // Update cache before updating UI
-                        cache.putSize(fileItem.getPath(), calculatedSize);
-                        
-                        // Update UI on main thread
-                        mainHandler.post(() -> {
-                            fileItem.setSize(calculatedSize);
-                            fileItem.setSizeCalculating(false);
-                            
-                            // Only update if this ViewHolder is still bound to the same item
-                            if (getAdapterPosition() != RecyclerView.NO_POSITION &&
-                                getAdapterPosition() < fileItems.size() &&
-                                fileItems.get(getAdapterPosition()).equals(fileItem)) {
-                                
-                                binding.tvFileSize.setText(fileItem.getFormattedSize());
-                                binding.pbCalculating.setVisibility(View.GONE);
-                            }
-                        });
-                    });
-                }
-            } else {
-                // Regular file - show size immediately
-                binding.tvFileSize.setText(fileItem.getFormattedSize());
-                binding.pbCalculating.setVisibility(View.GONE);
-            }
-
-            // Set click listeners on the ConstraintLayout that actually receives the clicks
-            binding.constraintLayoutRoot.setOnClickListener(v -> {
-                if (isSelectionMode) {
-                    // In selection mode, clicking toggles selection
-                    toggleSelection(getAdapterPosition());
-                } else {
-                    // Normal mode, handle file click
-                    if (listener != null) {
-                        listener.onFileClick(fileItem);
-                    }
-                }
-            });
-
-            binding.constraintLayoutRoot.setOnLongClickListener(v -> {
-                if (!isSelectionMode) {
-                    // Start selection mode on long press
-                    startSelectionMode();
-                    toggleSelection(getAdapterPosition());
-                }
-                return true;
-            });
+            bindSize(position);
+        }
+    }
 
-            // Handle checkbox clicks
-            binding.checkboxSelect.setOnClickListener(v -> {
-                if (isSelectionMode) {
-                    toggleSelection(getAdapterPosition());
-                }
-            });
+    private static int iconFor(FileCategory category) {
+        switch (category) {
+            case IMAGES: return R.drawable.ic_image;
+            case VIDEOS: return R.drawable.ic_video;
+            case AUDIO: return R.drawable.ic_audio;
+            case DOCUMENTS: return R.drawable.ic_document;
+            case APKS: return R.drawable.ic_apk;
+            default: return R.drawable.ic_category_documents;
         }
     }
 
@@ -1,14 +1,21 @@
 package com.covemanager;
 
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.FileProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import com.google.android.material.tabs.TabLayout;
+import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.AsyncTask;
+import android.os.Build;
 import android.os.Bundle;
 import android.os.Environment;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.ActionMode;
 import android.view.Menu;
 import android.view.MenuInflater;
@@ -16,17 +23,27 @@ import android.view.MenuItem;
 import android.view.View;
 import android.widget.EditText;
 import android.widget.Toast;
+import com.covemanager.core.DirectoryListing;
+import com.covemanager.core.DirectoryPager;
+import com.covemanager.core.FileCategory;
+import com.covemanager.core.FileItem;
+import com.covemanager.core.FileOperations;
+import com.covemanager.core.FileSelection;
+import com.covemanager.core.FolderSizeCache;
+import com.covemanager.core.ListingCache;
+import com.covemanager.core.ListingFilter;
+import com.covemanager.core.SortMode;
 import com.covemanager.databinding.ActivityFileBrowserBinding;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Complete FileBrowserActivity with modern file management features:
@@ -35,13 +52,71 @@ import java.util.zip.ZipOutputStream;
  * - FileClipboard integration for cross-directory operations
  * - Modern Material Design UI
  */
-public class FileBrowserActivity extends AppCompatActivity implements FileAdapter.OnFileClickListener {
+public class FileBrowserActivity extends AppCompatActivity implements FileAdapter.OnFileClickListener,
+        DirectoryWatcher.Listener {
+    private static final int MENU_SORT_NAME = 1;
+    private static final int MENU_SORT_SIZE = 2;
+    private static final int MENU_SORT_DATE = 3;
+    private static final int MENU_SORT_TYPE = 4;
+    private static final int MENU_SORT_DESCENDING = 5;
+    private static final int MENU_FOLDERS_FIRST = 6;
+    private static final int MENU_SHOW_HIDDEN = 7;
+    private static final int MENU_FILTER_TYPE = 8;
+    private static final int MENU_FILTER_SIZE = 9;
+    private static final int MENU_NEW_TAB = 10;
+    private static final int MENU_CLOSE_TAB = 11;
+    private static final int MAX_TABS = 6;
+    private static final String[] MIN_SIZE_LABELS = {"Any size", "Over 1 MB", "Over 10 MB", "Over 100 MB"};
+    private static final long[] MIN_SIZES = {0, 1024L * 1024, 10L * 1024 * 1024, 100L * 1024 * 1024};
+    private static final int MAX_SCROLL_POSITIONS = 50;
+    // Enough rows for the first screens; later pages double in size
+    private static final int FIRST_PAGE_SIZE = 100;
+    private static final int PREFETCH_DISTANCE = 50;
+
+    /**
+     * First visible row of a directory and how far its top was scrolled out of view
+     */
+    private static final class ScrollPosition {
+        final int position;
+        final int offset;
+
+        ScrollPosition(int position, int offset) {
+            this.position = position;
+            this.offset = offset;
+        }
+    }
+
+    // Lists directories and sorts listings, one job at a time
+    private final ExecutorService listingExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
     private ActivityFileBrowserBinding binding;
     private FileAdapter fileAdapter;
     private File currentDirectory;
     private FolderSizeCache cache;
+    private ListingCache listingCache;
+    private final Map<String, ScrollPosition> scrollPositions =
+            new LinkedHashMap<String, ScrollPosition>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ScrollPosition> eldest) {
+                    return size() > MAX_SCROLL_POSITIONS;
+                }
+            };
+    // Directory of each open tab. A tab keeps nothing else: its listing comes back from the
+    // listing cache and its scroll position from scrollPositions when it is selected again.
+    private final List<File> tabs = new ArrayList<>();
+    private int currentTab = 0;
     private ActionMode actionMode;
     private FileClipboard clipboard;
+    private DirectoryWatcher directoryWatcher;
+    private SortMode sortMode = SortMode.DEFAULT;
+    private ListingFilter listingFilter = ListingFilter.DEFAULT;
+    // Reads the rest of the directory on screen, or null once it is fully loaded
+    private DirectoryPager pager;
+    private boolean pageLoading = false;
+    // Bumped for every directory shown, so pages of the previous one are dropped
+    private int loadGeneration = 0;
+    // Where to scroll once enough of the directory is loaded
+    private ScrollPosition pendingScroll;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -63,7 +138,9 @@ public class FileBrowserActivity extends AppCompatActivity implements FileAdapte
 
         // Initialize cache and clipboard
         cache = FolderSizeCache.getInstance();
+        listingCache = ListingCache.getInstance();
         clipboard = FileClipboard.getInstance();
+        directoryWatcher = new DirectoryWatcher(this, this);
 
         // Set initial directory
         String initialPath = getIntent().getStringExtra("initial_path");
@@ -79,11 +156,19 @@ public class FileBrowserActivity extends AppCompatActivity implements FileAdapte
         // Set up RecyclerView
         setupRecyclerView();
 
+        // The first tab
+        setupTabs();
+
         // Set up action bar buttons
         setupActionBarButtons();
 
-        // Check clipboard state
+        // Check clipboard state, again once a clipboard saved by an earlier process is loaded
         updatePasteButtonVisibility();
+        clipboard.whenReady(() -> {
+            if (binding != null) {
+                updatePasteButtonVisibility();
+            }
+        });
 
         // Load files
         loadFiles(currentDirectory);
@@ -99,6 +184,80 @@ public class FileBrowserActivity extends AppCompatActivity implements FileAdapte
 
     private void setupRecyclerView() {
         binding.rvFiles.setLayoutManager(new LinearLayoutManager(this));
+        binding.rvFiles.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                loadMoreIfNeeded();
+            }
+        });
+    }
+
+    private void setupTabs() {
+        tabs.add(currentDirectory);
+        binding.tabLayoutPanes.addTab(binding.tabLayoutPanes.newTab().setText(tabTitle(currentDirectory)));
+        binding.tabLayoutPanes.addOnTabSelectedListener(new TabLayout.OnTabSelectedListener() {
+            @Override
+            public void onTabSelected(TabLayout.Tab tab) {
+                switchToTab(tab.getPosition());
+            }
+
+            @Override
+            public void onTabUnselected(TabLayout.Tab tab) {
+            }
+
+            @Override
+            public void onTabReselected(TabLayout.Tab tab) {
+            }
+        });
+    }
+
+    /**
+     * Open a tab on the current directory, which shows from the listing cache right away
+     */
+    private void openTab() {
+        if (tabs.size() >= MAX_TABS) {
+            Toast.makeText(this, "Close a tab first", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        tabs.add(currentDirectory);
+        binding.tabLayoutPanes.addTab(binding.tabLayoutPanes.newTab().setText(tabTitle(currentDirectory)), true);
+        updateTabsVisibility();
+    }
+
+    private void closeTab() {
+        if (tabs.size() <= 1) {
+            return;
+        }
+        int closed = currentTab;
+        tabs.remove(closed);
+        // Removing the selected tab selects a neighbour, which then loads as a new tab
+        currentTab = -1;
+        binding.tabLayoutPanes.removeTabAt(closed);
+        updateTabsVisibility();
+    }
+
+    private void switchToTab(int index) {
+        if (index == currentTab || index < 0 || index >= tabs.size()) {
+            return;
+        }
+        if (fileAdapter != null) {
+            fileAdapter.endSelectionMode();
+        }
+        currentTab = index;
+        // The folder may have gone while the tab was in the background
+        File directory = tabs.get(index);
+        while (directory != null && !directory.isDirectory()) {
+            directory = directory.getParentFile();
+        }
+        loadFiles(directory != null ? directory : Environment.getExternalStorageDirectory());
+    }
+
+    private void updateTabsVisibility() {
+        binding.tabLayoutPanes.setVisibility(tabs.size() > 1 ? View.VISIBLE : View.GONE);
+    }
+
+    private static String tabTitle(File directory) {
+        return directory.getParent() != null ? directory.getName() : directory.getAbsolutePath();
     }
 
     private void setupActionBarButtons() {
@@ -118,52 +277,225 @@ public class FileBrowserActivity extends AppCompatActivity implements FileAdapte
     }
 
     private void loadFiles(File directory) {
+        loadFiles(directory, true);
+    }
+
+    /**
+     * @param useCache Reuse the cached listing if the directory has not changed, rather than relisting
+     */
+    private void loadFiles(File directory, boolean useCache) {
         if (directory == null || !directory.exists() || !directory.isDirectory()) {
             Toast.makeText(this, "Cannot access directory", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        currentDirectory = directory;
-        binding.tvCurrentPath.setText(directory.getAbsolutePath());
+        long traceStart = PerfTracer.begin("FileBrowser.loadFiles");
+        try {
+            listDirectory(directory, useCache);
+        } finally {
+            PerfTracer.end("FileBrowser.loadFiles", traceStart);
+        }
+    }
 
-        // Get file list
-        File[] files = directory.listFiles();
-        List<FileItem> fileItems = new ArrayList<>();
-
-        if (files != null) {
-            // Sort files: directories first, then files, alphabetically
-            Arrays.sort(files, (f1, f2) -> {
-                if (f1.isDirectory() && !f2.isDirectory()) {
-                    return -1;
-                } else if (!f1.isDirectory() && f2.isDirectory()) {
-                    return 1;
-                } else {
-                    return f1.getName().compareToIgnoreCase(f2.getName());
-                }
-            });
+    private void listDirectory(File directory, boolean useCache) {
+        leaveDirectory();
 
-            // Add parent directory option if not at root
-            if (directory.getParent() != null) {
-                fileItems.add(new FileItem(new File(directory.getParent())) {
-                    @Override
-                    public String getName() {
-                        return "..";
-                    }
-                });
+        currentDirectory = directory;
+        binding.tvCurrentPath.setText(directory.getAbsolutePath());
+        if (currentTab >= 0 && currentTab < tabs.size()) {
+            tabs.set(currentTab, directory);
+            TabLayout.Tab tab = binding.tabLayoutPanes.getTabAt(currentTab);
+            if (tab != null) {
+                tab.setText(tabTitle(directory));
             }
+        }
 
-            // Add all files and directories
-            for (File file : files) {
-                fileItems.add(new FileItem(file));
-            }
+        loadGeneration++;
+        pager = null;
+        pageLoading = false;
+        pendingScroll = scrollPositions.get(directory.getAbsolutePath());
+
+        DirectoryListing listing = useCache ? listingCache.get(directory) : null;
+        if (listing == null) {
+            // Filled in page by page on the listing thread
+            listing = new DirectoryListing(directory, sortMode);
+            pager = new DirectoryPager(directory, sortMode, FIRST_PAGE_SIZE,
+                    Build.VERSION.SDK_INT >= Build.VERSION_CODES.O);
+        }
+
+        // Add parent directory option if not at root
+        FileItem parentEntry = null;
+        if (directory.getParent() != null) {
+            parentEntry = new FileItem(new File(directory.getParent())) {
+                @Override
+                public String getName() {
+                    return "..";
+                }
+            };
         }
 
         // Update adapter
         if (fileAdapter != null) {
             fileAdapter.cleanup();
         }
-        fileAdapter = new FileAdapter(fileItems, this);
+        fileAdapter = new FileAdapter(listing, listingFilter, parentEntry, this);
         binding.rvFiles.setAdapter(fileAdapter);
+
+        // Keep the listing fresh from change events instead of relisting
+        directoryWatcher.watch(directory);
+
+        if (pager != null) {
+            loadNextPage();
+        } else {
+            restorePendingScroll();
+            // A cached listing keeps the order it was cached in
+            applySortMode(sortMode);
+        }
+    }
+
+    private void loadMoreIfNeeded() {
+        if (pager == null || fileAdapter == null) {
+            return;
+        }
+        LinearLayoutManager layoutManager = (LinearLayoutManager) binding.rvFiles.getLayoutManager();
+        if (layoutManager.findLastVisibleItemPosition() >= fileAdapter.getItemCount() - PREFETCH_DISTANCE) {
+            loadNextPage();
+        }
+    }
+
+    private void loadNextPage() {
+        if (pager == null || pageLoading) {
+            return;
+        }
+        pageLoading = true;
+        DirectoryPager currentPager = pager;
+        int generation = loadGeneration;
+        Context appContext = getApplicationContext();
+        listingExecutor.execute(() -> {
+            DirectoryListing loaded;
+            long traceStart = PerfTracer.begin("FileBrowser.loadPage");
+            try {
+                loaded = currentPager.nextPage();
+            } catch (RuntimeException e) {
+                // Shown like an unreadable directory, which also stops paging
+                ErrorLogger.logError(appContext, "FileBrowserActivity", "Error loading page", e);
+                loaded = null;
+            } finally {
+                PerfTracer.end("FileBrowser.loadPage", traceStart);
+            }
+            DirectoryListing page = loaded;
+            mainHandler.post(() -> onPageLoaded(generation, page));
+        });
+    }
+
+    private void onPageLoaded(int generation, DirectoryListing page) {
+        if (binding == null || generation != loadGeneration) {
+            return;
+        }
+        pageLoading = false;
+        if (page == null) {
+            // Unreadable; show it as empty
+            page = new DirectoryListing(currentDirectory);
+        }
+        if (page.isComplete()) {
+            pager = null;
+        }
+        fileAdapter.appendPage(page);
+
+        if (pendingScroll != null && pendingScroll.position >= fileAdapter.getItemCount() && pager != null) {
+            // The saved row is further down; keep loading before scrolling to it
+            loadNextPage();
+            return;
+        }
+        restorePendingScroll();
+        loadMoreIfNeeded();
+    }
+
+    /**
+     * Remember the listing and scroll position of the directory on screen before showing another
+     */
+    private void leaveDirectory() {
+        if (fileAdapter == null || currentDirectory == null) {
+            return;
+        }
+        listingCache.put(fileAdapter.getListing());
+        if (pendingScroll != null) {
+            // Left before loading up to the saved row, so that one still stands
+            return;
+        }
+
+        LinearLayoutManager layoutManager = (LinearLayoutManager) binding.rvFiles.getLayoutManager();
+        int position = layoutManager.findFirstVisibleItemPosition();
+        if (position != RecyclerView.NO_POSITION) {
+            View first = layoutManager.findViewByPosition(position);
+            int offset = first != null ? first.getTop() - binding.rvFiles.getPaddingTop() : 0;
+            scrollPositions.put(currentDirectory.getAbsolutePath(), new ScrollPosition(position, offset));
+        }
+    }
+
+    private void restorePendingScroll() {
+        LinearLayoutManager layoutManager = (LinearLayoutManager) binding.rvFiles.getLayoutManager();
+        if (pendingScroll != null && pendingScroll.position < fileAdapter.getItemCount()) {
+            layoutManager.scrollToPositionWithOffset(pendingScroll.position, pendingScroll.offset);
+        } else {
+            layoutManager.scrollToPosition(0);
+        }
+        pendingScroll = null;
+    }
+
+    /**
+     * Refresh after one of our own file operations. The watcher delivers the resulting
+     * changes as deltas, so a full relist is only needed when nothing is being watched.
+     */
+    private void refreshAfterOperation() {
+        if (!directoryWatcher.isWatching()) {
+            loadFiles(currentDirectory, false);
+        }
+    }
+
+    @Override
+    public void onEntriesChanged(List<FileItem> added, List<FileItem> changed, List<String> removedPaths) {
+        if (fileAdapter != null) {
+            fileAdapter.applyChanges(added, changed, removedPaths);
+        }
+        if (pager != null) {
+            // The pager read the names once, so files past the loaded rows come through it
+            for (FileItem item : added) {
+                pager.entryCreated(item.getName());
+            }
+        }
+        // Changes by other apps reach the storage indexes only through the watcher
+        for (String path : removedPaths) {
+            StorageIndexes.onPathRemoved(new File(path));
+        }
+        for (FileItem item : added) {
+            StorageIndexes.onPathAdded(item.getFile());
+        }
+        for (FileItem item : changed) {
+            // A folder changes when its own entries do, which its watcher reports once opened;
+            // adding it would crawl its whole tree again
+            if (!item.isDirectory()) {
+                StorageIndexes.onPathAdded(item.getFile());
+            }
+        }
+    }
+
+    @Override
+    public void onDirectoryInvalidated() {
+        loadFiles(currentDirectory, false);
+    }
+
+    @Override
+    public void onDirectoryGone() {
+        // Fall back to the closest ancestor that still exists
+        File directory = currentDirectory.getParentFile();
+        while (directory != null && !directory.isDirectory()) {
+            directory = directory.getParentFile();
+        }
+        if (directory != null) {
+            Toast.makeText(this, "Folder no longer exists", Toast.LENGTH_SHORT).show();
+            loadFiles(directory);
+        }
     }
 
     @Override
@@ -258,9 +590,10 @@ public class FileBrowserActivity extends AppCompatActivity implements FileAdapte
                         File newFile = new File(file.getParent(), newName);
                         if (file.renameTo(newFile)) {
                             cache.invalidatePath(file.getParent());
+                            StorageIndexes.onPathRenamed(file, newFile);
                             Toast.makeText(this, "File renamed successfully", Toast.LENGTH_SHORT).show();
                             fileAdapter.endSelectionMode();
-                            loadFiles(currentDirectory);
+                            refreshAfterOperation();
                         } else {
                             Toast.makeText(this, "Failed to rename file", Toast.LENGTH_SHORT).show();
                         }
@@ -323,32 +656,81 @@ public class FileBrowserActivity extends AppCompatActivity implements FileAdapte
     }
 
     private void copySelectedFiles() {
-        List<File> selectedFiles = fileAdapter.getSelectedItems();
-        if (!selectedFiles.isEmpty()) {
-            clipboard.copy(selectedFiles);
-            fileAdapter.endSelectionMode();
-            updatePasteButtonVisibility();
-            Toast.makeText(this, selectedFiles.size() + " files copied to clipboard", Toast.LENGTH_SHORT).show();
+        FileSelection selectedFiles = fileAdapter.getSelection();
+        if (selectedFiles.isEmpty()) return;
+        if (tabs.size() > 1) {
+            showTransferTargets(selectedFiles, false);
+            return;
         }
+        copyToClipboard(selectedFiles);
+    }
+
+    private void copyToClipboard(FileSelection selectedFiles) {
+        clipboard.copy(selectedFiles);
+        fileAdapter.endSelectionMode();
+        updatePasteButtonVisibility();
+        Toast.makeText(this, selectedFiles.size() + " files copied to clipboard", Toast.LENGTH_SHORT).show();
     }
 
     private void moveSelectedFiles() {
-        List<File> selectedFiles = fileAdapter.getSelectedItems();
-        if (!selectedFiles.isEmpty()) {
-            clipboard.move(selectedFiles);
-            fileAdapter.endSelectionMode();
-            updatePasteButtonVisibility();
-            Toast.makeText(this, selectedFiles.size() + " files cut to clipboard", Toast.LENGTH_SHORT).show();
+        FileSelection selectedFiles = fileAdapter.getSelection();
+        if (selectedFiles.isEmpty()) return;
+        if (tabs.size() > 1) {
+            showTransferTargets(selectedFiles, true);
+            return;
         }
+        cutToClipboard(selectedFiles);
     }
 
-    private void pasteFiles() {
-        if (clipboard.isEmpty()) return;
+    private void cutToClipboard(FileSelection selectedFiles) {
+        clipboard.move(selectedFiles);
+        fileAdapter.endSelectionMode();
+        updatePasteButtonVisibility();
+        Toast.makeText(this, selectedFiles.size() + " files cut to clipboard", Toast.LENGTH_SHORT).show();
+    }
 
-        List<File> filesToPaste = clipboard.getFiles();
-        boolean isMove = clipboard.getOperationType() == FileClipboard.OperationType.MOVE;
+    /**
+     * Offer the folders of the other tabs as destinations, so files go there straight away
+     * instead of through the clipboard and neither folder needs listing first
+     */
+    private void showTransferTargets(FileSelection selectedFiles, boolean isMove) {
+        List<File> targets = new ArrayList<>();
+        for (File directory : tabs) {
+            if (!directory.equals(currentDirectory) && !targets.contains(directory)) {
+                targets.add(directory);
+            }
+        }
+        String[] labels = new String[targets.size() + 1];
+        for (int i = 0; i < targets.size(); i++) {
+            labels[i] = targets.get(i).getAbsolutePath();
+        }
+        labels[targets.size()] = "Clipboard";
 
-        new PasteFilesTask(isMove).execute(filesToPaste.toArray(new File[0]));
+        new AlertDialog.Builder(this)
+                .setTitle(isMove ? "Move to" : "Copy to")
+                .setItems(labels, (dialog, which) -> {
+                    if (which == targets.size()) {
+                        if (isMove) {
+                            cutToClipboard(selectedFiles);
+                        } else {
+                            copyToClipboard(selectedFiles);
+                        }
+                        return;
+                    }
+                    fileAdapter.endSelectionMode();
+                    new PasteFilesTask(isMove, targets.get(which), selectedFiles, null).execute();
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private void pasteFiles() {
+        // One snapshot, so the files and the operation always belong together
+        FileClipboard.Contents contents = clipboard.getContents();
+        if (contents.isEmpty()) return;
+
+        boolean isMove = contents.getOperationType() == FileClipboard.OperationType.MOVE;
+        new PasteFilesTask(isMove, currentDirectory, contents.getFiles(), contents).execute();
     }
 
     private void showFileDetails() {
@@ -459,7 +841,9 @@ public class FileBrowserActivity extends AppCompatActivity implements FileAdapte
         @Override
         public boolean onCreateActionMode(ActionMode mode, Menu menu) {
             MenuInflater inflater = mode.getMenuInflater();
-            // You can inflate a menu here if needed
+            // Select all is handled in onActionItemClicked
+            menu.add(Menu.NONE, android.R.id.selectAll, Menu.NONE, "Select all")
+                .setShowAsAction(MenuItem.SHOW_AS_ACTION_IF_ROOM | MenuItem.SHOW_AS_ACTION_WITH_TEXT);
             return true;
         }
 
@@ -491,11 +875,12 @@ public class FileBrowserActivity extends AppCompatActivity implements FileAdapte
             boolean success = true;
             for (File file : files) {
                 try {
-                    if (!deleteRecursively(file)) {
+                    if (!FileOperations.deleteRecursively(file)) {
                         success = false;
                         ErrorLogger.logError(FileBrowserActivity.this, "DeleteFilesTask", 
                             "Failed to delete file: " + file.getAbsolutePath());
                     } else {
+                        StorageIndexes.onPathRemoved(file);
                         ErrorLogger.logInfo(FileBrowserActivity.this, "DeleteFilesTask", 
                             "Successfully deleted: " + file.getAbsolutePath());
                     }
@@ -513,7 +898,7 @@ public class FileBrowserActivity extends AppCompatActivity implements FileAdapte
             try {
                 cache.invalidatePath(currentDirectory.getAbsolutePath());
                 fileAdapter.endSelectionMode();
-                loadFiles(currentDirectory);
+                refreshAfterOperation();
                 
                 if (success) {
                     Toast.makeText(FileBrowserActivity.this, "Files deleted successfully", Toast.LENGTH_SHORT).show();
@@ -526,26 +911,6 @@ public class FileBrowserActivity extends AppCompatActivity implements FileAdapte
                 ErrorLogger.logError(FileBrowserActivity.this, "DeleteFilesTask", "Error in onPostExecute", e);
             }
         }
-
-        private boolean deleteRecursively(File file) {
-            try {
-                if (file.isDirectory()) {
-                    File[] children = file.listFiles();
-                    if (children != null) {
-                        for (File child : children) {
-                            if (!deleteRecursively(child)) {
-                                return false;
-                            }
-                        }
-                    }
-                }
-                return file.delete();
-            } catch (Exception e) {
-                ErrorLogger.trackFileError(FileBrowserActivity.this, "deleteRecursively", 
-                    file.getAbsolutePath(), e);
-                return false;
-            }
-        }
     }
 
     private class CompressFilesTask extends AsyncTask<Object, Void, Boolean> {
@@ -558,13 +923,12 @@ public class FileBrowserActivity extends AppCompatActivity implements FileAdapte
             
             File zipFile = new File(currentDirectory, zipFileName);
             
-            try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(zipFile))) {
-                for (File file : files) {
-                    addToZip(file, file.getName(), zos);
-                }
+            try {
+                FileOperations.zip(files, zipFile);
+                StorageIndexes.onPathAdded(zipFile);
                 return true;
             } catch (IOException e) {
-                e.printStackTrace();
+                ErrorLogger.trackFileError(FileBrowserActivity.this, "compress", zipFile.getAbsolutePath(), e);
                 return false;
             }
         }
@@ -573,7 +937,7 @@ public class FileBrowserActivity extends AppCompatActivity implements FileAdapte
         protected void onPostExecute(Boolean success) {
             cache.invalidatePath(currentDirectory.getAbsolutePath());
             fileAdapter.endSelectionMode();
-            loadFiles(currentDirectory);
+            refreshAfterOperation();
             
             if (success) {
                 Toast.makeText(FileBrowserActivity.this, "Files compressed to " + zipFileName, Toast.LENGTH_SHORT).show();
@@ -581,56 +945,59 @@ public class FileBrowserActivity extends AppCompatActivity implements FileAdapte
                 Toast.makeText(FileBrowserActivity.this, "Failed to compress files", Toast.LENGTH_SHORT).show();
             }
         }
-
-        private void addToZip(File file, String fileName, ZipOutputStream zos) throws IOException {
-            if (file.isDirectory()) {
-                File[] children = file.listFiles();
-                if (children != null) {
-                    for (File child : children) {
-                        addToZip(child, fileName + "/" + child.getName(), zos);
-                    }
-                }
-            } else {
-                ZipEntry zipEntry = new ZipEntry(fileName);
-                zos.putNextEntry(zipEntry);
-                
-                try (FileInputStream fis = new FileInputStream(file)) {
-                    byte[] buffer = new byte[1024];
-                    int length;
-                    while ((length = fis.read(buffer)) > 0) {
-                        zos.write(buffer, 0, length);
-                    }
-                }
-                zos.closeEntry();
-            }
-        }
     }
 
-    private class PasteFilesTask extends AsyncTask<File, Void, Boolean> {
+    private class PasteFilesTask extends AsyncTask<Void, Void, Boolean> {
         private boolean isMove;
-
-        public PasteFilesTask(boolean isMove) {
+        private final File destinationDirectory;
+        private final Iterable<File> files;
+        private final FileClipboard.Contents pasted;
+        private File sourceDirectory;
+        private long traceStart;
+
+        /**
+         * @param destinationDirectory Where the files go, fixed when the paste starts
+         * @param files Read one at a time as they are pasted
+         * @param pasted The clipboard contents being pasted, to clear afterwards, or null
+         */
+        public PasteFilesTask(boolean isMove, File destinationDirectory, Iterable<File> files,
+                              FileClipboard.Contents pasted) {
             this.isMove = isMove;
+            this.destinationDirectory = destinationDirectory;
+            this.files = files;
+            this.pasted = pasted;
         }
 
         @Override
-        protected Boolean doInBackground(File... files) {
+        protected void onPreExecute() {
+            traceStart = PerfTracer.beginAsync(traceName());
+        }
+
+        private String traceName() {
+            return isMove ? "FileBrowser.paste(move)" : "FileBrowser.paste(copy)";
+        }
+
+        @Override
+        protected Boolean doInBackground(Void... params) {
             boolean success = true;
             for (File file : files) {
-                File destination = new File(currentDirectory, file.getName());
+                if (sourceDirectory == null) {
+                    sourceDirectory = file.getParentFile();
+                }
+                File destination = new File(destinationDirectory, file.getName());
                 
                 if (isMove) {
-                    if (!file.renameTo(destination)) {
-                        // If rename fails, try copy then delete
-                        if (copyFile(file, destination)) {
-                            deleteRecursively(file);
-                        } else {
-                            success = false;
-                        }
+                    // Rename, or copy then delete if rename fails
+                    if (!FileOperations.move(file, destination)) {
+                        success = false;
+                    } else {
+                        StorageIndexes.onPathRenamed(file, destination);
                     }
                 } else {
-                    if (!copyFile(file, destination)) {
+                    if (!FileOperations.copyRecursively(file, destination)) {
                         success = false;
+                    } else {
+                        StorageIndexes.onPathAdded(destination);
                     }
                 }
             }
@@ -639,10 +1006,18 @@ public class FileBrowserActivity extends AppCompatActivity implements FileAdapte
 
         @Override
         protected void onPostExecute(Boolean success) {
-            clipboard.clear();
-            updatePasteButtonVisibility();
-            cache.invalidatePath(currentDirectory.getAbsolutePath());
-            loadFiles(currentDirectory);
+            PerfTracer.endAsync(traceName(), traceStart);
+            if (pasted != null) {
+                // Anything copied while this paste ran stays on the clipboard
+                clipboard.clearAfterPaste(pasted);
+                updatePasteButtonVisibility();
+            }
+            cache.invalidatePath(destinationDirectory.getAbsolutePath());
+            if (isMove && sourceDirectory != null) {
+                cache.invalidatePath(sourceDirectory.getAbsolutePath());
+            }
+            // A tab left open on the other folder relists it when selected, since its time changed
+            refreshAfterOperation();
             
             String operation = isMove ? "moved" : "copied";
             if (success) {
@@ -651,54 +1026,186 @@ public class FileBrowserActivity extends AppCompatActivity implements FileAdapte
                 Toast.makeText(FileBrowserActivity.this, "Some files could not be " + operation, Toast.LENGTH_SHORT).show();
             }
         }
+    }
 
-        private boolean copyFile(File source, File destination) {
-            if (source.isDirectory()) {
-                if (!destination.mkdirs()) return false;
-                File[] children = source.listFiles();
-                if (children != null) {
-                    for (File child : children) {
-                        if (!copyFile(child, new File(destination, child.getName()))) {
-                            return false;
-                        }
-                    }
-                }
-                return true;
-            } else {
-                try (FileChannel sourceChannel = new FileInputStream(source).getChannel();
-                     FileChannel destChannel = new FileOutputStream(destination).getChannel()) {
-                    destChannel.transferFrom(sourceChannel, 0, sourceChannel.size());
-                    return true;
-                } catch (IOException e) {
-                    return false;
-                }
-            }
-        }
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        menu.add(0, MENU_SORT_NAME, 0, "Sort by name");
+        menu.add(0, MENU_SORT_SIZE, 0, "Sort by size");
+        menu.add(0, MENU_SORT_DATE, 0, "Sort by date");
+        menu.add(0, MENU_SORT_TYPE, 0, "Sort by type");
+        menu.add(0, MENU_SORT_DESCENDING, 0, "Descending").setCheckable(true);
+        menu.add(0, MENU_FOLDERS_FIRST, 0, "Folders first").setCheckable(true);
+        menu.add(0, MENU_SHOW_HIDDEN, 0, "Show hidden files").setCheckable(true);
+        menu.add(0, MENU_FILTER_TYPE, 0, "Filter by type");
+        menu.add(0, MENU_FILTER_SIZE, 0, "Filter by size");
+        menu.add(0, MENU_NEW_TAB, 0, "New tab");
+        menu.add(0, MENU_CLOSE_TAB, 0, "Close tab");
+        return true;
+    }
 
-        private boolean deleteRecursively(File file) {
-            if (file.isDirectory()) {
-                File[] children = file.listFiles();
-                if (children != null) {
-                    for (File child : children) {
-                        if (!deleteRecursively(child)) {
-                            return false;
-                        }
-                    }
-                }
-            }
-            return file.delete();
-        }
+    @Override
+    public boolean onPrepareOptionsMenu(Menu menu) {
+        menu.findItem(MENU_SORT_DESCENDING).setChecked(!sortMode.isAscending());
+        menu.findItem(MENU_FOLDERS_FIRST).setChecked(sortMode.isFoldersFirst());
+        menu.findItem(MENU_SHOW_HIDDEN).setChecked(!listingFilter.isHideHidden());
+        menu.findItem(MENU_CLOSE_TAB).setVisible(tabs.size() > 1);
+        return super.onPrepareOptionsMenu(menu);
     }
 
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
-        if (item.getItemId() == android.R.id.home) {
+        int itemId = item.getItemId();
+        if (itemId == android.R.id.home) {
             finish();
             return true;
+        } else if (itemId == MENU_SORT_NAME) {
+            applySortMode(sortMode.withKey(SortMode.Key.NAME));
+            return true;
+        } else if (itemId == MENU_SORT_SIZE) {
+            applySortMode(sortMode.withKey(SortMode.Key.SIZE));
+            return true;
+        } else if (itemId == MENU_SORT_DATE) {
+            applySortMode(sortMode.withKey(SortMode.Key.DATE));
+            return true;
+        } else if (itemId == MENU_SORT_TYPE) {
+            applySortMode(sortMode.withKey(SortMode.Key.TYPE));
+            return true;
+        } else if (itemId == MENU_SORT_DESCENDING) {
+            applySortMode(sortMode.withAscending(!sortMode.isAscending()));
+            return true;
+        } else if (itemId == MENU_FOLDERS_FIRST) {
+            applySortMode(sortMode.withFoldersFirst(!sortMode.isFoldersFirst()));
+            return true;
+        } else if (itemId == MENU_SHOW_HIDDEN) {
+            applyFilter(listingFilter.withHideHidden(!listingFilter.isHideHidden()));
+            return true;
+        } else if (itemId == MENU_FILTER_TYPE) {
+            showTypeFilterDialog();
+            return true;
+        } else if (itemId == MENU_FILTER_SIZE) {
+            showSizeFilterDialog();
+            return true;
+        } else if (itemId == MENU_NEW_TAB) {
+            openTab();
+            return true;
+        } else if (itemId == MENU_CLOSE_TAB) {
+            closeTab();
+            return true;
         }
         return super.onOptionsItemSelected(item);
     }
 
+    private void showTypeFilterDialog() {
+        FileCategory[] categories = FileCategory.values();
+        String[] labels = new String[categories.length];
+        boolean[] checked = new boolean[categories.length];
+        for (int i = 0; i < categories.length; i++) {
+            labels[i] = categoryLabel(categories[i]);
+            checked[i] = listingFilter.getCategories().contains(categories[i]);
+        }
+
+        new AlertDialog.Builder(this)
+                .setTitle("Show only")
+                .setMultiChoiceItems(labels, checked, (dialog, which, isChecked) -> checked[which] = isChecked)
+                .setPositiveButton("Apply", (dialog, which) -> {
+                    EnumSet<FileCategory> selected = EnumSet.noneOf(FileCategory.class);
+                    for (int i = 0; i < categories.length; i++) {
+                        if (checked[i]) {
+                            selected.add(categories[i]);
+                        }
+                    }
+                    applyFilter(listingFilter.withCategories(selected));
+                })
+                .setNeutralButton("All types", (dialog, which) ->
+                        applyFilter(listingFilter.withCategories(EnumSet.noneOf(FileCategory.class))))
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private static String categoryLabel(FileCategory category) {
+        switch (category) {
+            case IMAGES: return "Images";
+            case VIDEOS: return "Videos";
+            case AUDIO: return "Audio";
+            case DOCUMENTS: return "Documents";
+            case APKS: return "APKs";
+            default: return "Other files";
+        }
+    }
+
+    private void showSizeFilterDialog() {
+        int current = 0;
+        for (int i = 0; i < MIN_SIZES.length; i++) {
+            if (MIN_SIZES[i] == listingFilter.getMinSize()) {
+                current = i;
+            }
+        }
+
+        new AlertDialog.Builder(this)
+                .setTitle("Show files")
+                .setSingleChoiceItems(MIN_SIZE_LABELS, current, (dialog, which) -> {
+                    applyFilter(listingFilter.withMinSize(MIN_SIZES[which]));
+                    dialog.dismiss();
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    /**
+     * Show the rows of the current listing that pass a filter. The listing holds every entry,
+     * so this never reads the directory again.
+     */
+    private void applyFilter(ListingFilter filter) {
+        listingFilter = filter;
+        if (fileAdapter == null || fileAdapter.getFilter().equals(filter)) {
+            return;
+        }
+        fileAdapter.setFilter(filter);
+        // A stricter filter can leave too few rows to scroll to the next page
+        loadMoreIfNeeded();
+    }
+
+    /**
+     * Re-sort the current listing on a background thread from the attributes it already holds,
+     * while the old order stays on screen. A partly loaded listing holds the first entries of
+     * the old order rather than of the new one, so it is loaded again instead.
+     */
+    private void applySortMode(SortMode mode) {
+        sortMode = mode;
+        if (fileAdapter == null || fileAdapter.getListing().getSortMode().equals(mode)) {
+            return;
+        }
+        if (!fileAdapter.getListing().isComplete()) {
+            loadFiles(currentDirectory, false);
+            return;
+        }
+        FileAdapter adapter = fileAdapter;
+        DirectoryListing current = adapter.getListing();
+        DirectoryListing sorted = current.copy();
+        int modificationCount = current.getModificationCount();
+        listingExecutor.execute(() -> {
+            long traceStart = PerfTracer.begin("FileBrowser.sort");
+            try {
+                sorted.sort(mode);
+            } finally {
+                PerfTracer.end("FileBrowser.sort", traceStart);
+            }
+            mainHandler.post(() -> {
+                // Dropped if the user navigated away or picked another order meanwhile
+                if (binding == null || fileAdapter != adapter || !sortMode.equals(mode)) {
+                    return;
+                }
+                if (current.getModificationCount() != modificationCount) {
+                    // The watcher patched the listing while it was being sorted; sort the new one
+                    applySortMode(mode);
+                } else {
+                    adapter.replaceListing(sorted);
+                }
+            });
+        });
+    }
+
     @Override
     public void onBackPressed() {
         // Navigate up one directory level instead of closing activity
@@ -713,8 +1220,14 @@ public class FileBrowserActivity extends AppCompatActivity implements FileAdapte
     protected void onDestroy() {
         super.onDestroy();
         if (fileAdapter != null) {
+            // Reopening the browser in this directory can start from the cache
+            listingCache.put(fileAdapter.getListing());
             fileAdapter.cleanup();
         }
+        if (directoryWatcher != null) {
+            directoryWatcher.release();
+        }
+        listingExecutor.shutdownNow();
         this.binding = null;
     }
 }
\ No newline at end of file
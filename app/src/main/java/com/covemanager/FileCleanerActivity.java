@@ -1,15 +1,64 @@
 package com.covemanager;
 
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import android.os.Bundle;
+import android.text.format.Formatter;
 import android.view.MenuItem;
+import android.view.View;
+import android.widget.Toast;
+import com.covemanager.core.FileReport;
+import com.covemanager.core.JunkCategory;
 import com.covemanager.databinding.ActivityFileCleanerBinding;
+import com.covemanager.databinding.ItemJunkCategoryBinding;
+import com.covemanager.databinding.ItemReportFileBinding;
+import java.io.File;
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * File cleaner activity for cleaning temporary and junk files
  */
-public class FileCleanerActivity extends AppCompatActivity {
+public class FileCleanerActivity extends AppCompatActivity implements JunkScanner.ScanListener,
+        JunkScanner.CleanListener, FileReportManager.Listener, FileReportManager.DeleteListener {
     private ActivityFileCleanerBinding binding;
+    private JunkScanner junkScanner;
+    private final Map<JunkCategory, List<JunkScanner.JunkItem>> found = new EnumMap<>(JunkCategory.class);
+    private final Map<JunkCategory, Long> foundBytes = new EnumMap<>(JunkCategory.class);
+    private final Map<JunkCategory, ItemJunkCategoryBinding> rows = new EnumMap<>(JunkCategory.class);
+    // Installer packages may be kept on purpose, so they are only deleted when asked for
+    private final Set<JunkCategory> selected = EnumSet.complementOf(EnumSet.of(JunkCategory.OBSOLETE_APKS));
+    private boolean scanning = false;
+    private boolean cleaning = false;
+    private FileReportManager reportManager;
+    // Report files are kept on purpose more often than junk, so none start selected
+    private final Map<String, FileReport.ReportedFile> selectedReportFiles = new LinkedHashMap<>();
+    private final List<ReportSection> reportSections = new ArrayList<>();
+    private final DateFormat dateFormat = DateFormat.getDateInstance(DateFormat.MEDIUM);
+    private boolean deletingReportFiles = false;
+    private boolean syncingChecks = false;
+
+    /**
+     * Rows of one report list, kept to sync check boxes of files listed more than once
+     */
+    private static final class ReportSection {
+        final ItemJunkCategoryBinding header;
+        final List<FileReport.ReportedFile> files;
+        final List<ItemReportFileBinding> rows = new ArrayList<>();
+
+        ReportSection(ItemJunkCategoryBinding header, List<FileReport.ReportedFile> files) {
+            this.header = header;
+            this.files = files;
+        }
+    }
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -25,6 +74,325 @@ public class FileCleanerActivity extends AppCompatActivity {
             getSupportActionBar().setDisplayHomeAsUpEnabled(true);
             getSupportActionBar().setTitle("File Cleaner");
         }
+
+        setupCategoryRows();
+        binding.btnClean.setOnClickListener(v -> confirmClean());
+        binding.btnFindDuplicates.setOnClickListener(v -> DuplicatesActivity.start(this));
+        binding.btnDeleteReportFiles.setOnClickListener(v -> confirmDeleteReportFiles());
+
+        junkScanner = JunkScanner.getInstance();
+        startScan();
+
+        reportManager = FileReportManager.getInstance();
+        reportManager.load(this, this);
+    }
+
+    private void setupCategoryRows() {
+        for (JunkCategory category : JunkCategory.values()) {
+            ItemJunkCategoryBinding row = ItemJunkCategoryBinding.inflate(getLayoutInflater(),
+                    binding.llJunkCategories, true);
+            row.tvJunkLabel.setText(categoryLabel(category));
+            row.cbJunkCategory.setChecked(selected.contains(category));
+            row.cbJunkCategory.setOnCheckedChangeListener((buttonView, isChecked) -> {
+                if (isChecked) {
+                    selected.add(category);
+                } else {
+                    selected.remove(category);
+                }
+                updateCleanButton();
+            });
+            rows.put(category, row);
+        }
+    }
+
+    private void startScan() {
+        scanning = true;
+        found.clear();
+        foundBytes.clear();
+        for (JunkCategory category : JunkCategory.values()) {
+            updateRow(category);
+        }
+        binding.tvCleanerStatus.setText("Scanning…");
+        binding.pbCleaner.setIndeterminate(true);
+        binding.pbCleaner.setVisibility(View.VISIBLE);
+        updateCleanButton();
+        junkScanner.scan(this, this);
+    }
+
+    @Override
+    public void onJunkFound(List<JunkScanner.JunkItem> items) {
+        EnumSet<JunkCategory> changed = EnumSet.noneOf(JunkCategory.class);
+        for (JunkScanner.JunkItem item : items) {
+            JunkCategory category = item.getCategory();
+            List<JunkScanner.JunkItem> list = found.get(category);
+            if (list == null) {
+                list = new ArrayList<>();
+                found.put(category, list);
+            }
+            list.add(item);
+            foundBytes.put(category, getFoundBytes(category) + item.getSize());
+            changed.add(category);
+        }
+        for (JunkCategory category : changed) {
+            updateRow(category);
+        }
+        binding.tvCleanerStatus.setText("Scanning… " + Formatter.formatShortFileSize(this, getTotalBytes(false)) + " found");
+        updateCleanButton();
+    }
+
+    @Override
+    public void onScanComplete(long elapsedMs) {
+        scanning = false;
+        binding.pbCleaner.setVisibility(View.GONE);
+        binding.tvCleanerStatus.setText(Formatter.formatShortFileSize(this, getTotalBytes(false)) + " of junk found");
+        ErrorLogger.logInfo(this, "FileCleanerActivity", "Junk scan finished in " + elapsedMs + " ms");
+        updateCleanButton();
+    }
+
+    private void confirmClean() {
+        long bytes = getTotalBytes(true);
+        new AlertDialog.Builder(this)
+                .setTitle("Clean junk")
+                .setMessage("Delete " + Formatter.formatShortFileSize(this, bytes) + " of junk files? This cannot be undone.")
+                .setPositiveButton("Clean", (dialog, which) -> startClean())
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private void startClean() {
+        List<JunkScanner.JunkItem> items = new ArrayList<>();
+        for (JunkCategory category : selected) {
+            List<JunkScanner.JunkItem> list = found.get(category);
+            if (list != null) {
+                items.addAll(list);
+            }
+        }
+        cleaning = true;
+        updateCleanButton();
+        binding.tvCleanerStatus.setText("Cleaning…");
+        binding.pbCleaner.setIndeterminate(false);
+        binding.pbCleaner.setMax(Math.max(1, items.size()));
+        binding.pbCleaner.setProgress(0);
+        binding.pbCleaner.setVisibility(View.VISIBLE);
+        junkScanner.clean(items, this);
+    }
+
+    @Override
+    public void onCleanProgress(int processed, int total) {
+        if (binding != null) {
+            binding.pbCleaner.setProgress(processed);
+        }
+    }
+
+    @Override
+    public void onCleanComplete(int deleted, int failed, long freedBytes) {
+        cleaning = false;
+        if (binding == null) {
+            return;
+        }
+        String message = "Freed " + Formatter.formatShortFileSize(this, freedBytes);
+        if (failed > 0) {
+            message += ", " + failed + " items could not be deleted";
+        }
+        Toast.makeText(this, message, Toast.LENGTH_LONG).show();
+        startScan();
+    }
+
+    @Override
+    public void onReportUpdated(FileReportManager.Report report) {
+        if (binding == null) {
+            return;
+        }
+        binding.tvReportStatus.setText(report.isComplete()
+                ? "Review large files before deleting them"
+                : "Scanning…");
+
+        // Drop selected files that are no longer listed
+        Set<String> listed = new HashSet<>();
+        addPaths(listed, report.getLargest());
+        addPaths(listed, report.getOldest());
+        addPaths(listed, report.getLargeDownloads());
+        selectedReportFiles.keySet().retainAll(listed);
+
+        binding.llReportSections.removeAllViews();
+        reportSections.clear();
+        addReportSection("Largest files", report.getLargest(), false);
+        addReportSection("Not modified for a year", report.getOldest(), true);
+        addReportSection("Large downloads", report.getLargeDownloads(), false);
+        syncReportChecks();
+    }
+
+    private static void addPaths(Set<String> paths, List<FileReport.ReportedFile> files) {
+        for (FileReport.ReportedFile file : files) {
+            paths.add(file.getPath());
+        }
+    }
+
+    private void addReportSection(String label, List<FileReport.ReportedFile> files, boolean showDate) {
+        if (files.isEmpty()) {
+            return;
+        }
+        long totalBytes = 0;
+        for (FileReport.ReportedFile file : files) {
+            totalBytes += file.getSize();
+        }
+
+        ItemJunkCategoryBinding header = ItemJunkCategoryBinding.inflate(getLayoutInflater(),
+                binding.llReportSections, true);
+        header.tvJunkLabel.setText(label);
+        header.tvJunkSummary.setText(files.size() + " files • " + Formatter.formatShortFileSize(this, totalBytes));
+        ReportSection section = new ReportSection(header, files);
+        // The header check box selects the whole list at once
+        header.cbJunkCategory.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            if (syncingChecks) {
+                return;
+            }
+            for (FileReport.ReportedFile file : files) {
+                setReportFileSelected(file, isChecked);
+            }
+            syncReportChecks();
+        });
+
+        for (FileReport.ReportedFile file : files) {
+            ItemReportFileBinding row = ItemReportFileBinding.inflate(getLayoutInflater(),
+                    binding.llReportSections, true);
+            File parent = new File(file.getPath()).getParentFile();
+            row.tvReportFileName.setText(new File(file.getPath()).getName());
+            String detail = Formatter.formatShortFileSize(this, file.getSize());
+            if (showDate) {
+                detail += " • " + dateFormat.format(new Date(file.getLastModified()));
+            }
+            if (parent != null) {
+                detail += " • " + parent.getPath();
+            }
+            row.tvReportFileDetail.setText(detail);
+            row.cbReportFile.setOnCheckedChangeListener((buttonView, isChecked) -> {
+                if (syncingChecks) {
+                    return;
+                }
+                setReportFileSelected(file, isChecked);
+                syncReportChecks();
+            });
+            row.getRoot().setOnClickListener(v -> row.cbReportFile.toggle());
+            section.rows.add(row);
+        }
+        reportSections.add(section);
+    }
+
+    private void setReportFileSelected(FileReport.ReportedFile file, boolean selected) {
+        if (selected) {
+            selectedReportFiles.put(file.getPath(), file);
+        } else {
+            selectedReportFiles.remove(file.getPath());
+        }
+    }
+
+    private void syncReportChecks() {
+        syncingChecks = true;
+        for (ReportSection section : reportSections) {
+            boolean allSelected = true;
+            for (int i = 0; i < section.files.size(); i++) {
+                boolean selected = selectedReportFiles.containsKey(section.files.get(i).getPath());
+                section.rows.get(i).cbReportFile.setChecked(selected);
+                allSelected &= selected;
+            }
+            section.header.cbJunkCategory.setChecked(allSelected);
+        }
+        syncingChecks = false;
+        updateDeleteReportButton();
+    }
+
+    private void updateDeleteReportButton() {
+        long bytes = getSelectedReportBytes();
+        binding.btnDeleteReportFiles.setEnabled(!selectedReportFiles.isEmpty() && !deletingReportFiles);
+        binding.btnDeleteReportFiles.setText(bytes > 0
+                ? "Delete " + selectedReportFiles.size() + " files (" + Formatter.formatShortFileSize(this, bytes) + ")"
+                : "Delete selected");
+    }
+
+    private long getSelectedReportBytes() {
+        long total = 0;
+        for (FileReport.ReportedFile file : selectedReportFiles.values()) {
+            total += file.getSize();
+        }
+        return total;
+    }
+
+    private void confirmDeleteReportFiles() {
+        List<FileReport.ReportedFile> files = new ArrayList<>(selectedReportFiles.values());
+        new AlertDialog.Builder(this)
+                .setTitle("Delete files")
+                .setMessage("Delete " + files.size() + " files (" +
+                        Formatter.formatShortFileSize(this, getSelectedReportBytes()) + ")? This cannot be undone.")
+                .setPositiveButton("Delete", (dialog, which) -> {
+                    deletingReportFiles = true;
+                    updateDeleteReportButton();
+                    reportManager.deleteFiles(files, this);
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    @Override
+    public void onDeleteComplete(int deleted, int failed, long freedBytes) {
+        deletingReportFiles = false;
+        if (binding == null) {
+            return;
+        }
+        String message = "Freed " + Formatter.formatShortFileSize(this, freedBytes);
+        if (failed > 0) {
+            message += ", " + failed + " files could not be deleted";
+        }
+        Toast.makeText(this, message, Toast.LENGTH_LONG).show();
+        updateDeleteReportButton();
+    }
+
+    private void updateRow(JunkCategory category) {
+        List<JunkScanner.JunkItem> list = found.get(category);
+        int count = list != null ? list.size() : 0;
+        ItemJunkCategoryBinding row = rows.get(category);
+        if (category == JunkCategory.EMPTY_FOLDERS) {
+            row.tvJunkSummary.setText(count + " folders");
+        } else {
+            row.tvJunkSummary.setText(count + " items • " + Formatter.formatShortFileSize(this, getFoundBytes(category)));
+        }
+    }
+
+    private void updateCleanButton() {
+        long bytes = getTotalBytes(true);
+        boolean hasSelection = false;
+        for (JunkCategory category : selected) {
+            List<JunkScanner.JunkItem> list = found.get(category);
+            hasSelection |= list != null && !list.isEmpty();
+        }
+        binding.btnClean.setEnabled(hasSelection && !scanning && !cleaning);
+        binding.btnClean.setText(bytes > 0 ? "Clean " + Formatter.formatShortFileSize(this, bytes) : "Clean");
+    }
+
+    private long getFoundBytes(JunkCategory category) {
+        Long bytes = foundBytes.get(category);
+        return bytes != null ? bytes : 0;
+    }
+
+    private long getTotalBytes(boolean selectedOnly) {
+        long total = 0;
+        for (JunkCategory category : JunkCategory.values()) {
+            if (!selectedOnly || selected.contains(category)) {
+                total += getFoundBytes(category);
+            }
+        }
+        return total;
+    }
+
+    private String categoryLabel(JunkCategory category) {
+        switch (category) {
+            case APP_CACHES: return "App caches";
+            case THUMBNAILS: return "Thumbnail caches";
+            case TEMP_FILES: return "Temporary files";
+            case LOG_FILES: return "Log files";
+            case EMPTY_FOLDERS: return "Empty folders";
+            default: return "Installed APKs";
+        }
     }
 
     @Override
@@ -39,6 +407,8 @@ public class FileCleanerActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        junkScanner.cancelScan();
+        reportManager.removeListener(this);
         this.binding = null;
     }
-}
\ No newline at end of file
+}
@@ -1,63 +1,233 @@
 package com.covemanager;
 
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import com.covemanager.core.FileSelection;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
- * Singleton class to manage clipboard operations for copy/move functionality
+ * Singleton class to manage clipboard operations for copy/move functionality.
+ *
+ * The clipboard holds an immutable {@link Contents}, replaced as a whole, so it can be read
+ * from any thread and a paste iterates over what was on the clipboard when it started. The
+ * contents are saved to app storage on a background thread, so a cut survives the process
+ * being killed before the paste.
  */
 public class FileClipboard {
+    private static final String TAG = "FileClipboard";
+    private static final String CLIPBOARD_FILE = "clipboard.bin";
+    private static final int FORMAT_VERSION = 1;
     private static FileClipboard instance;
-    private List<File> files;
-    private OperationType operationType;
-    
+
     public enum OperationType {
         COPY, MOVE
     }
-    
+
+    /**
+     * What was on the clipboard at one moment
+     */
+    public static final class Contents {
+        private final FileSelection files;
+        private final OperationType operationType;
+
+        Contents(FileSelection files, OperationType operationType) {
+            this.files = files;
+            this.operationType = operationType;
+        }
+
+        public FileSelection getFiles() {
+            return files;
+        }
+
+        public OperationType getOperationType() {
+            return operationType;
+        }
+
+        public boolean isEmpty() {
+            return files.isEmpty() || operationType == null;
+        }
+    }
+
+    private static final Contents EMPTY = new Contents(FileSelection.EMPTY, null);
+
+    // Loads and saves in order, so a save never races the load or an older save
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Runnable> readyListeners = new ArrayList<>();
+    private volatile Contents contents = EMPTY;
+    private Context appContext;
+    private File storeFile;
+    private boolean ready = false;
+    private boolean changedBeforeReady = false;
+    // Only touched on the I/O thread
+    private Contents savedContents = EMPTY;
+
     private FileClipboard() {
-        files = new ArrayList<>();
-        operationType = null;
     }
-    
+
     public static synchronized FileClipboard getInstance() {
         if (instance == null) {
             instance = new FileClipboard();
         }
         return instance;
     }
-    
-    public void copy(List<File> filesToCopy) {
-        this.files.clear();
-        this.files.addAll(filesToCopy);
-        this.operationType = OperationType.COPY;
+
+    /**
+     * Load the clipboard saved by an earlier process, on a background thread. Anything put
+     * on the clipboard before it is loaded wins over the saved one.
+     */
+    public synchronized void restore(Context context) {
+        if (storeFile != null) {
+            return;
+        }
+        appContext = context.getApplicationContext();
+        storeFile = new File(appContext.getFilesDir(), CLIPBOARD_FILE);
+        File file = storeFile;
+        ioExecutor.execute(() -> {
+            Contents loaded = load(file);
+            List<Runnable> listeners;
+            synchronized (this) {
+                if (!changedBeforeReady) {
+                    contents = loaded;
+                    savedContents = loaded;
+                }
+                ready = true;
+                listeners = new ArrayList<>(readyListeners);
+                readyListeners.clear();
+            }
+            for (Runnable listener : listeners) {
+                mainHandler.post(listener);
+            }
+        });
+    }
+
+    /**
+     * Run a callback on the main thread once the saved clipboard has been loaded.
+     * Runs it right away (posted) if it already has.
+     */
+    public void whenReady(Runnable callback) {
+        synchronized (this) {
+            if (!ready) {
+                readyListeners.add(callback);
+                return;
+            }
+        }
+        mainHandler.post(callback);
+    }
+
+    public void copy(FileSelection filesToCopy) {
+        set(new Contents(filesToCopy, OperationType.COPY));
     }
-    
-    public void move(List<File> filesToMove) {
-        this.files.clear();
-        this.files.addAll(filesToMove);
-        this.operationType = OperationType.MOVE;
+
+    public void move(FileSelection filesToMove) {
+        set(new Contents(filesToMove, OperationType.MOVE));
     }
-    
+
     public void clear() {
-        this.files.clear();
-        this.operationType = null;
+        set(EMPTY);
     }
-    
-    public boolean isEmpty() {
-        return files.isEmpty() || operationType == null;
+
+    /**
+     * Clear the clipboard after pasting, unless something else was put on it meanwhile
+     */
+    public synchronized void clearAfterPaste(Contents pasted) {
+        if (contents == pasted) {
+            set(EMPTY);
+        }
+    }
+
+    public Contents getContents() {
+        return contents;
     }
-    
-    public List<File> getFiles() {
-        return new ArrayList<>(files);
+
+    public boolean isEmpty() {
+        return contents.isEmpty();
     }
-    
+
     public OperationType getOperationType() {
-        return operationType;
+        return contents.getOperationType();
     }
-    
+
     public int getCount() {
-        return files.size();
+        return contents.getFiles().size();
+    }
+
+    private synchronized void set(Contents newContents) {
+        contents = newContents;
+        if (!ready) {
+            changedBeforeReady = true;
+        }
+        if (storeFile != null) {
+            ioExecutor.execute(this::save);
+        }
+    }
+
+    /**
+     * Write the latest contents. Several changes in a row are written once.
+     */
+    private void save() {
+        Contents current = contents;
+        if (current == savedContents) {
+            return;
+        }
+        try {
+            if (current.isEmpty()) {
+                if (storeFile.exists() && !storeFile.delete()) {
+                    throw new IOException("Cannot delete " + storeFile);
+                }
+            } else {
+                write(storeFile, current);
+            }
+            savedContents = current;
+        } catch (IOException e) {
+            ErrorLogger.logError(appContext, TAG, "Failed to save clipboard", e);
+        }
+    }
+
+    private static void write(File file, Contents contents) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(contents.getOperationType().ordinal());
+            contents.getFiles().writeTo(out);
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Cannot replace " + file);
+        }
+    }
+
+    /**
+     * @return The saved contents, or empty ones if there are none or they cannot be read
+     */
+    private static Contents load(File file) {
+        if (!file.exists()) {
+            return EMPTY;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return EMPTY;
+            }
+            int operation = in.readInt();
+            if (operation < 0 || operation >= OperationType.values().length) {
+                return EMPTY;
+            }
+            return new Contents(FileSelection.readFrom(in), OperationType.values()[operation]);
+        } catch (IOException e) {
+            // A damaged clipboard is only a lost clipboard
+            return EMPTY;
+        }
     }
-}
\ No newline at end of file
+}
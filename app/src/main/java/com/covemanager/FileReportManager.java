@@ -0,0 +1,248 @@
+package com.covemanager;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import com.covemanager.core.CrawlEntry;
+import com.covemanager.core.FileCrawler;
+import com.covemanager.core.FileReport;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the large and old file report shown by the file cleaner.
+ * The report is built by joining the shared storage scan and published while the scan
+ * runs, so the lists fill in as storage is crawled. Once built it is only touched on the
+ * main thread, where it is patched for files deleted through the app; anything added
+ * marks it stale so the next visit rebuilds it.
+ */
+public class FileReportManager {
+    private static final String TAG = "FileReportManager";
+    private static final int REPORT_LIMIT = 20;
+    private static final int PROGRESS_INTERVAL = 20000;
+    private static final long STALE_AGE_MS = TimeUnit.DAYS.toMillis(365);
+    private static final long MIN_REPORTED_SIZE = 5L * 1024 * 1024;
+    private static FileReportManager instance;
+
+    /**
+     * The lists of one report, best first
+     */
+    public static final class Report {
+        private final List<FileReport.ReportedFile> largest;
+        private final List<FileReport.ReportedFile> oldest;
+        private final List<FileReport.ReportedFile> largeDownloads;
+        private final boolean complete;
+
+        Report(FileReport report, boolean complete) {
+            this.largest = report.getLargest();
+            this.oldest = report.getOldest();
+            this.largeDownloads = report.getLargeDownloads();
+            this.complete = complete;
+        }
+
+        public List<FileReport.ReportedFile> getLargest() {
+            return largest;
+        }
+
+        public List<FileReport.ReportedFile> getOldest() {
+            return oldest;
+        }
+
+        public List<FileReport.ReportedFile> getLargeDownloads() {
+            return largeDownloads;
+        }
+
+        /**
+         * Check whether the whole storage was scanned, rather than part of it so far
+         */
+        public boolean isComplete() {
+            return complete;
+        }
+    }
+
+    /**
+     * Notified on the main thread
+     */
+    public interface Listener {
+        void onReportUpdated(Report report);
+    }
+
+    /**
+     * Receives the outcome of a deletion on the main thread
+     */
+    public interface DeleteListener {
+        void onDeleteComplete(int deleted, int failed, long freedBytes);
+    }
+
+    private final ExecutorService deleteExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Listener> listeners = new ArrayList<>();
+    private final List<String> removedDuringScan = new ArrayList<>();
+    private Context appContext;
+    private FileReport report;
+    private boolean stale = false;
+    private boolean scanning = false;
+    private boolean updatePosted = false;
+
+    private FileReportManager() {
+    }
+
+    public static synchronized FileReportManager getInstance() {
+        if (instance == null) {
+            instance = new FileReportManager();
+        }
+        return instance;
+    }
+
+    /**
+     * Start listening for the report, scanning storage if there is none or it is stale.
+     * Must be called on the main thread.
+     * @param listener Called with partial reports during a scan, immediately if a report is ready
+     */
+    public void load(Context context, Listener listener) {
+        appContext = context.getApplicationContext();
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+        if (report != null && !stale) {
+            listener.onReportUpdated(new Report(report, true));
+            return;
+        }
+
+        if (!scanning) {
+            scanning = true;
+            removedDuringScan.clear();
+            StorageScanner.getInstance().requestScan(appContext, new ReportBuilder(
+                    System.currentTimeMillis() - STALE_AGE_MS));
+        }
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Delete files, reporting each one removed to the storage indexes
+     */
+    public void deleteFiles(List<FileReport.ReportedFile> files, DeleteListener listener) {
+        List<FileReport.ReportedFile> toDelete = new ArrayList<>(files);
+        deleteExecutor.execute(() -> {
+            int deleted = 0;
+            int failed = 0;
+            long freedBytes = 0;
+            List<File> removed = new ArrayList<>();
+            for (FileReport.ReportedFile reportedFile : toDelete) {
+                File file = new File(reportedFile.getPath());
+                if (file.delete() || !file.exists()) {
+                    deleted++;
+                    freedBytes += reportedFile.getSize();
+                    removed.add(file);
+                } else {
+                    failed++;
+                }
+            }
+
+            int deletedCount = deleted;
+            int failedCount = failed;
+            long freed = freedBytes;
+            mainHandler.post(() -> {
+                for (File file : removed) {
+                    StorageIndexes.onPathRemoved(file);
+                }
+                listener.onDeleteComplete(deletedCount, failedCount, freed);
+            });
+        });
+    }
+
+    /**
+     * A file was created or changed. A new file may belong in the report, so it is rebuilt on next use.
+     * Can be called from any thread.
+     */
+    public void onPathAdded(File file) {
+        mainHandler.post(() -> {
+            if (report != null) {
+                stale = true;
+            }
+        });
+    }
+
+    /**
+     * A file or directory was deleted. Can be called from any thread; the report is only
+     * touched on the main thread.
+     */
+    public void onPathRemoved(File file) {
+        String path = file.getAbsolutePath();
+        mainHandler.post(() -> removePath(path));
+    }
+
+    private void removePath(String path) {
+        if (scanning) {
+            removedDuringScan.add(path);
+        }
+        if (report != null && report.remove(path) && !updatePosted) {
+            // Deletions come in bursts, so listeners get one update for all of them
+            updatePosted = true;
+            mainHandler.post(() -> {
+                updatePosted = false;
+                if (report != null) {
+                    notifyListeners(new Report(report, true));
+                }
+            });
+        }
+    }
+
+    private void onScanComplete(FileReport newReport, boolean cancelled) {
+        scanning = false;
+        for (String path : removedDuringScan) {
+            newReport.remove(path);
+        }
+        removedDuringScan.clear();
+
+        // Small enough to keep between visits, unlike the trees and indexes of other features
+        report = newReport;
+        stale = cancelled;
+        notifyListeners(new Report(report, true));
+    }
+
+    private void notifyListeners(Report snapshot) {
+        for (Listener listener : new ArrayList<>(listeners)) {
+            listener.onReportUpdated(snapshot);
+        }
+    }
+
+    /**
+     * Fills a report on the scan thread, posting partial snapshots as it goes
+     */
+    private class ReportBuilder implements FileCrawler.Consumer {
+        private final FileReport building;
+        private int entryCount = 0;
+
+        ReportBuilder(long staleBefore) {
+            building = new FileReport(REPORT_LIMIT, staleBefore, MIN_REPORTED_SIZE);
+        }
+
+        @Override
+        public void accept(CrawlEntry entry) {
+            building.accept(entry);
+            if (++entryCount % PROGRESS_INTERVAL == 0) {
+                Report snapshot = new Report(building, false);
+                mainHandler.post(() -> {
+                    if (scanning) {
+                        notifyListeners(snapshot);
+                    }
+                });
+            }
+        }
+
+        @Override
+        public void onComplete(boolean cancelled) {
+            building.onComplete(cancelled);
+            ErrorLogger.logInfo(appContext, TAG, "File report built from " + entryCount + " entries");
+            mainHandler.post(() -> onScanComplete(building, cancelled));
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.covemanager;
+
+import com.covemanager.core.FolderSizeCache;
+import com.covemanager.core.FolderSizeCalculator;
+import java.io.File;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs folder size calculations for one listing in the order the user sees the rows.
+ *
+ * Jobs are not run in the order they were requested: every time a worker is free it picks
+ * the pending job closest to the top of the visible rows, then the closest one in the
+ * prefetch window ahead of the scroll direction, then the one behind. Jobs that fall out
+ * of the window are dropped, so a fast fling does not leave a queue of rows nobody sees.
+ */
+class FolderSizeScheduler {
+    // Rows within this distance of the visible ones are still worth calculating
+    static final int PREFETCH_WINDOW = 20;
+
+    /**
+     * Receives each size on the worker thread that calculated it, after it was cached
+     */
+    interface ResultListener {
+        void onFolderSizeCalculated(String path, int position, long size);
+    }
+
+    private static final class Job {
+        final String path;
+        int position;
+
+        Job(String path, int position) {
+            this.path = path;
+            this.position = position;
+        }
+    }
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(2);
+    private final FolderSizeCache cache = FolderSizeCache.getInstance();
+    private final ResultListener listener;
+    private final Map<String, Job> pending = new HashMap<>();
+    private final Map<String, Job> running = new HashMap<>();
+    private int firstVisible = 0;
+    private int lastVisible = -1;
+    private int direction = 1;
+
+    FolderSizeScheduler(ResultListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Report the rows on screen and which way the list moves, 1 for down and -1 for up
+     */
+    synchronized void setVisibleRange(int first, int last, int scrollDirection) {
+        firstVisible = first;
+        lastVisible = last;
+        if (scrollDirection != 0) {
+            direction = scrollDirection;
+        }
+    }
+
+    /**
+     * Check whether a row is on screen or close enough to come into view soon
+     */
+    synchronized boolean isInWindow(int position) {
+        // Before the first layout nothing is known to be off screen
+        return lastVisible < 0
+                || (position >= firstVisible - PREFETCH_WINDOW && position <= lastVisible + PREFETCH_WINDOW);
+    }
+
+    /**
+     * Calculate the size of a folder unless it is already queued or running
+     */
+    void request(String path, int position) {
+        synchronized (this) {
+            Job job = pending.get(path);
+            if (job == null) {
+                job = running.get(path);
+            }
+            if (job != null) {
+                job.position = position;
+                return;
+            }
+            if (pool.isShutdown()) {
+                return;
+            }
+            pending.put(path, new Job(path, position));
+        }
+        pool.execute(this::runNext);
+    }
+
+    /**
+     * Drop the queued job of a row that left the screen, unless it may come back soon
+     */
+    synchronized void cancelIfOutsideWindow(String path) {
+        Job job = pending.get(path);
+        if (job != null && !isInWindow(job.position)) {
+            pending.remove(path);
+        }
+    }
+
+    void shutdown() {
+        synchronized (this) {
+            pending.clear();
+        }
+        pool.shutdownNow();
+    }
+
+    private void runNext() {
+        Job job;
+        synchronized (this) {
+            job = takeBest();
+            if (job == null) {
+                return;
+            }
+            running.put(job.path, job);
+        }
+
+        long size;
+        long traceStart = PerfTracer.begin("FileAdapter.calculateFolderSize");
+        try {
+            size = FolderSizeCalculator.calculateFolderSize(new File(job.path));
+        } finally {
+            PerfTracer.end("FileAdapter.calculateFolderSize", traceStart);
+            synchronized (this) {
+                running.remove(job.path);
+            }
+        }
+        if (size < 0) {
+            // Cancelled by shutdown; the row asks again when it is bound
+            return;
+        }
+        // Cache before reporting, so the row rebinding for this result finds it
+        cache.putSize(job.path, size);
+        listener.onFolderSizeCalculated(job.path, job.position, size);
+    }
+
+    private Job takeBest() {
+        Job best = null;
+        long bestRank = Long.MAX_VALUE;
+        Iterator<Job> iterator = pending.values().iterator();
+        while (iterator.hasNext()) {
+            Job job = iterator.next();
+            if (!isInWindow(job.position)) {
+                iterator.remove();
+                continue;
+            }
+            long rank = rank(job.position);
+            if (rank < bestRank) {
+                best = job;
+                bestRank = rank;
+            }
+        }
+        if (best != null) {
+            pending.remove(best.path);
+        }
+        return best;
+    }
+
+    /**
+     * Lower runs first: visible rows top down, then rows ahead of the scroll, then rows behind it
+     */
+    private long rank(int position) {
+        if (lastVisible < 0) {
+            return position;
+        }
+        if (position >= firstVisible && position <= lastVisible) {
+            return position - firstVisible;
+        }
+        boolean ahead = direction > 0 ? position > lastVisible : position < firstVisible;
+        int distance = position > lastVisible ? position - lastVisible : firstVisible - position;
+        return (ahead ? 1L << 32 : 2L << 32) + distance;
+    }
+}
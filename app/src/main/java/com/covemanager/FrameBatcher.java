@@ -0,0 +1,66 @@
+package com.covemanager;
+
+import android.view.Choreographer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Collects results from background threads and hands them to the main thread in one
+ * batch per frame, so the main thread handles a single dispatch per frame however many
+ * results arrive. Must be created on the main thread.
+ */
+class FrameBatcher<T> implements Choreographer.FrameCallback {
+
+    interface BatchListener<T> {
+        void onBatch(List<T> items);
+    }
+
+    private final ConcurrentLinkedQueue<T> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean frameScheduled = new AtomicBoolean(false);
+    private final Choreographer choreographer = Choreographer.getInstance();
+    private final BatchListener<T> listener;
+    private volatile boolean cancelled = false;
+
+    FrameBatcher(BatchListener<T> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Queue an item for the next frame. Safe to call from any thread.
+     */
+    void add(T item) {
+        if (cancelled) {
+            return;
+        }
+        queue.add(item);
+        // Choreographer locks internally and wakes its own looper, so this needs no extra post
+        if (frameScheduled.compareAndSet(false, true)) {
+            choreographer.postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Drop queued items and stop delivering. Must be called on the main thread.
+     */
+    void cancel() {
+        cancelled = true;
+        choreographer.removeFrameCallback(this);
+        queue.clear();
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        // Cleared before draining, so an item added meanwhile schedules the next frame
+        frameScheduled.set(false);
+        List<T> items = new ArrayList<>();
+        T item;
+        while ((item = queue.poll()) != null) {
+            items.add(item);
+        }
+        if (!items.isEmpty() && !cancelled) {
+            listener.onBatch(items);
+        }
+    }
+}
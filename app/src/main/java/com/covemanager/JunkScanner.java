@@ -0,0 +1,315 @@
+package com.covemanager;
+
+import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import androidx.core.content.pm.PackageInfoCompat;
+import com.covemanager.core.FileNameIndex;
+import com.covemanager.core.FileOperations;
+import com.covemanager.core.FolderSizeCache;
+import com.covemanager.core.FolderSizeCalculator;
+import com.covemanager.core.JunkCategory;
+import com.covemanager.core.JunkClassifier;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds and deletes junk for the file cleaner.
+ *
+ * Candidates come from the filename index, so a scan reads names already in memory
+ * instead of walking storage again; only the candidates are then measured, in parallel
+ * batches that stream to the main thread as soon as they are done. Deletion runs in
+ * parallel batches as well.
+ */
+public class JunkScanner {
+    private static final String TAG = "JunkScanner";
+    private static final int BATCH_SIZE = 32;
+    private static JunkScanner instance;
+
+    /**
+     * A file or directory the cleaner can delete
+     */
+    public static final class JunkItem {
+        private final String path;
+        private final JunkCategory category;
+        private final long size;
+
+        JunkItem(String path, JunkCategory category, long size) {
+            this.path = path;
+            this.category = category;
+            this.size = size;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public JunkCategory getCategory() {
+            return category;
+        }
+
+        public long getSize() {
+            return size;
+        }
+    }
+
+    /**
+     * Receives scan results on the main thread
+     */
+    public interface ScanListener {
+        void onJunkFound(List<JunkItem> items);
+
+        void onScanComplete(long elapsedMs);
+    }
+
+    /**
+     * Receives deletion progress on the main thread
+     */
+    public interface CleanListener {
+        void onCleanProgress(int processed, int total);
+
+        void onCleanComplete(int deleted, int failed, long freedBytes);
+    }
+
+    private final ExecutorService scanExecutor = Executors.newSingleThreadExecutor();
+    private final ExecutorService workerPool = Executors.newFixedThreadPool(
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())));
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final FolderSizeCache cache = FolderSizeCache.getInstance();
+    private final AtomicInteger scanGeneration = new AtomicInteger();
+    private Context appContext;
+
+    private JunkScanner() {
+    }
+
+    public static synchronized JunkScanner getInstance() {
+        if (instance == null) {
+            instance = new JunkScanner();
+        }
+        return instance;
+    }
+
+    /**
+     * Scan for junk, cancelling any scan in progress. Waits for the filename index if it
+     * is still being built. Must be called on the main thread.
+     */
+    public void scan(Context context, ScanListener listener) {
+        appContext = context.getApplicationContext();
+        int generation = scanGeneration.incrementAndGet();
+        SearchIndexManager.getInstance().ensureIndexed(appContext, entryCount -> {
+            FileNameIndex index = SearchIndexManager.getInstance().getIndex();
+            if (generation == scanGeneration.get() && index != null) {
+                scanExecutor.execute(() -> scanIndex(index, generation, listener));
+            }
+        });
+    }
+
+    /**
+     * Drop results of any scan still in progress
+     */
+    public void cancelScan() {
+        scanGeneration.incrementAndGet();
+    }
+
+    private void scanIndex(FileNameIndex index, int generation, ScanListener listener) {
+        long start = SystemClock.elapsedRealtime();
+        long traceStart = PerfTracer.begin("JunkScanner.scan");
+        // One slot for the classification itself, one per batch being measured
+        AtomicInteger pending = new AtomicInteger(1);
+        Runnable finishOne = () -> {
+            if (pending.decrementAndGet() == 0) {
+                PerfTracer.end("JunkScanner.scan", traceStart);
+                long elapsedMs = SystemClock.elapsedRealtime() - start;
+                mainHandler.post(() -> {
+                    if (generation == scanGeneration.get()) {
+                        listener.onScanComplete(elapsedMs);
+                    }
+                });
+            }
+        };
+
+        List<String> paths = new ArrayList<>(BATCH_SIZE);
+        List<JunkCategory> categories = new ArrayList<>(BATCH_SIZE);
+        try {
+            JunkClassifier.scan(index, (path, category) -> {
+                if (generation != scanGeneration.get()) {
+                    return false;
+                }
+                paths.add(path);
+                categories.add(category);
+                if (paths.size() == BATCH_SIZE) {
+                    measureBatch(new ArrayList<>(paths), new ArrayList<>(categories), generation,
+                            listener, pending, finishOne);
+                    paths.clear();
+                    categories.clear();
+                }
+                return true;
+            });
+            if (!paths.isEmpty()) {
+                measureBatch(paths, categories, generation, listener, pending, finishOne);
+            }
+        } catch (Exception e) {
+            ErrorLogger.logError(appContext, TAG, "Junk scan failed", e);
+        } finally {
+            finishOne.run();
+        }
+    }
+
+    private void measureBatch(List<String> paths, List<JunkCategory> categories, int generation,
+                              ScanListener listener, AtomicInteger pending, Runnable finishOne) {
+        pending.incrementAndGet();
+        workerPool.execute(() -> {
+            try {
+                List<JunkItem> items = new ArrayList<>(paths.size());
+                for (int i = 0; i < paths.size() && generation == scanGeneration.get(); i++) {
+                    JunkItem item = measure(paths.get(i), categories.get(i));
+                    if (item != null) {
+                        items.add(item);
+                    }
+                }
+                if (!items.isEmpty()) {
+                    mainHandler.post(() -> {
+                        if (generation == scanGeneration.get()) {
+                            listener.onJunkFound(items);
+                        }
+                    });
+                }
+            } catch (Exception e) {
+                ErrorLogger.logError(appContext, TAG, "Failed to measure junk", e);
+            } finally {
+                finishOne.run();
+            }
+        });
+    }
+
+    /**
+     * @return The measured item, or null if it no longer exists or turned out not to be junk
+     */
+    private JunkItem measure(String path, JunkCategory category) {
+        File file = new File(path);
+        if (!file.exists()) {
+            return null;
+        }
+        switch (category) {
+            case APP_CACHES:
+            case THUMBNAILS:
+                Long cached = cache.getSize(path);
+                long size = cached != null ? cached : FolderSizeCalculator.calculateFolderSize(file);
+                if (size < 0) {
+                    // Cancelled; leave the folder to the next scan
+                    return null;
+                }
+                cache.putSize(path, size);
+                return size > 0 ? new JunkItem(path, category, size) : null;
+            case EMPTY_FOLDERS:
+                String[] children = file.list();
+                return children != null && children.length == 0 ? new JunkItem(path, category, 0) : null;
+            case OBSOLETE_APKS:
+                return isInstalled(file) ? new JunkItem(path, category, file.length()) : null;
+            default:
+                return new JunkItem(path, category, file.length());
+        }
+    }
+
+    /**
+     * Check whether the app in an APK is installed at the same or a newer version.
+     * Packages hidden by package visibility count as not installed, so their APKs are kept.
+     */
+    private boolean isInstalled(File apk) {
+        PackageManager packageManager = appContext.getPackageManager();
+        PackageInfo archiveInfo = packageManager.getPackageArchiveInfo(apk.getAbsolutePath(), 0);
+        if (archiveInfo == null) {
+            return false;
+        }
+        try {
+            PackageInfo installed = packageManager.getPackageInfo(archiveInfo.packageName, 0);
+            return PackageInfoCompat.getLongVersionCode(installed) >= PackageInfoCompat.getLongVersionCode(archiveInfo);
+        } catch (PackageManager.NameNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Delete junk in parallel batches. Cache directories are emptied but kept, since
+     * their apps expect them to exist; empty folders are only removed if still empty.
+     */
+    public void clean(List<JunkItem> items, CleanListener listener) {
+        List<JunkItem> toDelete = new ArrayList<>(items);
+        int total = toDelete.size();
+        if (total == 0) {
+            listener.onCleanComplete(0, 0, 0);
+            return;
+        }
+
+        AtomicInteger processed = new AtomicInteger();
+        AtomicInteger deleted = new AtomicInteger();
+        AtomicLong freedBytes = new AtomicLong();
+        long traceStart = PerfTracer.begin("JunkScanner.clean");
+        for (int from = 0; from < total; from += BATCH_SIZE) {
+            List<JunkItem> batch = toDelete.subList(from, Math.min(total, from + BATCH_SIZE));
+            workerPool.execute(() -> {
+                List<JunkItem> removed = new ArrayList<>(batch.size());
+                for (JunkItem item : batch) {
+                    File file = new File(item.getPath());
+                    try {
+                        if (delete(file, item.getCategory())) {
+                            deleted.incrementAndGet();
+                            freedBytes.addAndGet(item.getSize());
+                            removed.add(item);
+                        }
+                    } catch (Exception e) {
+                        ErrorLogger.trackFileError(appContext, "clean", item.getPath(), e);
+                    }
+                }
+
+                int done = processed.addAndGet(batch.size());
+                mainHandler.post(() -> {
+                    for (JunkItem item : removed) {
+                        File file = new File(item.getPath());
+                        StorageIndexes.onPathRemoved(file);
+                        if (item.getCategory() == JunkCategory.APP_CACHES) {
+                            // Only the contents went away
+                            StorageIndexes.onPathAdded(file);
+                        }
+                    }
+                    listener.onCleanProgress(done, total);
+                });
+                if (done == total) {
+                    PerfTracer.end("JunkScanner.clean", traceStart);
+                    int deletedCount = deleted.get();
+                    long freed = freedBytes.get();
+                    mainHandler.post(() -> listener.onCleanComplete(deletedCount, total - deletedCount, freed));
+                }
+            });
+        }
+    }
+
+    private boolean delete(File file, JunkCategory category) {
+        if (category == JunkCategory.EMPTY_FOLDERS) {
+            // Fails if something was added since the scan
+            return file.delete();
+        }
+        if (category == JunkCategory.APP_CACHES) {
+            File[] children = file.listFiles();
+            boolean success = children != null;
+            if (children != null) {
+                for (File child : children) {
+                    success &= FileOperations.deleteRecursively(child);
+                }
+            }
+            cache.invalidatePath(file.getAbsolutePath());
+            return success;
+        }
+        boolean success = FileOperations.deleteRecursively(file);
+        cache.invalidatePath(file.getAbsolutePath());
+        return success;
+    }
+}
@@ -11,25 +11,35 @@ import android.os.Build;
 import android.os.Bundle;
 import android.os.Environment;
 import android.provider.Settings;
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+import android.text.format.Formatter;
+import android.text.style.ForegroundColorSpan;
 import android.view.LayoutInflater;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
+import android.widget.LinearLayout;
 import android.widget.Toast;
+import com.covemanager.core.FileCategory;
 import com.covemanager.databinding.ActivityMainBinding;
 import com.covemanager.databinding.DialogStoragePermissionBinding;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.io.File;
 
-public class MainActivity extends AppCompatActivity implements CategoryAdapter.OnCategoryClickListener {
+public class MainActivity extends AppCompatActivity implements CategoryAdapter.OnCategoryClickListener,
+        CategoryIndexManager.Listener, StorageAnalyzer.Listener {
     private ActivityMainBinding binding;
     private CategoryAdapter categoryAdapter;
+    private List<Category> categories;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
+        long traceStart = PerfTracer.begin("MainActivity.onCreate");
         try {
             // Log activity start
             ErrorLogger.logInfo(this, "MainActivity", "Activity onCreate started");
@@ -39,6 +49,7 @@ public class MainActivity extends AppCompatActivity implements CategoryAdapter.O
 
             // set content view to binding's root
             setContentView(binding.getRoot());
+            StartupMetrics.getInstance().markFirstFrame(this);
 
             // Set up toolbar
             setSupportActionBar(binding.toolbar);
@@ -48,33 +59,60 @@ public class MainActivity extends AppCompatActivity implements CategoryAdapter.O
 
             // Set up storage cards and tools navigation
             setupStorageNavigation();
+            setupStorageStats();
             setupToolsNavigation();
 
             // Check storage permission
             checkStoragePermission();
 
+            // Categories, storage cards and tools are bound after the first layout pass
+            binding.getRoot().post(new Runnable() {
+                @Override
+                public void run() {
+                    StartupMetrics.getInstance().markInteractive(MainActivity.this);
+                }
+            });
+
             // Log successful initialization
             ErrorLogger.logInfo(this, "MainActivity", "Activity onCreate completed successfully");
         } catch (Exception e) {
             // Log any errors during initialization
             ErrorLogger.logError(this, "MainActivity", "Error during onCreate", e);
+        } finally {
+            PerfTracer.end("MainActivity.onCreate", traceStart);
         }
     }
 
     private void setupCategoriesRecyclerView() {
         // Create category data
-        List<Category> categories = new ArrayList<>();
-        categories.add(new Category("Images", R.drawable.ic_category_images, R.color.categoryImages));
-        categories.add(new Category("Videos", R.drawable.ic_category_videos, R.color.categoryVideos));
-        categories.add(new Category("Audio", R.drawable.ic_category_audio, R.color.categoryAudio));
-        categories.add(new Category("Documents", R.drawable.ic_category_documents, R.color.categoryDocuments));
+        categories = new ArrayList<>();
+        categories.add(new Category("Images", R.drawable.ic_category_images, R.color.categoryImages, FileCategory.IMAGES));
+        categories.add(new Category("Videos", R.drawable.ic_category_videos, R.color.categoryVideos, FileCategory.VIDEOS));
+        categories.add(new Category("Audio", R.drawable.ic_category_audio, R.color.categoryAudio, FileCategory.AUDIO));
+        categories.add(new Category("Documents", R.drawable.ic_category_documents, R.color.categoryDocuments, FileCategory.DOCUMENTS));
         categories.add(new Category("Downloads", R.drawable.ic_category_downloads, R.color.categoryDownloads));
-        categories.add(new Category("APKs", R.drawable.ic_category_apks, R.color.categoryApks));
+        categories.add(new Category("APKs", R.drawable.ic_category_apks, R.color.categoryApks, FileCategory.APKS));
 
         // Set up RecyclerView
         categoryAdapter = new CategoryAdapter(categories, this);
         binding.rvCategories.setLayoutManager(new GridLayoutManager(this, 3));
         binding.rvCategories.setAdapter(categoryAdapter);
+
+        // Counts and sizes fill in as the category index is built
+        CategoryIndexManager.getInstance().addListener(this);
+    }
+
+    @Override
+    public void onCategoriesChanged() {
+        CategoryIndexManager categoryIndex = CategoryIndexManager.getInstance();
+        for (Category category : categories) {
+            FileCategory fileCategory = category.getFileCategory();
+            if (fileCategory != null) {
+                category.setSummary(categoryIndex.getCount(fileCategory) + " • " +
+                        Formatter.formatShortFileSize(this, categoryIndex.getTotalBytes(fileCategory)));
+            }
+        }
+        categoryAdapter.notifyItemRangeChanged(0, categories.size());
     }
 
     private void setupStorageNavigation() {
@@ -85,7 +123,7 @@ public class MainActivity extends AppCompatActivity implements CategoryAdapter.O
             public void onClick(View v) {
                 // Launch FileBrowserActivity with internal storage path
                 Intent intent = new Intent(MainActivity.this, FileBrowserActivity.class);
-                String internalStoragePath = Environment.getExternalStorageDirectory().getPath();
+                String internalStoragePath = StorageVolumes.getInternalRoot().getPath();
                 intent.putExtra("path", internalStoragePath);
                 startActivity(intent);
             }
@@ -97,20 +135,9 @@ public class MainActivity extends AppCompatActivity implements CategoryAdapter.O
             @Override
             public void onClick(View v) {
                 // Check if SD card is mounted and available
-                File[] externalFilesDirs = ContextCompat.getExternalFilesDirs(MainActivity.this, null);
-                
-                if (externalFilesDirs.length > 1 && externalFilesDirs[1] != null) {
-                    // SD card found - get the SD card path
-                    String sdCardPath = externalFilesDirs[1].getAbsolutePath();
-                    // Navigate up to get the root of SD card
-                    File sdRoot = new File(sdCardPath);
-                    while (sdRoot.getParent() != null && !sdRoot.getName().equals("Android")) {
-                        sdRoot = sdRoot.getParentFile();
-                    }
-                    if (sdRoot.getParent() != null) {
-                        sdRoot = sdRoot.getParentFile();
-                    }
-                    
+                File sdRoot = StorageVolumes.getSdCardRoot(MainActivity.this);
+
+                if (sdRoot != null) {
                     // Launch FileBrowserActivity with SD card path
                     Intent intent = new Intent(MainActivity.this, FileBrowserActivity.class);
                     intent.putExtra("path", sdRoot.getAbsolutePath());
@@ -123,6 +150,108 @@ public class MainActivity extends AppCompatActivity implements CategoryAdapter.O
         });
     }
 
+    private void setupStorageStats() {
+        // Show the numbers saved by the last run until fresh ones arrive
+        StorageAnalyzer analyzer = StorageAnalyzer.getInstance();
+        analyzer.addListener(this);
+        StorageAnalyzer.Snapshot lastSnapshot = analyzer.getLastSnapshot(this);
+        if (lastSnapshot != null) {
+            onStorageStatsChanged(lastSnapshot);
+        }
+    }
+
+    @Override
+    public void onStorageStatsChanged(StorageAnalyzer.Snapshot snapshot) {
+        StorageAnalyzer.VolumeStats internal = snapshot.getInternal();
+        binding.pbInternalStorage.setProgress(internal.getUsedPercent());
+        binding.tvInternalUsage.setText(formatUsage(internal));
+
+        StorageAnalyzer.VolumeStats sdCard = snapshot.getSdCard();
+        if (sdCard != null) {
+            binding.pbSdStorage.setVisibility(View.VISIBLE);
+            binding.pbSdStorage.setProgress(sdCard.getUsedPercent());
+            binding.tvSdStatus.setText(formatUsage(sdCard));
+        } else {
+            binding.pbSdStorage.setVisibility(View.GONE);
+            binding.tvSdStatus.setText("Not detected");
+        }
+
+        Map<FileCategory, Long> categoryBytes = snapshot.getCategoryBytes();
+        if (categoryBytes == null) {
+            binding.cardStorageBreakdown.setVisibility(View.GONE);
+            return;
+        }
+        long freeBytes = internal.getFreeBytes() + (sdCard != null ? sdCard.getFreeBytes() : 0);
+        showBreakdown(categoryBytes, freeBytes);
+    }
+
+    private String formatUsage(StorageAnalyzer.VolumeStats volume) {
+        return Formatter.formatShortFileSize(this, volume.getUsedBytes()) + " / " +
+                Formatter.formatShortFileSize(this, volume.getTotalBytes());
+    }
+
+    /**
+     * Fill the stacked bar and its legend, one segment per category followed by free space
+     */
+    private void showBreakdown(Map<FileCategory, Long> categoryBytes, long freeBytes) {
+        LinearLayout bar = binding.llBreakdownBar;
+        bar.removeAllViews();
+        SpannableStringBuilder legend = new SpannableStringBuilder();
+
+        for (FileCategory category : FileCategory.values()) {
+            Long bytes = categoryBytes.get(category);
+            if (bytes != null && bytes > 0) {
+                addBreakdownSegment(bar, legend, categoryLabel(category), bytes, categoryColor(category));
+            }
+        }
+        addBreakdownSegment(bar, legend, "Free", freeBytes, R.color.debugBorder);
+
+        binding.tvBreakdownLegend.setText(legend);
+        binding.cardStorageBreakdown.setVisibility(View.VISIBLE);
+    }
+
+    private void addBreakdownSegment(LinearLayout bar, SpannableStringBuilder legend, String label,
+                                     long bytes, int colorRes) {
+        int color = ContextCompat.getColor(this, colorRes);
+
+        // Weights are floats, so scale down to megabytes to keep them precise
+        View segment = new View(this);
+        segment.setBackgroundColor(color);
+        bar.addView(segment, new LinearLayout.LayoutParams(0, LinearLayout.LayoutParams.MATCH_PARENT,
+                Math.max(1f, bytes / (1024f * 1024f))));
+
+        if (legend.length() > 0) {
+            legend.append("   ");
+        }
+        int bulletStart = legend.length();
+        legend.append("●");
+        legend.setSpan(new ForegroundColorSpan(color), bulletStart, legend.length(),
+                Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        legend.append(" ").append(label).append(" ").append(Formatter.formatShortFileSize(this, bytes));
+    }
+
+    private String categoryLabel(FileCategory category) {
+        switch (category) {
+            case IMAGES: return "Images";
+            case VIDEOS: return "Videos";
+            case AUDIO: return "Audio";
+            case DOCUMENTS: return "Documents";
+            case APKS: return "APKs";
+            default: return "Other";
+        }
+    }
+
+    private int categoryColor(FileCategory category) {
+        switch (category) {
+            case IMAGES: return R.color.categoryImages;
+            case VIDEOS: return R.color.categoryVideos;
+            case AUDIO: return R.color.categoryAudio;
+            case DOCUMENTS: return R.color.categoryDocuments;
+            case APKS: return R.color.categoryApks;
+            default: return R.color.colorIconTint;
+        }
+    }
+
     private void setupToolsNavigation() {
         // Find File Cleaner tool and set click listener
         View fileCleanerTool = findViewById(R.id.tool_file_cleaner);
@@ -134,6 +263,20 @@ public class MainActivity extends AppCompatActivity implements CategoryAdapter.O
                 startActivity(intent);
             }
         });
+
+        // The disk usage tool and the storage breakdown both open the treemap
+        View.OnClickListener openDiskUsage = v -> DiskUsageActivity.start(MainActivity.this);
+        findViewById(R.id.tool_disk_usage).setOnClickListener(openDiskUsage);
+        binding.cardStorageBreakdown.setOnClickListener(openDiskUsage);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Space may have changed while away, e.g. through other apps
+        StorageAnalyzer.getInstance().refresh(this);
+        // Starts indexing once storage access is granted, which may happen in Settings
+        CategoryIndexManager.getInstance().ensureIndexed(this);
     }
 
     private void checkStoragePermission() {
@@ -188,8 +331,8 @@ public class MainActivity extends AppCompatActivity implements CategoryAdapter.O
         try {
             int itemId = item.getItemId();
             if (itemId == R.id.action_search) {
-                // Handle search action
-                ErrorLogger.logInfo(this, "MainActivity", "Search action selected");
+                // Handle search action - start SearchActivity
+                SearchActivity.start(this);
                 return true;
             } else if (itemId == R.id.action_settings) {
                 // Handle settings action - start SettingsActivity
@@ -202,6 +345,10 @@ public class MainActivity extends AppCompatActivity implements CategoryAdapter.O
                 DebugErrorViewerActivity.start(this);
                 ErrorLogger.logInfo(this, "MainActivity", "Debug error viewer started");
                 return true;
+            } else if (itemId == R.id.action_perf_stats) {
+                // Handle performance stats - start PerformanceStatsActivity
+                PerformanceStatsActivity.start(this);
+                return true;
             }
         } catch (Exception e) {
             ErrorLogger.trackNavigationError(this, "MainActivity", "Unknown", e);
@@ -211,31 +358,19 @@ public class MainActivity extends AppCompatActivity implements CategoryAdapter.O
     
     @Override
     public void onCategoryClick(Category category) {
+        // File type categories list matching files from all of storage
+        if (category.getFileCategory() != null) {
+            CategoryFilesActivity.start(this, category.getFileCategory(), category.getName());
+            return;
+        }
+
         // Launch FileBrowserActivity with appropriate path based on category
         Intent intent = new Intent(this, FileBrowserActivity.class);
         
         // Determine initial path based on category
         String initialPath = Environment.getExternalStorageDirectory().getAbsolutePath();
-        switch (category.getName()) {
-            case "Images":
-                initialPath = Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_PICTURES).getAbsolutePath();
-                break;
-            case "Videos":
-                initialPath = Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_MOVIES).getAbsolutePath();
-                break;
-            case "Audio":
-                initialPath = Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_MUSIC).getAbsolutePath();
-                break;
-            case "Documents":
-                initialPath = Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOCUMENTS).getAbsolutePath();
-                break;
-            case "Downloads":
-                initialPath = Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS).getAbsolutePath();
-                break;
-            case "APKs":
-                // For APKs, default to Downloads folder
-                initialPath = Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS).getAbsolutePath();
-                break;
+        if (category.getName().equals("Downloads")) {
+            initialPath = Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS).getAbsolutePath();
         }
         
         // Make sure the directory exists, fallback to root if not
@@ -251,6 +386,8 @@ public class MainActivity extends AppCompatActivity implements CategoryAdapter.O
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        CategoryIndexManager.getInstance().removeListener(this);
+        StorageAnalyzer.getInstance().removeListener(this);
         this.binding = null;
     }
 }
@@ -0,0 +1,117 @@
+package com.covemanager;
+
+import android.os.Build;
+import android.os.Trace;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lightweight tracing for hot paths.
+ * Each section shows up in system traces (Perfetto/systrace) through android.os.Trace
+ * and its duration is recorded in an in-app histogram per operation name.
+ *
+ * Usage:
+ * <pre>
+ * long start = PerfTracer.begin("FileBrowser.loadFiles");
+ * try {
+ *     ...
+ * } finally {
+ *     PerfTracer.end("FileBrowser.loadFiles", start);
+ * }
+ * </pre>
+ */
+public class PerfTracer {
+    private static final int MAX_SECTION_NAME_LENGTH = 127; // Limit imposed by android.os.Trace
+    private static final Map<String, DurationHistogram> histograms = new ConcurrentHashMap<>();
+
+    private PerfTracer() {
+    }
+
+    /**
+     * Begin a synchronous section. Must be ended with {@link #end} on the same thread.
+     * @return Start timestamp to pass to {@link #end}
+     */
+    public static long begin(String name) {
+        Trace.beginSection(sectionName(name));
+        return System.nanoTime();
+    }
+
+    /**
+     * End a synchronous section and record its duration
+     */
+    public static void end(String name, long startNanos) {
+        Trace.endSection();
+        record(name, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Begin a section that may end on another thread, e.g. an AsyncTask spanning
+     * onPreExecute and onPostExecute.
+     * @return Start timestamp to pass to {@link #endAsync}
+     */
+    public static long beginAsync(String name) {
+        long startNanos = System.nanoTime();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.beginAsyncSection(sectionName(name), (int) startNanos);
+        }
+        return startNanos;
+    }
+
+    /**
+     * End a section started with {@link #beginAsync} and record its duration
+     */
+    public static void endAsync(String name, long startNanos) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.endAsyncSection(sectionName(name), (int) startNanos);
+        }
+        record(name, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Record a duration measured elsewhere
+     */
+    public static void record(String name, long durationNanos) {
+        DurationHistogram histogram = histograms.get(name);
+        if (histogram == null) {
+            DurationHistogram created = new DurationHistogram();
+            histogram = histograms.putIfAbsent(name, created);
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+        histogram.record(durationNanos);
+    }
+
+    /**
+     * Get the recorded operation names in alphabetical order
+     */
+    public static List<String> getOperationNames() {
+        List<String> names = new ArrayList<>(histograms.keySet());
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * Get the histogram for an operation
+     * @return Histogram, or null if the operation was never recorded
+     */
+    public static DurationHistogram getHistogram(String name) {
+        return histograms.get(name);
+    }
+
+    /**
+     * Reset all recorded durations
+     */
+    public static void reset() {
+        for (DurationHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+
+    private static String sectionName(String name) {
+        return name.length() > MAX_SECTION_NAME_LENGTH ? name.substring(0, MAX_SECTION_NAME_LENGTH) : name;
+    }
+}
@@ -0,0 +1,133 @@
+package com.covemanager;
+
+import androidx.appcompat.app.AppCompatActivity;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Bundle;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.widget.Toast;
+import com.covemanager.databinding.ActivityPerformanceStatsBinding;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Developer screen showing startup metrics and p50/p95/p99 durations of traced operations
+ */
+public class PerformanceStatsActivity extends AppCompatActivity {
+    private static final int MENU_REFRESH = 1;
+    private static final int MENU_RESET = 2;
+
+    private ActivityPerformanceStatsBinding binding;
+
+    public static void start(Context context) {
+        Intent intent = new Intent(context, PerformanceStatsActivity.class);
+        context.startActivity(intent);
+    }
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        // Inflate and get instance of binding
+        binding = ActivityPerformanceStatsBinding.inflate(getLayoutInflater());
+        setContentView(binding.getRoot());
+
+        // Set up toolbar
+        setSupportActionBar(binding.toolbarPerformanceStats);
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+            getSupportActionBar().setTitle("Performance Stats");
+        }
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        refreshStats();
+    }
+
+    private void refreshStats() {
+        binding.tvStartupMetrics.setText(buildStartupText());
+        binding.tvOperationStats.setText(buildOperationsText());
+    }
+
+    private String buildStartupText() {
+        StartupMetrics metrics = StartupMetrics.getInstance();
+        StringBuilder text = new StringBuilder();
+        text.append("Version: ").append(BuildConfig.VERSION_NAME)
+            .append(" (").append(BuildConfig.VERSION_CODE).append(")\n");
+        text.append("This launch: first frame ").append(formatMs(metrics.getFirstFrameMs()))
+            .append(", interactive ").append(formatMs(metrics.getInteractiveMs())).append("\n");
+        text.append("Average over ").append(metrics.getStartCount(this)).append(" cold starts: first frame ")
+            .append(formatMs(metrics.getAverageFirstFrameMs(this)))
+            .append(", interactive ").append(formatMs(metrics.getAverageInteractiveMs(this)));
+        return text.toString();
+    }
+
+    private String buildOperationsText() {
+        List<String> names = PerfTracer.getOperationNames();
+        if (names.isEmpty()) {
+            return "No operations recorded yet";
+        }
+
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.US, "%-32s %7s %9s %9s %9s %9s\n",
+                "Operation", "Count", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (String name : names) {
+            DurationHistogram histogram = PerfTracer.getHistogram(name);
+            if (histogram == null || histogram.getCount() == 0) {
+                continue;
+            }
+            text.append(String.format(Locale.US, "%-32s %7d %9.1f %9.1f %9.1f %9.1f\n",
+                    name,
+                    histogram.getCount(),
+                    histogram.getPercentileMs(50),
+                    histogram.getPercentileMs(95),
+                    histogram.getPercentileMs(99),
+                    histogram.getMaxMs()));
+        }
+        return text.toString();
+    }
+
+    private String formatMs(long ms) {
+        return ms < 0 ? "n/a" : ms + " ms";
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        menu.add(0, MENU_REFRESH, 0, "Refresh")
+            .setIcon(android.R.drawable.ic_popup_sync)
+            .setShowAsAction(MenuItem.SHOW_AS_ACTION_IF_ROOM);
+
+        menu.add(0, MENU_RESET, 0, "Reset")
+            .setIcon(android.R.drawable.ic_menu_delete)
+            .setShowAsAction(MenuItem.SHOW_AS_ACTION_IF_ROOM);
+
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        int itemId = item.getItemId();
+        if (itemId == android.R.id.home) {
+            finish();
+            return true;
+        } else if (itemId == MENU_REFRESH) {
+            refreshStats();
+            return true;
+        } else if (itemId == MENU_RESET) {
+            PerfTracer.reset();
+            refreshStats();
+            Toast.makeText(this, "Operation stats reset", Toast.LENGTH_SHORT).show();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        this.binding = null;
+    }
+}
@@ -0,0 +1,152 @@
+package com.covemanager;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.SearchView;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.MenuItem;
+import com.covemanager.databinding.ActivitySearchBinding;
+import java.io.File;
+import java.util.List;
+
+/**
+ * Filename search over all storage volumes, backed by {@link SearchIndexManager}.
+ * Results update as the user types.
+ */
+public class SearchActivity extends AppCompatActivity implements SearchIndexManager.SearchListener,
+        SearchIndexManager.IndexListener, SearchResultAdapter.OnResultClickListener {
+    // Short pause so a burst of keystrokes only runs the last query
+    private static final long QUERY_DEBOUNCE_MS = 50;
+
+    private ActivitySearchBinding binding;
+    private SearchIndexManager searchIndex;
+    private SearchResultAdapter resultAdapter;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private String currentQuery = "";
+    private int resultCount = 0;
+
+    private final Runnable runQuery = new Runnable() {
+        @Override
+        public void run() {
+            startSearch();
+        }
+    };
+
+    public static void start(Context context) {
+        Intent intent = new Intent(context, SearchActivity.class);
+        context.startActivity(intent);
+    }
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        // Inflate and get instance of binding
+        binding = ActivitySearchBinding.inflate(getLayoutInflater());
+        setContentView(binding.getRoot());
+
+        // Set up toolbar
+        setSupportActionBar(binding.toolbarSearch);
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+            getSupportActionBar().setDisplayShowTitleEnabled(false);
+        }
+
+        resultAdapter = new SearchResultAdapter(this);
+        binding.rvSearchResults.setLayoutManager(new LinearLayoutManager(this));
+        binding.rvSearchResults.setAdapter(resultAdapter);
+
+        binding.searchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                binding.searchView.clearFocus();
+                return true;
+            }
+
+            @Override
+            public boolean onQueryTextChange(String newText) {
+                currentQuery = newText;
+                handler.removeCallbacks(runQuery);
+                handler.postDelayed(runQuery, QUERY_DEBOUNCE_MS);
+                return true;
+            }
+        });
+        binding.searchView.requestFocus();
+
+        searchIndex = SearchIndexManager.getInstance();
+        if (!searchIndex.isReady()) {
+            binding.tvSearchStatus.setText("Indexing files…");
+        }
+        searchIndex.ensureIndexed(this, this);
+    }
+
+    @Override
+    public void onIndexReady(int entryCount) {
+        if (binding == null) {
+            return;
+        }
+        binding.tvSearchStatus.setText(entryCount + " files indexed");
+        // Run whatever was typed while the index was still being built
+        startSearch();
+    }
+
+    private void startSearch() {
+        resultAdapter.clear();
+        resultCount = 0;
+        if (currentQuery.trim().isEmpty()) {
+            searchIndex.cancelSearch();
+            return;
+        }
+        if (searchIndex.isReady()) {
+            searchIndex.search(currentQuery, this);
+        }
+    }
+
+    @Override
+    public void onResults(List<String> paths) {
+        resultCount += paths.size();
+        resultAdapter.addResults(paths);
+        binding.tvSearchStatus.setText(resultCount + " results…");
+    }
+
+    @Override
+    public void onSearchComplete(int resultCount, long elapsedMs) {
+        binding.tvSearchStatus.setText(resultCount == 0
+                ? "No matches"
+                : resultCount + " results in " + elapsedMs + " ms");
+    }
+
+    @Override
+    public void onResultClick(String path) {
+        File file = new File(path);
+        File directory = file.isDirectory() ? file : file.getParentFile();
+        if (directory == null) {
+            return;
+        }
+        Intent intent = new Intent(this, FileBrowserActivity.class);
+        intent.putExtra("path", directory.getAbsolutePath());
+        startActivity(intent);
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == android.R.id.home) {
+            finish();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        handler.removeCallbacks(runQuery);
+        searchIndex.cancelSearch();
+        searchIndex.removeIndexListener(this);
+        this.binding = null;
+    }
+}
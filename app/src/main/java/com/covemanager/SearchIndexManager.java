@@ -0,0 +1,266 @@
+package com.covemanager;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import com.covemanager.core.CrawlEntry;
+import com.covemanager.core.FileCrawler;
+import com.covemanager.core.FileNameIndex;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Owns the app-wide filename index.
+ * The index is built from a full storage scan and then kept up to date with the
+ * app's own file operations. Queries run on a separate thread and
+ * stream their results to the main thread; starting a new query cancels the previous one.
+ */
+public class SearchIndexManager {
+    private static final String TAG = "SearchIndexManager";
+    private static final int MAX_RESULTS = 1000;
+    private static SearchIndexManager instance;
+
+    /**
+     * Receives search results on the main thread
+     */
+    public interface SearchListener {
+        void onResults(List<String> paths);
+        void onSearchComplete(int resultCount, long elapsedMs);
+    }
+
+    /**
+     * Notified on the main thread when the index becomes available
+     */
+    public interface IndexListener {
+        void onIndexReady(int entryCount);
+    }
+
+    private final ExecutorService indexExecutor = Executors.newSingleThreadExecutor();
+    private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger searchGeneration = new AtomicInteger();
+    private final List<IndexListener> pendingListeners = new ArrayList<>();
+
+    private Context appContext;
+    private volatile FileNameIndex index;
+    private boolean building = false;
+
+    private SearchIndexManager() {
+    }
+
+    public static synchronized SearchIndexManager getInstance() {
+        if (instance == null) {
+            instance = new SearchIndexManager();
+        }
+        return instance;
+    }
+
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /**
+     * Get the current index for features that read it directly
+     * @return Index, or null until {@link #ensureIndexed} reports it ready
+     */
+    public FileNameIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Build the index if it does not exist yet. Must be called on the main thread.
+     * @param listener Called once the index is ready, immediately if it already is
+     */
+    public void ensureIndexed(Context context, IndexListener listener) {
+        appContext = context.getApplicationContext();
+        FileNameIndex current = index;
+        if (current != null) {
+            if (listener != null) {
+                listener.onIndexReady(current.size());
+            }
+            return;
+        }
+
+        if (listener != null) {
+            pendingListeners.add(listener);
+        }
+        if (!building) {
+            building = true;
+            rebuild();
+        }
+    }
+
+    /**
+     * Stop notifying a listener registered with {@link #ensureIndexed}
+     */
+    public void removeIndexListener(IndexListener listener) {
+        pendingListeners.remove(listener);
+    }
+
+    /**
+     * Run a query, cancelling any query still in progress
+     */
+    public void search(String query, SearchListener listener) {
+        int generation = searchGeneration.incrementAndGet();
+        FileNameIndex current = index;
+        if (current == null || query == null || query.trim().isEmpty()) {
+            return;
+        }
+
+        String trimmed = query.trim();
+        searchExecutor.execute(() -> {
+            if (generation != searchGeneration.get()) {
+                return;
+            }
+
+            long traceStart = PerfTracer.begin("Search.query");
+            long start = SystemClock.elapsedRealtime();
+            int count = current.search(trimmed, MAX_RESULTS, paths -> {
+                if (generation != searchGeneration.get()) {
+                    return false;
+                }
+                mainHandler.post(() -> {
+                    if (generation == searchGeneration.get()) {
+                        listener.onResults(paths);
+                    }
+                });
+                return true;
+            });
+            long elapsedMs = SystemClock.elapsedRealtime() - start;
+            PerfTracer.end("Search.query", traceStart);
+
+            mainHandler.post(() -> {
+                if (generation == searchGeneration.get()) {
+                    listener.onSearchComplete(count, elapsedMs);
+                }
+            });
+        });
+    }
+
+    /**
+     * Drop results of any query still in progress
+     */
+    public void cancelSearch() {
+        searchGeneration.incrementAndGet();
+    }
+
+    /**
+     * Index a file or directory tree that was created, copied or moved into place
+     */
+    public void onPathAdded(File file) {
+        String path = file.getAbsolutePath();
+        indexExecutor.execute(() -> {
+            FileNameIndex current = index;
+            if (current == null) {
+                return;
+            }
+            boolean isDirectory = file.isDirectory();
+            if (isDirectory && current.getDirectoryId(path) >= 0) {
+                // Already indexed, e.g. reported by both a file operation and the directory watcher
+                return;
+            }
+            int id = current.add(path, isDirectory);
+            if (id >= 0 && isDirectory) {
+                FileCrawler.getInstance().crawl(file, new IndexBuilder(current, false));
+            }
+        });
+    }
+
+    /**
+     * Remove a deleted file or directory tree from the index
+     */
+    public void onPathRemoved(File file) {
+        String path = file.getAbsolutePath();
+        indexExecutor.execute(() -> {
+            FileNameIndex current = index;
+            if (current == null) {
+                return;
+            }
+            current.remove(path);
+            if (current.needsCompaction()) {
+                // Tombstones only ever grow, so rebuild once a quarter of the entries are dead
+                mainHandler.post(() -> {
+                    if (!building) {
+                        building = true;
+                        rebuild();
+                    }
+                });
+            }
+        });
+    }
+
+    public void onPathRenamed(File from, File to) {
+        onPathRemoved(from);
+        onPathAdded(to);
+    }
+
+    private void rebuild() {
+        StorageScanner.getInstance().requestScan(appContext, new IndexBuilder(new FileNameIndex(), true));
+    }
+
+    private void onIndexBuilt(FileNameIndex newIndex, long elapsedMs) {
+        index = newIndex;
+        ErrorLogger.logInfo(appContext, TAG, "Indexed " + newIndex.size() + " entries in " + elapsedMs + " ms");
+
+        mainHandler.post(() -> {
+            building = false;
+            List<IndexListener> listeners = new ArrayList<>(pendingListeners);
+            pendingListeners.clear();
+            for (IndexListener listener : listeners) {
+                listener.onIndexReady(newIndex.size());
+            }
+        });
+    }
+
+    /**
+     * Crawl consumer adding entries to an index. Entries of a directory arrive together,
+     * so the parent id is looked up once per directory rather than once per entry.
+     */
+    private class IndexBuilder implements FileCrawler.Consumer {
+        private final FileNameIndex target;
+        private final boolean fullBuild;
+        private final long start = SystemClock.elapsedRealtime();
+        private File lastParent;
+        private int lastParentId = -1;
+
+        IndexBuilder(FileNameIndex target, boolean fullBuild) {
+            this.target = target;
+            this.fullBuild = fullBuild;
+        }
+
+        @Override
+        public void accept(CrawlEntry entry) {
+            File parent = entry.getParent();
+            if (parent == null) {
+                // Crawl roots: storage volumes on a full build, already indexed otherwise
+                if (fullBuild) {
+                    target.addRoot(entry.getFile().getAbsolutePath());
+                }
+                return;
+            }
+            if (parent != lastParent) {
+                lastParent = parent;
+                lastParentId = target.getDirectoryId(parent.getAbsolutePath());
+            }
+            if (lastParentId >= 0) {
+                // Links are indexed by name but never treated as directories
+                target.addChild(lastParentId, entry.getFile().getName(),
+                        entry.isDirectory() && !entry.isSymbolicLink());
+            }
+        }
+
+        @Override
+        public void onComplete(boolean cancelled) {
+            if (fullBuild && !cancelled) {
+                onIndexBuilt(target, SystemClock.elapsedRealtime() - start);
+            } else if (fullBuild) {
+                mainHandler.post(() -> building = false);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.covemanager;
+
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import com.covemanager.databinding.ItemSearchResultBinding;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shows search results as they stream in. Results are appended in batches so
+ * rows already on screen are never rebound while a query is still running.
+ */
+public class SearchResultAdapter extends RecyclerView.Adapter<SearchResultAdapter.ResultViewHolder> {
+    private final List<String> paths = new ArrayList<>();
+    private final OnResultClickListener listener;
+
+    public interface OnResultClickListener {
+        void onResultClick(String path);
+    }
+
+    public SearchResultAdapter(OnResultClickListener listener) {
+        this.listener = listener;
+    }
+
+    public void addResults(List<String> results) {
+        int start = paths.size();
+        paths.addAll(results);
+        notifyItemRangeInserted(start, results.size());
+    }
+
+    public void clear() {
+        int count = paths.size();
+        if (count > 0) {
+            paths.clear();
+            notifyItemRangeRemoved(0, count);
+        }
+    }
+
+    @NonNull
+    @Override
+    public ResultViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        ItemSearchResultBinding binding = ItemSearchResultBinding.inflate(
+                LayoutInflater.from(parent.getContext()), parent, false);
+        return new ResultViewHolder(binding);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ResultViewHolder holder, int position) {
+        holder.bind(paths.get(position));
+    }
+
+    @Override
+    public int getItemCount() {
+        return paths.size();
+    }
+
+    class ResultViewHolder extends RecyclerView.ViewHolder {
+        private ItemSearchResultBinding binding;
+
+        public ResultViewHolder(ItemSearchResultBinding binding) {
+            super(binding.getRoot());
+            this.binding = binding;
+        }
+
+        public void bind(String path) {
+            int separator = path.lastIndexOf(File.separatorChar);
+            binding.tvResultName.setText(separator >= 0 ? path.substring(separator + 1) : path);
+            binding.tvResultPath.setText(separator > 0 ? path.substring(0, separator) : File.separator);
+            binding.getRoot().setOnClickListener(v -> listener.onResultClick(path));
+        }
+    }
+}
@@ -1,47 +1,64 @@
 package com.covemanager;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.splashscreen.SplashScreen;
 import android.content.Intent;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
-import com.covemanager.databinding.ActivitySplashBinding;
 
+/**
+ * Launch activity. Keeps the system splash screen on display only until the error
+ * tracker has opened its files, then routes to MainActivity or the crash viewer.
+ */
 public class SplashActivity extends AppCompatActivity {
-    private ActivitySplashBinding binding;
-    private static final int SPLASH_DELAY = 2000; // 2 seconds
     private DebugErrorTracker errorTracker;
+    private volatile boolean ready = false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        // Must be installed before super.onCreate so the splash theme is swapped correctly
+        SplashScreen splashScreen = SplashScreen.installSplashScreen(this);
         super.onCreate(savedInstanceState);
 
-        // Inflate and get instance of binding
-        binding = ActivitySplashBinding.inflate(getLayoutInflater());
-
-        // Set content view to binding's root
-        setContentView(binding.getRoot());
+        // Keep the splash up until the tracker can answer whether we restarted from a crash
+        splashScreen.setKeepOnScreenCondition(new SplashScreen.KeepOnScreenCondition() {
+            @Override
+            public boolean shouldKeepOnScreen() {
+                return !ready;
+            }
+        });
 
         // Initialize error tracker
         errorTracker = DebugErrorTracker.getInstance(this);
+        errorTracker.whenReady(new Runnable() {
+            @Override
+            public void run() {
+                onAppReady();
+            }
+        });
+    }
+
+    /**
+     * Route to the next screen once startup work has finished
+     */
+    private void onAppReady() {
+        // The callback outlives an instance destroyed by a configuration change, whose
+        // replacement registers its own
+        if (isFinishing() || isDestroyed()) {
+            return;
+        }
+        ready = true;
 
         // Check if this is a crash restart
-        boolean isCrashRestart = getIntent().getBooleanExtra("crashed_restart", false) || 
+        boolean isCrashRestart = getIntent().getBooleanExtra("crashed_restart", false) ||
                                 errorTracker.wasRestartedFromCrash();
 
         if (isCrashRestart) {
             // Navigate directly to debug viewer with crash details
             navigateToDebugViewer();
         } else {
-            // Normal startup - go to MainActivity after delay
-            new Handler(Looper.getMainLooper()).postDelayed(new Runnable() {
-                @Override
-                public void run() {
-                    Intent intent = new Intent(SplashActivity.this, MainActivity.class);
-                    startActivity(intent);
-                    finish(); // Prevent user from navigating back to splash screen
-                }
-            }, SPLASH_DELAY);
+            Intent intent = new Intent(SplashActivity.this, MainActivity.class);
+            startActivity(intent);
+            finish(); // Prevent user from navigating back to splash screen
         }
     }
     
@@ -50,27 +67,20 @@ public class SplashActivity extends AppCompatActivity {
      */
     private void navigateToDebugViewer() {
         try {
-            // Short delay to show splash, then navigate to debug viewer
-            new Handler(Looper.getMainLooper()).postDelayed(new Runnable() {
-                @Override
-                public void run() {
-                    Intent intent = new Intent(SplashActivity.this, DebugErrorViewerActivity.class);
-                    intent.putExtra("show_crash_details", true);
-                    
-                    // Get crash details if available
-                    String crashDetails = errorTracker.getCrashDetailsFromRestart();
-                    if (crashDetails != null) {
-                        intent.putExtra("crash_details", crashDetails);
-                    }
-                    
-                    startActivity(intent);
-                    finish();
-                    
-                    // Clear the crash restart flag
-                    errorTracker.clearCrashRestartFlag();
-                }
-            }, 1000); // Shorter delay for crash restart
+            Intent intent = new Intent(SplashActivity.this, DebugErrorViewerActivity.class);
+            intent.putExtra("show_crash_details", true);
             
+            // Get crash details if available
+            String crashDetails = errorTracker.getCrashDetailsFromRestart();
+            if (crashDetails != null) {
+                intent.putExtra("crash_details", crashDetails);
+            }
+            
+            startActivity(intent);
+            finish();
+            
+            // Clear the crash restart flag
+            errorTracker.clearCrashRestartFlag();
         } catch (Exception e) {
             ErrorLogger.logError(this, "SplashActivity", "Error navigating to debug viewer after crash", e);
             // Fallback to normal navigation
@@ -79,10 +89,4 @@ public class SplashActivity extends AppCompatActivity {
             finish();
         }
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        this.binding = null;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,158 @@
+package com.covemanager;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+/**
+ * Records cold start timings and keeps running totals per app version.
+ * Time to first frame is measured from process start to the first MainActivity draw,
+ * time to interactive from process start to the point MainActivity reports it is fully drawn.
+ */
+public class StartupMetrics {
+    private static final String TAG = "StartupMetrics";
+    private static final String PREFS_NAME = "startup_metrics";
+    private static StartupMetrics instance;
+
+    private long processStartUptime = -1;
+    private long firstFrameMs = -1;
+    private long interactiveMs = -1;
+    private boolean reported = false;
+
+    private StartupMetrics() {
+    }
+
+    public static synchronized StartupMetrics getInstance() {
+        if (instance == null) {
+            instance = new StartupMetrics();
+        }
+        return instance;
+    }
+
+    /**
+     * Record process start. Uses the kernel start time where available and falls back
+     * to the moment Application.onCreate runs.
+     */
+    public void markProcessStart() {
+        if (processStartUptime >= 0) {
+            return;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            processStartUptime = Process.getStartUptimeMillis();
+        } else {
+            processStartUptime = SystemClock.uptimeMillis();
+        }
+    }
+
+    /**
+     * Record the first frame of the given activity once it has actually been drawn
+     */
+    public void markFirstFrame(Activity activity) {
+        if (firstFrameMs >= 0 || processStartUptime < 0) {
+            return;
+        }
+        View decorView = activity.getWindow().getDecorView();
+        decorView.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                decorView.getViewTreeObserver().removeOnPreDrawListener(this);
+                // The frame is on screen once the draw pass that follows pre-draw completes
+                new Handler(Looper.getMainLooper()).postAtFrontOfQueue(new Runnable() {
+                    @Override
+                    public void run() {
+                        firstFrameMs = SystemClock.uptimeMillis() - processStartUptime;
+                        reportIfComplete(activity);
+                    }
+                });
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Record that the activity's content is loaded and it can respond to input
+     */
+    public void markInteractive(Activity activity) {
+        if (interactiveMs >= 0 || processStartUptime < 0) {
+            return;
+        }
+        interactiveMs = SystemClock.uptimeMillis() - processStartUptime;
+        activity.reportFullyDrawn();
+        reportIfComplete(activity);
+    }
+
+    public long getFirstFrameMs() {
+        return firstFrameMs;
+    }
+
+    public long getInteractiveMs() {
+        return interactiveMs;
+    }
+
+    /**
+     * Get the average time to first frame recorded for the current version
+     * @return Average in milliseconds, or -1 if nothing was recorded yet
+     */
+    public long getAverageFirstFrameMs(Context context) {
+        return average(context, "ttff_total");
+    }
+
+    /**
+     * Get the average time to interactive recorded for the current version
+     * @return Average in milliseconds, or -1 if nothing was recorded yet
+     */
+    public long getAverageInteractiveMs(Context context) {
+        return average(context, "tti_total");
+    }
+
+    /**
+     * Get the number of cold starts recorded for the current version
+     */
+    public int getStartCount(Context context) {
+        return prefs(context).getInt(key("count"), 0);
+    }
+
+    private void reportIfComplete(Activity activity) {
+        if (reported || firstFrameMs < 0 || interactiveMs < 0) {
+            return;
+        }
+        reported = true;
+
+        SharedPreferences prefs = prefs(activity);
+        prefs.edit()
+                .putInt(key("count"), prefs.getInt(key("count"), 0) + 1)
+                .putLong(key("ttff_total"), prefs.getLong(key("ttff_total"), 0) + firstFrameMs)
+                .putLong(key("tti_total"), prefs.getLong(key("tti_total"), 0) + interactiveMs)
+                .putLong(key("ttff_last"), firstFrameMs)
+                .putLong(key("tti_last"), interactiveMs)
+                .apply();
+
+        ErrorLogger.logInfo(activity, TAG, "Cold start [" + BuildConfig.VERSION_NAME + "]: " +
+                "first frame " + firstFrameMs + " ms, interactive " + interactiveMs + " ms");
+    }
+
+    private long average(Context context, String totalKey) {
+        SharedPreferences prefs = prefs(context);
+        int count = prefs.getInt(key("count"), 0);
+        if (count == 0) {
+            return -1;
+        }
+        return prefs.getLong(key(totalKey), 0) / count;
+    }
+
+    private SharedPreferences prefs(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    private String key(String name) {
+        // Metrics are kept per release so regressions show up between versions
+        return BuildConfig.VERSION_NAME + "_" + BuildConfig.VERSION_CODE + "_" + name;
+    }
+}
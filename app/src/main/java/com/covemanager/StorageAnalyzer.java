@@ -0,0 +1,246 @@
+package com.covemanager;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.StatFs;
+import com.covemanager.core.FileCategory;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Computes used and free space per volume and how the used space splits across file
+ * categories. Category totals come from {@link CategoryIndexManager}, which is filled by
+ * the shared storage scan, so no extra crawl is needed; whatever the categories do not
+ * account for is reported as other. The last snapshot is persisted so the home screen
+ * can show real numbers before anything has been measured in this process.
+ */
+public class StorageAnalyzer implements CategoryIndexManager.Listener {
+    private static final String TAG = "StorageAnalyzer";
+    private static final String PREFS_NAME = "storage_stats";
+    private static StorageAnalyzer instance;
+
+    /**
+     * Space on one storage volume
+     */
+    public static final class VolumeStats {
+        private final long totalBytes;
+        private final long freeBytes;
+
+        VolumeStats(long totalBytes, long freeBytes) {
+            this.totalBytes = totalBytes;
+            this.freeBytes = freeBytes;
+        }
+
+        public long getTotalBytes() {
+            return totalBytes;
+        }
+
+        public long getFreeBytes() {
+            return freeBytes;
+        }
+
+        public long getUsedBytes() {
+            return totalBytes - freeBytes;
+        }
+
+        /**
+         * Get the used share of the volume in percent
+         */
+        public int getUsedPercent() {
+            return totalBytes > 0 ? (int) (getUsedBytes() * 100 / totalBytes) : 0;
+        }
+    }
+
+    /**
+     * Everything the home screen shows about storage
+     */
+    public static final class Snapshot {
+        private final VolumeStats internal;
+        private final VolumeStats sdCard;
+        private final Map<FileCategory, Long> categoryBytes;
+
+        Snapshot(VolumeStats internal, VolumeStats sdCard, Map<FileCategory, Long> categoryBytes) {
+            this.internal = internal;
+            this.sdCard = sdCard;
+            this.categoryBytes = categoryBytes;
+        }
+
+        public VolumeStats getInternal() {
+            return internal;
+        }
+
+        /**
+         * @return SD card stats, or null if no card is mounted
+         */
+        public VolumeStats getSdCard() {
+            return sdCard;
+        }
+
+        /**
+         * Get bytes per category across all volumes, including {@link FileCategory#OTHER}
+         * @return Breakdown, or null if no scan has finished yet
+         */
+        public Map<FileCategory, Long> getCategoryBytes() {
+            return categoryBytes;
+        }
+    }
+
+    /**
+     * Notified on the main thread with each new snapshot
+     */
+    public interface Listener {
+        void onStorageStatsChanged(Snapshot snapshot);
+    }
+
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Listener> listeners = new ArrayList<>();
+    private Context appContext;
+    private Snapshot lastSnapshot;
+
+    private StorageAnalyzer() {
+    }
+
+    public static synchronized StorageAnalyzer getInstance() {
+        if (instance == null) {
+            instance = new StorageAnalyzer();
+        }
+        return instance;
+    }
+
+    /**
+     * Get the latest snapshot, falling back to the one saved by a previous run
+     * @return Snapshot, or null if storage was never measured
+     */
+    public Snapshot getLastSnapshot(Context context) {
+        if (lastSnapshot == null) {
+            lastSnapshot = loadSnapshot(context);
+        }
+        return lastSnapshot;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Measure storage again in the background. Category changes trigger this automatically.
+     */
+    public void refresh(Context context) {
+        if (appContext == null) {
+            appContext = context.getApplicationContext();
+            CategoryIndexManager.getInstance().addListener(this);
+        }
+        Snapshot previous = getLastSnapshot(context);
+
+        ioExecutor.execute(() -> {
+            long traceStart = PerfTracer.begin("StorageAnalyzer.refresh");
+            Snapshot snapshot;
+            try {
+                snapshot = measure(previous);
+                saveSnapshot(snapshot);
+            } catch (Exception e) {
+                ErrorLogger.logError(appContext, TAG, "Failed to measure storage", e);
+                return;
+            } finally {
+                PerfTracer.end("StorageAnalyzer.refresh", traceStart);
+            }
+
+            mainHandler.post(() -> {
+                lastSnapshot = snapshot;
+                for (Listener listener : new ArrayList<>(listeners)) {
+                    listener.onStorageStatsChanged(snapshot);
+                }
+            });
+        });
+    }
+
+    @Override
+    public void onCategoriesChanged() {
+        refresh(appContext);
+    }
+
+    private Snapshot measure(Snapshot previous) {
+        VolumeStats internal = statVolume(StorageVolumes.getInternalRoot());
+        File sdRoot = StorageVolumes.getSdCardRoot(appContext);
+        VolumeStats sdCard = sdRoot != null ? statVolume(sdRoot) : null;
+
+        CategoryIndexManager categoryIndex = CategoryIndexManager.getInstance();
+        Map<FileCategory, Long> categoryBytes;
+        if (categoryIndex.isScanComplete()) {
+            categoryBytes = new EnumMap<>(FileCategory.class);
+            long categorized = 0;
+            for (FileCategory category : FileCategory.values()) {
+                if (category != FileCategory.OTHER) {
+                    long bytes = categoryIndex.getTotalBytes(category);
+                    categoryBytes.put(category, bytes);
+                    categorized += bytes;
+                }
+            }
+            long used = internal.getUsedBytes() + (sdCard != null ? sdCard.getUsedBytes() : 0);
+            categoryBytes.put(FileCategory.OTHER, Math.max(0, used - categorized));
+        } else {
+            // Keep the saved breakdown until this run's scan has finished
+            categoryBytes = previous != null ? previous.getCategoryBytes() : null;
+        }
+        return new Snapshot(internal, sdCard, categoryBytes);
+    }
+
+    private VolumeStats statVolume(File root) {
+        StatFs statFs = new StatFs(root.getAbsolutePath());
+        return new VolumeStats(statFs.getTotalBytes(), statFs.getAvailableBytes());
+    }
+
+    private void saveSnapshot(Snapshot snapshot) {
+        SharedPreferences.Editor editor = prefs(appContext).edit()
+                .putLong("internal_total", snapshot.getInternal().getTotalBytes())
+                .putLong("internal_free", snapshot.getInternal().getFreeBytes())
+                .putBoolean("sd_present", snapshot.getSdCard() != null);
+        if (snapshot.getSdCard() != null) {
+            editor.putLong("sd_total", snapshot.getSdCard().getTotalBytes())
+                  .putLong("sd_free", snapshot.getSdCard().getFreeBytes());
+        }
+        if (snapshot.getCategoryBytes() != null) {
+            for (Map.Entry<FileCategory, Long> entry : snapshot.getCategoryBytes().entrySet()) {
+                editor.putLong("category_" + entry.getKey().name(), entry.getValue());
+            }
+            editor.putBoolean("categories_known", true);
+        }
+        editor.apply();
+    }
+
+    private Snapshot loadSnapshot(Context context) {
+        SharedPreferences prefs = prefs(context);
+        if (!prefs.contains("internal_total")) {
+            return null;
+        }
+
+        VolumeStats internal = new VolumeStats(prefs.getLong("internal_total", 0), prefs.getLong("internal_free", 0));
+        VolumeStats sdCard = prefs.getBoolean("sd_present", false)
+                ? new VolumeStats(prefs.getLong("sd_total", 0), prefs.getLong("sd_free", 0))
+                : null;
+        Map<FileCategory, Long> categoryBytes = null;
+        if (prefs.getBoolean("categories_known", false)) {
+            categoryBytes = new EnumMap<>(FileCategory.class);
+            for (FileCategory category : FileCategory.values()) {
+                categoryBytes.put(category, prefs.getLong("category_" + category.name(), 0));
+            }
+        }
+        return new Snapshot(internal, sdCard, categoryBytes);
+    }
+
+    private SharedPreferences prefs(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,32 @@
+package com.covemanager;
+
+import java.io.File;
+
+/**
+ * Forwards file changes to every index kept over storage, so callers report a
+ * change once instead of updating each index separately
+ */
+public class StorageIndexes {
+
+    private StorageIndexes() {
+    }
+
+    public static void onPathAdded(File file) {
+        SearchIndexManager.getInstance().onPathAdded(file);
+        CategoryIndexManager.getInstance().onPathAdded(file);
+        DiskUsageManager.getInstance().onPathAdded(file);
+        FileReportManager.getInstance().onPathAdded(file);
+    }
+
+    public static void onPathRemoved(File file) {
+        SearchIndexManager.getInstance().onPathRemoved(file);
+        CategoryIndexManager.getInstance().onPathRemoved(file);
+        DiskUsageManager.getInstance().onPathRemoved(file);
+        FileReportManager.getInstance().onPathRemoved(file);
+    }
+
+    public static void onPathRenamed(File from, File to) {
+        onPathRemoved(from);
+        onPathAdded(to);
+    }
+}
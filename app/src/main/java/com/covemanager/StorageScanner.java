@@ -0,0 +1,85 @@
+package com.covemanager;
+
+import android.content.Context;
+import android.os.SystemClock;
+import com.covemanager.core.FileCrawler;
+import com.covemanager.core.FolderSizeAggregator;
+import com.covemanager.core.FolderSizeCache;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs full-storage scans on behalf of every feature that needs one.
+ * Consumers that ask for a scan while one is already queued join that scan, so a
+ * single crawl of all volumes serves all of them. Every scan also refreshes the
+ * folder size cache for the storage roots and their top-level folders.
+ */
+public class StorageScanner {
+    private static final String TAG = "StorageScanner";
+    // Roots and their direct children are what the browser opens first
+    private static final int CACHED_SIZE_DEPTH = 1;
+    private static StorageScanner instance;
+
+    private final ExecutorService scanExecutor = Executors.newSingleThreadExecutor();
+    private final List<FileCrawler.Consumer> pendingConsumers = new ArrayList<>();
+    private boolean scanQueued = false;
+
+    private StorageScanner() {
+    }
+
+    public static synchronized StorageScanner getInstance() {
+        if (instance == null) {
+            instance = new StorageScanner();
+        }
+        return instance;
+    }
+
+    /**
+     * Feed a consumer every entry on all storage volumes. The consumer is called on the
+     * scan thread and joins the next scan that has not started yet.
+     */
+    public void requestScan(Context context, FileCrawler.Consumer consumer) {
+        Context appContext = context.getApplicationContext();
+        synchronized (this) {
+            pendingConsumers.add(consumer);
+            if (scanQueued) {
+                return;
+            }
+            scanQueued = true;
+        }
+        scanExecutor.execute(() -> runScan(appContext));
+    }
+
+    private void runScan(Context context) {
+        List<FileCrawler.Consumer> consumers;
+        synchronized (this) {
+            consumers = new ArrayList<>(pendingConsumers);
+            pendingConsumers.clear();
+            scanQueued = false;
+        }
+
+        List<File> roots = StorageVolumes.getAllRoots(context);
+        FolderSizeAggregator sizes = new FolderSizeAggregator();
+        FileCrawler.Crawl crawl = FileCrawler.getInstance().newCrawl(roots).addConsumer(sizes);
+        for (FileCrawler.Consumer consumer : consumers) {
+            crawl.addConsumer(consumer);
+        }
+
+        long start = SystemClock.elapsedRealtime();
+        long traceStart = PerfTracer.begin("StorageScanner.scan");
+        try {
+            crawl.run();
+            sizes.publishTo(FolderSizeCache.getInstance(), CACHED_SIZE_DEPTH);
+        } catch (Exception e) {
+            ErrorLogger.logError(context, TAG, "Storage scan failed", e);
+        } finally {
+            PerfTracer.end("StorageScanner.scan", traceStart);
+        }
+
+        ErrorLogger.logInfo(context, TAG, "Scanned " + roots.size() + " volumes for " +
+                consumers.size() + " consumers in " + (SystemClock.elapsedRealtime() - start) + " ms");
+    }
+}
@@ -0,0 +1,55 @@
+package com.covemanager;
+
+import android.content.Context;
+import android.os.Environment;
+import androidx.core.content.ContextCompat;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resolves the root directories of internal storage and a removable SD card
+ */
+public class StorageVolumes {
+
+    private StorageVolumes() {
+    }
+
+    public static File getInternalRoot() {
+        return Environment.getExternalStorageDirectory();
+    }
+
+    /**
+     * Find the root of the removable SD card from the app's second external files dir
+     * @return SD card root, or null if no card is mounted
+     */
+    public static File getSdCardRoot(Context context) {
+        File[] externalFilesDirs = ContextCompat.getExternalFilesDirs(context, null);
+        if (externalFilesDirs.length < 2 || externalFilesDirs[1] == null) {
+            return null;
+        }
+
+        // Navigate up from <root>/Android/data/<package>/files to <root>
+        File sdRoot = externalFilesDirs[1];
+        while (sdRoot.getParent() != null && !sdRoot.getName().equals("Android")) {
+            sdRoot = sdRoot.getParentFile();
+        }
+        if (sdRoot.getParent() != null) {
+            sdRoot = sdRoot.getParentFile();
+        }
+        return sdRoot;
+    }
+
+    /**
+     * Get all mounted storage roots, internal storage first
+     */
+    public static List<File> getAllRoots(Context context) {
+        List<File> roots = new ArrayList<>();
+        roots.add(getInternalRoot());
+        File sdRoot = getSdCardRoot(context);
+        if (sdRoot != null) {
+            roots.add(sdRoot);
+        }
+        return roots;
+    }
+}
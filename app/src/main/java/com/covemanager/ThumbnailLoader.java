@@ -0,0 +1,405 @@
+package com.covemanager;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.drawable.Drawable;
+import android.media.ExifInterface;
+import android.media.MediaMetadataRetriever;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+import com.covemanager.core.FileCategory;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Produces square thumbnails for images, videos and APKs.
+ *
+ * Thumbnails are looked up in a memory LRU sized by bitmap bytes, then in a disk cache
+ * of previously generated thumbnails, and only then generated on a small decode pool.
+ * The pool takes the newest request first, so rows that just scrolled into view are
+ * served before older ones, and requests of recycled rows are cancelled before they run.
+ * Images are decoded downsampled into a per-thread buffer reused through inBitmap, then
+ * cropped into a new bitmap of the target size; the buffer itself is never handed out.
+ */
+public class ThumbnailLoader {
+    private static final String TAG = "ThumbnailLoader";
+    private static final String DISK_CACHE_DIR = "thumbnails";
+    private static final long DISK_CACHE_BYTES = 64L * 1024 * 1024;
+    private static final int JPEG_QUALITY = 85;
+    private static final int DECODE_THREADS = 2;
+    private static ThumbnailLoader instance;
+
+    /**
+     * Receives a thumbnail on the main thread
+     */
+    public interface Callback {
+        void onThumbnailReady(Bitmap thumbnail);
+    }
+
+    /**
+     * A pending thumbnail. Cancelling drops it from the queue, or its result if it already runs.
+     */
+    public final class Request {
+        private volatile boolean cancelled = false;
+        private FutureTask<Void> task;
+
+        public void cancel() {
+            cancelled = true;
+            if (task != null) {
+                task.cancel(false);
+                decodePool.remove(task);
+            }
+        }
+    }
+
+    private final ThreadPoolExecutor decodePool;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final LruCache<String, Bitmap> memoryCache;
+    // Decoded full images, reused as inBitmap by the next decode on the same thread
+    private final ThreadLocal<Bitmap> decodeBuffer = new ThreadLocal<>();
+    private Context appContext;
+    private File diskCacheDir;
+    private long diskCacheSize = -1;
+
+    private ThumbnailLoader() {
+        // Newest requests first: they belong to the rows currently on screen
+        decodePool = new ThreadPoolExecutor(DECODE_THREADS, DECODE_THREADS, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingDeque<Runnable>() {
+                    @Override
+                    public boolean offer(Runnable runnable) {
+                        return offerFirst(runnable);
+                    }
+                });
+        int maxBytes = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 8);
+        memoryCache = new LruCache<String, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getAllocationByteCount();
+            }
+        };
+    }
+
+    public static synchronized ThumbnailLoader getInstance() {
+        if (instance == null) {
+            instance = new ThumbnailLoader();
+        }
+        return instance;
+    }
+
+    /**
+     * Check whether thumbnails are generated for a file of this category
+     */
+    public static boolean hasThumbnail(FileCategory category) {
+        return category == FileCategory.IMAGES || category == FileCategory.VIDEOS || category == FileCategory.APKS;
+    }
+
+    /**
+     * Get a thumbnail from memory without touching disk
+     * @return Thumbnail, or null if it is not in memory
+     */
+    public Bitmap getCached(File file, long lastModified, int size) {
+        return memoryCache.get(cacheKey(file, lastModified, size));
+    }
+
+    /**
+     * Load a thumbnail in the background. The callback is not called if the file has no
+     * thumbnail or the request is cancelled first. Must be called on the main thread.
+     * @param size Width and height of the thumbnail in pixels
+     */
+    public Request load(Context context, File file, long lastModified, int size, Callback callback) {
+        if (appContext == null) {
+            appContext = context.getApplicationContext();
+            diskCacheDir = new File(appContext.getCacheDir(), DISK_CACHE_DIR);
+        }
+        String key = cacheKey(file, lastModified, size);
+        Request request = new Request();
+        request.task = new FutureTask<>(() -> {
+            if (request.cancelled) {
+                return null;
+            }
+            long traceStart = PerfTracer.begin("ThumbnailLoader.load");
+            Bitmap thumbnail;
+            try {
+                thumbnail = loadThumbnail(file, key, size);
+            } catch (Exception | OutOfMemoryError e) {
+                ErrorLogger.logWarning(appContext, TAG, "No thumbnail for " + file + ": " + e);
+                thumbnail = null;
+            } finally {
+                PerfTracer.end("ThumbnailLoader.load", traceStart);
+            }
+            if (thumbnail != null) {
+                memoryCache.put(key, thumbnail);
+                Bitmap result = thumbnail;
+                mainHandler.post(() -> {
+                    if (!request.cancelled) {
+                        callback.onThumbnailReady(result);
+                    }
+                });
+            }
+            return null;
+        });
+        decodePool.execute(request.task);
+        return request;
+    }
+
+    /**
+     * Drop thumbnails held in memory, as the system asks when it runs low
+     */
+    public void trimMemory(boolean all) {
+        if (all) {
+            memoryCache.evictAll();
+        } else {
+            memoryCache.trimToSize(memoryCache.maxSize() / 2);
+        }
+    }
+
+    private Bitmap loadThumbnail(File file, String key, int size) throws IOException {
+        File cached = new File(diskCacheDir, hashKey(key));
+        if (cached.exists()) {
+            Bitmap thumbnail = BitmapFactory.decodeFile(cached.getPath());
+            if (thumbnail != null) {
+                return thumbnail;
+            }
+        }
+
+        Bitmap thumbnail;
+        switch (FileCategory.fromName(file.getName())) {
+            case IMAGES:
+                thumbnail = decodeImage(file, size);
+                break;
+            case VIDEOS:
+                thumbnail = decodeVideoFrame(file, size);
+                break;
+            case APKS:
+                thumbnail = renderApkIcon(file, size);
+                break;
+            default:
+                thumbnail = null;
+        }
+        if (thumbnail != null) {
+            writeToDisk(cached, thumbnail);
+        }
+        return thumbnail;
+    }
+
+    private Bitmap decodeImage(File file, int size) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getPath(), options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        boolean jpeg = "image/jpeg".equals(options.outMimeType);
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize(options.outWidth, options.outHeight, size);
+        options.inMutable = true;
+        // Photos have no alpha, so they decode at half the memory
+        options.inPreferredConfig = jpeg ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+
+        Bitmap buffer = decodeBuffer.get();
+        int decodedBytes = (options.outWidth / options.inSampleSize + 1) * (options.outHeight / options.inSampleSize + 1)
+                * (jpeg ? 2 : 4);
+        if (buffer != null && buffer.getConfig() == options.inPreferredConfig
+                && buffer.getAllocationByteCount() >= decodedBytes) {
+            options.inBitmap = buffer;
+        }
+
+        Bitmap decoded;
+        try {
+            decoded = BitmapFactory.decodeFile(file.getPath(), options);
+        } catch (IllegalArgumentException e) {
+            // The decoder could not use the buffer after all
+            options.inBitmap = null;
+            decoded = BitmapFactory.decodeFile(file.getPath(), options);
+        }
+        if (decoded == null) {
+            return null;
+        }
+        decodeBuffer.set(decoded);
+        return cropToSquare(decoded, size, jpeg ? exifRotation(file) : 0);
+    }
+
+    private static Bitmap decodeVideoFrame(File file, int size) {
+        MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+        try {
+            retriever.setDataSource(file.getPath());
+            Bitmap frame;
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O_MR1) {
+                // Let the decoder scale instead of producing a full-resolution frame
+                frame = retriever.getScaledFrameAtTime(-1, MediaMetadataRetriever.OPTION_CLOSEST_SYNC, size * 2, size * 2);
+            } else {
+                frame = retriever.getFrameAtTime();
+            }
+            if (frame == null) {
+                return null;
+            }
+            Bitmap thumbnail = cropToSquare(frame, size, 0);
+            frame.recycle();
+            return thumbnail;
+        } finally {
+            try {
+                retriever.release();
+            } catch (Exception e) {
+                // Nothing left to clean up
+            }
+        }
+    }
+
+    private Bitmap renderApkIcon(File file, int size) {
+        PackageManager packageManager = appContext.getPackageManager();
+        PackageInfo packageInfo = packageManager.getPackageArchiveInfo(file.getPath(), 0);
+        if (packageInfo == null || packageInfo.applicationInfo == null) {
+            return null;
+        }
+        // Resources are only loaded from the archive once it is named as the source
+        ApplicationInfo applicationInfo = packageInfo.applicationInfo;
+        applicationInfo.sourceDir = file.getPath();
+        applicationInfo.publicSourceDir = file.getPath();
+        Drawable icon = applicationInfo.loadIcon(packageManager);
+
+        Bitmap thumbnail = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        icon.setBounds(0, 0, size, size);
+        icon.draw(new Canvas(thumbnail));
+        return thumbnail;
+    }
+
+    /**
+     * Get the largest power of two that keeps both sides at least the target size
+     */
+    private static int sampleSize(int width, int height, int size) {
+        int sampleSize = 1;
+        while (width / (sampleSize * 2) >= size && height / (sampleSize * 2) >= size) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * Scale and center-crop into a new square bitmap, applying the rotation of the source
+     */
+    private static Bitmap cropToSquare(Bitmap source, int size, int rotation) {
+        Bitmap.Config config = source.getConfig() == Bitmap.Config.RGB_565
+                ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+        Bitmap thumbnail = Bitmap.createBitmap(size, size, config);
+        float scale = (float) size / Math.min(source.getWidth(), source.getHeight());
+
+        Matrix matrix = new Matrix();
+        matrix.postTranslate(-source.getWidth() / 2f, -source.getHeight() / 2f);
+        matrix.postRotate(rotation);
+        matrix.postScale(scale, scale);
+        matrix.postTranslate(size / 2f, size / 2f);
+        new Canvas(thumbnail).drawBitmap(source, matrix, new Paint(Paint.FILTER_BITMAP_FLAG));
+        return thumbnail;
+    }
+
+    private static int exifRotation(File file) {
+        try {
+            int orientation = new ExifInterface(file.getPath()).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+            switch (orientation) {
+                case ExifInterface.ORIENTATION_ROTATE_90: return 90;
+                case ExifInterface.ORIENTATION_ROTATE_180: return 180;
+                case ExifInterface.ORIENTATION_ROTATE_270: return 270;
+                default: return 0;
+            }
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private synchronized void writeToDisk(File cached, Bitmap thumbnail) {
+        if (diskCacheSize < 0) {
+            diskCacheSize = 0;
+            if (!diskCacheDir.isDirectory() && !diskCacheDir.mkdirs()) {
+                return;
+            }
+            File[] files = diskCacheDir.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    diskCacheSize += file.length();
+                }
+            }
+        }
+
+        File temp = new File(diskCacheDir, cached.getName() + ".tmp");
+        try (OutputStream out = new FileOutputStream(temp)) {
+            // Only APK icons need transparency; everything else is smaller as JPEG
+            thumbnail.compress(thumbnail.hasAlpha() ? Bitmap.CompressFormat.PNG : Bitmap.CompressFormat.JPEG,
+                    JPEG_QUALITY, out);
+        } catch (IOException e) {
+            temp.delete();
+            return;
+        }
+        if (temp.renameTo(cached)) {
+            diskCacheSize += cached.length();
+        } else {
+            temp.delete();
+        }
+        if (diskCacheSize > DISK_CACHE_BYTES) {
+            trimDiskCache();
+        }
+    }
+
+    /**
+     * Delete the oldest thumbnails until the cache is down to three quarters of its limit
+     */
+    private void trimDiskCache() {
+        File[] files = diskCacheDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        long[] modified = new long[files.length];
+        Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; i++) {
+            modified[i] = files[i].lastModified();
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(modified[a], modified[b]));
+        for (Integer i : order) {
+            if (diskCacheSize <= DISK_CACHE_BYTES * 3 / 4) {
+                break;
+            }
+            long length = files[i].length();
+            if (files[i].delete()) {
+                diskCacheSize -= length;
+            }
+        }
+    }
+
+    private static String cacheKey(File file, long lastModified, int size) {
+        return file.getPath() + '\n' + lastModified + '\n' + size;
+    }
+
+    private static String hashKey(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(key.hashCode());
+        }
+    }
+}
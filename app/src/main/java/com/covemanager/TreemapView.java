@@ -0,0 +1,201 @@
+package com.covemanager;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.text.format.Formatter;
+import android.util.AttributeSet;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.View;
+import androidx.core.content.ContextCompat;
+import com.covemanager.core.FileCategory;
+import com.covemanager.core.SizeTree;
+import com.covemanager.core.TreemapLayout;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Draws one directory level of a size tree as a treemap. The layout is computed when the
+ * node or the view size changes; drawing only walks the precomputed cells and labels.
+ */
+public class TreemapView extends View {
+    private static final float MIN_CELL_DP = 40f;
+    private static final float CELL_GAP_DP = 1.5f;
+    private static final float LABEL_PADDING_DP = 6f;
+
+    /**
+     * Receives taps on cells
+     */
+    public interface OnCellClickListener {
+        void onCellClick(TreemapLayout.Cell cell);
+
+        void onCellLongClick(TreemapLayout.Cell cell);
+    }
+
+    private final Paint cellPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint labelPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint sizePaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final GestureDetector gestureDetector;
+    private final float density;
+    private SizeTree tree;
+    private int node = -1;
+    private List<TreemapLayout.Cell> cells = new ArrayList<>();
+    private final List<String> labels = new ArrayList<>();
+    private final List<String> sizeLabels = new ArrayList<>();
+    private final List<Integer> colors = new ArrayList<>();
+    private OnCellClickListener listener;
+
+    public TreemapView(Context context) {
+        this(context, null);
+    }
+
+    public TreemapView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        density = getResources().getDisplayMetrics().density;
+        labelPaint.setColor(Color.WHITE);
+        labelPaint.setTextSize(13 * getResources().getDisplayMetrics().scaledDensity);
+        labelPaint.setFakeBoldText(true);
+        sizePaint.setColor(Color.WHITE);
+        sizePaint.setTextSize(11 * getResources().getDisplayMetrics().scaledDensity);
+
+        gestureDetector = new GestureDetector(context, new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onDown(MotionEvent e) {
+                return true;
+            }
+
+            @Override
+            public boolean onSingleTapUp(MotionEvent e) {
+                TreemapLayout.Cell cell = findCell(e.getX(), e.getY());
+                if (cell != null && listener != null) {
+                    listener.onCellClick(cell);
+                }
+                return cell != null;
+            }
+
+            @Override
+            public void onLongPress(MotionEvent e) {
+                TreemapLayout.Cell cell = findCell(e.getX(), e.getY());
+                if (cell != null && listener != null) {
+                    listener.onCellLongClick(cell);
+                }
+            }
+        });
+    }
+
+    public void setOnCellClickListener(OnCellClickListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Show the children of a node
+     */
+    public void setNode(SizeTree tree, int node) {
+        this.tree = tree;
+        this.node = node;
+        computeLayout();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        computeLayout();
+    }
+
+    private void computeLayout() {
+        cells = new ArrayList<>();
+        labels.clear();
+        sizeLabels.clear();
+        colors.clear();
+        if (tree != null && node >= 0 && getWidth() > 0 && getHeight() > 0) {
+            float minCell = MIN_CELL_DP * density;
+            float padding = LABEL_PADDING_DP * density;
+            float gap = CELL_GAP_DP * density;
+            float labelHeight = labelPaint.getTextSize() + sizePaint.getTextSize() + 2 * padding;
+            cells = TreemapLayout.layout(tree, node, getWidth(), getHeight(), minCell * minCell);
+            for (int i = 0; i < cells.size(); i++) {
+                TreemapLayout.Cell cell = cells.get(i);
+                colors.add(cellColor(cell, i));
+
+                // Label only cells with room for both lines, ellipsizing here rather than per frame
+                float textWidth = cell.getWidth() - gap - 2 * padding;
+                if (textWidth < 24 * density || cell.getHeight() - gap < labelHeight) {
+                    labels.add(null);
+                    sizeLabels.add(null);
+                    continue;
+                }
+                String label = cell.isAggregate()
+                        ? cell.getAggregatedCount() + " smaller items"
+                        : tree.getName(cell.getNode());
+                labels.add(TextUtils.ellipsize(label, labelPaint, textWidth, TextUtils.TruncateAt.END).toString());
+                sizeLabels.add(Formatter.formatShortFileSize(getContext(), cell.getSize()));
+            }
+        }
+        invalidate();
+    }
+
+    private int cellColor(TreemapLayout.Cell cell, int index) {
+        int colorRes;
+        if (cell.isAggregate()) {
+            colorRes = R.color.colorIconTint;
+        } else if (tree.isDirectory(cell.getNode())) {
+            // Alternate shades so neighbouring folders stay distinguishable
+            colorRes = index % 2 == 0 ? R.color.colorPrimary : R.color.colorPrimaryDark;
+        } else {
+            switch (FileCategory.fromName(tree.getName(cell.getNode()))) {
+                case IMAGES: colorRes = R.color.categoryImages; break;
+                case VIDEOS: colorRes = R.color.categoryVideos; break;
+                case AUDIO: colorRes = R.color.categoryAudio; break;
+                case DOCUMENTS: colorRes = R.color.categoryDocuments; break;
+                case APKS: colorRes = R.color.categoryApks; break;
+                default: colorRes = R.color.textColorSecondary; break;
+            }
+        }
+        return ContextCompat.getColor(getContext(), colorRes);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        float gap = CELL_GAP_DP * density;
+        float padding = LABEL_PADDING_DP * density;
+        for (int i = 0; i < cells.size(); i++) {
+            TreemapLayout.Cell cell = cells.get(i);
+            float left = cell.getLeft();
+            float top = cell.getTop();
+            float right = left + cell.getWidth() - gap;
+            float bottom = top + cell.getHeight() - gap;
+            if (right <= left || bottom <= top) {
+                continue;
+            }
+            cellPaint.setColor(colors.get(i));
+            canvas.drawRect(left, top, right, bottom, cellPaint);
+
+            String label = labels.get(i);
+            if (label != null) {
+                float baseline = top + padding - labelPaint.ascent();
+                canvas.drawText(label, left + padding, baseline, labelPaint);
+                canvas.drawText(sizeLabels.get(i), left + padding,
+                        baseline + sizePaint.getTextSize() + padding / 2, sizePaint);
+            }
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        return gestureDetector.onTouchEvent(event) || super.onTouchEvent(event);
+    }
+
+    private TreemapLayout.Cell findCell(float x, float y) {
+        for (TreemapLayout.Cell cell : cells) {
+            if (cell.contains(x, y)) {
+                return cell;
+            }
+        }
+        return null;
+    }
+}
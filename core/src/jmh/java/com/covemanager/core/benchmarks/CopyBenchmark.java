@@ -0,0 +1,64 @@
+package com.covemanager.core.benchmarks;
+
+import com.covemanager.core.FileOperations;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Copy throughput for one large file and for a tree of small files.
+ * Divide the file sizes by the reported time to get MB/s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CopyBenchmark {
+    @Param({"67108864"})
+    public long largeFileBytes;
+
+    private File workDir;
+    private File largeFile;
+    private File smallFilesTree;
+    private File destination;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workDir = SyntheticFiles.createTempDirectory("cove-copy");
+        largeFile = new File(workDir, "large.bin");
+        SyntheticFiles.createRandomFile(largeFile, largeFileBytes, false);
+        smallFilesTree = new File(workDir, "tree");
+        smallFilesTree.mkdir();
+        SyntheticFiles.createTree(smallFilesTree, 2, 10, 20, 4096);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareDestination() {
+        destination = new File(workDir, "copy");
+        SyntheticFiles.deleteTree(destination);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SyntheticFiles.deleteTree(workDir);
+    }
+
+    @Benchmark
+    public boolean copyLargeFile() {
+        return FileOperations.copyRecursively(largeFile, destination);
+    }
+
+    @Benchmark
+    public boolean copySmallFilesTree() {
+        return FileOperations.copyRecursively(smallFilesTree, destination);
+    }
+}
@@ -0,0 +1,84 @@
+package com.covemanager.core.benchmarks;
+
+import com.covemanager.core.DuplicateFinder;
+import com.covemanager.core.HashCache;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Duplicate search over pairs of identical files, each size also shared by a file with
+ * different content, with an empty hash cache and with one filled by a previous run
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DuplicateFinderBenchmark {
+    @Param({"32"})
+    public int pairs;
+
+    @Param({"1048576"})
+    public int fileSize;
+
+    private File root;
+    private ExecutorService executor;
+    private HashCache warmCache;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        root = SyntheticFiles.createTempDirectory("cove-duplicates");
+        for (int i = 0; i < pairs; i++) {
+            long size = fileSize + i;
+            SyntheticFiles.createRandomFile(new File(root, "original_" + i), size, false, i);
+            SyntheticFiles.createRandomFile(new File(root, "copy_" + i), size, false, i);
+            SyntheticFiles.createRandomFile(new File(root, "other_" + i), size, false, 1000 + i);
+        }
+        executor = Executors.newFixedThreadPool(4);
+        warmCache = new HashCache();
+        find(warmCache);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+        SyntheticFiles.deleteTree(root);
+    }
+
+    @Benchmark
+    public int findCold() throws InterruptedException {
+        return find(new HashCache());
+    }
+
+    @Benchmark
+    public int findWithCachedHashes() throws InterruptedException {
+        return find(warmCache);
+    }
+
+    private int find(HashCache cache) throws InterruptedException {
+        DuplicateFinder.Collector collector = new DuplicateFinder.Collector(1);
+        for (File file : root.listFiles()) {
+            collector.add(file.getAbsolutePath(), file.length());
+        }
+        return new DuplicateFinder(cache).find(collector, executor, new DuplicateFinder.Callback() {
+            @Override
+            public void onGroupFound(DuplicateFinder.DuplicateGroup group) {
+            }
+
+            @Override
+            public void onProgress(int processedSizes, int totalSizes) {
+            }
+        });
+    }
+}
@@ -0,0 +1,103 @@
+package com.covemanager.core.benchmarks;
+
+import com.covemanager.core.DirectoryListing;
+import com.covemanager.core.FileItem;
+import com.covemanager.core.FilteredListing;
+import com.covemanager.core.ListingFilter;
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The text a file row reads on every bind: formatted per bind as FileItem used to do it,
+ * read from a FileItem built per bind, and read straight from the listing's columns as
+ * FileAdapter binds. Run with -PjmhProfilers=gc to compare the bytes allocated per bind
+ * (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FileItemBindBenchmark {
+    private static final int ENTRIES = 1000;
+    private static final String[] UNITS = {"B", "KB", "MB", "GB", "TB"};
+
+    private File directory;
+    private FilteredListing rows;
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = SyntheticFiles.createTempDirectory("cove-bind");
+        SyntheticFiles.createFlatDirectory(directory, ENTRIES);
+        rows = new FilteredListing(DirectoryListing.list(directory), ListingFilter.DEFAULT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SyntheticFiles.deleteTree(directory);
+    }
+
+    private int nextPosition() {
+        next = (next + 1) % rows.size();
+        return next;
+    }
+
+    @Benchmark
+    public void bindFormattingEachTime(Blackhole blackhole) {
+        DirectoryListing listing = rows.getListing();
+        int index = rows.entryIndex(nextPosition());
+        SimpleDateFormat format = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
+        blackhole.consume(listing.getName(index));
+        blackhole.consume("Modified: " + format.format(new Date(listing.getLastModified(index))));
+        blackhole.consume(legacyFormatSize(listing.getSize(index)));
+    }
+
+    @Benchmark
+    public void bindBuildingItem(Blackhole blackhole) {
+        FileItem item = rows.getItem(nextPosition());
+        blackhole.consume(item.getName());
+        blackhole.consume(item.getDetailsText());
+        blackhole.consume(item.getFormattedSize());
+    }
+
+    @Benchmark
+    public void bindFromColumns(Blackhole blackhole) {
+        DirectoryListing listing = rows.getListing();
+        int index = rows.entryIndex(nextPosition());
+        blackhole.consume(listing.getName(index));
+        blackhole.consume(listing.getDetailsText(index));
+        blackhole.consume(listing.getSizeText(index));
+    }
+
+    /**
+     * The size formatting FileItem did before it cached its strings
+     */
+    private static String legacyFormatSize(long size) {
+        if (size <= 0) {
+            return "0 B";
+        }
+        int unitIndex = 0;
+        double sizeInUnit = size;
+        while (sizeInUnit >= 1024 && unitIndex < UNITS.length - 1) {
+            sizeInUnit /= 1024;
+            unitIndex++;
+        }
+        if (unitIndex == 0) {
+            return String.format(Locale.getDefault(), "%.0f %s", sizeInUnit, UNITS[unitIndex]);
+        }
+        return String.format(Locale.getDefault(), "%.1f %s", sizeInUnit, UNITS[unitIndex]);
+    }
+}
@@ -0,0 +1,55 @@
+package com.covemanager.core.benchmarks;
+
+import com.covemanager.core.FileNameIndex;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Substring queries against a 500k entry index. The search screen budget is 50 ms
+ * per keystroke, including the two-character queries that bypass the trigram index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FileNameIndexBenchmark {
+    private static final int ENTRY_COUNT = 500_000;
+    private static final int DIRECTORY_COUNT = 5_000;
+    private static final String[] WORDS = {
+        "IMG", "VID", "Screenshot", "report", "invoice", "backup", "notes", "track", "thumb", "cache"
+    };
+
+    @Param({"im", "screen", "report_12", "zzzz"})
+    public String query;
+
+    private FileNameIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        index = new FileNameIndex();
+        int root = index.addRoot("/storage/emulated/0");
+        int[] directories = new int[DIRECTORY_COUNT];
+        for (int i = 0; i < DIRECTORY_COUNT; i++) {
+            int parent = i < 50 ? root : directories[random.nextInt(i)];
+            directories[i] = index.addChild(parent, "folder_" + i, true);
+        }
+        for (int i = DIRECTORY_COUNT; i < ENTRY_COUNT; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + "_" + random.nextInt(10_000_000) + ".jpg";
+            index.addChild(directories[random.nextInt(DIRECTORY_COUNT)], name, false);
+        }
+    }
+
+    @Benchmark
+    public int search() {
+        return index.search(query, 1000, paths -> true);
+    }
+}
@@ -0,0 +1,51 @@
+package com.covemanager.core.benchmarks;
+
+import com.covemanager.core.FolderSizeCalculator;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Recursive size of a synthetic tree (fan-out 8, depth 4: ~4.7k folders, ~23k files)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FolderSizeBenchmark {
+    @Param({"4"})
+    public int depth;
+
+    @Param({"8"})
+    public int foldersPerLevel;
+
+    @Param({"5"})
+    public int filesPerFolder;
+
+    private File root;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = SyntheticFiles.createTempDirectory("cove-size");
+        SyntheticFiles.createTree(root, depth, foldersPerLevel, filesPerFolder, 512);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SyntheticFiles.deleteTree(root);
+    }
+
+    @Benchmark
+    public long calculateFolderSize() {
+        return FolderSizeCalculator.calculateFolderSize(root);
+    }
+}
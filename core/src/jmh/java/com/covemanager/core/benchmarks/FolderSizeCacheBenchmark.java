@@ -0,0 +1,64 @@
+package com.covemanager.core.benchmarks;
+
+import com.covemanager.core.FolderSizeCache;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * FolderSizeCache under contention: adapter rows reading, size workers writing and
+ * file operations invalidating, all at once
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FolderSizeCacheBenchmark {
+    private static final int PATH_COUNT = 1024;
+
+    private final String[] paths = new String[PATH_COUNT];
+    private FolderSizeCache cache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cache = FolderSizeCache.getInstance();
+        cache.clearCache();
+        for (int i = 0; i < PATH_COUNT; i++) {
+            paths[i] = "/storage/emulated/0/dir_" + (i % 16) + "/sub_" + (i % 64) + "/leaf_" + i;
+            cache.putSize(paths[i], i);
+        }
+    }
+
+    private String randomPath() {
+        return paths[ThreadLocalRandom.current().nextInt(PATH_COUNT)];
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(4)
+    public Long get() {
+        return cache.getSize(randomPath());
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(2)
+    public void put() {
+        cache.putSize(randomPath(), ThreadLocalRandom.current().nextLong(1L << 40));
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public void invalidate() {
+        cache.invalidatePath(randomPath());
+    }
+}
@@ -0,0 +1,104 @@
+package com.covemanager.core.benchmarks;
+
+import com.covemanager.core.DirectoryListing;
+import com.covemanager.core.DirectoryPager;
+import com.covemanager.core.FileCategory;
+import com.covemanager.core.FilteredListing;
+import com.covemanager.core.ListingFilter;
+import com.covemanager.core.SortMode;
+import java.io.File;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Listing and sorting a very large flat directory, as FileBrowserActivity.loadFiles does,
+ * in one go and in pages. Run with -PjmhProfilers=gc to see what each way allocates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ListingBenchmark {
+    // Every file is checked against every extension of both categories
+    private static final ListingFilter TYPE_FILTER = ListingFilter.DEFAULT
+            .withCategories(EnumSet.of(FileCategory.IMAGES, FileCategory.DOCUMENTS));
+
+    @Param({"100000"})
+    public int entries;
+
+    private File directory;
+    private DirectoryListing listing;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = SyntheticFiles.createTempDirectory("cove-listing");
+        SyntheticFiles.createFlatDirectory(directory, entries);
+        listing = DirectoryListing.list(directory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SyntheticFiles.deleteTree(directory);
+    }
+
+    @Benchmark
+    public DirectoryListing listSortAndBuildColumns() {
+        return DirectoryListing.list(directory);
+    }
+
+    /**
+     * What FileBrowserActivity lists before the first rows show up
+     */
+    @Benchmark
+    public DirectoryListing firstPage() {
+        return new DirectoryPager(directory, SortMode.DEFAULT, 100, true).nextPage();
+    }
+
+    /**
+     * Scrolling to the end of the directory, one page after another
+     */
+    @Benchmark
+    public DirectoryListing allPages() {
+        DirectoryPager pager = new DirectoryPager(directory, SortMode.DEFAULT, 100, true);
+        DirectoryListing loaded = new DirectoryListing(directory, SortMode.DEFAULT);
+        while (!loaded.isComplete()) {
+            loaded.appendPage(pager.nextPage());
+        }
+        return loaded;
+    }
+
+    /**
+     * Switching filters on a loaded listing, which reads no file attributes either
+     */
+    @Benchmark
+    public FilteredListing filterByType() {
+        return new FilteredListing(listing, TYPE_FILTER);
+    }
+
+    /**
+     * Switching the order of a loaded listing, which reads no file attributes
+     */
+    @Benchmark
+    public DirectoryListing resortByName() {
+        DirectoryListing sorted = listing.copy();
+        sorted.sort(new SortMode(SortMode.Key.NAME, false, true));
+        return sorted;
+    }
+
+    @Benchmark
+    public DirectoryListing resortBySize() {
+        DirectoryListing sorted = listing.copy();
+        sorted.sort(new SortMode(SortMode.Key.SIZE, false, false));
+        return sorted;
+    }
+}
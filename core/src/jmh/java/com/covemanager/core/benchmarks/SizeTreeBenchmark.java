@@ -0,0 +1,79 @@
+package com.covemanager.core.benchmarks;
+
+import com.covemanager.core.SizeTree;
+import com.covemanager.core.TreemapLayout;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Building a size tree of synthetic nodes (one in ten a folder) and laying out its largest
+ * folder as a phone-sized treemap
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SizeTreeBenchmark {
+    @Param({"1000000"})
+    public int nodes;
+
+    private int[] parentIndexes;
+    private long[] sizes;
+    private SizeTree tree;
+    private int largestFolder;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        parentIndexes = new int[nodes];
+        sizes = new long[nodes];
+        int folders = 1;
+        for (int i = 0; i < nodes; i++) {
+            // Parents are picked among folders created so far, skewed towards recent ones for depth
+            parentIndexes[i] = Math.max(0, folders - 1 - random.nextInt(Math.min(folders, 64)));
+            boolean folder = random.nextInt(10) == 0;
+            sizes[i] = folder ? -1 : random.nextInt(1 << 22);
+            if (folder) {
+                folders++;
+            }
+        }
+        tree = buildTree();
+        largestFolder = tree.getChild(tree.getChild(SizeTree.ROOT, 0), 0);
+    }
+
+    @Benchmark
+    public SizeTree buildAndFinish() {
+        return buildTree();
+    }
+
+    @Benchmark
+    public List<TreemapLayout.Cell> layoutLargestFolder() {
+        return TreemapLayout.layout(tree, largestFolder, 1080, 1920, 120 * 120);
+    }
+
+    private SizeTree buildTree() {
+        SizeTree result = new SizeTree();
+        int[] folderIds = new int[nodes + 1];
+        folderIds[0] = result.addRoot("/storage/emulated/0");
+        int folders = 1;
+        for (int i = 0; i < nodes; i++) {
+            int parent = folderIds[parentIndexes[i]];
+            if (sizes[i] < 0) {
+                folderIds[folders++] = result.addChild(parent, "Folder" + i, 0, true);
+            } else {
+                result.addChild(parent, "File" + i, sizes[i], false);
+            }
+        }
+        result.finish();
+        return result;
+    }
+}
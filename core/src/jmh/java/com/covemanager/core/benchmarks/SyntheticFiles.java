@@ -0,0 +1,101 @@
+package com.covemanager.core.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * Builds the synthetic directories the benchmarks run against
+ */
+final class SyntheticFiles {
+    private SyntheticFiles() {
+    }
+
+    static File createTempDirectory(String prefix) throws IOException {
+        return Files.createTempDirectory(prefix).toFile();
+    }
+
+    /**
+     * Create a flat directory with the given number of empty entries, one in ten a folder
+     */
+    static void createFlatDirectory(File directory, int entries) throws IOException {
+        for (int i = 0; i < entries; i++) {
+            // Hashed prefix so the listing does not come back already sorted
+            File entry = new File(directory, "Entry_" + Integer.toHexString(i * 0x9E3779B1) + "_" + i);
+            if (i % 10 == 0) {
+                entry.mkdir();
+            } else if (!entry.createNewFile()) {
+                throw new IOException("Cannot create " + entry);
+            }
+        }
+    }
+
+    /**
+     * Create a tree with the given fan-out and depth where every folder holds small files
+     */
+    static void createTree(File root, int depth, int folders, int filesPerFolder, int fileSize) throws IOException {
+        byte[] content = new byte[fileSize];
+        for (int i = 0; i < filesPerFolder; i++) {
+            writeFile(new File(root, "file_" + i + ".dat"), content);
+        }
+        if (depth == 0) {
+            return;
+        }
+        for (int i = 0; i < folders; i++) {
+            File child = new File(root, "dir_" + i);
+            if (!child.mkdir()) {
+                throw new IOException("Cannot create " + child);
+            }
+            createTree(child, depth - 1, folders, filesPerFolder, fileSize);
+        }
+    }
+
+    /**
+     * Create a file of random bytes, optionally made partly repetitive so it compresses like real data
+     */
+    static void createRandomFile(File file, long size, boolean compressible) throws IOException {
+        createRandomFile(file, size, compressible, 42);
+    }
+
+    /**
+     * Create a file of random bytes from the given seed; files of equal seed and size are identical
+     */
+    static void createRandomFile(File file, long size, boolean compressible, long seed) throws IOException {
+        Random random = new Random(seed);
+        byte[] chunk = new byte[64 * 1024];
+        try (OutputStream out = new FileOutputStream(file)) {
+            long written = 0;
+            while (written < size) {
+                random.nextBytes(chunk);
+                if (compressible) {
+                    // Repeat the first quarter of the chunk to give deflate something to find
+                    for (int i = chunk.length / 4; i < chunk.length; i++) {
+                        chunk[i] = chunk[i % (chunk.length / 4)];
+                    }
+                }
+                int length = (int) Math.min(chunk.length, size - written);
+                out.write(chunk, 0, length);
+                written += length;
+            }
+        }
+    }
+
+    static void deleteTree(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteTree(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static void writeFile(File file, byte[] content) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(content);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.covemanager.core.benchmarks;
+
+import com.covemanager.core.FileReport;
+import com.covemanager.core.TopFiles;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Picking the largest files out of a stream of synthetic file sizes, against sorting
+ * them all
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TopFilesBenchmark {
+    @Param({"1000000"})
+    public int files;
+
+    @Param({"20"})
+    public int limit;
+
+    private long[] sizes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        sizes = new long[files];
+        for (int i = 0; i < files; i++) {
+            // Mostly small files with a long tail, like real storage
+            sizes[i] = (long) Math.exp(random.nextDouble() * 22);
+        }
+    }
+
+    @Benchmark
+    public List<FileReport.ReportedFile> topFiles() {
+        TopFiles top = new TopFiles(limit, true);
+        for (int i = 0; i < files; i++) {
+            if (top.wouldAccept(sizes[i])) {
+                top.offer("File" + i, sizes[i], sizes[i], 0);
+            }
+        }
+        return top.toList();
+    }
+
+    @Benchmark
+    public long[] sortAll() {
+        long[] sorted = sizes.clone();
+        Arrays.sort(sorted);
+        return Arrays.copyOfRange(sorted, sorted.length - limit, sorted.length);
+    }
+}
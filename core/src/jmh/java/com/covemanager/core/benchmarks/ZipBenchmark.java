@@ -0,0 +1,56 @@
+package com.covemanager.core.benchmarks;
+
+import com.covemanager.core.FileOperations;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * ZIP compression throughput for a mix of compressible and incompressible data
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ZipBenchmark {
+    @Param({"16777216"})
+    public long bytesPerFile;
+
+    private File workDir;
+    private File[] sources;
+    private File zipFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workDir = SyntheticFiles.createTempDirectory("cove-zip");
+        File compressible = new File(workDir, "document.txt");
+        File incompressible = new File(workDir, "photo.jpg");
+        SyntheticFiles.createRandomFile(compressible, bytesPerFile, true);
+        SyntheticFiles.createRandomFile(incompressible, bytesPerFile, false);
+        File tree = new File(workDir, "folder");
+        tree.mkdir();
+        SyntheticFiles.createTree(tree, 2, 5, 10, 2048);
+        sources = new File[] {compressible, incompressible, tree};
+        zipFile = new File(workDir, "archive.zip");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SyntheticFiles.deleteTree(workDir);
+    }
+
+    @Benchmark
+    public long zip() throws IOException {
+        FileOperations.zip(sources, zipFile);
+        return zipFile.length();
+    }
+}
@@ -0,0 +1,342 @@
+package com.covemanager.core;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of every image, video, audio, document and APK file across storage, with
+ * running counts and byte totals per category. Files of other types are not stored.
+ *
+ * Entries can come from several sources (MediaStore for a fast first result, a storage
+ * crawl for everything else) and are upserted by path. Each crawl stamps the entries it
+ * sees; when it completes, entries it did not see are swept, so the crawl stays the
+ * source of truth without clearing the index first. Sorted orders are computed on
+ * demand and kept until the category changes.
+ */
+public class CategoryIndex {
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * Page sort orders. Size and date list the largest and newest files first.
+     */
+    public enum SortOrder {
+        NAME, SIZE, DATE
+    }
+
+    /**
+     * A file in a category
+     */
+    public static final class Entry {
+        private final String path;
+        private final long size;
+        private final long lastModified;
+
+        Entry(String path, long size, long lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+
+    private final Map<FileCategory, Bucket> buckets = new EnumMap<>(FileCategory.class);
+    private int scanGeneration = 0;
+
+    public CategoryIndex() {
+        for (FileCategory category : FileCategory.values()) {
+            if (category != FileCategory.OTHER) {
+                buckets.put(category, new Bucket());
+            }
+        }
+    }
+
+    /**
+     * Add or update a file
+     * @return true if the file belongs to an indexed category
+     */
+    public synchronized boolean put(String path, long size, long lastModified) {
+        Bucket bucket = buckets.get(FileCategory.fromName(path));
+        if (bucket == null) {
+            return false;
+        }
+        bucket.put(path, size, lastModified, scanGeneration);
+        return true;
+    }
+
+    /**
+     * Remove a file, or every indexed file below a directory
+     */
+    public synchronized void remove(String path) {
+        String prefix = path.endsWith(File.separator) ? path : path + File.separator;
+        for (Bucket bucket : buckets.values()) {
+            bucket.remove(path);
+            bucket.removeUnder(prefix);
+        }
+    }
+
+    public synchronized int getCount(FileCategory category) {
+        Bucket bucket = buckets.get(category);
+        return bucket != null ? bucket.liveCount : 0;
+    }
+
+    public synchronized long getTotalBytes(FileCategory category) {
+        Bucket bucket = buckets.get(category);
+        return bucket != null ? bucket.totalBytes : 0;
+    }
+
+    /**
+     * Get one page of a category in the given order
+     * @param after The last entry of the previous page, or null for the first page. Paging
+     *              from it rather than from an offset keeps pages from skipping or repeating
+     *              files when the category changes in between.
+     */
+    public synchronized List<Entry> getPage(FileCategory category, SortOrder order, Entry after, int limit) {
+        Bucket bucket = buckets.get(category);
+        if (bucket == null) {
+            return new ArrayList<>();
+        }
+        int[] sorted = bucket.sorted(order);
+        int start = after != null ? bucket.indexAfter(sorted, order, after) : 0;
+        int end = Math.min(sorted.length, start + limit);
+        List<Entry> page = new ArrayList<>(Math.max(0, end - start));
+        for (int i = start; i < end; i++) {
+            int slot = sorted[i];
+            page.add(new Entry(bucket.paths[slot], bucket.sizes[slot], bucket.modified[slot]));
+        }
+        return page;
+    }
+
+    /**
+     * Create a consumer that feeds one crawl into the index and sweeps entries the crawl
+     * did not see once it completes. An interrupted crawl sweeps nothing.
+     */
+    public synchronized FileCrawler.Consumer newScanConsumer() {
+        int generation = ++scanGeneration;
+        return new FileCrawler.Consumer() {
+            @Override
+            public void accept(CrawlEntry entry) {
+                // Classify before reading the modification time, which costs a stat
+                if (!entry.isDirectory() &&
+                        FileCategory.fromName(entry.getFile().getName()) != FileCategory.OTHER) {
+                    put(entry.getFile().getAbsolutePath(), entry.getLength(), entry.getLastModified());
+                }
+            }
+
+            @Override
+            public void onComplete(boolean cancelled) {
+                if (!cancelled) {
+                    sweep(generation);
+                }
+            }
+        };
+    }
+
+    private synchronized void sweep(int generation) {
+        for (Bucket bucket : buckets.values()) {
+            bucket.sweep(generation);
+        }
+    }
+
+    /**
+     * Entries of one category in parallel arrays. Removed slots have a null path and are
+     * reclaimed by compaction once they make up a quarter of the bucket.
+     */
+    private static final class Bucket {
+        String[] paths = new String[INITIAL_CAPACITY];
+        long[] sizes = new long[INITIAL_CAPACITY];
+        long[] modified = new long[INITIAL_CAPACITY];
+        int[] stamps = new int[INITIAL_CAPACITY];
+        int size = 0;
+        int liveCount = 0;
+        long totalBytes = 0;
+        final Map<String, Integer> slots = new HashMap<>();
+        final int[][] sortedCache = new int[SortOrder.values().length][];
+
+        void put(String path, long fileSize, long lastModified, int stamp) {
+            Integer slot = slots.get(path);
+            if (slot != null) {
+                totalBytes += fileSize - sizes[slot];
+                if (sizes[slot] != fileSize || modified[slot] != lastModified) {
+                    invalidateSort();
+                }
+                sizes[slot] = fileSize;
+                modified[slot] = lastModified;
+                stamps[slot] = stamp;
+                return;
+            }
+
+            ensureCapacity(size + 1);
+            int newSlot = size++;
+            paths[newSlot] = path;
+            sizes[newSlot] = fileSize;
+            modified[newSlot] = lastModified;
+            stamps[newSlot] = stamp;
+            slots.put(path, newSlot);
+            liveCount++;
+            totalBytes += fileSize;
+            invalidateSort();
+        }
+
+        void remove(String path) {
+            Integer slot = slots.remove(path);
+            if (slot != null) {
+                clearSlot(slot);
+                compactIfSparse();
+            }
+        }
+
+        void removeUnder(String prefix) {
+            boolean removed = false;
+            for (int slot = 0; slot < size; slot++) {
+                if (paths[slot] != null && paths[slot].startsWith(prefix)) {
+                    slots.remove(paths[slot]);
+                    clearSlot(slot);
+                    removed = true;
+                }
+            }
+            if (removed) {
+                compactIfSparse();
+            }
+        }
+
+        void sweep(int generation) {
+            for (int slot = 0; slot < size; slot++) {
+                if (paths[slot] != null && stamps[slot] < generation) {
+                    slots.remove(paths[slot]);
+                    clearSlot(slot);
+                }
+            }
+            compactIfSparse();
+        }
+
+        int[] sorted(SortOrder order) {
+            int[] cached = sortedCache[order.ordinal()];
+            if (cached != null) {
+                return cached;
+            }
+
+            Integer[] slotsInOrder = new Integer[liveCount];
+            int count = 0;
+            for (int slot = 0; slot < size; slot++) {
+                if (paths[slot] != null) {
+                    slotsInOrder[count++] = slot;
+                }
+            }
+            Arrays.sort(slotsInOrder, comparator(order));
+
+            int[] result = new int[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = slotsInOrder[i];
+            }
+            sortedCache[order.ordinal()] = result;
+            return result;
+        }
+
+        /**
+         * Find the position of the first entry that sorts after the given one, which need not be indexed
+         */
+        int indexAfter(int[] sorted, SortOrder order, Entry after) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                int slot = sorted[middle];
+                if (compare(order, paths[slot], sizes[slot], modified[slot],
+                        after.path, after.size, after.lastModified) <= 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private Comparator<Integer> comparator(SortOrder order) {
+            return (a, b) -> compare(order, paths[a], sizes[a], modified[a], paths[b], sizes[b], modified[b]);
+        }
+
+        /**
+         * Ties are broken by path, so every entry has one place to page from
+         */
+        private static int compare(SortOrder order, String pathA, long sizeA, long modifiedA,
+                                   String pathB, long sizeB, long modifiedB) {
+            int result;
+            switch (order) {
+                case SIZE:
+                    result = Long.compare(sizeB, sizeA);
+                    break;
+                case DATE:
+                    result = Long.compare(modifiedB, modifiedA);
+                    break;
+                default:
+                    result = nameOf(pathA).compareToIgnoreCase(nameOf(pathB));
+                    break;
+            }
+            return result != 0 ? result : pathA.compareTo(pathB);
+        }
+
+        private static String nameOf(String path) {
+            return path.substring(path.lastIndexOf(File.separatorChar) + 1);
+        }
+
+        private void clearSlot(int slot) {
+            paths[slot] = null;
+            totalBytes -= sizes[slot];
+            liveCount--;
+            invalidateSort();
+        }
+
+        private void invalidateSort() {
+            Arrays.fill(sortedCache, null);
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= paths.length) {
+                return;
+            }
+            int newCapacity = Math.max(capacity, paths.length * 2);
+            paths = Arrays.copyOf(paths, newCapacity);
+            sizes = Arrays.copyOf(sizes, newCapacity);
+            modified = Arrays.copyOf(modified, newCapacity);
+            stamps = Arrays.copyOf(stamps, newCapacity);
+        }
+
+        private void compactIfSparse() {
+            if (size < INITIAL_CAPACITY || size - liveCount < size / 4) {
+                return;
+            }
+            int target = 0;
+            for (int slot = 0; slot < size; slot++) {
+                if (paths[slot] == null) {
+                    continue;
+                }
+                paths[target] = paths[slot];
+                sizes[target] = sizes[slot];
+                modified[target] = modified[slot];
+                stamps[target] = stamps[slot];
+                slots.put(paths[target], target);
+                target++;
+            }
+            Arrays.fill(paths, target, size, null);
+            size = target;
+            invalidateSort();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.covemanager.core;
+
+import java.io.File;
+
+/**
+ * A single file or directory found by {@link FileCrawler}
+ */
+public class CrawlEntry {
+    private final File file;
+    private final File parent;
+    private final int depth;
+    private final boolean directory;
+    private final boolean symbolicLink;
+    private final long length;
+    private long lastModified = -1;
+
+    CrawlEntry(File file, File parent, int depth, boolean directory, boolean symbolicLink) {
+        this.file = file;
+        this.parent = parent;
+        this.depth = depth;
+        this.directory = directory;
+        this.symbolicLink = symbolicLink;
+        // Read on the crawler thread so the stat runs in parallel with the walk
+        this.length = directory ? 0 : file.length();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Get the directory this entry was listed from. All entries of one directory share
+     * the same instance, so consumers can compare parents by reference.
+     * @return Parent directory, or null for a crawl root
+     */
+    public File getParent() {
+        return parent;
+    }
+
+    /**
+     * Get the distance from the crawl root, which itself has depth 0
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public boolean isDirectory() {
+        return directory;
+    }
+
+    /**
+     * Check whether this entry is a link to a directory. Links are reported but never followed.
+     */
+    public boolean isSymbolicLink() {
+        return symbolicLink;
+    }
+
+    /**
+     * Get the file size in bytes, 0 for directories
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * Get the modification time, read on first use
+     */
+    public long getLastModified() {
+        if (lastModified < 0) {
+            lastModified = file.lastModified();
+        }
+        return lastModified;
+    }
+}
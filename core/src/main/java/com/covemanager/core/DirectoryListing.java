@@ -0,0 +1,727 @@
+package com.covemanager.core;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The sorted contents of one directory, stored by column instead of as one object per entry.
+ *
+ * Names live in a shared char buffer addressed by offset and length, sizes and modification
+ * times in long arrays, and the directory and hidden flags in bitsets, so a listing of 100k
+ * entries is a handful of arrays rather than hundreds of thousands of small objects.
+ * The text a row shows is formatted when an entry is added, which for a listing loaded in
+ * pages happens on the loading thread, so rows bind straight from the columns. Names are
+ * found through a hash table over the name buffer. {@link #getItem} builds a standalone
+ * {@link FileItem} of one entry for code that needs one.
+ *
+ * Entries are kept in the order of a {@link SortMode}. Sorting reuses the attributes already
+ * in the columns, so it never reads the file system. Not thread-safe; a listing built on one
+ * thread must be handed over before another thread uses it, and {@link #copy} can be sorted
+ * in the background while the original stays on screen.
+ *
+ * A listing loaded by {@link DirectoryPager} is incomplete until its last page is appended;
+ * it then holds the first entries of the directory in order.
+ */
+public class DirectoryListing {
+    private static final int MIN_CAPACITY = 16;
+
+    private final File directory;
+    private final String directoryPath;
+    private char[] names;
+    private int nameEnd = 0;
+    private int unusedChars = 0;
+    private int[] nameOffsets;
+    private int[] nameLengths;
+    private long[] sizes;
+    private long[] lastModified;
+    private long[] directoryBits;
+    private long[] hiddenBits;
+    // Shared between entries modified on the same day
+    private String[] detailsTexts;
+    // Null for folders, whose size is calculated separately
+    private String[] sizeTexts;
+    // Open addressing by name hash, holding entry index + 1, or 0 for a free slot.
+    // Built on the first lookup and dropped when entries are reordered.
+    private int[] nameTable;
+    private int count = 0;
+    private long directoryModified = 0;
+    private long listedAt = 0;
+    private int modificationCount = 0;
+    private SortMode sortMode = SortMode.DEFAULT;
+    private boolean complete = true;
+    // Only for inserts, which compare the new name against a few entries
+    private EntryOrder insertOrder;
+
+    /**
+     * Create an empty listing, such as for a directory that cannot be read
+     */
+    public DirectoryListing(File directory) {
+        this(directory, 0, 0);
+    }
+
+    /**
+     * Create an empty, incomplete listing to be filled by {@link #appendPage}
+     */
+    public DirectoryListing(File directory, SortMode mode) {
+        this(directory, 0, 0);
+        this.sortMode = mode;
+        this.complete = false;
+    }
+
+    private DirectoryListing(File directory, int capacity, int nameChars) {
+        this.directory = directory;
+        this.directoryPath = directory.getAbsolutePath();
+        capacity = Math.max(capacity, MIN_CAPACITY);
+        this.names = new char[Math.max(nameChars, MIN_CAPACITY)];
+        this.nameOffsets = new int[capacity];
+        this.nameLengths = new int[capacity];
+        this.sizes = new long[capacity];
+        this.lastModified = new long[capacity];
+        this.directoryBits = new long[bitWords(capacity)];
+        this.hiddenBits = new long[bitWords(capacity)];
+        this.detailsTexts = new String[capacity];
+        this.sizeTexts = new String[capacity];
+    }
+
+    /**
+     * List a directory in the default order
+     * @return The listing, or null if the directory cannot be read
+     */
+    public static DirectoryListing list(File directory) {
+        return list(directory, SortMode.DEFAULT);
+    }
+
+    /**
+     * List a directory in the given order
+     * @return The listing, or null if the directory cannot be read
+     */
+    public static DirectoryListing list(File directory, SortMode mode) {
+        // Read before the entries, so a change made while listing moves the time past this one
+        long directoryModified = directory.lastModified();
+        long listedAt = System.currentTimeMillis();
+        // Names only, so no File object or full path is kept for each entry
+        String[] entries = directory.list();
+        if (entries == null) {
+            return null;
+        }
+
+        int nameChars = 0;
+        for (String name : entries) {
+            nameChars += name.length();
+        }
+        DirectoryListing listing = new DirectoryListing(directory, entries.length, nameChars);
+        listing.directoryModified = directoryModified;
+        listing.listedAt = listedAt;
+        for (String name : entries) {
+            File file = new File(directory, name);
+            boolean isDirectory = file.isDirectory();
+            listing.append(name, isDirectory, isDirectory ? -1 : file.length(), file.lastModified());
+        }
+        listing.sort(mode);
+        return listing;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Modification time of the directory when it was listed, or 0 for a listing never read
+     */
+    public long getDirectoryModified() {
+        return directoryModified;
+    }
+
+    /**
+     * When the directory was listed, or 0 for a listing never read
+     */
+    public long getListedAt() {
+        return listedAt;
+    }
+
+    public SortMode getSortMode() {
+        return sortMode;
+    }
+
+    /**
+     * Check whether every entry of the directory has been loaded
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Count of changes made to the entries, to tell whether a copy is still current
+     */
+    public int getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Copy the listing, so the copy can be sorted on another thread
+     */
+    public DirectoryListing copy() {
+        DirectoryListing copy = new DirectoryListing(directory, 0, 0);
+        copy.names = Arrays.copyOf(names, nameEnd);
+        copy.nameEnd = nameEnd;
+        copy.unusedChars = unusedChars;
+        copy.nameOffsets = Arrays.copyOf(nameOffsets, count);
+        copy.nameLengths = Arrays.copyOf(nameLengths, count);
+        copy.sizes = Arrays.copyOf(sizes, count);
+        copy.lastModified = Arrays.copyOf(lastModified, count);
+        copy.directoryBits = Arrays.copyOf(directoryBits, bitWords(count));
+        copy.hiddenBits = Arrays.copyOf(hiddenBits, bitWords(count));
+        copy.detailsTexts = Arrays.copyOf(detailsTexts, count);
+        copy.sizeTexts = Arrays.copyOf(sizeTexts, count);
+        copy.count = count;
+        copy.directoryModified = directoryModified;
+        copy.listedAt = listedAt;
+        copy.sortMode = sortMode;
+        copy.complete = complete;
+        copy.modificationCount = modificationCount;
+        return copy;
+    }
+
+    /**
+     * Reorder the entries. Each name's collation key is built once, so the sort compares
+     * key bytes rather than names.
+     */
+    public void sort(SortMode mode) {
+        if (!complete) {
+            throw new IllegalStateException("Only complete listings can be sorted");
+        }
+        EntryOrder entryOrder = new EntryOrder(mode, Locale.getDefault());
+        EntryOrder.Entry[] entries = new EntryOrder.Entry[count];
+        for (int i = 0; i < count; i++) {
+            entries[i] = sortEntry(i);
+        }
+        Arrays.sort(entries, entryOrder);
+
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = entries[i].index;
+        }
+        applyOrder(order);
+        sortMode = mode;
+        insertOrder = entryOrder;
+        modificationCount++;
+    }
+
+    /**
+     * Append the next page of a {@link DirectoryPager}, which continues this listing's order
+     */
+    public void appendPage(DirectoryListing page) {
+        ensureCapacity(count + page.count);
+        for (int i = 0; i < page.count; i++) {
+            int length = page.nameLengths[i];
+            if (nameEnd + length > names.length) {
+                names = Arrays.copyOf(names, Math.max(names.length * 2, nameEnd + length));
+            }
+            System.arraycopy(page.names, page.nameOffsets[i], names, nameEnd, length);
+            nameOffsets[count] = nameEnd;
+            nameLengths[count] = length;
+            nameEnd += length;
+            sizes[count] = page.sizes[i];
+            lastModified[count] = page.lastModified[i];
+            setBit(directoryBits, count, page.isDirectory(i));
+            setBit(hiddenBits, count, page.isHidden(i));
+            detailsTexts[count] = page.detailsTexts[i];
+            sizeTexts[count] = page.sizeTexts[i];
+            addToNameTable(count, page.hashOfName(i));
+            count++;
+        }
+        // Every page carries the directory time read before its first page
+        directoryModified = page.directoryModified;
+        listedAt = page.listedAt;
+        complete = page.complete;
+        modificationCount++;
+    }
+
+    public String getName(int index) {
+        return new String(names, nameOffsets[index], nameLengths[index]);
+    }
+
+    public File getFile(int index) {
+        return new File(directory, getName(index));
+    }
+
+    /**
+     * Get the absolute path of an entry, as {@link FileItem#getPath} gives it
+     */
+    public String getPath(int index) {
+        String name = getName(index);
+        return directoryPath.endsWith(File.separator) ? directoryPath + name : directoryPath + File.separatorChar + name;
+    }
+
+    public boolean isDirectory(int index) {
+        return getBit(directoryBits, index);
+    }
+
+    /**
+     * Check whether the name starts with a dot
+     */
+    public boolean isHidden(int index) {
+        return getBit(hiddenBits, index);
+    }
+
+    /**
+     * @return The size in bytes, or -1 for a directory
+     */
+    public long getSize(int index) {
+        return sizes[index];
+    }
+
+    public long getLastModified(int index) {
+        return lastModified[index];
+    }
+
+    /**
+     * Get the secondary line of the entry's row, such as "Modified: Dec 12, 2023"
+     */
+    public String getDetailsText(int index) {
+        return detailsTexts[index];
+    }
+
+    /**
+     * Get the formatted size of a file, or null for a folder
+     */
+    public String getSizeText(int index) {
+        return sizeTexts[index];
+    }
+
+    /**
+     * Build a standalone item for one entry, without touching the file system
+     */
+    public FileItem getItem(int index) {
+        return new FileItem(getFile(index), isDirectory(index), sizes[index], lastModified[index]);
+    }
+
+    /**
+     * Find an entry by name
+     * @return The index, or -1 if there is no such entry
+     */
+    public int indexOf(String name) {
+        if (nameTable == null) {
+            buildNameTable();
+        }
+        int length = name.length();
+        int mask = nameTable.length - 1;
+        for (int slot = spread(name.hashCode()) & mask; nameTable[slot] != 0; slot = (slot + 1) & mask) {
+            int index = nameTable[slot] - 1;
+            if (nameLengths[index] == length && nameEquals(index, name)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the entry of a path inside this directory
+     * @return The index, or -1 if the path is not a direct child or is not listed
+     */
+    public int indexOfPath(String path) {
+        int separator = path.lastIndexOf(File.separatorChar);
+        if (separator < 0 || !directoryPath.equals(parentOf(path, separator))) {
+            return -1;
+        }
+        return indexOf(path.substring(separator + 1));
+    }
+
+    /**
+     * Insert an entry at its sorted position. In an incomplete listing an entry that sorts
+     * after every loaded one is left out, since the page that covers it will bring it.
+     * @return The index it was inserted at, or -1 if it was left out
+     */
+    public int insert(FileItem item) {
+        EntryOrder insertOrder = insertOrder();
+        EntryOrder.Entry inserted = new EntryOrder.Entry(-1, item.getName(), item.isDirectory(),
+                item.getSize(), item.getLastModified());
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (insertOrder.compare(sortEntry(mid), inserted) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (!complete && low == count) {
+            return -1;
+        }
+        ensureCapacity(count + 1);
+        int moved = count - low;
+        System.arraycopy(nameOffsets, low, nameOffsets, low + 1, moved);
+        System.arraycopy(nameLengths, low, nameLengths, low + 1, moved);
+        System.arraycopy(sizes, low, sizes, low + 1, moved);
+        System.arraycopy(lastModified, low, lastModified, low + 1, moved);
+        shiftBitsUp(directoryBits, low, count);
+        shiftBitsUp(hiddenBits, low, count);
+        System.arraycopy(detailsTexts, low, detailsTexts, low + 1, moved);
+        System.arraycopy(sizeTexts, low, sizeTexts, low + 1, moved);
+        shiftNameTable(low, 1);
+        count++;
+        store(low, item.getName(), item.isDirectory(), item.getSize(), item.getLastModified());
+        addToNameTable(low, item.getName().hashCode());
+        modificationCount++;
+        return low;
+    }
+
+    /**
+     * Replace the attributes of an entry with those of an item of the same name. An entry
+     * whose new attributes put it elsewhere in the order is moved there.
+     * @return The index of the entry afterwards, or -1 if it now sorts after every loaded
+     *         entry of an incomplete listing and was left out
+     */
+    public int set(int index, FileItem item) {
+        if (sortKeyChanged(index, item)) {
+            EntryOrder order = insertOrder();
+            EntryOrder.Entry updated = new EntryOrder.Entry(-1, item.getName(), item.isDirectory(),
+                    item.getSize(), item.getLastModified());
+            boolean inOrder = (index == 0 || order.compare(sortEntry(index - 1), updated) < 0)
+                    && (index == count - 1 || order.compare(updated, sortEntry(index + 1)) < 0);
+            if (!inOrder) {
+                remove(index);
+                return insert(item);
+            }
+        }
+        setBit(directoryBits, index, item.isDirectory());
+        sizes[index] = item.getSize();
+        lastModified[index] = item.getLastModified();
+        setTexts(index, item.isDirectory(), item.getSize(), item.getLastModified());
+        modificationCount++;
+        return index;
+    }
+
+    public void remove(int index) {
+        removeFromNameTable(index);
+        unusedChars += nameLengths[index];
+        int moved = count - index - 1;
+        System.arraycopy(nameOffsets, index + 1, nameOffsets, index, moved);
+        System.arraycopy(nameLengths, index + 1, nameLengths, index, moved);
+        System.arraycopy(sizes, index + 1, sizes, index, moved);
+        System.arraycopy(lastModified, index + 1, lastModified, index, moved);
+        shiftBitsDown(directoryBits, index, count);
+        shiftBitsDown(hiddenBits, index, count);
+        System.arraycopy(detailsTexts, index + 1, detailsTexts, index, moved);
+        System.arraycopy(sizeTexts, index + 1, sizeTexts, index, moved);
+        detailsTexts[count - 1] = null;
+        sizeTexts[count - 1] = null;
+        shiftNameTable(index + 1, -1);
+        count--;
+        modificationCount++;
+        // Removed names stay in the buffer until they make up most of it
+        if (unusedChars > MIN_CAPACITY && unusedChars > nameEnd / 2) {
+            compactNames();
+        }
+    }
+
+    /**
+     * Check whether the extension of an entry's name is one of the given ones, compared
+     * without regard to case and without building a string for the name
+     * @param extensions Lowercase extensions without the dot
+     */
+    boolean hasExtension(int index, String[] extensions) {
+        int offset = nameOffsets[index];
+        int length = nameLengths[index];
+        int dot = length - 1;
+        while (dot >= 0 && names[offset + dot] != '.') {
+            dot--;
+        }
+        // No extension, like FileCategory.fromName
+        if (dot < 0 || dot == length - 1) {
+            return false;
+        }
+        int start = offset + dot + 1;
+        int extensionLength = length - dot - 1;
+        for (String extension : extensions) {
+            if (extension.length() == extensionLength && extensionEquals(start, extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add an entry of a page being built, which arrive in order
+     */
+    void appendEntry(EntryOrder.Entry entry) {
+        append(entry.name, entry.isDirectory, entry.size, entry.lastModified);
+    }
+
+    void setPageState(long directoryModified, long listedAt, boolean complete) {
+        this.directoryModified = directoryModified;
+        this.listedAt = listedAt;
+        this.complete = complete;
+    }
+
+    private EntryOrder insertOrder() {
+        if (insertOrder == null || !insertOrder.getMode().equals(sortMode)) {
+            insertOrder = new EntryOrder(sortMode, Locale.getDefault());
+        }
+        return insertOrder;
+    }
+
+    /**
+     * Check whether an item differs from an entry in an attribute the current order compares
+     */
+    private boolean sortKeyChanged(int index, FileItem item) {
+        if (item.isDirectory() != isDirectory(index) && sortMode.isFoldersFirst()) {
+            return true;
+        }
+        switch (sortMode.getKey()) {
+            case SIZE:
+                return item.getSize() != sizes[index];
+            case DATE:
+                return item.getLastModified() != lastModified[index];
+            default:
+                return false;
+        }
+    }
+
+    private EntryOrder.Entry sortEntry(int index) {
+        return new EntryOrder.Entry(index, getName(index), isDirectory(index), sizes[index], lastModified[index]);
+    }
+
+    /**
+     * Rearrange every column so entry {@code order[i]} moves to index i
+     */
+    private void applyOrder(int[] order) {
+        int[] newOffsets = new int[nameOffsets.length];
+        int[] newLengths = new int[nameLengths.length];
+        long[] newSizes = new long[sizes.length];
+        long[] newLastModified = new long[lastModified.length];
+        long[] newDirectoryBits = new long[directoryBits.length];
+        long[] newHiddenBits = new long[hiddenBits.length];
+        String[] newDetailsTexts = new String[detailsTexts.length];
+        String[] newSizeTexts = new String[sizeTexts.length];
+        for (int i = 0; i < count; i++) {
+            int from = order[i];
+            newOffsets[i] = nameOffsets[from];
+            newLengths[i] = nameLengths[from];
+            newSizes[i] = sizes[from];
+            newLastModified[i] = lastModified[from];
+            setBit(newDirectoryBits, i, getBit(directoryBits, from));
+            setBit(newHiddenBits, i, getBit(hiddenBits, from));
+            newDetailsTexts[i] = detailsTexts[from];
+            newSizeTexts[i] = sizeTexts[from];
+        }
+        nameOffsets = newOffsets;
+        nameLengths = newLengths;
+        sizes = newSizes;
+        lastModified = newLastModified;
+        directoryBits = newDirectoryBits;
+        hiddenBits = newHiddenBits;
+        detailsTexts = newDetailsTexts;
+        sizeTexts = newSizeTexts;
+        nameTable = null;
+    }
+
+    private boolean nameEquals(int index, String name) {
+        int offset = nameOffsets[index];
+        for (int i = 0; i < name.length(); i++) {
+            if (names[offset + i] != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean extensionEquals(int start, String extension) {
+        for (int i = 0; i < extension.length(); i++) {
+            if (Character.toLowerCase(names[start + i]) != extension.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String parentOf(String path, int separator) {
+        return separator == 0 ? File.separator : path.substring(0, separator);
+    }
+
+    private void append(String name, boolean isDirectory, long size, long modified) {
+        ensureCapacity(count + 1);
+        store(count, name, isDirectory, size, modified);
+        addToNameTable(count, name.hashCode());
+        count++;
+    }
+
+    private void store(int index, String name, boolean isDirectory, long size, long modified) {
+        int length = name.length();
+        if (nameEnd + length > names.length) {
+            names = Arrays.copyOf(names, Math.max(names.length * 2, nameEnd + length));
+        }
+        name.getChars(0, length, names, nameEnd);
+        nameOffsets[index] = nameEnd;
+        nameLengths[index] = length;
+        nameEnd += length;
+        sizes[index] = size;
+        lastModified[index] = modified;
+        setBit(directoryBits, index, isDirectory);
+        setBit(hiddenBits, index, length > 0 && name.charAt(0) == '.');
+        setTexts(index, isDirectory, size, modified);
+    }
+
+    private void setTexts(int index, boolean isDirectory, long size, long modified) {
+        detailsTexts[index] = DisplayFormat.formatModified(modified);
+        sizeTexts[index] = isDirectory ? null : DisplayFormat.formatEntrySize(size, false);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= sizes.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, sizes.length + (sizes.length >> 1));
+        nameOffsets = Arrays.copyOf(nameOffsets, newCapacity);
+        nameLengths = Arrays.copyOf(nameLengths, newCapacity);
+        sizes = Arrays.copyOf(sizes, newCapacity);
+        lastModified = Arrays.copyOf(lastModified, newCapacity);
+        directoryBits = Arrays.copyOf(directoryBits, bitWords(newCapacity));
+        hiddenBits = Arrays.copyOf(hiddenBits, bitWords(newCapacity));
+        detailsTexts = Arrays.copyOf(detailsTexts, newCapacity);
+        sizeTexts = Arrays.copyOf(sizeTexts, newCapacity);
+    }
+
+    private void compactNames() {
+        char[] compacted = new char[Math.max(nameEnd - unusedChars, MIN_CAPACITY)];
+        int end = 0;
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(names, nameOffsets[i], compacted, end, nameLengths[i]);
+            nameOffsets[i] = end;
+            end += nameLengths[i];
+        }
+        names = compacted;
+        nameEnd = end;
+        unusedChars = 0;
+    }
+
+    /**
+     * Hash of an entry's name, equal to {@link String#hashCode} of it
+     */
+    private int hashOfName(int index) {
+        int offset = nameOffsets[index];
+        int end = offset + nameLengths[index];
+        int hash = 0;
+        for (int i = offset; i < end; i++) {
+            hash = 31 * hash + names[i];
+        }
+        return hash;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private void buildNameTable() {
+        int capacity = MIN_CAPACITY;
+        while (capacity < count * 2) {
+            capacity <<= 1;
+        }
+        nameTable = new int[capacity];
+        for (int i = 0; i < count; i++) {
+            putInNameTable(i, hashOfName(i));
+        }
+    }
+
+    /**
+     * Add an entry to the name table if it is built, or drop the table once it fills up
+     */
+    private void addToNameTable(int index, int hash) {
+        if (nameTable == null) {
+            return;
+        }
+        if ((count + 1) * 2 > nameTable.length) {
+            nameTable = null;
+            return;
+        }
+        putInNameTable(index, hash);
+    }
+
+    private void putInNameTable(int index, int hash) {
+        int mask = nameTable.length - 1;
+        int slot = spread(hash) & mask;
+        while (nameTable[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        nameTable[slot] = index + 1;
+    }
+
+    /**
+     * Take an entry out of the name table, moving later entries of its probe run back so
+     * lookups never stop early at the freed slot
+     */
+    private void removeFromNameTable(int index) {
+        if (nameTable == null) {
+            return;
+        }
+        int mask = nameTable.length - 1;
+        int hole = spread(hashOfName(index)) & mask;
+        while (nameTable[hole] != index + 1) {
+            hole = (hole + 1) & mask;
+        }
+        for (int next = (hole + 1) & mask; nameTable[next] != 0; next = (next + 1) & mask) {
+            int home = spread(hashOfName(nameTable[next] - 1)) & mask;
+            // Movable unless its home slot lies after the hole in the run
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                nameTable[hole] = nameTable[next];
+                hole = next;
+            }
+        }
+        nameTable[hole] = 0;
+    }
+
+    /**
+     * Renumber the entries from an index on, after entries were inserted or removed before them
+     */
+    private void shiftNameTable(int from, int delta) {
+        if (nameTable == null) {
+            return;
+        }
+        for (int slot = 0; slot < nameTable.length; slot++) {
+            if (nameTable[slot] > from) {
+                nameTable[slot] += delta;
+            }
+        }
+    }
+
+    static int bitWords(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    static boolean getBit(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    static void setBit(long[] bits, int index, boolean value) {
+        if (value) {
+            bits[index >>> 6] |= 1L << index;
+        } else {
+            bits[index >>> 6] &= ~(1L << index);
+        }
+    }
+
+    /**
+     * Move bits [from, end) up by one, leaving bit {@code from} to be overwritten
+     */
+    private static void shiftBitsUp(long[] bits, int from, int end) {
+        for (int i = end; i > from; i--) {
+            setBit(bits, i, getBit(bits, i - 1));
+        }
+    }
+
+    /**
+     * Move bits (from, end) down by one over bit {@code from}
+     */
+    private static void shiftBitsDown(long[] bits, int from, int end) {
+        for (int i = from; i < end - 1; i++) {
+            setBit(bits, i, getBit(bits, i + 1));
+        }
+        setBit(bits, end - 1, false);
+    }
+}
@@ -0,0 +1,358 @@
+package com.covemanager.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+/**
+ * Loads a sorted directory a page at a time, so the first rows of a huge directory show up
+ * without reading the attributes of every entry.
+ *
+ * The first page reads the directory once, keeping each name and only the attributes the
+ * sort compares (none at all for names without folder grouping) in compact columns. Every
+ * page is then a partial sort of those columns that keeps the entries that come next in a
+ * bounded heap, and only the entries of a page get the rest of their attributes read. Paged
+ * out entries leave the columns, and pages double in size, so browsing to the end of a
+ * directory reads its names once and sorts a shrinking remainder a logarithmic number of
+ * times. Files created after the first page are added through {@link #entryCreated}.
+ *
+ * Blocking; use one pager from one background thread at a time. Only {@link #entryCreated}
+ * may be called from other threads.
+ */
+public class DirectoryPager {
+    private static final int MIN_CAPACITY = 16;
+
+    private final File directory;
+    private final SortMode mode;
+    private final boolean useDirectoryStream;
+    private final EntryOrder order;
+    private final boolean needsDirectory;
+    private final boolean needsSortValue;
+    private int pageSize;
+    private EntryOrder.Entry lastEntry;
+    private long directoryModified;
+    private long listedAt;
+    private boolean scanned = false;
+    // Reported from other threads, added before the next page
+    private final List<String> createdNames = new ArrayList<>();
+
+    // Entries not paged out yet, with names in one buffer like DirectoryListing
+    private char[] names;
+    private int nameEnd = 0;
+    private int[] nameOffsets;
+    private int[] nameLengths;
+    // Null unless folders are told apart
+    private long[] directoryBits;
+    // The size or modification time the order compares, or null if it compares neither
+    private long[] sortValues;
+    private int count = 0;
+
+    private interface NameVisitor {
+        void visit(String name);
+    }
+
+    /**
+     * @param firstPageSize Entries in the first page; each later page is as large as everything loaded before it
+     * @param useDirectoryStream Stream names through {@link DirectoryStream} instead of reading
+     *                           them into one array with {@link File#list()}. Needs Android 8.0.
+     */
+    public DirectoryPager(File directory, SortMode mode, int firstPageSize, boolean useDirectoryStream) {
+        this.directory = directory;
+        this.mode = mode;
+        this.pageSize = Math.max(firstPageSize, 1);
+        this.useDirectoryStream = useDirectoryStream;
+        this.order = new EntryOrder(mode, Locale.getDefault());
+        this.needsDirectory = mode.isFoldersFirst() || mode.getKey() == SortMode.Key.SIZE;
+        this.needsSortValue = mode.getKey() == SortMode.Key.SIZE || mode.getKey() == SortMode.Key.DATE;
+    }
+
+    /**
+     * Read the next page
+     * @return The entries that follow the previous page, complete if they are the last ones,
+     *         or null if the directory cannot be read
+     */
+    public DirectoryListing nextPage() {
+        if (!scanned) {
+            // Read before the scan, so any change made while paging moves the time past this one
+            directoryModified = directory.lastModified();
+            listedAt = System.currentTimeMillis();
+            if (!scan()) {
+                return null;
+            }
+            scanned = true;
+        }
+        addCreatedNames();
+
+        int limit = pageSize;
+        // Largest of the entries kept so far on top, to be dropped when a smaller one turns up
+        PriorityQueue<EntryOrder.Entry> kept = new PriorityQueue<>(Math.max(Math.min(limit, 1024), 1),
+                Collections.reverseOrder(order));
+        for (int i = 0; i < count; i++) {
+            EntryOrder.Entry entry = entryAt(i);
+            if (kept.size() < limit) {
+                kept.add(entry);
+            } else if (order.compare(entry, kept.peek()) < 0) {
+                kept.poll();
+                kept.add(entry);
+            }
+        }
+
+        List<EntryOrder.Entry> entries = new ArrayList<>(kept);
+        Collections.sort(entries, order);
+        boolean complete = entries.size() == count;
+        if (!entries.isEmpty()) {
+            lastEntry = entries.get(entries.size() - 1);
+        }
+        removeEntries(entries);
+        pageSize = (int) Math.min(pageSize * 2L, Integer.MAX_VALUE);
+
+        DirectoryListing page = new DirectoryListing(directory, mode);
+        for (EntryOrder.Entry entry : entries) {
+            EntryOrder.Entry loaded = loadEntry(entry);
+            if (loaded != null) {
+                page.appendEntry(loaded);
+            }
+        }
+        page.setPageState(directoryModified, listedAt, complete);
+        return page;
+    }
+
+    /**
+     * Report a file created in the directory since paging started. It is added to the
+     * remaining entries unless it sorts among those already paged out, which a listing
+     * being filled in takes as an insert instead.
+     */
+    public void entryCreated(String name) {
+        synchronized (createdNames) {
+            createdNames.add(name);
+        }
+    }
+
+    /**
+     * Read every name once, with what the sort compares
+     */
+    private boolean scan() {
+        count = 0;
+        nameEnd = 0;
+        names = new char[MIN_CAPACITY];
+        nameOffsets = new int[MIN_CAPACITY];
+        nameLengths = new int[MIN_CAPACITY];
+        directoryBits = needsDirectory ? new long[DirectoryListing.bitWords(MIN_CAPACITY)] : null;
+        sortValues = needsSortValue ? new long[MIN_CAPACITY] : null;
+        return forEachName(this::addScanned);
+    }
+
+    private void addCreatedNames() {
+        List<String> created;
+        synchronized (createdNames) {
+            if (createdNames.isEmpty()) {
+                return;
+            }
+            created = new ArrayList<>(createdNames);
+            createdNames.clear();
+        }
+        for (String name : created) {
+            // Also reported if the scan already saw it, or more than once. Creations are
+            // rare, so a pass over the names is enough to tell.
+            if (indexOf(name) >= 0) {
+                continue;
+            }
+            if (lastEntry != null && order.compare(scanEntry(name), lastEntry) <= 0) {
+                continue;
+            }
+            addScanned(name);
+        }
+    }
+
+    private void addScanned(String name) {
+        ensureCapacity(count + 1);
+        int length = name.length();
+        if (nameEnd + length > names.length) {
+            names = Arrays.copyOf(names, Math.max(names.length * 2, nameEnd + length));
+        }
+        name.getChars(0, length, names, nameEnd);
+        nameOffsets[count] = nameEnd;
+        nameLengths[count] = length;
+        nameEnd += length;
+        if (needsDirectory || needsSortValue) {
+            EntryOrder.Entry entry = scanEntry(name);
+            if (needsDirectory) {
+                DirectoryListing.setBit(directoryBits, count, entry.isDirectory);
+            }
+            if (needsSortValue) {
+                sortValues[count] = mode.getKey() == SortMode.Key.DATE ? entry.lastModified : entry.size;
+            }
+        }
+        count++;
+    }
+
+    /**
+     * Read what the sort compares. Attributes not needed are left as 0.
+     */
+    private EntryOrder.Entry scanEntry(String name) {
+        if (!needsDirectory && !needsSortValue) {
+            return new EntryOrder.Entry(-1, name, false, 0, 0);
+        }
+        File file = new File(directory, name);
+        boolean isDirectory = needsDirectory && file.isDirectory();
+        long size = 0;
+        if (isDirectory) {
+            size = -1;
+        } else if (mode.getKey() == SortMode.Key.SIZE) {
+            size = file.length();
+        }
+        long modified = mode.getKey() == SortMode.Key.DATE ? file.lastModified() : 0;
+        return new EntryOrder.Entry(-1, name, isDirectory, size, modified);
+    }
+
+    /**
+     * Build the sort entry of a remaining entry from the columns, without reading the file system
+     */
+    private EntryOrder.Entry entryAt(int index) {
+        String name = new String(names, nameOffsets[index], nameLengths[index]);
+        boolean isDirectory = needsDirectory && DirectoryListing.getBit(directoryBits, index);
+        long size = 0;
+        long modified = 0;
+        if (needsSortValue) {
+            if (mode.getKey() == SortMode.Key.DATE) {
+                modified = sortValues[index];
+            } else {
+                size = sortValues[index];
+            }
+        }
+        return new EntryOrder.Entry(index, name, isDirectory, size, modified);
+    }
+
+    /**
+     * Read every attribute of an entry that made it into a page
+     * @return The entry, or null if the file is gone
+     */
+    private EntryOrder.Entry loadEntry(EntryOrder.Entry scanned) {
+        File file = new File(directory, scanned.name);
+        long modified = file.lastModified();
+        // 0 is also what a file deleted since the scan reports
+        if (modified == 0 && !file.exists()) {
+            return null;
+        }
+        boolean isDirectory = needsDirectory ? scanned.isDirectory : file.isDirectory();
+        return new EntryOrder.Entry(-1, scanned.name, isDirectory,
+                isDirectory ? -1 : file.length(), modified);
+    }
+
+    /**
+     * Drop paged out entries from the columns, keeping the rest in scan order
+     */
+    private void removeEntries(List<EntryOrder.Entry> removed) {
+        if (removed.size() == count) {
+            // Done; free the columns
+            count = 0;
+            nameEnd = 0;
+            names = new char[0];
+            nameOffsets = new int[0];
+            nameLengths = new int[0];
+            directoryBits = needsDirectory ? new long[0] : null;
+            sortValues = needsSortValue ? new long[0] : null;
+            return;
+        }
+        long[] removedBits = new long[DirectoryListing.bitWords(count)];
+        for (EntryOrder.Entry entry : removed) {
+            DirectoryListing.setBit(removedBits, entry.index, true);
+        }
+        int kept = 0;
+        int end = 0;
+        for (int i = 0; i < count; i++) {
+            if (DirectoryListing.getBit(removedBits, i)) {
+                continue;
+            }
+            // Names only move towards the front, so copying in place is safe
+            System.arraycopy(names, nameOffsets[i], names, end, nameLengths[i]);
+            nameOffsets[kept] = end;
+            nameLengths[kept] = nameLengths[i];
+            end += nameLengths[i];
+            if (needsDirectory) {
+                DirectoryListing.setBit(directoryBits, kept, DirectoryListing.getBit(directoryBits, i));
+            }
+            if (needsSortValue) {
+                sortValues[kept] = sortValues[i];
+            }
+            kept++;
+        }
+        count = kept;
+        nameEnd = end;
+    }
+
+    private int indexOf(String name) {
+        int length = name.length();
+        for (int i = 0; i < count; i++) {
+            if (nameLengths[i] == length && nameEquals(i, name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean nameEquals(int index, String name) {
+        int offset = nameOffsets[index];
+        for (int i = 0; i < name.length(); i++) {
+            if (names[offset + i] != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= nameOffsets.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, nameOffsets.length + (nameOffsets.length >> 1));
+        nameOffsets = Arrays.copyOf(nameOffsets, newCapacity);
+        nameLengths = Arrays.copyOf(nameLengths, newCapacity);
+        if (needsDirectory) {
+            directoryBits = Arrays.copyOf(directoryBits, DirectoryListing.bitWords(newCapacity));
+        }
+        if (needsSortValue) {
+            sortValues = Arrays.copyOf(sortValues, newCapacity);
+        }
+    }
+
+    private boolean forEachName(NameVisitor visitor) {
+        if (!useDirectoryStream) {
+            String[] names = directory.list();
+            if (names == null) {
+                return false;
+            }
+            for (String name : names) {
+                visitor.visit(name);
+            }
+            return true;
+        }
+
+        return StreamedNames.forEachName(directory, visitor);
+    }
+
+    /**
+     * Kept apart so devices without java.nio.file never load the classes it uses
+     */
+    private static final class StreamedNames {
+        static boolean forEachName(File directory, NameVisitor visitor) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory.toPath())) {
+                for (Path path : stream) {
+                    visitor.visit(path.getFileName().toString());
+                }
+                return true;
+            } catch (IOException | RuntimeException e) {
+                // DirectoryIteratorException and SecurityException are unchecked
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.covemanager.core;
+
+import java.text.DecimalFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Formats sizes and dates for display. Safe to use from any thread.
+ *
+ * Sizes are formatted with integer arithmetic into a char array instead of
+ * {@code String.format}. Dates share one formatter per thread, and the text of recent
+ * days is kept in a small cache, since most files of a folder were modified on few days.
+ */
+public final class DisplayFormat {
+    private static final String[] UNITS = {"B", "KB", "MB", "GB", "TB"};
+    private static final int DAY_CACHE_SIZE = 256;
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    private static final class DayText {
+        final long day;
+        final Locale locale;
+        final String text;
+        final String modifiedText;
+
+        DayText(long day, Locale locale, String text) {
+            this.day = day;
+            this.locale = locale;
+            this.text = text;
+            this.modifiedText = "Modified: " + text;
+        }
+    }
+
+    private static final class LocalDateFormat {
+        final Locale locale;
+        final SimpleDateFormat format;
+
+        LocalDateFormat(Locale locale) {
+            this.locale = locale;
+            this.format = new SimpleDateFormat("MMM dd, yyyy", locale);
+        }
+    }
+
+    private static final class Symbols {
+        final Locale locale;
+        final char zeroDigit;
+        final char decimalSeparator;
+
+        Symbols(Locale locale) {
+            DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+            this.locale = locale;
+            this.zeroDigit = symbols.getZeroDigit();
+            this.decimalSeparator = symbols.getDecimalSeparator();
+        }
+    }
+
+    // Entries are immutable, so racing threads at worst format a day twice
+    private static final DayText[] dayCache = new DayText[DAY_CACHE_SIZE];
+    private static final ThreadLocal<LocalDateFormat> dateFormat = new ThreadLocal<>();
+    private static volatile Symbols symbols;
+
+    private DisplayFormat() {
+    }
+
+    /**
+     * Format a size as "0 B", "512 B" or "1.5 MB", matching {@code String.format("%.1f %s")}
+     * in the default locale
+     */
+    public static String formatSize(long bytes) {
+        if (bytes < 1024) {
+            return toDigits(bytes, getSymbols().zeroDigit) + " " + UNITS[0];
+        }
+        int unit = 0;
+        long divisor = 1;
+        while (unit < UNITS.length - 1 && bytes / divisor >= 1024) {
+            divisor *= 1024;
+            unit++;
+        }
+        // Tenths rounded half up, like the formatter does
+        long tenths = bytes / divisor * 10 + ((bytes % divisor) * 10 + divisor / 2) / divisor;
+        Symbols current = getSymbols();
+        String whole = toDigits(tenths / 10, current.zeroDigit);
+        char[] text = new char[whole.length() + 3 + UNITS[unit].length()];
+        whole.getChars(0, whole.length(), text, 0);
+        int i = whole.length();
+        text[i++] = current.decimalSeparator;
+        text[i++] = (char) (current.zeroDigit + tenths % 10);
+        text[i++] = ' ';
+        UNITS[unit].getChars(0, UNITS[unit].length(), text, i);
+        return new String(text);
+    }
+
+    /**
+     * Format the size shown in a file row, which reads "Empty" for an empty folder
+     */
+    public static String formatEntrySize(long size, boolean isDirectory) {
+        if (size == 0) {
+            return isDirectory ? "Empty" : "0 B";
+        }
+        return formatSize(size);
+    }
+
+    /**
+     * Format a modification time as a date such as "Dec 12, 2023" in the default locale
+     */
+    public static String formatDate(long time) {
+        return dayText(time).text;
+    }
+
+    /**
+     * Format the secondary line of a file row, such as "Modified: Dec 12, 2023". Files
+     * modified on the same day share one string.
+     */
+    public static String formatModified(long time) {
+        return dayText(time).modifiedText;
+    }
+
+    private static DayText dayText(long time) {
+        Locale locale = Locale.getDefault();
+        TimeZone timeZone = TimeZone.getDefault();
+        long localTime = time + timeZone.getOffset(time);
+        long day = localTime >= 0 ? localTime / DAY_MS : (localTime - DAY_MS + 1) / DAY_MS;
+        int slot = (int) (day & (DAY_CACHE_SIZE - 1));
+        DayText cached = dayCache[slot];
+        if (cached != null && cached.day == day && cached.locale.equals(locale)) {
+            return cached;
+        }
+
+        LocalDateFormat format = dateFormat.get();
+        if (format == null || !format.locale.equals(locale)) {
+            format = new LocalDateFormat(locale);
+            dateFormat.set(format);
+        }
+        format.format.setTimeZone(timeZone);
+        DayText text = new DayText(day, locale, format.format.format(new Date(time)));
+        dayCache[slot] = text;
+        return text;
+    }
+
+    private static Symbols getSymbols() {
+        Locale locale = Locale.getDefault();
+        Symbols current = symbols;
+        if (current == null || !current.locale.equals(locale)) {
+            current = new Symbols(locale);
+            symbols = current;
+        }
+        return current;
+    }
+
+    private static String toDigits(long value, char zeroDigit) {
+        if (zeroDigit == '0') {
+            return Long.toString(value);
+        }
+        char[] digits = Long.toString(value).toCharArray();
+        for (int i = 0; i < digits.length; i++) {
+            digits[i] = (char) (zeroDigit + (digits[i] - '0'));
+        }
+        return new String(digits);
+    }
+}
@@ -0,0 +1,319 @@
+package com.covemanager.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds files with identical content in three stages, each only for what the previous
+ * one could not rule out:
+ * files of equal size, then of equal hash over their first and last few KB, then of
+ * equal hash over their whole content read through memory-mapped windows.
+ *
+ * Size groups are processed in parallel, largest files first, and each confirmed group
+ * is reported as soon as it is known. Hashes go through a {@link HashCache}, so files
+ * unchanged since a previous run are not read again.
+ */
+public class DuplicateFinder {
+    private static final int PARTIAL_BYTES = 4096;
+    private static final long MAP_WINDOW_BYTES = 32L * 1024 * 1024;
+    private static final String DIGEST_ALGORITHM = "SHA-1";
+
+    /**
+     * Files with identical content
+     */
+    public static final class DuplicateGroup {
+        private final long size;
+        private final List<String> paths;
+
+        DuplicateGroup(long size, List<String> paths) {
+            this.size = size;
+            this.paths = Collections.unmodifiableList(paths);
+        }
+
+        /**
+         * Get the size of each copy
+         */
+        public long getSize() {
+            return size;
+        }
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        /**
+         * Get the space taken by every copy but one
+         */
+        public long getWastedBytes() {
+            return size * (paths.size() - 1);
+        }
+    }
+
+    /**
+     * Receives results on the worker threads, so implementations must be thread-safe
+     */
+    public interface Callback {
+        void onGroupFound(DuplicateGroup group);
+
+        void onProgress(int processedSizes, int totalSizes);
+    }
+
+    /**
+     * Crawl consumer collecting the files worth comparing
+     */
+    public static class Collector implements FileCrawler.Consumer {
+        private final long minSize;
+        private final Map<Long, List<String>> pathsBySize = new HashMap<>();
+
+        /**
+         * @param minSize Smaller files are ignored, since they cannot waste much space
+         */
+        public Collector(long minSize) {
+            this.minSize = Math.max(1, minSize);
+        }
+
+        @Override
+        public void accept(CrawlEntry entry) {
+            // Check the size first so small files never build a path
+            if (!entry.isDirectory() && entry.getLength() >= minSize) {
+                add(entry.getFile().getAbsolutePath(), entry.getLength());
+            }
+        }
+
+        @Override
+        public void onComplete(boolean cancelled) {
+            if (cancelled) {
+                pathsBySize.clear();
+            }
+        }
+
+        /**
+         * Add a file directly instead of through a crawl
+         */
+        public void add(String path, long size) {
+            if (size >= minSize) {
+                List<String> paths = pathsBySize.get(size);
+                if (paths == null) {
+                    paths = new ArrayList<>(2);
+                    pathsBySize.put(size, paths);
+                }
+                paths.add(path);
+            }
+        }
+    }
+
+    private final HashCache cache;
+    private volatile boolean cancelled = false;
+
+    public DuplicateFinder(HashCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Stop at the next file. Safe to call from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Compare the collected files, blocking until done or cancelled
+     * @param executor Runs one task per size group
+     * @return Number of duplicate groups found
+     */
+    public int find(Collector collector, Executor executor, Callback callback) throws InterruptedException {
+        List<Long> sizes = new ArrayList<>();
+        for (Map.Entry<Long, List<String>> entry : collector.pathsBySize.entrySet()) {
+            if (entry.getValue().size() > 1) {
+                sizes.add(entry.getKey());
+            }
+        }
+        // Largest first, so the groups that free the most space show up first
+        Collections.sort(sizes, Collections.reverseOrder());
+
+        cache.beginRun();
+        AtomicInteger found = new AtomicInteger();
+        AtomicInteger processed = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(sizes.size());
+        for (Long size : sizes) {
+            List<String> paths = collector.pathsBySize.get(size);
+            executor.execute(() -> {
+                try {
+                    if (!cancelled) {
+                        found.addAndGet(compareSizeGroup(size, paths, callback));
+                        callback.onProgress(processed.incrementAndGet(), sizes.size());
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        if (!cancelled) {
+            cache.endRun();
+        }
+        return found.get();
+    }
+
+    private int compareSizeGroup(long size, List<String> paths, Callback callback) {
+        MessageDigest digest = newDigest();
+        ByteBuffer buffer = ByteBuffer.allocate(PARTIAL_BYTES);
+        Map<Long, List<String>> byPartialHash = new HashMap<>();
+        for (String path : paths) {
+            if (cancelled) {
+                return 0;
+            }
+            File file = new File(path);
+            HashCache.Entry entry = cache.get(path, size, file.lastModified());
+            if (!cache.hasPartialHash(entry)) {
+                try {
+                    cache.putPartialHash(entry, partialHash(file, size, digest, buffer));
+                } catch (IOException e) {
+                    continue;
+                }
+            }
+            addToGroup(byPartialHash, cache.getPartialHash(entry), path);
+        }
+
+        int found = 0;
+        for (List<String> candidates : byPartialHash.values()) {
+            if (candidates.size() < 2) {
+                continue;
+            }
+            if (size <= 2L * PARTIAL_BYTES) {
+                // The partial hash already covered the whole file
+                callback.onGroupFound(new DuplicateGroup(size, candidates));
+                found++;
+                continue;
+            }
+            found += compareFullHashes(size, candidates, digest, callback);
+        }
+        return found;
+    }
+
+    private int compareFullHashes(long size, List<String> candidates, MessageDigest digest, Callback callback) {
+        Map<String, List<String>> byFullHash = new HashMap<>();
+        for (String path : candidates) {
+            if (cancelled) {
+                return 0;
+            }
+            File file = new File(path);
+            HashCache.Entry entry = cache.get(path, size, file.lastModified());
+            byte[] hash = cache.getFullHash(entry);
+            if (hash == null) {
+                try {
+                    hash = fullHash(file, size, digest);
+                } catch (IOException e) {
+                    continue;
+                }
+                cache.putFullHash(entry, hash);
+            }
+            addToGroup(byFullHash, toHex(hash), path);
+        }
+
+        int found = 0;
+        for (List<String> group : byFullHash.values()) {
+            if (group.size() > 1) {
+                callback.onGroupFound(new DuplicateGroup(size, group));
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Hash the first and last few KB, which tells most different files of equal size apart
+     */
+    private static long partialHash(File file, long size, MessageDigest digest, ByteBuffer buffer)
+            throws IOException {
+        digest.reset();
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            readFully(channel, 0, Math.min(size, PARTIAL_BYTES), buffer, digest);
+            if (size > PARTIAL_BYTES) {
+                long tailStart = Math.max(PARTIAL_BYTES, size - PARTIAL_BYTES);
+                readFully(channel, tailStart, size - tailStart, buffer, digest);
+            }
+        }
+        byte[] hash = digest.digest();
+        long result = 0;
+        for (int i = 0; i < 8; i++) {
+            result = (result << 8) | (hash[i] & 0xFF);
+        }
+        return result;
+    }
+
+    private static void readFully(FileChannel channel, long position, long length, ByteBuffer buffer,
+                                  MessageDigest digest) throws IOException {
+        buffer.clear();
+        buffer.limit((int) length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("File shrank while reading");
+            }
+        }
+        buffer.flip();
+        digest.update(buffer);
+    }
+
+    /**
+     * Hash the whole file through memory-mapped windows, which avoids copying the content
+     * into the Java heap
+     */
+    private static byte[] fullHash(File file, long size, MessageDigest digest) throws IOException {
+        digest.reset();
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            for (long position = 0; position < size; position += MAP_WINDOW_BYTES) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAP_WINDOW_BYTES, size - position));
+                digest.update(window);
+            }
+        }
+        return Arrays.copyOf(digest.digest(), HashCache.FULL_HASH_LENGTH);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is not available", e);
+        }
+    }
+
+    private static <K> void addToGroup(Map<K, List<String>> groups, K key, String path) {
+        List<String> group = groups.get(key);
+        if (group == null) {
+            group = new ArrayList<>(2);
+            groups.put(key, group);
+        }
+        group.add(path);
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
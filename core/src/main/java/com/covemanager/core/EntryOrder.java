@@ -0,0 +1,97 @@
+package com.covemanager.core;
+
+import java.text.CollationKey;
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * Compares directory entries in the order of a {@link SortMode}.
+ * Collation keys are built the first time an entry needs them and kept in the entry, so a
+ * sort collates each name at most once, and sorting by size or date only collates ties.
+ * Names within a directory are unique, so no two entries compare equal.
+ */
+final class EntryOrder implements Comparator<EntryOrder.Entry> {
+
+    /**
+     * The attributes one entry is sorted by
+     */
+    static final class Entry {
+        final int index;
+        final String name;
+        final boolean isDirectory;
+        final long size;
+        final long lastModified;
+        private CollationKey nameKey;
+        private CollationKey typeKey;
+
+        /**
+         * @param index Position of the entry in the listing it came from, or -1
+         */
+        Entry(int index, String name, boolean isDirectory, long size, long lastModified) {
+            this.index = index;
+            this.name = name;
+            this.isDirectory = isDirectory;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private final SortMode mode;
+    private final NameCollator collator;
+
+    EntryOrder(SortMode mode, Locale locale) {
+        this.mode = mode;
+        this.collator = new NameCollator(locale);
+    }
+
+    SortMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Folders first if grouped, then by the sort key in the chosen direction, then by name
+     */
+    @Override
+    public int compare(Entry e1, Entry e2) {
+        if (mode.isFoldersFirst() && e1.isDirectory != e2.isDirectory) {
+            return e1.isDirectory ? -1 : 1;
+        }
+        int result;
+        switch (mode.getKey()) {
+            case SIZE:
+                result = Long.compare(e1.size, e2.size);
+                break;
+            case DATE:
+                result = Long.compare(e1.lastModified, e2.lastModified);
+                break;
+            case TYPE:
+                result = typeKey(e1).compareTo(typeKey(e2));
+                break;
+            default:
+                result = 0;
+                break;
+        }
+        if (result == 0) {
+            result = nameKey(e1).compareTo(nameKey(e2));
+        }
+        if (result == 0) {
+            // Names the collator considers equal, such as ones differing only in ignorable characters
+            result = e1.name.compareTo(e2.name);
+        }
+        return mode.isAscending() ? result : -result;
+    }
+
+    private CollationKey nameKey(Entry entry) {
+        if (entry.nameKey == null) {
+            entry.nameKey = collator.nameKey(entry.name);
+        }
+        return entry.nameKey;
+    }
+
+    private CollationKey typeKey(Entry entry) {
+        if (entry.typeKey == null) {
+            entry.typeKey = collator.typeKey(entry.name);
+        }
+        return entry.typeKey;
+    }
+}
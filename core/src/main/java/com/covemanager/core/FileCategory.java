@@ -0,0 +1,49 @@
+package com.covemanager.core;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * File type categories shown on the home screen, classified by extension
+ */
+public enum FileCategory {
+    IMAGES("jpg", "jpeg", "png", "gif", "bmp", "webp", "heic", "heif", "dng", "svg"),
+    VIDEOS("mp4", "mkv", "avi", "mov", "webm", "3gp", "m4v", "flv", "wmv", "ts"),
+    AUDIO("mp3", "wav", "flac", "aac", "ogg", "m4a", "opus", "wma", "amr", "mid", "midi"),
+    DOCUMENTS("pdf", "doc", "docx", "xls", "xlsx", "ppt", "pptx", "txt", "rtf", "odt", "ods", "odp",
+              "csv", "epub", "md", "html", "htm"),
+    APKS("apk", "apks", "xapk"),
+    OTHER();
+
+    private final Set<String> extensions;
+
+    FileCategory(String... extensions) {
+        this.extensions = new HashSet<>(Arrays.asList(extensions));
+    }
+
+    /**
+     * Lowercase extensions of the category; empty for {@link #OTHER}
+     */
+    Set<String> getExtensions() {
+        return extensions;
+    }
+
+    /**
+     * Classify a file by the extension of its name or path
+     */
+    public static FileCategory fromName(String name) {
+        int dot = name.lastIndexOf('.');
+        if (dot < 0 || dot == name.length() - 1 || name.indexOf('/', dot) >= 0) {
+            return OTHER;
+        }
+        String extension = name.substring(dot + 1).toLowerCase(Locale.ROOT);
+        for (FileCategory category : values()) {
+            if (category.extensions.contains(extension)) {
+                return category;
+            }
+        }
+        return OTHER;
+    }
+}
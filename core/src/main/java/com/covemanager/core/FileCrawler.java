@@ -0,0 +1,341 @@
+package com.covemanager.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared file-system walker used by every feature that needs to visit a tree.
+ *
+ * {@link #newCrawl} lists directories in parallel on a small shared pool and streams the
+ * entries, in batches, through a bounded queue to the thread that calls {@link Crawl#run()}.
+ * When consumers fall behind, listing threads block on the queue instead of buffering the
+ * whole tree. Several consumers can be attached to one crawl so a single pass serves all
+ * of them. The entries of a directory are always delivered before anything below it.
+ *
+ * {@link #walk} is the sequential, ordered counterpart for operations such as copy,
+ * delete and zip that need pre- and post-order callbacks.
+ *
+ * Neither follows links to directories, so link cycles cannot make a walk loop.
+ */
+public class FileCrawler {
+    private static final int QUEUE_CAPACITY = 64;
+    private static final long OFFER_TIMEOUT_MS = 50;
+    private static final List<CrawlEntry> END_OF_CRAWL = Collections.emptyList();
+    private static FileCrawler instance;
+
+    /**
+     * Receives entries of a parallel crawl. Methods are called on the thread running the
+     * crawl, one entry at a time, so implementations do not need to be thread-safe.
+     */
+    public interface Consumer {
+        void accept(CrawlEntry entry);
+
+        /**
+         * Called once after the last entry
+         * @param cancelled true if the crawl stopped before visiting the whole tree
+         */
+        void onComplete(boolean cancelled);
+    }
+
+    /**
+     * Callbacks of an ordered sequential walk. Each returns false to abort the walk.
+     * Paths are relative to the walk root, use '/' as separator, and are empty for the root.
+     * Links to directories are passed to {@link #visitFile}.
+     */
+    public interface Visitor {
+        boolean preVisitDirectory(File directory, String relativePath);
+
+        boolean visitFile(File file, String relativePath);
+
+        boolean postVisitDirectory(File directory, String relativePath);
+    }
+
+    private final ExecutorService pool;
+
+    private FileCrawler(int parallelism) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "FileCrawler-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        pool = new ThreadPoolExecutor(parallelism, parallelism, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), threadFactory);
+        ((ThreadPoolExecutor) pool).allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Get the shared crawler. Its pool bounds the number of directories listed at once
+     * across all crawls in the process.
+     */
+    public static synchronized FileCrawler getInstance() {
+        if (instance == null) {
+            int processors = Runtime.getRuntime().availableProcessors();
+            instance = new FileCrawler(Math.max(2, Math.min(4, processors)));
+        }
+        return instance;
+    }
+
+    /**
+     * Prepare a parallel crawl over the given roots
+     */
+    public Crawl newCrawl(Collection<File> roots) {
+        return new Crawl(new ArrayList<>(roots));
+    }
+
+    /**
+     * Crawl a single tree with one consumer, blocking until done
+     */
+    public void crawl(File root, Consumer consumer) {
+        newCrawl(Collections.singletonList(root)).addConsumer(consumer).run();
+    }
+
+    /**
+     * A single parallel pass over one or more trees
+     */
+    public class Crawl {
+        private final List<File> roots;
+        private final List<Consumer> consumers = new ArrayList<>();
+        private final BlockingQueue<List<CrawlEntry>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final AtomicInteger pendingDirectories = new AtomicInteger();
+        private volatile boolean cancelled = false;
+
+        private Crawl(List<File> roots) {
+            this.roots = roots;
+        }
+
+        public Crawl addConsumer(Consumer consumer) {
+            consumers.add(consumer);
+            return this;
+        }
+
+        /**
+         * Stop the crawl. Safe to call from any thread, including from a consumer.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Walk the roots and feed every consumer on the calling thread, returning when the
+         * walk finishes or is cancelled. Must not be called from a crawler pool thread.
+         */
+        public void run() {
+            try {
+                List<CrawlEntry> rootEntries = new ArrayList<>();
+                for (File root : roots) {
+                    if (!root.exists()) {
+                        continue;
+                    }
+                    CrawlEntry entry = new CrawlEntry(root, null, 0, root.isDirectory(), false);
+                    rootEntries.add(entry);
+                }
+                dispatch(rootEntries);
+
+                // Hold a slot while scheduling so the first finished root cannot end the crawl
+                pendingDirectories.incrementAndGet();
+                for (CrawlEntry entry : rootEntries) {
+                    if (entry.isDirectory()) {
+                        schedule(entry.getFile(), canonicalPath(entry.getFile()), 1);
+                    }
+                }
+                pendingDirectories.decrementAndGet();
+
+                while (!cancelled) {
+                    List<CrawlEntry> batch = queue.poll(OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                    if (batch == END_OF_CRAWL) {
+                        break;
+                    }
+                    if (batch != null) {
+                        dispatch(batch);
+                    } else if (pendingDirectories.get() == 0 && queue.isEmpty()) {
+                        // Listing ended before the slot above was released, so nobody signalled the end
+                        break;
+                    }
+                }
+            } catch (InterruptedException e) {
+                cancelled = true;
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                cancelled = true;
+                throw e;
+            } finally {
+                queue.clear();
+                for (Consumer consumer : consumers) {
+                    consumer.onComplete(cancelled);
+                }
+            }
+        }
+
+        private void dispatch(List<CrawlEntry> batch) {
+            for (CrawlEntry entry : batch) {
+                for (Consumer consumer : consumers) {
+                    consumer.accept(entry);
+                }
+            }
+        }
+
+        private void schedule(File directory, String canonicalPath, int childDepth) {
+            if (canonicalPath == null) {
+                return;
+            }
+            pendingDirectories.incrementAndGet();
+            pool.execute(() -> {
+                try {
+                    listDirectory(directory, canonicalPath, childDepth);
+                } finally {
+                    finishDirectory();
+                }
+            });
+        }
+
+        private void listDirectory(File directory, String canonicalPath, int childDepth) {
+            if (cancelled) {
+                return;
+            }
+            File[] children = directory.listFiles();
+            if (children == null || children.length == 0) {
+                return;
+            }
+
+            List<CrawlEntry> batch = new ArrayList<>(children.length);
+            List<File> subdirectories = new ArrayList<>();
+            List<String> subdirectoryPaths = new ArrayList<>();
+            for (File child : children) {
+                boolean isDirectory = child.isDirectory();
+                boolean isLink = false;
+                if (isDirectory) {
+                    String childCanonical = canonicalPath(child);
+                    isLink = !isSameLocation(canonicalPath, child.getName(), childCanonical);
+                    if (!isLink) {
+                        subdirectories.add(child);
+                        subdirectoryPaths.add(childCanonical);
+                    }
+                }
+                batch.add(new CrawlEntry(child, directory, childDepth, isDirectory, isLink));
+            }
+
+            // Publish this directory before scheduling its children to keep parents first
+            try {
+                while (!queue.offer(batch, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    if (cancelled) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                cancelled = true;
+                return;
+            }
+
+            for (int i = 0; i < subdirectories.size(); i++) {
+                schedule(subdirectories.get(i), subdirectoryPaths.get(i), childDepth + 1);
+            }
+        }
+
+        private void finishDirectory() {
+            if (pendingDirectories.decrementAndGet() != 0) {
+                return;
+            }
+            try {
+                // The dispatcher stops taking after a cancel, so give up instead of blocking
+                while (!queue.offer(END_OF_CRAWL, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    if (cancelled) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                cancelled = true;
+            }
+        }
+    }
+
+    /**
+     * Walk a tree depth-first on the calling thread
+     * @return false if the visitor aborted the walk
+     */
+    public static boolean walk(File root, Visitor visitor) {
+        if (!root.isDirectory()) {
+            return visitor.visitFile(root, "");
+        }
+        String canonical = canonicalPath(root);
+        File parent = root.getAbsoluteFile().getParentFile();
+        String parentCanonical = parent != null ? canonicalPath(parent) : null;
+        if (canonical == null ||
+                (parentCanonical != null && !isSameLocation(parentCanonical, root.getName(), canonical))) {
+            // The root itself is a link, so operate on the link rather than its target
+            return visitor.visitFile(root, "");
+        }
+        return walkDirectory(root, canonical, "", visitor);
+    }
+
+    private static boolean walkDirectory(File directory, String canonicalPath, String relativePath,
+                                         Visitor visitor) {
+        if (!visitor.preVisitDirectory(directory, relativePath)) {
+            return false;
+        }
+
+        File[] children = directory.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                String childRelative = relativePath.isEmpty()
+                        ? child.getName()
+                        : relativePath + "/" + child.getName();
+                if (child.isDirectory()) {
+                    String childCanonical = canonicalPath(child);
+                    if (isSameLocation(canonicalPath, child.getName(), childCanonical)) {
+                        if (!walkDirectory(child, childCanonical, childRelative, visitor)) {
+                            return false;
+                        }
+                        continue;
+                    }
+                }
+                if (!visitor.visitFile(child, childRelative)) {
+                    return false;
+                }
+            }
+        }
+
+        return visitor.postVisitDirectory(directory, relativePath);
+    }
+
+    /**
+     * A directory is a real child, not a link, when resolving it lands directly under
+     * its already resolved parent with the same name
+     */
+    private static boolean isSameLocation(String parentCanonical, String name, String childCanonical) {
+        if (childCanonical == null) {
+            return false;
+        }
+        int expectedLength = parentCanonical.length() + 1 + name.length();
+        if (parentCanonical.endsWith(File.separator)) {
+            expectedLength--;
+        }
+        return childCanonical.length() == expectedLength &&
+               childCanonical.startsWith(parentCanonical) &&
+               childCanonical.endsWith(name);
+    }
+
+    private static String canonicalPath(File file) {
+        try {
+            return file.getCanonicalPath();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
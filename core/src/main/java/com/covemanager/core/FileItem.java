@@ -1,12 +1,10 @@
-package com.covemanager;
+package com.covemanager.core;
 
 import java.io.File;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Locale;
 
 /**
- * Model class representing a file or folder in the file browser
+ * Model class representing a file or folder in the file browser.
+ * Display strings are formatted when the item is created, so binding a row only reads them.
  */
 public class FileItem {
     private File file;
@@ -16,21 +14,34 @@ public class FileItem {
     private String path;
     private long lastModified;
     private boolean isSizeCalculating;
+    private final String formattedDate;
+    private final String detailsText;
+    private String formattedSize;
 
     public FileItem(File file) {
+        this(file, file.isDirectory());
+    }
+
+    private FileItem(File file, boolean isDirectory) {
+        // For files, get size immediately. For directories, size will be calculated separately
+        this(file, isDirectory, isDirectory ? -1 : file.length(), file.lastModified());
+    }
+
+    /**
+     * Create an item from attributes that were already read, such as those of a {@link DirectoryListing}
+     * @param size Size in bytes, or -1 if not calculated yet
+     */
+    public FileItem(File file, boolean isDirectory, long size, long lastModified) {
         this.file = file;
-        this.isDirectory = file.isDirectory();
+        this.isDirectory = isDirectory;
         this.name = file.getName();
         this.path = file.getAbsolutePath();
-        this.lastModified = file.lastModified();
+        this.lastModified = lastModified;
         this.isSizeCalculating = false;
-        
-        // For files, get size immediately. For directories, size will be calculated separately
-        if (!isDirectory) {
-            this.size = file.length();
-        } else {
-            this.size = -1; // Indicates size not calculated yet
-        }
+        this.size = size;
+        this.formattedDate = DisplayFormat.formatDate(lastModified);
+        this.detailsText = DisplayFormat.formatModified(lastModified);
+        this.formattedSize = formatSize();
     }
 
     public File getFile() {
@@ -46,7 +57,10 @@ public class FileItem {
     }
 
     public void setSize(long size) {
-        this.size = size;
+        if (size != this.size) {
+            this.size = size;
+            this.formattedSize = formatSize();
+        }
     }
 
     public String getName() {
@@ -62,33 +76,25 @@ public class FileItem {
     }
 
     public String getFormattedDate() {
-        SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, yyyy", Locale.getDefault());
-        return sdf.format(new Date(lastModified));
+        return formattedDate;
+    }
+
+    /**
+     * Get the secondary line of the row, such as "Modified: Dec 12, 2023"
+     */
+    public String getDetailsText() {
+        return detailsText;
     }
 
     public String getFormattedSize() {
+        return formattedSize;
+    }
+
+    private String formatSize() {
         if (size < 0) {
             return isSizeCalculating ? "Calculating..." : "Unknown";
         }
-        
-        if (size == 0) {
-            return isDirectory ? "Empty" : "0 B";
-        }
-
-        String[] units = {"B", "KB", "MB", "GB", "TB"};
-        int unitIndex = 0;
-        double sizeInUnit = size;
-
-        while (sizeInUnit >= 1024 && unitIndex < units.length - 1) {
-            sizeInUnit /= 1024;
-            unitIndex++;
-        }
-
-        if (unitIndex == 0) {
-            return String.format(Locale.getDefault(), "%.0f %s", sizeInUnit, units[unitIndex]);
-        } else {
-            return String.format(Locale.getDefault(), "%.1f %s", sizeInUnit, units[unitIndex]);
-        }
+        return DisplayFormat.formatEntrySize(size, isDirectory);
     }
 
     public boolean isSizeCalculating() {
@@ -96,7 +102,10 @@ public class FileItem {
     }
 
     public void setSizeCalculating(boolean calculating) {
-        this.isSizeCalculating = calculating;
+        if (calculating != this.isSizeCalculating) {
+            this.isSizeCalculating = calculating;
+            this.formattedSize = formatSize();
+        }
     }
 
     public String getParent() {
@@ -0,0 +1,611 @@
+package com.covemanager.core;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory filename index answering case-insensitive substring queries.
+ *
+ * Every entry stores its name and the id of its parent directory, so paths are not
+ * duplicated in memory. Names are indexed by trigram: a query of three or more
+ * characters intersects the posting lists of its trigrams and only verifies the
+ * few surviving candidates, instead of comparing against every name. Shorter queries
+ * fall back to a linear scan, which stops as soon as enough results are found.
+ *
+ * Entries are appended with increasing ids so posting lists stay sorted; removals
+ * only set a tombstone bit. Searches may run concurrently with updates.
+ */
+public class FileNameIndex {
+    /**
+     * Receives search results in batches as they are found
+     */
+    public interface ResultCallback {
+        /**
+         * @param paths Absolute paths of the next batch of matches
+         * @return false to stop the search early, e.g. because the query changed
+         */
+        boolean onResults(List<String> paths);
+    }
+
+    /**
+     * Receives every live entry of {@link #visitEntries}, parents before their children
+     */
+    public interface EntryVisitor {
+        /**
+         * @param entry Cursor positioned on the entry, only valid during this call
+         * @return false to stop visiting
+         */
+        boolean visit(Entry entry);
+    }
+
+    /**
+     * Read-only view of the entry being visited
+     */
+    public final class Entry {
+        private int[] childCounts;
+        private int id;
+
+        private Entry() {
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * @return Id of the parent directory, or -1 for a root
+         */
+        public int getParentId() {
+            return parents[id];
+        }
+
+        public String getName() {
+            return names[id];
+        }
+
+        public String getLowerName() {
+            return lowerNames[id];
+        }
+
+        public boolean isDirectory() {
+            return directories.get(id);
+        }
+
+        /**
+         * Get the number of live entries directly inside this one
+         */
+        public int getChildCount() {
+            return childCounts[id];
+        }
+
+        /**
+         * Get the distance from the root, which itself has depth 0
+         */
+        public int getDepth() {
+            int depth = 0;
+            for (int current = parents[id]; current >= 0; current = parents[current]) {
+                depth++;
+            }
+            return depth;
+        }
+
+        /**
+         * Get the lower case name of the ancestor at the given depth, or of this entry at its own depth
+         */
+        public String getLowerNameAtDepth(int depth) {
+            int current = id;
+            for (int steps = getDepth() - depth; steps > 0; steps--) {
+                current = parents[current];
+            }
+            return lowerNames[current];
+        }
+
+        public String getPath() {
+            return pathOf(id);
+        }
+    }
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int RESULT_BATCH_SIZE = 64;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] lowerNames = new String[INITIAL_CAPACITY];
+    private int[] parents = new int[INITIAL_CAPACITY];
+    private int size = 0;
+    private final BitSet directories = new BitSet();
+    private final BitSet deleted = new BitSet();
+    private int deletedCount = 0;
+    // Directory lookups for incremental updates; files are found through their name trigrams
+    private final Map<String, Integer> directoryIds = new HashMap<>();
+
+    private final TrigramTable trigrams = new TrigramTable();
+
+    /**
+     * Add a root directory. Its descendants are added with {@link #add(String, boolean)}.
+     * @return Id of the root entry
+     */
+    public int addRoot(String rootPath) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = directoryIds.get(rootPath);
+            if (existing != null) {
+                return existing;
+            }
+            int id = append(rootPath, -1, true);
+            directoryIds.put(rootPath, id);
+            return id;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add an entry below an already indexed directory
+     * @param path Absolute path of the new entry
+     * @return Id of the entry, or -1 if its parent directory is not indexed
+     */
+    public int add(String path, boolean isDirectory) {
+        File file = new File(path);
+        String parentPath = file.getParent();
+        if (parentPath == null) {
+            return -1;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Integer parentId = directoryIds.get(parentPath);
+            if (parentId == null || deleted.get(parentId)) {
+                return -1;
+            }
+            int existing = findChild(parentId, file.getName());
+            if (existing >= 0) {
+                return existing;
+            }
+            int id = append(file.getName(), parentId, isDirectory);
+            if (isDirectory) {
+                directoryIds.put(path, id);
+            }
+            return id;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add an entry directly below a known directory id. Used while crawling, where the
+     * parent id is already at hand and no path lookup is needed.
+     * @return Id of the new entry
+     */
+    public int addChild(int parentId, String name, boolean isDirectory) {
+        lock.writeLock().lock();
+        try {
+            int id = append(name, parentId, isDirectory);
+            if (isDirectory) {
+                directoryIds.put(pathOf(id), id);
+            }
+            return id;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Look up the id of an indexed directory
+     * @return Id of the directory, or -1 if it is not indexed
+     */
+    public int getDirectoryId(String path) {
+        lock.readLock().lock();
+        try {
+            Integer id = directoryIds.get(path);
+            return id != null ? id : -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Remove an entry, and its whole subtree if it is a directory
+     * @return true if the entry was indexed
+     */
+    public boolean remove(String path) {
+        lock.writeLock().lock();
+        try {
+            Integer directoryId = directoryIds.remove(path);
+            if (directoryId != null) {
+                removeSubtree(path, directoryId);
+                return true;
+            }
+
+            File file = new File(path);
+            String parentPath = file.getParent();
+            Integer parentId = parentPath != null ? directoryIds.get(parentPath) : null;
+            if (parentId == null) {
+                return false;
+            }
+            int id = findChild(parentId, file.getName());
+            if (id < 0) {
+                return false;
+            }
+            markDeleted(id);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of live entries
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Check whether enough entries were removed that rebuilding would reclaim memory
+     */
+    public boolean needsCompaction() {
+        lock.readLock().lock();
+        try {
+            return size > INITIAL_CAPACITY && deletedCount > size / 4;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find entries whose name contains the query, ignoring case
+     * @param query Substring to look for
+     * @param limit Maximum number of results
+     * @param callback Receives results in batches
+     * @return Number of results delivered
+     */
+    public int search(String query, int limit, ResultCallback callback) {
+        if (query == null || query.isEmpty() || limit <= 0) {
+            return 0;
+        }
+        String needle = query.toLowerCase(Locale.ROOT);
+
+        lock.readLock().lock();
+        try {
+            List<String> batch = new ArrayList<>(RESULT_BATCH_SIZE);
+            int found = 0;
+
+            if (needle.length() < 3) {
+                // Too short for trigrams: scan names directly
+                for (int id = 0; id < size && found < limit; id++) {
+                    if (isMatch(id, needle)) {
+                        batch.add(pathOf(id));
+                        found++;
+                        if (batch.size() == RESULT_BATCH_SIZE && !flush(batch, callback)) {
+                            return found;
+                        }
+                    }
+                }
+            } else {
+                int[] candidates = candidatesFor(needle);
+                for (int i = 0; i < candidates.length && found < limit; i++) {
+                    int id = candidates[i];
+                    if (isMatch(id, needle)) {
+                        batch.add(pathOf(id));
+                        found++;
+                        if (batch.size() == RESULT_BATCH_SIZE && !flush(batch, callback)) {
+                            return found;
+                        }
+                    }
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                flush(batch, callback);
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visit every live entry in id order, which puts each directory before its contents.
+     * Paths are only built for entries the visitor asks about.
+     */
+    public void visitEntries(EntryVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            int[] childCounts = new int[size];
+            for (int id = 0; id < size; id++) {
+                if (parents[id] >= 0 && !deleted.get(id)) {
+                    childCounts[parents[id]]++;
+                }
+            }
+
+            Entry entry = new Entry();
+            entry.childCounts = childCounts;
+            for (int id = 0; id < size; id++) {
+                if (deleted.get(id)) {
+                    continue;
+                }
+                entry.id = id;
+                if (!visitor.visit(entry)) {
+                    return;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuild the absolute path of an entry from its parent chain
+     */
+    private String pathOf(int id) {
+        int depth = 0;
+        for (int current = id; current >= 0; current = parents[current]) {
+            depth++;
+        }
+        String[] parts = new String[depth];
+        int index = depth;
+        int length = 0;
+        for (int current = id; current >= 0; current = parents[current]) {
+            parts[--index] = names[current];
+            length += names[current].length() + 1;
+        }
+
+        StringBuilder path = new StringBuilder(length);
+        path.append(parts[0]);
+        for (int i = 1; i < depth; i++) {
+            if (path.charAt(path.length() - 1) != File.separatorChar) {
+                path.append(File.separatorChar);
+            }
+            path.append(parts[i]);
+        }
+        return path.toString();
+    }
+
+    private boolean isMatch(int id, String needle) {
+        // Roots hold their full path as name and are never search results
+        return parents[id] >= 0 && !deleted.get(id) && lowerNames[id].contains(needle);
+    }
+
+    private boolean flush(List<String> batch, ResultCallback callback) {
+        boolean more = callback.onResults(new ArrayList<>(batch));
+        batch.clear();
+        return more;
+    }
+
+    private int append(String name, int parentId, boolean isDirectory) {
+        ensureCapacity(size + 1);
+        int id = size++;
+        names[id] = name;
+        String lower = name.toLowerCase(Locale.ROOT);
+        // Share the instance when the name is already lower case
+        lowerNames[id] = lower.equals(name) ? name : lower;
+        parents[id] = parentId;
+        if (isDirectory) {
+            directories.set(id);
+        }
+        if (parentId >= 0) {
+            trigrams.addName(lowerNames[id], id);
+        }
+        return id;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= names.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, names.length + (names.length >> 1));
+        names = Arrays.copyOf(names, newCapacity);
+        lowerNames = Arrays.copyOf(lowerNames, newCapacity);
+        parents = Arrays.copyOf(parents, newCapacity);
+    }
+
+    private int findChild(int parentId, String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        if (lower.length() >= 3) {
+            for (int id : candidatesFor(lower)) {
+                if (parents[id] == parentId && !deleted.get(id) && names[id].equals(name)) {
+                    return id;
+                }
+            }
+            return -1;
+        }
+        for (int id = 0; id < size; id++) {
+            if (parents[id] == parentId && !deleted.get(id) && names[id].equals(name)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    private void removeSubtree(String path, int directoryId) {
+        // Collect the removed directory and every indexed directory below it
+        BitSet removedDirectories = new BitSet();
+        removedDirectories.set(directoryId);
+        String prefix = path.endsWith(File.separator) ? path : path + File.separator;
+        List<String> removedPaths = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : directoryIds.entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                removedDirectories.set(entry.getValue());
+                removedPaths.add(entry.getKey());
+            }
+        }
+        for (String removedPath : removedPaths) {
+            directoryIds.remove(removedPath);
+        }
+
+        markDeleted(directoryId);
+        for (int id = 0; id < size; id++) {
+            if (parents[id] >= 0 && removedDirectories.get(parents[id])) {
+                markDeleted(id);
+            }
+        }
+    }
+
+    private void markDeleted(int id) {
+        if (!deleted.get(id)) {
+            deleted.set(id);
+            deletedCount++;
+        }
+    }
+
+    /**
+     * Intersect the posting lists of all trigrams in the needle
+     * @return Ids that contain every trigram, in ascending order
+     */
+    private int[] candidatesFor(String needle) {
+        int trigramCount = needle.length() - 2;
+        int[][] lists = new int[trigramCount][];
+        int[] lengths = new int[trigramCount];
+        for (int i = 0; i < trigramCount; i++) {
+            int slot = trigrams.find(TrigramTable.key(needle, i));
+            if (slot < 0) {
+                return new int[0];
+            }
+            lists[i] = trigrams.postings(slot);
+            lengths[i] = trigrams.postingSize(slot);
+        }
+
+        // Start from the rarest trigram so the working set is as small as possible
+        int smallest = 0;
+        for (int i = 1; i < trigramCount; i++) {
+            if (lengths[i] < lengths[smallest]) {
+                smallest = i;
+            }
+        }
+        int[] result = Arrays.copyOf(lists[smallest], lengths[smallest]);
+        int resultSize = result.length;
+
+        for (int i = 0; i < trigramCount && resultSize > 0; i++) {
+            if (i == smallest) {
+                continue;
+            }
+            int[] other = lists[i];
+            int otherSize = lengths[i];
+            int kept = 0;
+            int from = 0;
+            for (int r = 0; r < resultSize; r++) {
+                int position = Arrays.binarySearch(other, from, otherSize, result[r]);
+                if (position >= 0) {
+                    result[kept++] = result[r];
+                    from = position + 1;
+                } else {
+                    from = -position - 1;
+                }
+            }
+            resultSize = kept;
+        }
+        return Arrays.copyOf(result, resultSize);
+    }
+
+    /**
+     * Open-addressing map from a packed trigram to its growable posting list
+     */
+    private static final class TrigramTable {
+        private long[] keys = new long[1 << 14];
+        private int[][] postings = new int[1 << 14][];
+        private int[] postingSizes = new int[1 << 14];
+        private int count = 0;
+
+        static long key(String text, int offset) {
+            return ((long) text.charAt(offset) << 32) |
+                   ((long) text.charAt(offset + 1) << 16) |
+                   text.charAt(offset + 2);
+        }
+
+        void addName(String lowerName, int id) {
+            for (int i = 0; i + 2 < lowerName.length(); i++) {
+                addPosting(key(lowerName, i), id);
+            }
+        }
+
+        int find(long key) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (postings[slot] != null) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        int[] postings(int slot) {
+            return postings[slot];
+        }
+
+        int postingSize(int slot) {
+            return postingSizes[slot];
+        }
+
+        private void addPosting(long key, int id) {
+            if ((count + 1) * 4 > keys.length * 3) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (postings[slot] != null && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (postings[slot] == null) {
+                keys[slot] = key;
+                postings[slot] = new int[4];
+                count++;
+            }
+
+            int[] list = postings[slot];
+            int listSize = postingSizes[slot];
+            // Ids arrive in ascending order, so a repeated trigram in one name hits the tail
+            if (listSize > 0 && list[listSize - 1] == id) {
+                return;
+            }
+            if (listSize == list.length) {
+                list = Arrays.copyOf(list, list.length * 2);
+                postings[slot] = list;
+            }
+            list[listSize] = id;
+            postingSizes[slot] = listSize + 1;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[][] oldPostings = postings;
+            int[] oldSizes = postingSizes;
+            keys = new long[oldKeys.length * 2];
+            postings = new int[oldKeys.length * 2][];
+            postingSizes = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldPostings[i] == null) {
+                    continue;
+                }
+                int slot = hash(oldKeys[i]) & mask;
+                while (postings[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                postings[slot] = oldPostings[i];
+                postingSizes[slot] = oldSizes[i];
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.covemanager.core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Copy, move, delete and compress operations used by the file browser
+ */
+public class FileOperations {
+    private static final int ZIP_BUFFER_SIZE = 64 * 1024;
+
+    private FileOperations() {
+    }
+
+    /**
+     * Copy a file or directory tree. Links to directories are not copied.
+     * @return true if everything was copied
+     */
+    public static boolean copyRecursively(File source, File destination) {
+        return FileCrawler.walk(source, new FileCrawler.Visitor() {
+            @Override
+            public boolean preVisitDirectory(File directory, String relativePath) {
+                return target(relativePath).mkdirs();
+            }
+
+            @Override
+            public boolean visitFile(File file, String relativePath) {
+                return file.isDirectory() || copyFile(file, target(relativePath));
+            }
+
+            @Override
+            public boolean postVisitDirectory(File directory, String relativePath) {
+                return true;
+            }
+
+            private File target(String relativePath) {
+                return relativePath.isEmpty() ? destination : new File(destination, relativePath);
+            }
+        });
+    }
+
+    private static boolean copyFile(File source, File destination) {
+        try (FileChannel sourceChannel = new FileInputStream(source).getChannel();
+             FileChannel destChannel = new FileOutputStream(destination).getChannel()) {
+            long size = sourceChannel.size();
+            long position = 0;
+            // transferFrom may copy less than requested, so loop until done
+            while (position < size) {
+                long transferred = destChannel.transferFrom(sourceChannel, position, size - position);
+                if (transferred <= 0) {
+                    return false;
+                }
+                position += transferred;
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Move a file or directory, falling back to copy and delete across file systems
+     * @return true if the move succeeded
+     */
+    public static boolean move(File source, File destination) {
+        if (source.renameTo(destination)) {
+            return true;
+        }
+        if (copyRecursively(source, destination)) {
+            deleteRecursively(source);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Delete a file or directory tree. Links are removed without touching their targets.
+     * @return true if everything was deleted
+     */
+    public static boolean deleteRecursively(File file) {
+        return FileCrawler.walk(file, new FileCrawler.Visitor() {
+            @Override
+            public boolean preVisitDirectory(File directory, String relativePath) {
+                return true;
+            }
+
+            @Override
+            public boolean visitFile(File child, String relativePath) {
+                return child.delete();
+            }
+
+            @Override
+            public boolean postVisitDirectory(File directory, String relativePath) {
+                return directory.delete();
+            }
+        });
+    }
+
+    /**
+     * Compress files and directory trees into a ZIP archive
+     */
+    public static void zip(File[] files, File zipFile) throws IOException {
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(zipFile))) {
+            byte[] buffer = new byte[ZIP_BUFFER_SIZE];
+            IOException[] failure = new IOException[1];
+            for (File file : files) {
+                String rootName = file.getName();
+                FileCrawler.walk(file, new FileCrawler.Visitor() {
+                    @Override
+                    public boolean preVisitDirectory(File directory, String relativePath) {
+                        return true;
+                    }
+
+                    @Override
+                    public boolean visitFile(File child, String relativePath) {
+                        if (child.isDirectory()) {
+                            return true;
+                        }
+                        String entryName = relativePath.isEmpty() ? rootName : rootName + "/" + relativePath;
+                        try {
+                            addToZip(child, entryName, zos, buffer);
+                            return true;
+                        } catch (IOException e) {
+                            failure[0] = e;
+                            return false;
+                        }
+                    }
+
+                    @Override
+                    public boolean postVisitDirectory(File directory, String relativePath) {
+                        return true;
+                    }
+                });
+                if (failure[0] != null) {
+                    throw failure[0];
+                }
+            }
+        }
+    }
+
+    private static void addToZip(File file, String entryName, ZipOutputStream zos, byte[] buffer) throws IOException {
+        ZipEntry zipEntry = new ZipEntry(entryName);
+        zos.putNextEntry(zipEntry);
+
+        try (InputStream fis = new FileInputStream(file)) {
+            int length;
+            while ((length = fis.read(buffer)) > 0) {
+                zos.write(buffer, 0, length);
+            }
+        }
+        zos.closeEntry();
+    }
+}
@@ -0,0 +1,144 @@
+package com.covemanager.core;
+
+import java.io.File;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Crawl consumer reporting the files most worth reviewing: the largest ones, large ones
+ * not modified for a long time, and large ones left in download folders.
+ * Each list is a {@link TopFiles}, so memory stays constant however large the crawl is.
+ */
+public class FileReport implements FileCrawler.Consumer {
+
+    /**
+     * A file in one of the lists
+     */
+    public static final class ReportedFile {
+        private final String path;
+        private final long size;
+        private final long lastModified;
+
+        ReportedFile(String path, long size, long lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Get the modification time, or 0 if it was not needed to rank the file
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+
+    private final TopFiles largest;
+    private final TopFiles oldest;
+    private final TopFiles downloads;
+    private final long staleBefore;
+    private final long minReportedSize;
+    private File lastParent;
+    private boolean lastParentIsDownloads;
+
+    /**
+     * @param limit Number of files kept in each list
+     * @param staleBefore Files modified before this time count as old
+     * @param minReportedSize Smaller files are left out of the old and download lists
+     */
+    public FileReport(int limit, long staleBefore, long minReportedSize) {
+        largest = new TopFiles(limit, true);
+        oldest = new TopFiles(limit, false);
+        downloads = new TopFiles(limit, true);
+        this.staleBefore = staleBefore;
+        this.minReportedSize = minReportedSize;
+    }
+
+    @Override
+    public void accept(CrawlEntry entry) {
+        if (entry.isDirectory()) {
+            return;
+        }
+        long size = entry.getLength();
+        String path = null;
+        if (largest.wouldAccept(size)) {
+            path = entry.getFile().getAbsolutePath();
+            largest.offer(path, size, size, 0);
+        }
+        if (size < minReportedSize) {
+            return;
+        }
+
+        if (isInDownloads(entry.getParent()) && downloads.wouldAccept(size)) {
+            if (path == null) {
+                path = entry.getFile().getAbsolutePath();
+            }
+            downloads.offer(path, size, size, 0);
+        }
+
+        // Only large files are stat'ed for their age
+        long modified = entry.getLastModified();
+        if (modified > 0 && modified < staleBefore && oldest.wouldAccept(modified)) {
+            if (path == null) {
+                path = entry.getFile().getAbsolutePath();
+            }
+            oldest.offer(path, modified, size, modified);
+        }
+    }
+
+    @Override
+    public void onComplete(boolean cancelled) {
+    }
+
+    /**
+     * Forget a file or directory removed since the crawl. Lists are not refilled, so they
+     * may come up short until the next crawl.
+     * @return true if any list changed
+     */
+    public boolean remove(String path) {
+        return largest.remove(path) + oldest.remove(path) + downloads.remove(path) > 0;
+    }
+
+    /**
+     * Get the largest files, largest first
+     */
+    public List<ReportedFile> getLargest() {
+        return largest.toList();
+    }
+
+    /**
+     * Get the large files modified before the stale time, oldest first
+     */
+    public List<ReportedFile> getOldest() {
+        return oldest.toList();
+    }
+
+    /**
+     * Get the large files in download folders, largest first
+     */
+    public List<ReportedFile> getLargeDownloads() {
+        return downloads.toList();
+    }
+
+    private boolean isInDownloads(File parent) {
+        // Entries of one directory share their parent instance, so this runs once per directory
+        if (parent != lastParent) {
+            lastParent = parent;
+            lastParentIsDownloads = parent != null && isDownloadsPath(parent.getPath());
+        }
+        return lastParentIsDownloads;
+    }
+
+    private static boolean isDownloadsPath(String path) {
+        String lowerPath = path.toLowerCase(Locale.ROOT) + "/";
+        return lowerPath.contains("/download/") || lowerPath.contains("/downloads/");
+    }
+}
@@ -0,0 +1,186 @@
+package com.covemanager.core;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A fixed set of selected files, stored as parent paths and the names under each.
+ *
+ * A selection usually comes from one folder, so it holds one parent path and a name per
+ * file rather than a {@link File} and full path each. Files are built one at a time while
+ * iterating. Immutable, so it can be shared between threads without copying.
+ */
+public final class FileSelection implements Iterable<File> {
+    private static final int FORMAT_VERSION = 1;
+
+    public static final FileSelection EMPTY = new FileSelection(new String[0], new int[0], new String[0]);
+
+    private final String[] parents;
+    // Index in names of the first name of each parent; the names of a parent run to the next start
+    private final int[] groupStarts;
+    private final String[] names;
+
+    private FileSelection(String[] parents, int[] groupStarts, String[] names) {
+        this.parents = parents;
+        this.groupStarts = groupStarts;
+        this.names = names;
+    }
+
+    /**
+     * Group files by parent folder. Folders keep the order they first appear in, and files
+     * keep their order within a folder.
+     */
+    public static FileSelection of(Collection<File> files) {
+        if (files.isEmpty()) {
+            return EMPTY;
+        }
+        Map<String, List<String>> groups = new LinkedHashMap<>();
+        for (File file : files) {
+            String parent = file.getParent();
+            // A root has no parent; it is kept whole with an empty name
+            String key = parent != null ? parent : file.getPath();
+            List<String> groupNames = groups.get(key);
+            if (groupNames == null) {
+                groupNames = new ArrayList<>();
+                groups.put(key, groupNames);
+            }
+            groupNames.add(parent != null ? file.getName() : "");
+        }
+        return fromGroups(groups, files.size());
+    }
+
+    /**
+     * Group absolute paths by parent folder, like {@link #of}, without building a File for each
+     */
+    public static FileSelection ofPaths(Collection<String> paths) {
+        if (paths.isEmpty()) {
+            return EMPTY;
+        }
+        Map<String, List<String>> groups = new LinkedHashMap<>();
+        for (String path : paths) {
+            int separator = path.lastIndexOf(File.separatorChar);
+            // A root has no parent, as with File.getParent(); it is kept whole with an empty name
+            boolean isRoot = separator < 0 || separator == path.length() - 1;
+            String key = isRoot ? path : separator == 0 ? File.separator : path.substring(0, separator);
+            List<String> groupNames = groups.get(key);
+            if (groupNames == null) {
+                groupNames = new ArrayList<>();
+                groups.put(key, groupNames);
+            }
+            groupNames.add(isRoot ? "" : path.substring(separator + 1));
+        }
+        return fromGroups(groups, paths.size());
+    }
+
+    private static FileSelection fromGroups(Map<String, List<String>> groups, int count) {
+        String[] parents = new String[groups.size()];
+        int[] groupStarts = new int[groups.size()];
+        String[] names = new String[count];
+        int group = 0;
+        int next = 0;
+        for (Map.Entry<String, List<String>> entry : groups.entrySet()) {
+            parents[group] = entry.getKey();
+            groupStarts[group] = next;
+            for (String name : entry.getValue()) {
+                names[next++] = name;
+            }
+            group++;
+        }
+        return new FileSelection(parents, groupStarts, names);
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public boolean isEmpty() {
+        return names.length == 0;
+    }
+
+    /**
+     * Iterate over the files, building each one as it is reached
+     */
+    @Override
+    public Iterator<File> iterator() {
+        return new Iterator<File>() {
+            private int group = -1;
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < names.length;
+            }
+
+            @Override
+            public File next() {
+                if (index >= names.length) {
+                    throw new NoSuchElementException();
+                }
+                while (group + 1 < groupStarts.length && groupStarts[group + 1] <= index) {
+                    group++;
+                }
+                String name = names[index++];
+                return name.isEmpty() ? new File(parents[group]) : new File(parents[group], name);
+            }
+        };
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(parents.length);
+        for (int i = 0; i < parents.length; i++) {
+            out.writeUTF(parents[i]);
+            out.writeInt(groupStarts[i]);
+        }
+        out.writeInt(names.length);
+        for (String name : names) {
+            out.writeUTF(name);
+        }
+    }
+
+    /**
+     * Read a selection written by {@link #writeTo}
+     * @throws IOException If the data is damaged or was written in another format
+     */
+    public static FileSelection readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != FORMAT_VERSION) {
+            throw new IOException("Unknown selection format");
+        }
+        int groupCount = in.readInt();
+        if (groupCount < 0) {
+            throw new IOException("Damaged selection");
+        }
+        String[] parents = new String[groupCount];
+        int[] groupStarts = new int[groupCount];
+        for (int i = 0; i < groupCount; i++) {
+            parents[i] = in.readUTF();
+            groupStarts[i] = in.readInt();
+        }
+        int count = in.readInt();
+        if (count < 0 || (groupCount == 0) != (count == 0)) {
+            throw new IOException("Damaged selection");
+        }
+        // Every group starts after the one before and holds at least one name
+        for (int i = 0; i < groupCount; i++) {
+            int minStart = i == 0 ? 0 : groupStarts[i - 1] + 1;
+            int maxStart = i == 0 ? 0 : count - 1;
+            if (groupStarts[i] < minStart || groupStarts[i] > maxStart) {
+                throw new IOException("Damaged selection");
+            }
+        }
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = in.readUTF();
+        }
+        return count == 0 ? EMPTY : new FileSelection(parents, groupStarts, names);
+    }
+}
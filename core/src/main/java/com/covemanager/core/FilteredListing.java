@@ -0,0 +1,241 @@
+package com.covemanager.core;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * The rows of a {@link DirectoryListing} that pass a {@link ListingFilter}.
+ *
+ * The listing keeps every entry, and this view keeps the indexes of the ones shown, so a
+ * filter change is one pass over the columns rather than a new listing, and a cached listing
+ * serves any filter. Positions here count shown entries only. Changes go through the view so
+ * both stay in step. Not thread-safe, like the listing.
+ */
+public class FilteredListing {
+    private DirectoryListing listing;
+    private ListingFilter filter;
+    // Sorted indexes of shown entries, or null while the filter accepts everything
+    private int[] shown;
+    private int shownCount;
+
+    public FilteredListing(DirectoryListing listing, ListingFilter filter) {
+        this.listing = listing;
+        this.filter = filter;
+        select();
+    }
+
+    public DirectoryListing getListing() {
+        return listing;
+    }
+
+    public ListingFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Show another listing of the same directory, such as one in a new order
+     */
+    public void setListing(DirectoryListing listing) {
+        this.listing = listing;
+        select();
+    }
+
+    public void setFilter(ListingFilter filter) {
+        this.filter = filter;
+        select();
+    }
+
+    public int size() {
+        return shown != null ? shownCount : listing.size();
+    }
+
+    public FileItem getItem(int position) {
+        return listing.getItem(entryIndex(position));
+    }
+
+    public File getFile(int position) {
+        return listing.getFile(entryIndex(position));
+    }
+
+    public boolean isDirectory(int position) {
+        return listing.isDirectory(entryIndex(position));
+    }
+
+    /**
+     * Get the index in the listing of the entry at a position, to read its columns
+     */
+    public int entryIndex(int position) {
+        if (shown == null) {
+            return position;
+        }
+        if (position >= shownCount) {
+            throw new IndexOutOfBoundsException("Position " + position + ", size " + shownCount);
+        }
+        return shown[position];
+    }
+
+    /**
+     * Find the row of a path inside the listed directory
+     * @return The position, or -1 if the path is not listed or is filtered out
+     */
+    public int indexOfPath(String path) {
+        return positionOf(listing.indexOfPath(path));
+    }
+
+    /**
+     * Append the next page of a listing loaded in pages
+     * @return How many of its entries are shown, all at the end
+     */
+    public int appendPage(DirectoryListing page) {
+        int start = listing.size();
+        listing.appendPage(page);
+        if (shown == null) {
+            return page.size();
+        }
+        int before = shownCount;
+        for (int i = start; i < listing.size(); i++) {
+            addShown(i);
+        }
+        return shownCount - before;
+    }
+
+    /**
+     * Insert an entry at its sorted position
+     * @return Its position, or -1 if it is filtered out or left to a page not loaded yet
+     */
+    public int insert(FileItem item) {
+        int index = listing.insert(item);
+        if (index < 0) {
+            return -1;
+        }
+        if (shown == null) {
+            return index;
+        }
+        int position = firstShownFrom(index);
+        for (int i = position; i < shownCount; i++) {
+            shown[i]++;
+        }
+        if (!filter.accepts(listing, index)) {
+            return -1;
+        }
+        ensureShownCapacity(shownCount + 1);
+        System.arraycopy(shown, position, shown, position + 1, shownCount - position);
+        shown[position] = index;
+        shownCount++;
+        return position;
+    }
+
+    /**
+     * Replace the attributes of a listed entry, which can move it in the order and change
+     * whether it passes the filter
+     * @return Its position afterwards, or -1 if it is not listed or is now filtered out
+     */
+    public int set(FileItem item) {
+        int index = listing.indexOfPath(item.getPath());
+        if (index < 0) {
+            return -1;
+        }
+        if (shown == null) {
+            return listing.set(index, item);
+        }
+        int position = firstShownFrom(index);
+        if (position < shownCount && shown[position] == index) {
+            removeShownAt(position);
+        }
+        int newIndex = listing.set(index, item);
+        if (newIndex != index) {
+            // Renumber as if the entry was removed and then inserted at its new index
+            for (int i = position; i < shownCount; i++) {
+                shown[i]--;
+            }
+            if (newIndex < 0) {
+                return -1;
+            }
+            for (int i = firstShownFrom(newIndex); i < shownCount; i++) {
+                shown[i]++;
+            }
+        }
+        if (!filter.accepts(listing, newIndex)) {
+            return -1;
+        }
+        int newPosition = firstShownFrom(newIndex);
+        ensureShownCapacity(shownCount + 1);
+        System.arraycopy(shown, newPosition, shown, newPosition + 1, shownCount - newPosition);
+        shown[newPosition] = newIndex;
+        shownCount++;
+        return newPosition;
+    }
+
+    /**
+     * Remove the entry of a path inside the listed directory
+     * @return The position it had, or -1 if it was not listed or was filtered out
+     */
+    public int remove(String path) {
+        int index = listing.indexOfPath(path);
+        if (index < 0) {
+            return -1;
+        }
+        listing.remove(index);
+        if (shown == null) {
+            return index;
+        }
+        int position = firstShownFrom(index);
+        boolean wasShown = position < shownCount && shown[position] == index;
+        if (wasShown) {
+            removeShownAt(position);
+        }
+        for (int i = position; i < shownCount; i++) {
+            shown[i]--;
+        }
+        return wasShown ? position : -1;
+    }
+
+    private void select() {
+        if (filter.acceptsAll()) {
+            shown = null;
+            shownCount = 0;
+            return;
+        }
+        shown = new int[Math.max(listing.size(), 16)];
+        shownCount = 0;
+        for (int i = 0; i < listing.size(); i++) {
+            if (filter.accepts(listing, i)) {
+                shown[shownCount++] = i;
+            }
+        }
+    }
+
+    private int positionOf(int index) {
+        if (index < 0 || shown == null) {
+            return index;
+        }
+        int position = Arrays.binarySearch(shown, 0, shownCount, index);
+        return position >= 0 ? position : -1;
+    }
+
+    /**
+     * @return The position of the first shown entry at or after an index
+     */
+    private int firstShownFrom(int index) {
+        int position = Arrays.binarySearch(shown, 0, shownCount, index);
+        return position >= 0 ? position : -position - 1;
+    }
+
+    private void addShown(int index) {
+        if (filter.accepts(listing, index)) {
+            ensureShownCapacity(shownCount + 1);
+            shown[shownCount++] = index;
+        }
+    }
+
+    private void removeShownAt(int position) {
+        System.arraycopy(shown, position + 1, shown, position, shownCount - position - 1);
+        shownCount--;
+    }
+
+    private void ensureShownCapacity(int capacity) {
+        if (capacity > shown.length) {
+            shown = Arrays.copyOf(shown, Math.max(capacity, shown.length + (shown.length >> 1)));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.covemanager.core;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Crawl consumer that totals file sizes for every directory in the crawled trees.
+ * Each file is added to its own directory only; totals are rolled up to ancestors
+ * once, deepest first, when the crawl completes.
+ */
+public class FolderSizeAggregator implements FileCrawler.Consumer {
+    private final Map<String, DirectoryTotal> directories = new HashMap<>();
+    private File lastParent;
+    private DirectoryTotal lastParentTotal;
+    private boolean complete = false;
+
+    private static final class DirectoryTotal {
+        final File directory;
+        final int depth;
+        long size;
+
+        DirectoryTotal(File directory, int depth) {
+            this.directory = directory;
+            this.depth = depth;
+        }
+    }
+
+    @Override
+    public void accept(CrawlEntry entry) {
+        if (entry.isDirectory()) {
+            if (!entry.isSymbolicLink()) {
+                File directory = entry.getFile();
+                directories.put(directory.getAbsolutePath(), new DirectoryTotal(directory, entry.getDepth()));
+            }
+            return;
+        }
+        if (entry.getParent() == null) {
+            return;
+        }
+        // Entries of one directory arrive together and share the parent instance
+        if (entry.getParent() != lastParent) {
+            lastParent = entry.getParent();
+            lastParentTotal = directories.get(lastParent.getAbsolutePath());
+        }
+        if (lastParentTotal != null) {
+            lastParentTotal.size += entry.getLength();
+        }
+    }
+
+    @Override
+    public void onComplete(boolean cancelled) {
+        lastParent = null;
+        lastParentTotal = null;
+        if (cancelled) {
+            directories.clear();
+            return;
+        }
+
+        List<DirectoryTotal> deepestFirst = new ArrayList<>(directories.values());
+        Collections.sort(deepestFirst, (a, b) -> Integer.compare(b.depth, a.depth));
+        for (DirectoryTotal total : deepestFirst) {
+            if (total.depth == 0) {
+                continue;
+            }
+            DirectoryTotal parent = directories.get(total.directory.getParent());
+            if (parent != null) {
+                parent.size += total.size;
+            }
+        }
+        complete = true;
+    }
+
+    /**
+     * Get the total size of a crawled directory
+     * @return Size in bytes, or -1 if the directory was not crawled or the crawl did not finish
+     */
+    public long getTotal(String path) {
+        DirectoryTotal total = complete ? directories.get(path) : null;
+        return total != null ? total.size : -1;
+    }
+
+    /**
+     * Copy totals of directories up to the given depth below the crawl roots into the cache
+     */
+    public void publishTo(FolderSizeCache cache, int maxDepth) {
+        if (!complete) {
+            return;
+        }
+        for (Map.Entry<String, DirectoryTotal> entry : directories.entrySet()) {
+            if (entry.getValue().depth <= maxDepth) {
+                cache.putSize(entry.getKey(), entry.getValue().size);
+            }
+        }
+    }
+}
@@ -1,23 +1,24 @@
-package com.covemanager;
+package com.covemanager.core;
 
-import android.util.LruCache;
 import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Singleton cache manager for folder sizes to improve performance by avoiding redundant calculations.
- * Uses LruCache to automatically manage memory and evict least recently used entries.
+ * Backed by an access-ordered LinkedHashMap that evicts the least recently used entries.
  */
 public class FolderSizeCache {
     private static final int CACHE_SIZE = 100; // Max number of folder paths to cache
     private static FolderSizeCache instance;
-    private final LruCache<String, Long> cache;
+    private final LinkedHashMap<String, Long> cache;
 
     private FolderSizeCache() {
-        cache = new LruCache<String, Long>(CACHE_SIZE) {
+        cache = new LinkedHashMap<String, Long>(CACHE_SIZE, 0.75f, true) {
             @Override
-            protected int sizeOf(String key, Long value) {
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
                 // Each entry counts as 1 toward cache size
-                return 1;
+                return size() > CACHE_SIZE;
             }
         };
     }
@@ -38,7 +39,7 @@ public class FolderSizeCache {
      * @param path Absolute path of the folder
      * @return Cached size in bytes, or null if not found
      */
-    public Long getSize(String path) {
+    public synchronized Long getSize(String path) {
         if (path == null || path.isEmpty()) {
             return null;
         }
@@ -50,7 +51,7 @@ public class FolderSizeCache {
      * @param path Absolute path of the folder
      * @param size Size in bytes
      */
-    public void putSize(String path, long size) {
+    public synchronized void putSize(String path, long size) {
         if (path != null && !path.isEmpty() && size >= 0) {
             cache.put(path, size);
         }
@@ -61,7 +62,7 @@ public class FolderSizeCache {
      * This is crucial for maintaining data freshness when folder contents change.
      * @param path Absolute path to invalidate
      */
-    public void invalidatePath(String path) {
+    public synchronized void invalidatePath(String path) {
         if (path == null || path.isEmpty()) {
             return;
         }
@@ -82,15 +83,15 @@ public class FolderSizeCache {
     /**
      * Clear all cached entries
      */
-    public void clearCache() {
-        cache.evictAll();
+    public synchronized void clearCache() {
+        cache.clear();
     }
 
     /**
      * Get current cache size for debugging
      * @return Number of entries in cache
      */
-    public int getCacheSize() {
+    public synchronized int getCacheSize() {
         return cache.size();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,40 @@
+package com.covemanager.core;
+
+import java.io.File;
+
+/**
+ * Recursive folder size calculation
+ */
+public class FolderSizeCalculator {
+    private FolderSizeCalculator() {
+    }
+
+    /**
+     * Calculate the total size of all files below a folder
+     * @return Size in bytes, 0 if the folder does not exist, or -1 if the thread was
+     *         interrupted before the whole folder was counted
+     */
+    public static long calculateFolderSize(File folder) {
+        if (!folder.exists() || !folder.isDirectory()) {
+            return 0;
+        }
+
+        long[] totalSize = new long[1];
+        boolean[] wasCancelled = new boolean[1];
+        FileCrawler.getInstance().crawl(folder, new FileCrawler.Consumer() {
+            @Override
+            public void accept(CrawlEntry entry) {
+                if (!entry.isDirectory()) {
+                    totalSize[0] += entry.getLength();
+                }
+            }
+
+            @Override
+            public void onComplete(boolean cancelled) {
+                wasCancelled[0] = cancelled;
+            }
+        });
+        // A partial total must never be cached as the folder's size
+        return wasCancelled[0] ? -1 : totalSize[0];
+    }
+}
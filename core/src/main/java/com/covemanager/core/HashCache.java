@@ -0,0 +1,161 @@
+package com.covemanager.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Content hashes of files, persisted between runs so unchanged files are not read again.
+ * An entry is only trusted while the file keeps the size and modification time it had
+ * when it was hashed.
+ */
+public class HashCache {
+    private static final int FORMAT_VERSION = 1;
+    static final int FULL_HASH_LENGTH = 20;
+
+    static final class Entry {
+        final long size;
+        final long lastModified;
+        long partialHash;
+        boolean hasPartialHash;
+        byte[] fullHash;
+        int lastRun;
+
+        Entry(long size, long lastModified) {
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private int run = 0;
+    private boolean dirty = false;
+
+    /**
+     * Load a cache saved with {@link #save}. A missing or unreadable file gives an empty cache.
+     */
+    public static HashCache load(File file) {
+        HashCache cache = new HashCache();
+        if (!file.exists()) {
+            return cache;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return cache;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String path = in.readUTF();
+                Entry entry = new Entry(in.readLong(), in.readLong());
+                entry.hasPartialHash = in.readBoolean();
+                entry.partialHash = in.readLong();
+                if (in.readBoolean()) {
+                    entry.fullHash = new byte[FULL_HASH_LENGTH];
+                    in.readFully(entry.fullHash);
+                }
+                cache.entries.put(path, entry);
+            }
+        } catch (IOException e) {
+            // A damaged cache only costs rehashing
+            cache.entries.clear();
+        }
+        return cache;
+    }
+
+    /**
+     * Write the cache if it changed since it was loaded or last saved
+     */
+    public synchronized void save(File file) throws IOException {
+        if (!dirty) {
+            return;
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+                Entry entry = mapEntry.getValue();
+                out.writeUTF(mapEntry.getKey());
+                out.writeLong(entry.size);
+                out.writeLong(entry.lastModified);
+                out.writeBoolean(entry.hasPartialHash);
+                out.writeLong(entry.partialHash);
+                out.writeBoolean(entry.fullHash != null);
+                if (entry.fullHash != null) {
+                    out.write(entry.fullHash);
+                }
+            }
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Cannot replace " + file);
+        }
+        dirty = false;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Start a run. Entries not used until {@link #endRun} are dropped then.
+     */
+    synchronized void beginRun() {
+        run++;
+    }
+
+    synchronized void endRun() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().lastRun != run) {
+                iterator.remove();
+                dirty = true;
+            }
+        }
+    }
+
+    /**
+     * Get the entry of an unchanged file, replacing a stale one with an empty entry
+     */
+    synchronized Entry get(String path, long size, long lastModified) {
+        Entry entry = entries.get(path);
+        if (entry == null || entry.size != size || entry.lastModified != lastModified) {
+            entry = new Entry(size, lastModified);
+            entries.put(path, entry);
+            dirty = true;
+        }
+        entry.lastRun = run;
+        return entry;
+    }
+
+    synchronized void putPartialHash(Entry entry, long hash) {
+        entry.partialHash = hash;
+        entry.hasPartialHash = true;
+        dirty = true;
+    }
+
+    synchronized void putFullHash(Entry entry, byte[] hash) {
+        entry.fullHash = hash;
+        dirty = true;
+    }
+
+    synchronized boolean hasPartialHash(Entry entry) {
+        return entry.hasPartialHash;
+    }
+
+    synchronized long getPartialHash(Entry entry) {
+        return entry.partialHash;
+    }
+
+    synchronized byte[] getFullHash(Entry entry) {
+        return entry.fullHash;
+    }
+}
@@ -0,0 +1,19 @@
+package com.covemanager.core;
+
+/**
+ * Kinds of files the cleaner offers to delete
+ */
+public enum JunkCategory {
+    /** Cache directories of apps under Android/data */
+    APP_CACHES,
+    /** Thumbnail caches kept by galleries and cameras */
+    THUMBNAILS,
+    /** Files with a temporary extension */
+    TEMP_FILES,
+    /** Log files */
+    LOG_FILES,
+    /** Directories with nothing in them */
+    EMPTY_FOLDERS,
+    /** Installer packages of apps that are already installed; candidates until checked */
+    OBSOLETE_APKS
+}
@@ -0,0 +1,91 @@
+package com.covemanager.core;
+
+import java.util.BitSet;
+
+/**
+ * Finds junk in a {@link FileNameIndex} without touching the disk.
+ *
+ * Entries are classified by name and position only. Once a directory is classified as
+ * a cache, nothing below it is reported on its own, so no byte is counted twice.
+ * APKs are only candidates: whether their app is installed is up to the caller.
+ */
+public class JunkClassifier {
+    // Depth of <root>/Android/data/<package>/cache
+    private static final int APP_CACHE_DEPTH = 4;
+    private static final int TOP_LEVEL_DEPTH = 1;
+
+    /**
+     * Receives each piece of junk found
+     */
+    public interface Callback {
+        /**
+         * @return false to stop the scan
+         */
+        boolean onJunk(String path, JunkCategory category);
+    }
+
+    private JunkClassifier() {
+    }
+
+    /**
+     * Classify every entry of the index
+     */
+    public static void scan(FileNameIndex index, Callback callback) {
+        // Directories already reported as a whole, together with everything below them
+        BitSet covered = new BitSet();
+        index.visitEntries(entry -> {
+            int parentId = entry.getParentId();
+            if (parentId < 0) {
+                return true;
+            }
+            if (covered.get(parentId)) {
+                covered.set(entry.getId());
+                return true;
+            }
+
+            JunkCategory category = classify(entry);
+            if (category == null) {
+                return true;
+            }
+            if (entry.isDirectory()) {
+                covered.set(entry.getId());
+            }
+            return callback.onJunk(entry.getPath(), category);
+        });
+    }
+
+    /**
+     * @return Category of the entry, or null if it is not junk
+     */
+    static JunkCategory classify(FileNameIndex.Entry entry) {
+        String name = entry.getLowerName();
+        if (entry.isDirectory()) {
+            if (name.equals(".thumbnails")) {
+                return JunkCategory.THUMBNAILS;
+            }
+            int depth = entry.getDepth();
+            if (depth == APP_CACHE_DEPTH && name.equals("cache") &&
+                    entry.getLowerNameAtDepth(2).equals("data") &&
+                    entry.getLowerNameAtDepth(TOP_LEVEL_DEPTH).equals("android")) {
+                return entry.getChildCount() > 0 ? JunkCategory.APP_CACHES : null;
+            }
+            // Apps expect their folders under Android to exist, even when empty
+            if (entry.getChildCount() == 0 && depth > TOP_LEVEL_DEPTH &&
+                    !entry.getLowerNameAtDepth(TOP_LEVEL_DEPTH).equals("android")) {
+                return JunkCategory.EMPTY_FOLDERS;
+            }
+            return null;
+        }
+
+        if (name.endsWith(".tmp") || name.endsWith(".temp")) {
+            return JunkCategory.TEMP_FILES;
+        }
+        if (name.endsWith(".log")) {
+            return JunkCategory.LOG_FILES;
+        }
+        if (name.endsWith(".apk")) {
+            return JunkCategory.OBSOLETE_APKS;
+        }
+        return null;
+    }
+}
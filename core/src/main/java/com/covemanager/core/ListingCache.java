@@ -0,0 +1,90 @@
+package com.covemanager.core;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Singleton cache of recently visited directory listings, so going back to a directory
+ * does not list and stat all of its entries again.
+ *
+ * A listing is reused only while its directory's modification time is the one read before
+ * it was listed. That time changes when entries are added, removed or renamed, but not when
+ * a file's content changes, so sizes shown from a cached listing can be behind until the
+ * directory is watched again. Listings are copied in and out, so callers own what they get.
+ */
+public class ListingCache {
+    private static final int MAX_LISTINGS = 16;
+    // Bounds memory as well, since one listing can hold 100k entries
+    private static final int MAX_ENTRIES = 200000;
+    // Some file systems store times this coarsely, so a change this soon after the last one
+    // may leave the directory time unchanged
+    private static final long TIME_GRANULARITY_MS = 2000;
+    private static ListingCache instance;
+
+    private final LinkedHashMap<String, DirectoryListing> cache = new LinkedHashMap<>(MAX_LISTINGS, 0.75f, true);
+    private int cachedEntries = 0;
+
+    private ListingCache() {
+    }
+
+    public static synchronized ListingCache getInstance() {
+        if (instance == null) {
+            instance = new ListingCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Get a copy of the cached listing of a directory if it is still current
+     * @return The listing, or null if none is cached or the directory changed since
+     */
+    public synchronized DirectoryListing get(File directory) {
+        String path = directory.getAbsolutePath();
+        DirectoryListing cached = cache.get(path);
+        if (cached == null) {
+            return null;
+        }
+        if (directory.lastModified() != cached.getDirectoryModified()) {
+            remove(path);
+            return null;
+        }
+        return cached.copy();
+    }
+
+    /**
+     * Store a copy of a complete listing, unless the directory changed too shortly before it
+     * was listed for its modification time to show later changes
+     */
+    public synchronized void put(DirectoryListing listing) {
+        if (!listing.isComplete()
+                || listing.getListedAt() - listing.getDirectoryModified() < TIME_GRANULARITY_MS
+                || listing.size() > MAX_ENTRIES) {
+            return;
+        }
+        String path = listing.getDirectory().getAbsolutePath();
+        remove(path);
+        cache.put(path, listing.copy());
+        cachedEntries += listing.size();
+
+        // Least recently used first
+        Iterator<Map.Entry<String, DirectoryListing>> iterator = cache.entrySet().iterator();
+        while ((cache.size() > MAX_LISTINGS || cachedEntries > MAX_ENTRIES) && iterator.hasNext()) {
+            cachedEntries -= iterator.next().getValue().size();
+            iterator.remove();
+        }
+    }
+
+    public synchronized void clear() {
+        cache.clear();
+        cachedEntries = 0;
+    }
+
+    private void remove(String path) {
+        DirectoryListing removed = cache.remove(path);
+        if (removed != null) {
+            cachedEntries -= removed.size();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.covemanager.core;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Which entries of a directory listing the file browser shows.
+ *
+ * Hidden entries can be left out, and files can be limited to some types and to a minimum
+ * size. Folders only go through the hidden check, so every folder stays reachable. Entries
+ * are checked against the columns of a {@link DirectoryListing}, so filtering reads no file
+ * attributes and builds no objects for the entries it leaves out.
+ */
+public final class ListingFilter {
+    /**
+     * Shows every entry
+     */
+    public static final ListingFilter NONE = new ListingFilter(false,
+            EnumSet.noneOf(FileCategory.class), Collections.<String>emptySet(), 0);
+
+    /**
+     * Hides entries whose name starts with a dot
+     */
+    public static final ListingFilter DEFAULT = NONE.withHideHidden(true);
+
+    private final boolean hideHidden;
+    private final Set<FileCategory> categories;
+    private final Set<String> extensions;
+    private final long minSize;
+    // Every accepted extension, or null if files of any type are shown
+    private final String[] typeExtensions;
+    // Extensions of every category but OTHER, to tell OTHER files apart; null if not shown
+    private final String[] knownExtensions;
+
+    /**
+     * @param categories Types of files to show, or none to show files of any type
+     * @param extensions Extensions of files to show besides those of the categories, without the dot
+     * @param minSize Smallest size in bytes of files to show
+     */
+    public ListingFilter(boolean hideHidden, Set<FileCategory> categories, Set<String> extensions, long minSize) {
+        this.hideHidden = hideHidden;
+        this.categories = categories.isEmpty()
+                ? Collections.<FileCategory>emptySet()
+                : Collections.unmodifiableSet(EnumSet.copyOf(categories));
+        Set<String> lowercase = new HashSet<>();
+        for (String extension : extensions) {
+            lowercase.add(extension.toLowerCase(Locale.ROOT));
+        }
+        this.extensions = Collections.unmodifiableSet(lowercase);
+        this.minSize = minSize;
+
+        if (this.categories.isEmpty() && this.extensions.isEmpty()) {
+            this.typeExtensions = null;
+            this.knownExtensions = null;
+            return;
+        }
+        Set<String> accepted = new HashSet<>(this.extensions);
+        for (FileCategory category : this.categories) {
+            accepted.addAll(category.getExtensions());
+        }
+        this.typeExtensions = accepted.toArray(new String[0]);
+        if (this.categories.contains(FileCategory.OTHER)) {
+            Set<String> known = new HashSet<>();
+            for (FileCategory category : FileCategory.values()) {
+                known.addAll(category.getExtensions());
+            }
+            this.knownExtensions = known.toArray(new String[0]);
+        } else {
+            this.knownExtensions = null;
+        }
+    }
+
+    public boolean isHideHidden() {
+        return hideHidden;
+    }
+
+    public Set<FileCategory> getCategories() {
+        return categories;
+    }
+
+    public Set<String> getExtensions() {
+        return extensions;
+    }
+
+    public long getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * Check whether every entry passes, so a listing can be shown without checking each one
+     */
+    public boolean acceptsAll() {
+        return !hideHidden && typeExtensions == null && minSize <= 0;
+    }
+
+    /**
+     * Check one entry of a listing
+     */
+    public boolean accepts(DirectoryListing listing, int index) {
+        if (hideHidden && listing.isHidden(index)) {
+            return false;
+        }
+        if (listing.isDirectory(index)) {
+            return true;
+        }
+        if (listing.getSize(index) < minSize) {
+            return false;
+        }
+        return typeExtensions == null
+                || listing.hasExtension(index, typeExtensions)
+                || (knownExtensions != null && !listing.hasExtension(index, knownExtensions));
+    }
+
+    public ListingFilter withHideHidden(boolean hideHidden) {
+        return new ListingFilter(hideHidden, categories, extensions, minSize);
+    }
+
+    public ListingFilter withCategories(Set<FileCategory> categories) {
+        return new ListingFilter(hideHidden, categories, extensions, minSize);
+    }
+
+    public ListingFilter withExtensions(Set<String> extensions) {
+        return new ListingFilter(hideHidden, categories, extensions, minSize);
+    }
+
+    public ListingFilter withMinSize(long minSize) {
+        return new ListingFilter(hideHidden, categories, extensions, minSize);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        ListingFilter other = (ListingFilter) obj;
+        return hideHidden == other.hideHidden && minSize == other.minSize
+                && categories.equals(other.categories) && extensions.equals(other.extensions);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hideHidden ? 1 : 0;
+        result = 31 * result + categories.hashCode();
+        result = 31 * result + extensions.hashCode();
+        result = 31 * result + (int) (minSize ^ (minSize >>> 32));
+        return result;
+    }
+}
@@ -0,0 +1,78 @@
+package com.covemanager.core;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Locale;
+
+/**
+ * Builds collation keys for file names, so a sort compares each name's key bytes instead of
+ * running the locale's collation rules on every comparison.
+ *
+ * Names compare in natural order: a run of digits sorts by its numeric value, so "file9"
+ * comes before "file10". Not thread-safe, like the {@link Collator} it wraps.
+ */
+final class NameCollator {
+    // Run lengths are written as two digits
+    private static final int MAX_RUN_LENGTH = 99;
+
+    private final Collator collator;
+
+    NameCollator(Locale locale) {
+        this.collator = Collator.getInstance(locale);
+    }
+
+    CollationKey nameKey(String name) {
+        return collator.getCollationKey(naturalForm(name));
+    }
+
+    /**
+     * Key of the extension, or of an empty string for names without one
+     */
+    CollationKey typeKey(String name) {
+        int dot = name.lastIndexOf('.');
+        return collator.getCollationKey(dot > 0 ? name.substring(dot + 1) : "");
+    }
+
+    /**
+     * Prefix every digit run with its length, so the collator's digit by digit comparison
+     * orders runs by value: "a9" becomes "a019" and "a10" becomes "a0210"
+     */
+    static String naturalForm(String name) {
+        StringBuilder natural = null;
+        int i = 0;
+        int length = name.length();
+        while (i < length) {
+            if (!isDigit(name.charAt(i))) {
+                if (natural != null) {
+                    natural.append(name.charAt(i));
+                }
+                i++;
+                continue;
+            }
+            if (natural == null) {
+                natural = new StringBuilder(length + 8);
+                natural.append(name, 0, i);
+            }
+            int start = i;
+            while (i < length && isDigit(name.charAt(i))) {
+                i++;
+            }
+            // Leading zeros do not change the value
+            int significant = start;
+            while (significant < i - 1 && name.charAt(significant) == '0') {
+                significant++;
+            }
+            int runLength = Math.min(i - significant, MAX_RUN_LENGTH);
+            if (runLength < 10) {
+                natural.append('0');
+            }
+            natural.append(runLength);
+            natural.append(name, significant, i);
+        }
+        return natural != null ? natural.toString() : name;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
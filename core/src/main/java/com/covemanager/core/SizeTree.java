@@ -0,0 +1,352 @@
+package com.covemanager.core;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Size of every file and directory in one or more trees, for disk usage views.
+ *
+ * Nodes live in parallel arrays under a virtual {@link #ROOT} whose children are the
+ * crawled roots. A parent is always added before its children, so once building is done
+ * the sizes roll up in a single reverse pass, and the children of each directory are
+ * stored largest first. Drilling into any directory afterwards only reads arrays.
+ *
+ * Not thread-safe: build on one thread, then hand the finished tree to readers.
+ */
+public class SizeTree {
+    public static final int ROOT = 0;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int[] parents = new int[INITIAL_CAPACITY];
+    private long[] sizes = new long[INITIAL_CAPACITY];
+    private final BitSet directories = new BitSet();
+    private int count = 0;
+
+    // Children of node n are children[childStart[n] .. childStart[n] + childCount[n])
+    private int[] childStart;
+    private int[] childCount;
+    private int[] children;
+    private boolean finished = false;
+
+    public SizeTree() {
+        addNode(-1, "", 0, true);
+    }
+
+    /**
+     * Add a crawl root below the virtual root
+     * @return Id of the new node
+     */
+    public int addRoot(String path) {
+        return addNode(ROOT, path, 0, true);
+    }
+
+    /**
+     * Add a file or directory below an existing node
+     * @param size File size in bytes, 0 for directories
+     * @return Id of the new node
+     */
+    public int addChild(int parent, String name, long size, boolean directory) {
+        if (finished) {
+            throw new IllegalStateException("Tree is already finished");
+        }
+        if (parent < 0 || parent >= count || !directories.get(parent)) {
+            throw new IllegalArgumentException("Not a directory node: " + parent);
+        }
+        return addNode(parent, name, size, directory);
+    }
+
+    /**
+     * Roll sizes up to the root and order children largest first. No nodes can be added afterwards.
+     */
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        for (int node = count - 1; node > ROOT; node--) {
+            sizes[parents[node]] += sizes[node];
+        }
+
+        childStart = new int[count];
+        childCount = new int[count];
+        for (int node = 1; node < count; node++) {
+            childCount[parents[node]]++;
+        }
+        int offset = 0;
+        for (int node = 0; node < count; node++) {
+            childStart[node] = offset;
+            offset += childCount[node];
+        }
+        children = new int[Math.max(0, count - 1)];
+        int[] filled = new int[count];
+        for (int node = 1; node < count; node++) {
+            int parent = parents[node];
+            children[childStart[parent] + filled[parent]++] = node;
+        }
+        for (int node = 0; node < count; node++) {
+            if (childCount[node] > 1) {
+                sortLargestFirst(childStart[node], childStart[node] + childCount[node] - 1);
+            }
+        }
+
+        names = Arrays.copyOf(names, count);
+        parents = Arrays.copyOf(parents, count);
+        sizes = Arrays.copyOf(sizes, count);
+        finished = true;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public int getNodeCount() {
+        return count;
+    }
+
+    /**
+     * Get the size of a node, including everything below it once the tree is finished
+     */
+    public long getSize(int node) {
+        return sizes[node];
+    }
+
+    /**
+     * Get the name of a node. Crawl roots are named by their full path.
+     */
+    public String getName(int node) {
+        return names[node];
+    }
+
+    public boolean isDirectory(int node) {
+        return directories.get(node);
+    }
+
+    /**
+     * @return Parent id, or -1 for the virtual root
+     */
+    public int getParent(int node) {
+        return parents[node];
+    }
+
+    public int getChildCount(int node) {
+        return childCount[node];
+    }
+
+    /**
+     * Get a child of a finished tree, largest first
+     */
+    public int getChild(int node, int index) {
+        return children[childStart[node] + index];
+    }
+
+    /**
+     * Get the absolute path of a node
+     */
+    public String getPath(int node) {
+        if (node == ROOT) {
+            return "";
+        }
+        StringBuilder path = new StringBuilder(names[node]);
+        for (int parent = parents[node]; parent != ROOT; parent = parents[parent]) {
+            path.insert(0, File.separatorChar).insert(0, names[parent]);
+        }
+        return path.toString();
+    }
+
+    /**
+     * Find the node of an absolute path in a finished tree
+     * @return Node id, or -1 if the path is not in the tree
+     */
+    public int findNode(String path) {
+        for (int i = 0; i < childCount[ROOT]; i++) {
+            int root = getChild(ROOT, i);
+            String rootPath = names[root];
+            if (path.equals(rootPath)) {
+                return root;
+            }
+            if (!path.startsWith(rootPath + File.separator)) {
+                continue;
+            }
+
+            int node = root;
+            for (String name : path.substring(rootPath.length() + 1).split(File.separator)) {
+                node = findChild(node, name);
+                if (node < 0) {
+                    return -1;
+                }
+            }
+            return node;
+        }
+        return -1;
+    }
+
+    /**
+     * Detach a node from a finished tree after it was deleted, shrinking its ancestors
+     */
+    public void remove(int node) {
+        if (node <= ROOT || parents[node] < 0) {
+            return;
+        }
+        int parent = parents[node];
+        int start = childStart[parent];
+        int end = start + childCount[parent];
+        for (int i = start; i < end; i++) {
+            if (children[i] == node) {
+                System.arraycopy(children, i + 1, children, i, end - i - 1);
+                childCount[parent]--;
+                break;
+            }
+        }
+        parents[node] = -1;
+
+        // Ancestors only shrink, so each one at most moves towards the end of its siblings
+        long removedSize = sizes[node];
+        for (int ancestor = parent; ancestor >= 0; ancestor = parents[ancestor]) {
+            sizes[ancestor] -= removedSize;
+            if (parents[ancestor] >= 0) {
+                restoreOrder(parents[ancestor], ancestor);
+            }
+        }
+    }
+
+    /**
+     * Create a crawl consumer that adds every crawled entry to this tree and finishes it
+     * when the crawl completes. Links to directories are recorded as empty files.
+     */
+    public FileCrawler.Consumer newScanConsumer() {
+        return new FileCrawler.Consumer() {
+            private final Map<String, Integer> directoryIds = new HashMap<>();
+            private File lastParent;
+            private int lastParentId = -1;
+
+            @Override
+            public void accept(CrawlEntry entry) {
+                boolean directory = entry.isDirectory() && !entry.isSymbolicLink();
+                File parent = entry.getParent();
+                int id;
+                if (parent == null) {
+                    if (!directory) {
+                        return;
+                    }
+                    id = addRoot(entry.getFile().getAbsolutePath());
+                } else {
+                    // Entries of one directory arrive together and share the parent instance
+                    if (parent != lastParent) {
+                        lastParent = parent;
+                        Integer parentId = directoryIds.get(parent.getAbsolutePath());
+                        lastParentId = parentId != null ? parentId : -1;
+                    }
+                    if (lastParentId < 0) {
+                        return;
+                    }
+                    id = addChild(lastParentId, entry.getFile().getName(), entry.getLength(), directory);
+                }
+                if (directory) {
+                    directoryIds.put(entry.getFile().getAbsolutePath(), id);
+                }
+            }
+
+            @Override
+            public void onComplete(boolean cancelled) {
+                directoryIds.clear();
+                lastParent = null;
+                if (!cancelled) {
+                    finish();
+                }
+            }
+        };
+    }
+
+    private int addNode(int parent, String name, long size, boolean directory) {
+        if (count == names.length) {
+            int newCapacity = count * 2;
+            names = Arrays.copyOf(names, newCapacity);
+            parents = Arrays.copyOf(parents, newCapacity);
+            sizes = Arrays.copyOf(sizes, newCapacity);
+        }
+        int id = count++;
+        names[id] = name;
+        parents[id] = parent;
+        sizes[id] = size;
+        if (directory) {
+            directories.set(id);
+        }
+        return id;
+    }
+
+    private int findChild(int node, String name) {
+        int start = childStart[node];
+        int end = start + childCount[node];
+        for (int i = start; i < end; i++) {
+            if (names[children[i]].equals(name)) {
+                return children[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Move a child that just shrank past any smaller siblings
+     */
+    private void restoreOrder(int parent, int child) {
+        int start = childStart[parent];
+        int end = start + childCount[parent];
+        int i = start;
+        while (i < end && children[i] != child) {
+            i++;
+        }
+        while (i + 1 < end && sizes[children[i + 1]] > sizes[child]) {
+            children[i] = children[i + 1];
+            i++;
+        }
+        if (i < end) {
+            children[i] = child;
+        }
+    }
+
+    /**
+     * Sort children[low..high] by size, largest first, without boxing
+     */
+    private void sortLargestFirst(int low, int high) {
+        while (high - low >= INSERTION_SORT_THRESHOLD) {
+            long pivot = sizes[children[(low + high) >>> 1]];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (sizes[children[i]] > pivot) {
+                    i++;
+                }
+                while (sizes[children[j]] < pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = children[i];
+                    children[i++] = children[j];
+                    children[j--] = swap;
+                }
+            }
+            // Recurse into the smaller half to bound the stack depth
+            if (j - low < high - i) {
+                sortLargestFirst(low, j);
+                low = i;
+            } else {
+                sortLargestFirst(i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            int child = children[i];
+            long size = sizes[child];
+            int j = i - 1;
+            while (j >= low && sizes[children[j]] < size) {
+                children[j + 1] = children[j];
+                j--;
+            }
+            children[j + 1] = child;
+        }
+    }
+}
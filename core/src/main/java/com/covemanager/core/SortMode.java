@@ -0,0 +1,65 @@
+package com.covemanager.core;
+
+/**
+ * How the file browser orders a directory listing
+ */
+public final class SortMode {
+    public enum Key {
+        NAME, SIZE, DATE, TYPE
+    }
+
+    /**
+     * Folders first, then by name with numbers in numeric order
+     */
+    public static final SortMode DEFAULT = new SortMode(Key.NAME, true, true);
+
+    private final Key key;
+    private final boolean ascending;
+    private final boolean foldersFirst;
+
+    /**
+     * @param foldersFirst Group folders above files, each group sorted on its own
+     */
+    public SortMode(Key key, boolean ascending, boolean foldersFirst) {
+        this.key = key;
+        this.ascending = ascending;
+        this.foldersFirst = foldersFirst;
+    }
+
+    public Key getKey() {
+        return key;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public boolean isFoldersFirst() {
+        return foldersFirst;
+    }
+
+    public SortMode withKey(Key key) {
+        return new SortMode(key, ascending, foldersFirst);
+    }
+
+    public SortMode withAscending(boolean ascending) {
+        return new SortMode(key, ascending, foldersFirst);
+    }
+
+    public SortMode withFoldersFirst(boolean foldersFirst) {
+        return new SortMode(key, ascending, foldersFirst);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        SortMode other = (SortMode) obj;
+        return key == other.key && ascending == other.ascending && foldersFirst == other.foldersFirst;
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode() * 4 + (ascending ? 2 : 0) + (foldersFirst ? 1 : 0);
+    }
+}
@@ -0,0 +1,155 @@
+package com.covemanager.core;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps the best few files of a stream by a numeric key, in memory bounded by the
+ * capacity however many files are offered.
+ * Files are held in a binary heap of parallel arrays whose root is the file that would be
+ * dropped next, so rejecting a file costs a single comparison and accepting one costs
+ * O(log capacity).
+ */
+public class TopFiles {
+    private final int capacity;
+    private final boolean keepLargest;
+    private final long[] keys;
+    private final long[] sizes;
+    private final long[] lastModified;
+    private final String[] paths;
+    private int count = 0;
+
+    /**
+     * @param keepLargest true to keep the files with the largest keys, false for the smallest
+     */
+    public TopFiles(int capacity, boolean keepLargest) {
+        this.capacity = capacity;
+        this.keepLargest = keepLargest;
+        keys = new long[capacity];
+        sizes = new long[capacity];
+        lastModified = new long[capacity];
+        paths = new String[capacity];
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Check whether a file with this key would be kept, so callers can skip building
+     * its path otherwise
+     */
+    public boolean wouldAccept(long key) {
+        return capacity > 0 && (count < capacity || isBetter(key, keys[0]));
+    }
+
+    /**
+     * Offer a file, dropping the worst kept file if it ranks higher
+     */
+    public void offer(String path, long key, long size, long modified) {
+        if (!wouldAccept(key)) {
+            return;
+        }
+        if (count < capacity) {
+            set(count, path, key, size, modified);
+            siftUp(count++);
+        } else {
+            set(0, path, key, size, modified);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Forget a file, or every file below a directory, for example after deleting it
+     * @return Number of files forgotten
+     */
+    public int remove(String path) {
+        String prefix = path + File.separator;
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (!paths[i].equals(path) && !paths[i].startsWith(prefix)) {
+                set(kept++, paths[i], keys[i], sizes[i], lastModified[i]);
+            }
+        }
+        int removed = count - kept;
+        if (removed > 0) {
+            Arrays.fill(paths, kept, count, null);
+            count = kept;
+            for (int i = count / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Get the kept files, best first
+     */
+    public List<FileReport.ReportedFile> toList() {
+        List<Integer> order = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            order.add(i);
+        }
+        Collections.sort(order, (a, b) -> keepLargest
+                ? Long.compare(keys[b], keys[a])
+                : Long.compare(keys[a], keys[b]));
+        List<FileReport.ReportedFile> result = new ArrayList<>(count);
+        for (int i : order) {
+            result.add(new FileReport.ReportedFile(paths[i], sizes[i], lastModified[i]));
+        }
+        return result;
+    }
+
+    private boolean isBetter(long key, long other) {
+        return keepLargest ? key > other : key < other;
+    }
+
+    private void set(int i, String path, long key, long size, long modified) {
+        paths[i] = path;
+        keys[i] = key;
+        sizes[i] = size;
+        lastModified[i] = modified;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!isBetter(keys[parent], keys[i])) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int worst = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < count && isBetter(keys[worst], keys[left])) {
+                worst = left;
+            }
+            if (right < count && isBetter(keys[worst], keys[right])) {
+                worst = right;
+            }
+            if (worst == i) {
+                return;
+            }
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        String path = paths[a];
+        long key = keys[a];
+        long size = sizes[a];
+        long modified = lastModified[a];
+        set(a, paths[b], keys[b], sizes[b], lastModified[b]);
+        set(b, path, key, size, modified);
+    }
+}
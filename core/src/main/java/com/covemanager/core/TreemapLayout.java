@@ -0,0 +1,186 @@
+package com.covemanager.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Squarified treemap layout of one directory level of a {@link SizeTree}.
+ *
+ * Children are laid out largest first until they would get smaller than the minimum
+ * cell area; everything after that is merged into a single aggregate cell. Because
+ * children are already sorted, the cost depends on the number of visible cells, not on
+ * how many entries the directory holds.
+ */
+public final class TreemapLayout {
+    // Hard cap so a directory of equally sized files cannot produce an unreadable grid
+    private static final int MAX_CELLS = 400;
+
+    /**
+     * A rectangle of the layout
+     */
+    public static final class Cell {
+        private final int node;
+        private final int aggregatedCount;
+        private final long size;
+        private final float left;
+        private final float top;
+        private final float width;
+        private final float height;
+
+        Cell(int node, int aggregatedCount, long size, float left, float top, float width, float height) {
+            this.node = node;
+            this.aggregatedCount = aggregatedCount;
+            this.size = size;
+            this.left = left;
+            this.top = top;
+            this.width = width;
+            this.height = height;
+        }
+
+        /**
+         * @return Node id, or -1 for the cell aggregating small entries
+         */
+        public int getNode() {
+            return node;
+        }
+
+        public boolean isAggregate() {
+            return node < 0;
+        }
+
+        /**
+         * Get the number of entries merged into an aggregate cell
+         */
+        public int getAggregatedCount() {
+            return aggregatedCount;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public float getLeft() {
+            return left;
+        }
+
+        public float getTop() {
+            return top;
+        }
+
+        public float getWidth() {
+            return width;
+        }
+
+        public float getHeight() {
+            return height;
+        }
+
+        public boolean contains(float x, float y) {
+            return x >= left && x < left + width && y >= top && y < top + height;
+        }
+    }
+
+    private TreemapLayout() {
+    }
+
+    /**
+     * Lay out the children of a node in a finished tree
+     * @param minCellArea Children below this area are merged into the aggregate cell
+     */
+    public static List<Cell> layout(SizeTree tree, int node, float width, float height, float minCellArea) {
+        List<Cell> cells = new ArrayList<>();
+        long total = tree.getSize(node);
+        int childCount = tree.getChildCount(node);
+        if (total <= 0 || childCount == 0 || width <= 0 || height <= 0) {
+            return cells;
+        }
+
+        double scale = (double) width * height / total;
+        List<Integer> nodes = new ArrayList<>();
+        List<Long> itemSizes = new ArrayList<>();
+        long visibleSize = 0;
+        int visibleCount = 0;
+        while (visibleCount < childCount && visibleCount < MAX_CELLS) {
+            int child = tree.getChild(node, visibleCount);
+            long size = tree.getSize(child);
+            if (size * scale < minCellArea) {
+                break;
+            }
+            nodes.add(child);
+            itemSizes.add(size);
+            visibleSize += size;
+            visibleCount++;
+        }
+        int aggregatedCount = childCount - visibleCount;
+        if (aggregatedCount > 0 && total > visibleSize) {
+            nodes.add(-1);
+            itemSizes.add(total - visibleSize);
+        }
+
+        squarify(nodes, itemSizes, scale, aggregatedCount, width, height, cells);
+        return cells;
+    }
+
+    /**
+     * Fill rows along the shorter side, adding items to a row for as long as that makes
+     * its worst aspect ratio better
+     */
+    private static void squarify(List<Integer> nodes, List<Long> itemSizes, double scale, int aggregatedCount,
+                                 float width, float height, List<Cell> cells) {
+        double x = 0;
+        double y = 0;
+        double w = width;
+        double h = height;
+        int start = 0;
+        int n = nodes.size();
+        while (start < n && w > 0 && h > 0) {
+            double side = Math.min(w, h);
+            double rowArea = itemSizes.get(start) * scale;
+            double rowMax = rowArea;
+            double rowMin = rowArea;
+            int end = start + 1;
+            while (end < n) {
+                double area = itemSizes.get(end) * scale;
+                double worstBefore = worstRatio(rowArea, rowMin, rowMax, side);
+                double worstAfter = worstRatio(rowArea + area, Math.min(rowMin, area), Math.max(rowMax, area), side);
+                if (worstAfter > worstBefore) {
+                    break;
+                }
+                rowArea += area;
+                rowMin = Math.min(rowMin, area);
+                rowMax = Math.max(rowMax, area);
+                end++;
+            }
+
+            double thickness = rowArea / side;
+            double offset = 0;
+            for (int i = start; i < end; i++) {
+                double length = itemSizes.get(i) * scale / thickness;
+                int node = nodes.get(i);
+                int merged = node < 0 ? aggregatedCount : 0;
+                if (w >= h) {
+                    cells.add(new Cell(node, merged, itemSizes.get(i),
+                            (float) x, (float) (y + offset), (float) thickness, (float) length));
+                } else {
+                    cells.add(new Cell(node, merged, itemSizes.get(i),
+                            (float) (x + offset), (float) y, (float) length, (float) thickness));
+                }
+                offset += length;
+            }
+            if (w >= h) {
+                x += thickness;
+                w -= thickness;
+            } else {
+                y += thickness;
+                h -= thickness;
+            }
+            start = end;
+        }
+    }
+
+    private static double worstRatio(double rowArea, double minArea, double maxArea, double side) {
+        double sideSquared = side * side;
+        double rowSquared = rowArea * rowArea;
+        return Math.max(sideSquared * maxArea / rowSquared, rowSquared / (sideSquared * minArea));
+    }
+}
@@ -0,0 +1,30 @@
+package com.covemanager.macrobenchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import kotlin.Unit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Generates the app's baseline profile from the startup and file browsing journeys.
+ * Run with ./gradlew :app:generateBaselineProfile; the result is written to app/src/main.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+    @Rule
+    public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        baselineProfileRule.collect(CoveJourneys.PACKAGE_NAME, scope -> {
+            CoveJourneys.prepareDevice(scope);
+            CoveJourneys.startAndWaitForHome(scope);
+            CoveJourneys.openLargeDirectory(scope);
+            CoveJourneys.scrollFileList(scope);
+            CoveJourneys.selectAll(scope);
+            return Unit.INSTANCE;
+        });
+    }
+}
@@ -0,0 +1,124 @@
+package com.covemanager.macrobenchmark;
+
+import android.os.Environment;
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * User journeys shared by the baseline profile generator and the benchmarks
+ */
+public final class CoveJourneys {
+    public static final String PACKAGE_NAME = "com.covemanager";
+    public static final int LARGE_DIRECTORY_ENTRIES = 10000;
+    // Leading digit sorts the directory above the regular storage folders
+    public static final String LARGE_DIRECTORY_NAME = "0CoveBenchmark";
+
+    private static final long UI_TIMEOUT_MS = 10000;
+    private static final int SCROLL_FLINGS = 8;
+
+    private CoveJourneys() {
+    }
+
+    /**
+     * Grant all-files access to the app and to this test process, and create the
+     * 10k-entry directory on shared storage if it is not already there
+     */
+    public static void prepareDevice(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        String testPackage = InstrumentationRegistry.getInstrumentation().getContext().getPackageName();
+        try {
+            device.executeShellCommand("appops set " + PACKAGE_NAME + " MANAGE_EXTERNAL_STORAGE allow");
+            device.executeShellCommand("appops set " + testPackage + " MANAGE_EXTERNAL_STORAGE allow");
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to grant storage access", e);
+        }
+        createLargeDirectory();
+    }
+
+    private static void createLargeDirectory() {
+        File directory = new File(Environment.getExternalStorageDirectory(), LARGE_DIRECTORY_NAME);
+        String[] existing = directory.list();
+        if (existing != null && existing.length >= LARGE_DIRECTORY_ENTRIES) {
+            return;
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalStateException("Cannot create " + directory);
+        }
+        try {
+            for (int i = 0; i < LARGE_DIRECTORY_ENTRIES; i++) {
+                // Mix of folders and files so both bind paths are exercised
+                File entry = new File(directory, String.format("entry_%05d%s", i, i % 10 == 0 ? "" : ".txt"));
+                if (i % 10 == 0) {
+                    entry.mkdir();
+                } else {
+                    entry.createNewFile();
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to populate " + directory, e);
+        }
+    }
+
+    /**
+     * Cold start through SplashActivity until MainActivity shows its categories
+     */
+    public static void startAndWaitForHome(MacrobenchmarkScope scope) {
+        scope.pressHome();
+        scope.startActivityAndWait();
+        scope.getDevice().wait(Until.hasObject(By.res(PACKAGE_NAME, "rv_categories")), UI_TIMEOUT_MS);
+    }
+
+    /**
+     * From MainActivity, open internal storage and then the 10k-entry directory
+     */
+    public static void openLargeDirectory(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        device.findObject(By.res(PACKAGE_NAME, "iv_internal_icon")).click();
+        device.wait(Until.hasObject(By.text(LARGE_DIRECTORY_NAME)), UI_TIMEOUT_MS);
+
+        device.findObject(By.text(LARGE_DIRECTORY_NAME)).click();
+        device.wait(Until.hasObject(By.text("entry_00000")), UI_TIMEOUT_MS);
+    }
+
+    /**
+     * Fling through the file list and back up again
+     */
+    public static void scrollFileList(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        UiObject2 list = device.findObject(By.res(PACKAGE_NAME, "rv_files"));
+        // Keep gestures away from the system navigation area
+        list.setGestureMargin(device.getDisplayWidth() / 5);
+        for (int i = 0; i < SCROLL_FLINGS; i++) {
+            list.fling(Direction.DOWN);
+            device.waitForIdle();
+        }
+        for (int i = 0; i < SCROLL_FLINGS; i++) {
+            list.fling(Direction.UP);
+            device.waitForIdle();
+        }
+    }
+
+    /**
+     * Enter selection mode with a long press and select every entry
+     */
+    public static void selectAll(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        device.findObject(By.text("entry_00001.txt")).longClick();
+        device.wait(Until.hasObject(By.res(PACKAGE_NAME, "layout_action_bar")), UI_TIMEOUT_MS);
+
+        UiObject2 selectAll = device.findObject(By.text("Select all"));
+        if (selectAll == null) {
+            selectAll = device.findObject(By.desc("Select all"));
+        }
+        selectAll.click();
+        device.wait(Until.hasObject(By.textContains("selected")), UI_TIMEOUT_MS);
+        device.pressBack();
+    }
+}
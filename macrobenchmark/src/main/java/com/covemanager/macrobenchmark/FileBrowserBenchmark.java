@@ -0,0 +1,55 @@
+package com.covemanager.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.Arrays;
+import kotlin.Unit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Frame timing while opening a 10k-entry directory, scrolling it and selecting all entries
+ */
+@RunWith(AndroidJUnit4.class)
+public class FileBrowserBenchmark {
+    private static final int ITERATIONS = 5;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void browseLargeDirectoryNoCompilation() {
+        browseLargeDirectory(new CompilationMode.None());
+    }
+
+    @Test
+    public void browseLargeDirectoryBaselineProfile() {
+        browseLargeDirectory(new CompilationMode.Partial(BaselineProfileMode.Require));
+    }
+
+    private void browseLargeDirectory(CompilationMode compilationMode) {
+        benchmarkRule.measureRepeated(
+                CoveJourneys.PACKAGE_NAME,
+                Arrays.asList(new FrameTimingMetric(), new TraceSectionMetric("FileBrowser.loadFiles")),
+                compilationMode,
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    CoveJourneys.prepareDevice(scope);
+                    CoveJourneys.startAndWaitForHome(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    CoveJourneys.openLargeDirectory(scope);
+                    CoveJourneys.scrollFileList(scope);
+                    CoveJourneys.selectAll(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}